@@ -0,0 +1,242 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.AssociateDao;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.SuggestionDto;
+import com.ita.if103java.ims.entity.Associate;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SuggestionType;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TextUtils.fold;
+import static com.ita.if103java.ims.util.TransactionUtils.afterCompletion;
+import static com.ita.if103java.ims.util.TransactionUtils.afterRollback;
+
+/**
+ * Per-account names of active items, warehouses and associates in sorted maps keyed by the case- and
+ * accent-folded name, so suggestions for a prefix are a range lookup. Every word of a name is indexed too;
+ * matches at the start of the name rank before matches at a later word, and shorter names come first.
+ * An account is loaded with three queries on the first access and is then kept current by
+ * {@link #put(Long, SuggestionType, Long, String)}, {@link #rename(Long, SuggestionType, Long, String)} and
+ * {@link #remove(Long, SuggestionType, Long)}. A change to an account that is not loaded evicts it again when
+ * its transaction completes, as a load running meanwhile may have read the names before the change was
+ * committed.
+ */
+@Component
+public class AutocompleteIndex {
+    private static final Comparator<Match> RANK = Comparator.comparing((Match match) -> !match.nameStart)
+        .thenComparing(match -> match.key)
+        .thenComparing(match -> match.type);
+
+    private ItemDao itemDao;
+    private WarehouseDao warehouseDao;
+    private AssociateDao associateDao;
+    private Map<Long, Map<SuggestionType, Names>> accounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AutocompleteIndex(ItemDao itemDao, WarehouseDao warehouseDao, AssociateDao associateDao) {
+        this.itemDao = itemDao;
+        this.warehouseDao = warehouseDao;
+        this.associateDao = associateDao;
+    }
+
+    /**
+     * Returns at most {@code limit} names starting with the prefix, or having a word that does. A null type
+     * searches all of them.
+     */
+    public List<SuggestionDto> suggest(Long accountId, SuggestionType type, String prefix, int limit) {
+        String folded = fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<SuggestionType, Names> names = getNames(accountId);
+        List<Match> matches = new ArrayList<>();
+        for (SuggestionType suggestionType : type == null ? SuggestionType.values() : new SuggestionType[]{type}) {
+            names.get(suggestionType).collect(folded, limit, matches);
+        }
+        return matches.stream()
+            .sorted(RANK)
+            .limit(limit)
+            .map(match -> new SuggestionDto(match.id, match.name, match.type))
+            .collect(Collectors.toList());
+    }
+
+    public void put(Long accountId, SuggestionType type, Long id, String name) {
+        Map<SuggestionType, Names> names = accounts.get(accountId);
+        if (names != null) {
+            names.get(type).put(id, name);
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    /**
+     * Changes the name of an indexed entry; entries not in the index, such as inactive ones, are left out.
+     */
+    public void rename(Long accountId, SuggestionType type, Long id, String name) {
+        Map<SuggestionType, Names> names = accounts.get(accountId);
+        if (names != null) {
+            names.get(type).rename(id, name);
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    public void remove(Long accountId, SuggestionType type, Long id) {
+        Map<SuggestionType, Names> names = accounts.get(accountId);
+        if (names != null) {
+            names.get(type).remove(id);
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    public void evict(Long accountId) {
+        accounts.remove(accountId);
+    }
+
+    public void clear() {
+        accounts.clear();
+    }
+
+    private Map<SuggestionType, Names> getNames(Long accountId) {
+        return accounts.computeIfAbsent(accountId, this::load);
+    }
+
+    private Map<SuggestionType, Names> load(Long accountId) {
+        Map<SuggestionType, Names> names = new EnumMap<>(SuggestionType.class);
+        for (SuggestionType type : SuggestionType.values()) {
+            names.put(type, new Names(type));
+        }
+        for (Item item : itemDao.findItemByAccountId(accountId)) {
+            if (item.isActive()) {
+                names.get(SuggestionType.ITEM).put(item.getId(), item.getName());
+            }
+        }
+        for (Warehouse warehouse : warehouseDao.findAllByAccountId(accountId)) {
+            if (warehouse.isActive()) {
+                names.get(SuggestionType.WAREHOUSE).put(warehouse.getId(), warehouse.getName());
+            }
+        }
+        for (Associate associate : associateDao.findByAccountId(accountId)) {
+            if (associate.isActive()) {
+                names.get(SuggestionType.ASSOCIATE).put(associate.getId(), associate.getName());
+            }
+        }
+        return names;
+    }
+
+    private static class Names {
+        private final SuggestionType type;
+        private final Map<Long, String> byId = new ConcurrentHashMap<>();
+        // folded name + '\0' + id -> name
+        private final NavigableMap<String, String> nameStarts = new ConcurrentSkipListMap<>();
+        private final NavigableMap<String, String> wordStarts = new ConcurrentSkipListMap<>();
+
+        Names(SuggestionType type) {
+            this.type = type;
+        }
+
+        synchronized void put(Long id, String name) {
+            remove(id);
+            if (name == null || fold(name).isEmpty()) {
+                return;
+            }
+            byId.put(id, name);
+            String folded = fold(name);
+            nameStarts.put(key(folded, id), name);
+            for (int start : wordStarts(folded)) {
+                wordStarts.put(key(folded.substring(start), id), name);
+            }
+        }
+
+        synchronized void rename(Long id, String name) {
+            if (byId.containsKey(id)) {
+                put(id, name);
+            }
+        }
+
+        synchronized void remove(Long id) {
+            String name = byId.remove(id);
+            if (name != null) {
+                String folded = fold(name);
+                nameStarts.remove(key(folded, id));
+                for (int start : wordStarts(folded)) {
+                    wordStarts.remove(key(folded.substring(start), id));
+                }
+            }
+        }
+
+        void collect(String prefix, int limit, List<Match> matches) {
+            Set<Long> ids = new HashSet<>();
+            collect(nameStarts, prefix, limit, true, ids, matches);
+            if (ids.size() < limit) {
+                collect(wordStarts, prefix, limit, false, ids, matches);
+            }
+        }
+
+        private void collect(NavigableMap<String, String> keys, String prefix, int limit, boolean nameStart,
+                             Set<Long> ids, List<Match> matches) {
+            for (Map.Entry<String, String> entry : keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .entrySet()) {
+                String key = entry.getKey();
+                int separator = key.lastIndexOf('\0');
+                Long id = Long.valueOf(key.substring(separator + 1));
+                if (ids.add(id)) {
+                    matches.add(new Match(id, entry.getValue(), type, key.substring(0, separator), nameStart));
+                    if (ids.size() >= limit) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private static String key(String folded, Long id) {
+            return folded + '\0' + id;
+        }
+
+        private static List<Integer> wordStarts(String folded) {
+            List<Integer> starts = new ArrayList<>();
+            for (int i = 1; i < folded.length(); i++) {
+                if (!Character.isLetterOrDigit(folded.charAt(i - 1)) && Character.isLetterOrDigit(folded.charAt(i))) {
+                    starts.add(i);
+                }
+            }
+            return starts;
+        }
+    }
+
+    private static class Match {
+        private final Long id;
+        private final String name;
+        private final SuggestionType type;
+        private final String key;
+        private final boolean nameStart;
+
+        Match(Long id, String name, SuggestionType type, String key, boolean nameStart) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.key = key;
+            this.nameStart = nameStart;
+        }
+    }
+}
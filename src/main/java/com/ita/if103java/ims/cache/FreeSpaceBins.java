@@ -0,0 +1,64 @@
+package com.ita.if103java.ims.cache;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+class FreeSpaceBins {
+    private final NavigableSet<Bin> byFreeSpace = new TreeSet<>(Comparator.comparingLong(Bin::getFreeSpace)
+        .thenComparingLong(Bin::getId));
+    private final Map<Long, Bin> byId = new HashMap<>();
+
+    synchronized void put(Long id, long freeSpace) {
+        remove(id);
+        Bin bin = new Bin(id, freeSpace);
+        byId.put(id, bin);
+        byFreeSpace.add(bin);
+    }
+
+    synchronized void adjust(Long id, long usedVolume) {
+        Bin bin = byId.get(id);
+        if (bin != null) {
+            put(id, bin.getFreeSpace() - usedVolume);
+        }
+    }
+
+    synchronized void remove(Long id) {
+        Bin bin = byId.remove(id);
+        if (bin != null) {
+            byFreeSpace.remove(bin);
+        }
+    }
+
+    /**
+     * Free space of the bins with at least the given free space, the tightest fit first.
+     */
+    synchronized Map<Long, Long> findFitting(long volume) {
+        Map<Long, Long> fitting = new LinkedHashMap<>();
+        for (Bin bin : byFreeSpace.tailSet(new Bin(Long.MIN_VALUE, volume), true)) {
+            fitting.put(bin.getId(), bin.getFreeSpace());
+        }
+        return fitting;
+    }
+
+    private static class Bin {
+        private final long id;
+        private final long freeSpace;
+
+        Bin(long id, long freeSpace) {
+            this.id = id;
+            this.freeSpace = freeSpace;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        long getFreeSpace() {
+            return freeSpace;
+        }
+    }
+}
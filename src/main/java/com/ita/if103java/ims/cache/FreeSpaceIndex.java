@@ -0,0 +1,97 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterCompletion;
+import static com.ita.if103java.ims.util.TransactionUtils.afterRollback;
+
+/**
+ * Per-account bottom warehouses ordered by remaining capacity, so the bins able to take a given volume
+ * are found with a range lookup. The bins of an account are loaded with one query on the first access;
+ * stock mutations keep them current through {@link #adjust(Long, Long, long)}. A change to an account that
+ * is not loaded evicts it again when its transaction completes, as a load running meanwhile may have read
+ * the warehouses before the change was committed.
+ */
+@Component
+public class FreeSpaceIndex {
+    private WarehouseDao warehouseDao;
+    private Map<Long, FreeSpaceBins> accounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FreeSpaceIndex(WarehouseDao warehouseDao) {
+        this.warehouseDao = warehouseDao;
+    }
+
+    public List<Long> findFitting(Long accountId, long volume) {
+        return new ArrayList<>(getBins(accountId).findFitting(volume).keySet());
+    }
+
+    public Map<Long, Long> findFreeSpace(Long accountId, long volume) {
+        return getBins(accountId).findFitting(volume);
+    }
+
+    public void adjust(Long warehouseId, Long accountId, long usedVolume) {
+        FreeSpaceBins bins = accounts.get(accountId);
+        if (bins != null) {
+            bins.adjust(warehouseId, usedVolume);
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    public void put(Warehouse warehouse) {
+        Long accountId = warehouse.getAccountID();
+        FreeSpaceBins bins = accounts.get(accountId);
+        if (bins != null) {
+            if (warehouse.isBottom() && warehouse.isActive()) {
+                bins.put(warehouse.getId(), freeSpace(warehouse));
+            } else {
+                bins.remove(warehouse.getId());
+            }
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    public void remove(Long warehouseId, Long accountId) {
+        FreeSpaceBins bins = accounts.get(accountId);
+        if (bins != null) {
+            bins.remove(warehouseId);
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    public void evict(Long accountId) {
+        accounts.remove(accountId);
+    }
+
+    public void clear() {
+        accounts.clear();
+    }
+
+    private FreeSpaceBins getBins(Long accountId) {
+        return accounts.computeIfAbsent(accountId, id -> {
+            FreeSpaceBins bins = new FreeSpaceBins();
+            for (Warehouse warehouse : warehouseDao.findBottomByAccountId(id)) {
+                bins.put(warehouse.getId(), freeSpace(warehouse));
+            }
+            return bins;
+        });
+    }
+
+    private static long freeSpace(Warehouse warehouse) {
+        return warehouse.getCapacity() - warehouse.getUsedVolume();
+    }
+}
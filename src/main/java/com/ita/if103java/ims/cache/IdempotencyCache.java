@@ -0,0 +1,48 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.entity.IdempotencyKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@code idempotency.cacheSize} most recently used idempotency keys with their stored responses,
+ * so a retried request is answered without reading the idempotency_keys table.
+ */
+@Component
+public class IdempotencyCache {
+    @Value("${idempotency.cacheSize}")
+    private int cacheSize;
+    private Map<String, IdempotencyKey> keys;
+
+    @PostConstruct
+    public void init() {
+        keys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyKey> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public synchronized Optional<IdempotencyKey> find(Long accountId, byte[] keyHash) {
+        return Optional.ofNullable(keys.get(toKey(accountId, keyHash)));
+    }
+
+    public synchronized void put(IdempotencyKey idempotencyKey) {
+        keys.put(toKey(idempotencyKey.getAccountId(), idempotencyKey.getKeyHash()), idempotencyKey);
+    }
+
+    public synchronized void clear() {
+        keys.clear();
+    }
+
+    private static String toKey(Long accountId, byte[] keyHash) {
+        return accountId + ":" + Base64.getEncoder().encodeToString(keyHash);
+    }
+}
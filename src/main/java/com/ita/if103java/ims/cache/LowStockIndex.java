@@ -0,0 +1,143 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.ReorderThresholdDao;
+import com.ita.if103java.ims.dto.EndingItemsDto;
+import com.ita.if103java.ims.entity.LowStockItem;
+import com.ita.if103java.ims.entity.ReorderThreshold;
+import com.ita.if103java.ims.entity.SavedItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterRollback;
+
+/**
+ * Per-account saved items whose quantity is at or below the reorder threshold of their item and warehouse,
+ * as the ending items of the dashboard are.
+ * An account is loaded with two queries on the first access and is then kept current by
+ * {@link #update(Long, SavedItem, String)} and {@link #remove(Long, Long)}, so the ending items
+ * are served without scanning saved items.
+ */
+@Component
+public class LowStockIndex {
+    @Value("${items.minQuantityItemsInWarehouse}")
+    private int defaultThreshold;
+    private ReorderThresholdDao reorderThresholdDao;
+    private WarehouseTreeCache warehouseTreeCache;
+    private Map<Long, AccountStock> accounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LowStockIndex(ReorderThresholdDao reorderThresholdDao, WarehouseTreeCache warehouseTreeCache) {
+        this.reorderThresholdDao = reorderThresholdDao;
+        this.warehouseTreeCache = warehouseTreeCache;
+    }
+
+    public int findThreshold(Long accountId, Long itemId, Long warehouseId) {
+        return getStock(accountId).findThreshold(itemId, warehouseId);
+    }
+
+    public Page<EndingItemsDto> findEndingItems(Long accountId, Pageable pageable) {
+        List<EndingItemsDto> endingItems = getStock(accountId).items.values().stream()
+            .sorted(toComparator(pageable.getSort()))
+            .map(item -> new EndingItemsDto(item.getWarehouseId(), item.getWarehouseName(), item.getItemName(),
+                item.getQuantity()))
+            .collect(Collectors.toList());
+        int from = (int) Math.min(pageable.getOffset(), endingItems.size());
+        int to = Math.min(from + pageable.getPageSize(), endingItems.size());
+        return new PageImpl<>(endingItems.subList(from, to), pageable, endingItems.size());
+    }
+
+    public void update(Long accountId, SavedItem savedItem, String itemName) {
+        AccountStock stock = accounts.get(accountId);
+        if (stock != null) {
+            if (savedItem.getQuantity() <= stock.findThreshold(savedItem.getItemId(), savedItem.getWarehouseId())) {
+                String warehouseName = warehouseTreeCache.findById(savedItem.getWarehouseId(), accountId).getName();
+                stock.items.put(savedItem.getId(), new LowStockItem(savedItem.getId(), savedItem.getItemId(),
+                    itemName, savedItem.getWarehouseId(), warehouseName, savedItem.getQuantity()));
+            } else {
+                stock.items.remove(savedItem.getId());
+            }
+            afterRollback(() -> evict(accountId));
+        }
+    }
+
+    public void remove(Long accountId, Long savedItemId) {
+        AccountStock stock = accounts.get(accountId);
+        if (stock != null) {
+            stock.items.remove(savedItemId);
+            afterRollback(() -> evict(accountId));
+        }
+    }
+
+    public void evict(Long accountId) {
+        accounts.remove(accountId);
+    }
+
+    public void clear() {
+        accounts.clear();
+    }
+
+    private AccountStock getStock(Long accountId) {
+        return accounts.computeIfAbsent(accountId, this::load);
+    }
+
+    private AccountStock load(Long accountId) {
+        AccountStock stock = new AccountStock(defaultThreshold);
+        for (ReorderThreshold reorderThreshold : reorderThresholdDao.findByAccountId(accountId)) {
+            stock.thresholds
+                .computeIfAbsent(reorderThreshold.getItemId(), id -> new HashMap<>())
+                .put(reorderThreshold.getWarehouseId(), reorderThreshold.getThreshold());
+        }
+        for (LowStockItem item : reorderThresholdDao.findLowStockByAccountId(accountId, defaultThreshold)) {
+            stock.items.put(item.getSavedItemId(), item);
+        }
+        return stock;
+    }
+
+    private static Comparator<LowStockItem> toComparator(Sort sort) {
+        Comparator<LowStockItem> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<LowStockItem> byProperty = switch (order.getProperty()) {
+                case "id", "wh.id" -> Comparator.comparing(LowStockItem::getWarehouseId);
+                case "name", "wh.name" -> Comparator.comparing(LowStockItem::getWarehouseName);
+                case "itemName", "name_item", "it.name_item" -> Comparator.comparing(LowStockItem::getItemName);
+                case "quantity", "si.quantity" -> Comparator.comparingInt(LowStockItem::getQuantity);
+                default -> null;
+            };
+            if (byProperty != null) {
+                comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+            }
+        }
+        return comparator.thenComparing(LowStockItem::getSavedItemId);
+    }
+
+    private static class AccountStock {
+        private final int defaultThreshold;
+        // item id -> warehouse id, or null for every warehouse -> threshold
+        private final Map<Long, Map<Long, Integer>> thresholds = new HashMap<>();
+        private final Map<Long, LowStockItem> items = new ConcurrentHashMap<>();
+
+        AccountStock(int defaultThreshold) {
+            this.defaultThreshold = defaultThreshold;
+        }
+
+        int findThreshold(Long itemId, Long warehouseId) {
+            Map<Long, Integer> itemThresholds = thresholds.get(itemId);
+            if (itemThresholds == null) {
+                return defaultThreshold;
+            }
+            return itemThresholds.getOrDefault(warehouseId, itemThresholds.getOrDefault(null, defaultThreshold));
+        }
+    }
+}
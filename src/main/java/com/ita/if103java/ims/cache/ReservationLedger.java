@@ -0,0 +1,210 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.ReservationDao;
+import com.ita.if103java.ims.entity.Reservation;
+import com.ita.if103java.ims.util.TimerWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterRollback;
+
+/**
+ * Per-account active reservations and the quantity they hold per saved item, so the available-to-promise
+ * quantity of a saved item is its quantity minus {@link #findReserved(Long, Long)} without reading reservations.
+ * An account is loaded with one query on the first access, after its expired reservations are deleted.
+ * Loaded reservations sit in a timer wheel of {@code reservations.expiry.slots} buckets of
+ * {@code reservations.expiry.tick} ms, from which {@link #pollExpired(ZonedDateTime)} takes the expired ones;
+ * a removed reservation leaves the wheel at once, and an evicted account takes all of its reservations with it.
+ */
+@Component
+public class ReservationLedger {
+    @Value("${reservations.expiry.slots}")
+    private int slots;
+    @Value("${reservations.expiry.tick}")
+    private long tick;
+    private ReservationDao reservationDao;
+    private Map<Long, AccountReservations> accounts = new ConcurrentHashMap<>();
+
+    private TimerWheel<Reservation> expiries;
+    // guarded by expiries, as the wheel is
+    private final Map<Long, TimerWheel.Entry<Reservation>> scheduled = new HashMap<>();
+
+    @Autowired
+    public ReservationLedger(ReservationDao reservationDao) {
+        this.reservationDao = reservationDao;
+    }
+
+    @PostConstruct
+    public void init() {
+        expiries = new TimerWheel<>(slots, tick, System.currentTimeMillis());
+    }
+
+    public int findReserved(Long accountId, Long savedItemId) {
+        return getReservations(accountId).findReserved(savedItemId);
+    }
+
+    public Optional<Reservation> findById(Long accountId, Long id) {
+        return Optional.ofNullable(getReservations(accountId).find(id, ZonedDateTime.now()));
+    }
+
+    public List<Reservation> findAll(Long accountId) {
+        return getReservations(accountId).findAll(ZonedDateTime.now());
+    }
+
+    /**
+     * Adds the reservation if the saved item, holding {@code quantity} now, has enough of it left unreserved.
+     */
+    public boolean reserve(Reservation reservation, int quantity) {
+        final Long accountId = reservation.getAccountId();
+        final boolean isReserved = getReservations(accountId).reserve(reservation, quantity);
+        if (isReserved) {
+            schedule(reservation);
+            afterRollback(() -> evict(accountId));
+        }
+        return isReserved;
+    }
+
+    public void remove(Long accountId, Long id) {
+        AccountReservations reservations = accounts.get(accountId);
+        if (reservations != null) {
+            reservations.remove(id);
+            unschedule(id);
+            afterRollback(() -> evict(accountId));
+        }
+    }
+
+    /**
+     * Removes the reservations of the loaded accounts that have expired by {@code now} and returns them.
+     */
+    public List<Reservation> pollExpired(ZonedDateTime now) {
+        final List<Reservation> due;
+        synchronized (expiries) {
+            due = expiries.advance(now.toInstant().toEpochMilli());
+            due.forEach(reservation -> scheduled.remove(reservation.getId()));
+        }
+        final List<Reservation> expired = new ArrayList<>();
+        for (Reservation reservation : due) {
+            AccountReservations reservations = accounts.get(reservation.getAccountId());
+            if (reservations != null && reservations.expire(reservation, now)) {
+                expired.add(reservation);
+            }
+        }
+        return expired;
+    }
+
+    public void evict(Long accountId) {
+        accounts.remove(accountId);
+        synchronized (expiries) {
+            expiries.removeIf(reservation -> reservation.getAccountId().equals(accountId))
+                .forEach(reservation -> scheduled.remove(reservation.getId()));
+        }
+    }
+
+    public void clear() {
+        accounts.clear();
+        synchronized (expiries) {
+            expiries.removeIf(reservation -> true);
+            scheduled.clear();
+        }
+    }
+
+    private AccountReservations getReservations(Long accountId) {
+        return accounts.computeIfAbsent(accountId, id -> {
+            final ZonedDateTime now = ZonedDateTime.now();
+            reservationDao.deleteExpiredByAccountId(id, now);
+            final AccountReservations reservations = new AccountReservations();
+            for (Reservation reservation : reservationDao.findActiveByAccountId(id, now)) {
+                reservations.add(reservation);
+                schedule(reservation);
+            }
+            return reservations;
+        });
+    }
+
+    private void schedule(Reservation reservation) {
+        synchronized (expiries) {
+            // a reservation loaded with its account in the transaction that creates it is scheduled twice
+            final TimerWheel.Entry<Reservation> previous = scheduled.put(reservation.getId(),
+                expiries.schedule(reservation, reservation.getExpiresAt().toInstant().toEpochMilli()));
+            if (previous != null) {
+                expiries.cancel(previous);
+            }
+        }
+    }
+
+    private void unschedule(Long id) {
+        synchronized (expiries) {
+            final TimerWheel.Entry<Reservation> entry = scheduled.remove(id);
+            if (entry != null) {
+                expiries.cancel(entry);
+            }
+        }
+    }
+
+    private static class AccountReservations {
+        private final Map<Long, Reservation> reservations = new HashMap<>();
+        private final Map<Long, Integer> reserved = new HashMap<>();
+
+        synchronized int findReserved(Long savedItemId) {
+            return reserved.getOrDefault(savedItemId, 0);
+        }
+
+        synchronized Reservation find(Long id, ZonedDateTime now) {
+            final Reservation reservation = reservations.get(id);
+            return reservation == null || !reservation.getExpiresAt().isAfter(now) ? null : reservation;
+        }
+
+        synchronized List<Reservation> findAll(ZonedDateTime now) {
+            return reservations.values().stream()
+                .filter(reservation -> reservation.getExpiresAt().isAfter(now))
+                .sorted(Comparator.comparing(Reservation::getExpiresAt).thenComparing(Reservation::getId))
+                .collect(Collectors.toList());
+        }
+
+        synchronized boolean reserve(Reservation reservation, int quantity) {
+            // loaded in this transaction after the insert, so it is counted already
+            if (reservations.containsKey(reservation.getId())) {
+                return true;
+            }
+            if (quantity - findReserved(reservation.getSavedItemId()) < reservation.getQuantity()) {
+                return false;
+            }
+            add(reservation);
+            return true;
+        }
+
+        synchronized void add(Reservation reservation) {
+            reservations.put(reservation.getId(), reservation);
+            reserved.merge(reservation.getSavedItemId(), reservation.getQuantity(), Integer::sum);
+        }
+
+        synchronized void remove(Long id) {
+            final Reservation reservation = reservations.remove(id);
+            if (reservation != null) {
+                reserved.computeIfPresent(reservation.getSavedItemId(),
+                    (savedItemId, quantity) -> quantity == reservation.getQuantity() ? null :
+                        quantity - reservation.getQuantity());
+            }
+        }
+
+        synchronized boolean expire(Reservation reservation, ZonedDateTime now) {
+            if (reservations.get(reservation.getId()) != reservation || reservation.getExpiresAt().isAfter(now)) {
+                return false;
+            }
+            remove(reservation.getId());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.AssociateDao;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.SearchFilterDto;
+import com.ita.if103java.ims.dto.SearchHitDto;
+import com.ita.if103java.ims.entity.Associate;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SearchDocumentType;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TextUtils.tokenize;
+import static com.ita.if103java.ims.util.TransactionUtils.afterCommit;
+
+/**
+ * Per-account inverted index over the names and free text of active items, warehouses and associates and over
+ * the messages of the events table, so text search never scans the database. Hits must contain every query
+ * term and are ranked by BM25, with a title counting twice. An account is loaded on its first search;
+ * changes are applied after their transaction commits on a single indexing thread, which also runs the loads,
+ * so an update is never lost to a load running at the same time. {@link #rebuild(Long)} reloads an account.
+ * At most {@code search.index.maxAccounts} accounts are kept, the least recently searched is dropped first,
+ * and an account loaded more than {@code search.index.ttlMinutes} ago is loaded again on its next search.
+ */
+@Component
+public class TextSearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextSearchIndex.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Comparator<SearchHitDto> RANK = Comparator.comparingDouble(SearchHitDto::getScore).reversed()
+        .thenComparing(SearchHitDto::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(SearchHitDto::getType)
+        .thenComparing(SearchHitDto::getId, Comparator.reverseOrder());
+
+    @Value("${search.index.maxAccounts}")
+    private int maxAccounts;
+    @Value("${search.index.ttlMinutes}")
+    private long ttlMinutes;
+    private ItemDao itemDao;
+    private WarehouseDao warehouseDao;
+    private AssociateDao associateDao;
+    private EventDao eventDao;
+    private Map<Long, CompletableFuture<AccountIndex>> accounts;
+    private ExecutorService indexer;
+    private Clock clock = Clock.systemUTC();
+
+    @Autowired
+    public TextSearchIndex(ItemDao itemDao, WarehouseDao warehouseDao, AssociateDao associateDao, EventDao eventDao) {
+        this.itemDao = itemDao;
+        this.warehouseDao = warehouseDao;
+        this.associateDao = associateDao;
+        this.eventDao = eventDao;
+    }
+
+    @PostConstruct
+    public void start() {
+        accounts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<AccountIndex>> eldest) {
+                return size() > maxAccounts;
+            }
+        });
+        indexer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TextSearchIndex");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        indexer.shutdown();
+        indexer.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the page of hits for the filter's query in relevance order; the sort of the pageable is ignored.
+     * A query without any letter or digit finds nothing.
+     */
+    public Page<SearchHitDto> search(Long accountId, SearchFilterDto filter, Pageable pageable) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(filter.getQ())));
+        if (terms.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        List<SearchHitDto> hits = getIndex(accountId).search(terms, filter);
+        hits.sort(RANK);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(new ArrayList<>(hits.subList(from, to)), pageable, hits.size());
+    }
+
+    public void putItem(Item item) {
+        update(item.getAccountId(), index -> index.put(toDoc(item)));
+    }
+
+    /**
+     * Re-indexes the text of an indexed item; items not in the index, such as inactive ones, are left out.
+     * The same goes for {@link #replaceWarehouse(Warehouse)} and {@link #replaceAssociate(Associate)}.
+     */
+    public void replaceItem(Item item) {
+        update(item.getAccountId(), index -> index.replace(toDoc(item)));
+    }
+
+    public void putWarehouse(Warehouse warehouse) {
+        update(warehouse.getAccountID(), index -> index.put(toDoc(warehouse)));
+    }
+
+    public void replaceWarehouse(Warehouse warehouse) {
+        update(warehouse.getAccountID(), index -> index.replace(toDoc(warehouse)));
+    }
+
+    public void putAssociate(Long accountId, Associate associate) {
+        update(accountId, index -> index.put(toDoc(associate)));
+    }
+
+    public void replaceAssociate(Long accountId, Associate associate) {
+        update(accountId, index -> index.replace(toDoc(associate)));
+    }
+
+    public void putEvents(List<Event> events) {
+        Map<Long, List<Doc>> docs = events.stream()
+            .collect(Collectors.groupingBy(Event::getAccountId, Collectors.mapping(TextSearchIndex::toDoc,
+                Collectors.toList())));
+        docs.forEach((accountId, accountDocs) -> update(accountId, index -> accountDocs.forEach(index::put)));
+    }
+
+    public void remove(Long accountId, SearchDocumentType type, Long id) {
+        update(accountId, index -> index.remove(new DocKey(type, id)));
+    }
+
+    /**
+     * Loads the account from the database again and swaps the new index in once it is complete;
+     * searches meanwhile use the old one.
+     */
+    public void rebuild(Long accountId) {
+        indexer.execute(() -> {
+            try {
+                accounts.put(accountId, CompletableFuture.completedFuture(load(accountId)));
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to rebuild the search index of account {}", accountId, e);
+            }
+        });
+    }
+
+    public void evict(Long accountId) {
+        accounts.remove(accountId);
+    }
+
+    public void clear() {
+        accounts.clear();
+    }
+
+    private AccountIndex getIndex(Long accountId) {
+        CompletableFuture<AccountIndex> future = accounts.computeIfAbsent(accountId, this::loadAsync);
+        if (future.isDone() && !future.isCompletedExceptionally() && isExpired(future.join())) {
+            accounts.remove(accountId, future);
+            future = accounts.computeIfAbsent(accountId, this::loadAsync);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            accounts.remove(accountId, future);
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    // updates of accounts that are not loaded are dropped, the load reads them from the database
+    private void update(Long accountId, Consumer<AccountIndex> change) {
+        afterCommit(() -> indexer.execute(() -> {
+            CompletableFuture<AccountIndex> future = accounts.get(accountId);
+            if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+                change.accept(future.join());
+            }
+        }));
+    }
+
+    private CompletableFuture<AccountIndex> loadAsync(Long accountId) {
+        return CompletableFuture.supplyAsync(() -> load(accountId), indexer);
+    }
+
+    private boolean isExpired(AccountIndex index) {
+        return clock.millis() - index.loadedAt > TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    private AccountIndex load(Long accountId) {
+        AccountIndex index = new AccountIndex();
+        for (Item item : itemDao.findItemByAccountId(accountId)) {
+            if (item.isActive()) {
+                index.put(toDoc(item));
+            }
+        }
+        for (Warehouse warehouse : warehouseDao.findAllByAccountId(accountId)) {
+            if (warehouse.isActive()) {
+                index.put(toDoc(warehouse));
+            }
+        }
+        for (Associate associate : associateDao.findByAccountId(accountId)) {
+            if (associate.isActive()) {
+                index.put(toDoc(associate));
+            }
+        }
+        eventDao.streamByAccountId(accountId, event -> index.put(toDoc(event)));
+        // the age counts from the end of the load, a long one would be stale early otherwise
+        index.loadedAt = clock.millis();
+        return index;
+    }
+
+    private static Doc toDoc(Item item) {
+        return new Doc(SearchDocumentType.ITEM, item.getId(), item.getName(), item.getDescription(), null, null,
+            item.getUnit());
+    }
+
+    private static Doc toDoc(Warehouse warehouse) {
+        return new Doc(SearchDocumentType.WAREHOUSE, warehouse.getId(), warehouse.getName(), warehouse.getInfo(),
+            null, null, null);
+    }
+
+    private static Doc toDoc(Associate associate) {
+        return new Doc(SearchDocumentType.ASSOCIATE, associate.getId(), associate.getName(),
+            associate.getAdditionalInfo(), null, null, associate.getEmail());
+    }
+
+    private static Doc toDoc(Event event) {
+        return new Doc(SearchDocumentType.EVENT, event.getId(), event.getName().getLabel(), event.getMessage(),
+            event.getDate(), event.getName(), null);
+    }
+
+    private static class AccountIndex {
+        private long loadedAt;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<DocKey, Doc> docs = new HashMap<>();
+        // term -> document -> term frequency
+        private final Map<String, Map<DocKey, Integer>> postings = new HashMap<>();
+        private long totalLength;
+
+        void put(Doc doc) {
+            lock.writeLock().lock();
+            try {
+                removeDoc(doc.key);
+                docs.put(doc.key, doc);
+                doc.terms.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(doc.key, frequency));
+                totalLength += doc.length;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void replace(Doc doc) {
+            lock.writeLock().lock();
+            try {
+                if (docs.containsKey(doc.key)) {
+                    put(doc);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(DocKey key) {
+            lock.writeLock().lock();
+            try {
+                removeDoc(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeDoc(DocKey key) {
+            Doc doc = docs.remove(key);
+            if (doc == null) {
+                return;
+            }
+            for (String term : doc.terms.keySet()) {
+                Map<DocKey, Integer> frequencies = postings.get(term);
+                frequencies.remove(key);
+                if (frequencies.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= doc.length;
+        }
+
+        List<SearchHitDto> search(List<String> terms, SearchFilterDto filter) {
+            lock.readLock().lock();
+            try {
+                List<Map<DocKey, Integer>> termPostings = new ArrayList<>();
+                for (String term : terms) {
+                    Map<DocKey, Integer> frequencies = postings.get(term);
+                    if (frequencies == null) {
+                        return new ArrayList<>();
+                    }
+                    termPostings.add(frequencies);
+                }
+                // candidates come from the rarest term, the others only need lookups
+                termPostings.sort(Comparator.comparingInt(Map::size));
+                double averageLength = (double) totalLength / docs.size();
+                List<SearchHitDto> hits = new ArrayList<>();
+                candidates:
+                for (DocKey key : termPostings.get(0).keySet()) {
+                    Doc doc = docs.get(key);
+                    if (!doc.matches(filter)) {
+                        continue;
+                    }
+                    double score = 0;
+                    for (Map<DocKey, Integer> frequencies : termPostings) {
+                        Integer frequency = frequencies.get(key);
+                        if (frequency == null) {
+                            continue candidates;
+                        }
+                        double idf = Math.log(1 + (docs.size() - frequencies.size() + 0.5) / (frequencies.size() + 0.5));
+                        score += idf * frequency * (K1 + 1) /
+                            (frequency + K1 * (1 - B + B * doc.length / averageLength));
+                    }
+                    hits.add(new SearchHitDto(doc.key.type, doc.key.id, doc.title, doc.text, doc.date, score));
+                }
+                return hits;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private static class Doc {
+        private final DocKey key;
+        private final String title;
+        private final String text;
+        private final ZonedDateTime date;
+        private final EventName eventName;
+        private final Map<String, Integer> terms = new HashMap<>();
+        private final int length;
+
+        Doc(SearchDocumentType type, Long id, String title, String text, ZonedDateTime date, EventName eventName,
+            String keywords) {
+            this.key = new DocKey(type, id);
+            this.title = title;
+            this.text = text;
+            this.date = date;
+            this.eventName = eventName;
+            int length = 0;
+            for (String term : tokenize(title)) {
+                terms.merge(term, 2, Integer::sum);
+                length += 2;
+            }
+            List<String> textTerms = new ArrayList<>(tokenize(text));
+            textTerms.addAll(tokenize(keywords));
+            for (String term : textTerms) {
+                terms.merge(term, 1, Integer::sum);
+                length++;
+            }
+            this.length = length;
+        }
+
+        boolean matches(SearchFilterDto filter) {
+            if (filter.getTypes() != null && !filter.getTypes().isEmpty() && !filter.getTypes().contains(key.type)) {
+                return false;
+            }
+            if (filter.getEventName() != null && filter.getEventName() != eventName) {
+                return false;
+            }
+            if (filter.getFrom() == null && filter.getTo() == null) {
+                return true;
+            }
+            if (date == null) {
+                return false;
+            }
+            LocalDate day = date.toLocalDate();
+            return (filter.getFrom() == null || !day.isBefore(filter.getFrom())) &&
+                (filter.getTo() == null || !day.isAfter(filter.getTo()));
+        }
+    }
+
+    private static class DocKey {
+        private final SearchDocumentType type;
+        private final Long id;
+
+        DocKey(SearchDocumentType type, Long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DocKey docKey = (DocKey) o;
+            return type == docKey.type && id.equals(docKey.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id.hashCode();
+        }
+    }
+}
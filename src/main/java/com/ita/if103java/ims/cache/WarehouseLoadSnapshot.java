@@ -0,0 +1,111 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.DashboardDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.WarehouseLoadDto;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterCompletion;
+import static com.ita.if103java.ims.util.TransactionUtils.afterRollback;
+
+/**
+ * Per-account charge and capacity of every top level warehouse, summed over its bottom warehouses.
+ * A snapshot is built from two account scoped queries on the first access, then follows stock mutations
+ * through {@link #adjust(Long, Long, long)} and is rebuilt by {@link #recompute()}. An adjustment of an account
+ * that is not loaded evicts it again when its transaction completes, as a load running meanwhile may have
+ * read the charges before the change was committed.
+ */
+@Component
+public class WarehouseLoadSnapshot {
+    private DashboardDao dashboardDao;
+    private WarehouseDao warehouseDao;
+    private Map<Long, AccountLoad> accounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WarehouseLoadSnapshot(DashboardDao dashboardDao, WarehouseDao warehouseDao) {
+        this.dashboardDao = dashboardDao;
+        this.warehouseDao = warehouseDao;
+    }
+
+    public List<WarehouseLoadDto> find(Long accountId) {
+        return accounts.computeIfAbsent(accountId, this::load).toDtoList();
+    }
+
+    public void adjust(Long warehouseId, Long accountId, long usedVolume) {
+        AccountLoad accountLoad = accounts.get(accountId);
+        if (accountLoad != null) {
+            accountLoad.adjust(warehouseId, usedVolume);
+            afterRollback(() -> evict(accountId));
+        } else {
+            afterCompletion(() -> evict(accountId));
+        }
+    }
+
+    public void evict(Long accountId) {
+        accounts.remove(accountId);
+    }
+
+    public void clear() {
+        accounts.clear();
+    }
+
+    public void recompute() {
+        for (Long accountId : accounts.keySet()) {
+            accounts.computeIfPresent(accountId, (id, accountLoad) -> load(id));
+        }
+    }
+
+    private AccountLoad load(Long accountId) {
+        AccountLoad accountLoad = new AccountLoad();
+        for (WarehouseLoadDto warehouseLoad : dashboardDao.findWarehouseLoadByAccountId(accountId)) {
+            accountLoad.loads.put(warehouseLoad.getId(), new Load(warehouseLoad));
+        }
+        for (Warehouse warehouse : warehouseDao.findBottomByAccountId(accountId)) {
+            accountLoad.topWarehouseIds.put(warehouse.getId(), warehouse.getTopWarehouseID());
+        }
+        return accountLoad;
+    }
+
+    private static class AccountLoad {
+        private final Map<Long, Long> topWarehouseIds = new HashMap<>();
+        private final Map<Long, Load> loads = new TreeMap<>();
+
+        void adjust(Long warehouseId, long usedVolume) {
+            Long topWarehouseId = topWarehouseIds.get(warehouseId);
+            Load load = topWarehouseId == null ? null : loads.get(topWarehouseId);
+            if (load != null) {
+                load.charge.addAndGet(usedVolume);
+            }
+        }
+
+        List<WarehouseLoadDto> toDtoList() {
+            return loads.values().stream()
+                .map(load -> new WarehouseLoadDto(load.id, load.name, load.capacity, load.charge.get()))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static class Load {
+        private final Long id;
+        private final String name;
+        private final long capacity;
+        private final AtomicLong charge;
+
+        Load(WarehouseLoadDto warehouseLoad) {
+            this.id = warehouseLoad.getId();
+            this.name = warehouseLoad.getName();
+            this.capacity = warehouseLoad.getCapacity();
+            this.charge = new AtomicLong(warehouseLoad.getCharge());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.entity.Warehouse;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class WarehouseNode {
+    private final Long id;
+    private final Set<WarehouseNode> children = ConcurrentHashMap.newKeySet();
+    private final List<String> path = new Path();
+    private volatile Warehouse warehouse;
+    private volatile WarehouseNode parent;
+
+    WarehouseNode(Warehouse warehouse) {
+        this.id = warehouse.getId();
+        this.warehouse = copyOf(warehouse);
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    Warehouse getWarehouse() {
+        return warehouse;
+    }
+
+    void setWarehouse(Warehouse warehouse) {
+        this.warehouse = copyOf(warehouse);
+    }
+
+    WarehouseNode getParent() {
+        return parent;
+    }
+
+    void setParent(WarehouseNode parent) {
+        if (this.parent != null) {
+            this.parent.children.remove(this);
+        }
+        this.parent = parent;
+        if (parent != null) {
+            parent.children.add(this);
+        }
+    }
+
+    Set<WarehouseNode> getChildren() {
+        return children;
+    }
+
+    int getLevel() {
+        int level = 0;
+        for (WarehouseNode node = parent; node != null; node = node.parent) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Names from the top level warehouse down to this one. The list is a view over the parent links,
+     * so every node of a hierarchy shares the same prefix instead of holding its own copy.
+     */
+    List<String> getPath() {
+        return path;
+    }
+
+    Warehouse toWarehouse() {
+        Warehouse copy = copyOf(warehouse);
+        copy.setPath(path);
+        return copy;
+    }
+
+    private static Warehouse copyOf(Warehouse warehouse) {
+        return new Warehouse(warehouse.getId(), warehouse.getName(), warehouse.getInfo(), warehouse.getCapacity(),
+            warehouse.isBottom(), warehouse.getParentID(), warehouse.getAccountID(), warehouse.getTopWarehouseID(),
+            warehouse.isActive());
+    }
+
+    private class Path extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            int size = size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            WarehouseNode node = WarehouseNode.this;
+            for (int i = size - 1; i > index; i--) {
+                node = node.parent;
+            }
+            return node.warehouse.getName();
+        }
+
+        @Override
+        public int size() {
+            return getLevel() + 1;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.entity.Warehouse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+class WarehouseTree {
+    private final Map<Long, WarehouseNode> nodes = new ConcurrentHashMap<>();
+
+    WarehouseTree(List<Warehouse> warehouses) {
+        for (Warehouse warehouse : warehouses) {
+            nodes.put(warehouse.getId(), new WarehouseNode(warehouse));
+        }
+        for (WarehouseNode node : nodes.values()) {
+            link(node);
+        }
+    }
+
+    Optional<WarehouseNode> find(Long id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    Collection<WarehouseNode> getNodes() {
+        return nodes.values();
+    }
+
+    synchronized void put(Warehouse warehouse) {
+        WarehouseNode node = nodes.get(warehouse.getId());
+        if (node == null) {
+            node = new WarehouseNode(warehouse);
+            nodes.put(node.getId(), node);
+        } else {
+            node.setWarehouse(warehouse);
+        }
+        link(node);
+    }
+
+    private void link(WarehouseNode node) {
+        Long parentId = node.getWarehouse().getParentID();
+        if (parentId == null || parentId.equals(node.getId())) {
+            node.setParent(null);
+        } else {
+            node.setParent(nodes.get(parentId));
+        }
+    }
+}
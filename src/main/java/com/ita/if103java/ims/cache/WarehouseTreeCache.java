@@ -0,0 +1,99 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.entity.Warehouse;
+import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterRollback;
+
+/**
+ * Per-account warehouse hierarchy kept in memory, so paths, levels and children are resolved without SQL.
+ * A hierarchy is loaded with one query on the first access and is then kept current by
+ * {@link #put(Warehouse)} and {@link #deactivate(Long, Long)}.
+ */
+@Component
+public class WarehouseTreeCache {
+    private WarehouseDao warehouseDao;
+    private Map<Long, WarehouseTree> trees = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WarehouseTreeCache(WarehouseDao warehouseDao) {
+        this.warehouseDao = warehouseDao;
+    }
+
+    public List<String> findPath(Long id, Long accountId) {
+        return findNode(id, accountId).getPath();
+    }
+
+    public int findLevel(Long id, Long accountId) {
+        return findNode(id, accountId).getLevel();
+    }
+
+    public Warehouse findById(Long id, Long accountId) {
+        return findNode(id, accountId).toWarehouse();
+    }
+
+    public List<Warehouse> findChildren(Long id, Long accountId) {
+        return findNode(id, accountId).getChildren().stream()
+            .map(WarehouseNode::toWarehouse)
+            .filter(Warehouse::isActive)
+            .sorted(Comparator.comparing(Warehouse::getId))
+            .collect(Collectors.toList());
+    }
+
+    public List<Warehouse> findByTopWarehouseId(Long topWarehouseId, Long accountId) {
+        return getTree(accountId).getNodes().stream()
+            .map(WarehouseNode::toWarehouse)
+            .filter(warehouse -> topWarehouseId.equals(warehouse.getTopWarehouseID()))
+            .sorted(Comparator.comparing(Warehouse::getId))
+            .collect(Collectors.toList());
+    }
+
+    public void put(Warehouse warehouse) {
+        Long accountId = warehouse.getAccountID();
+        WarehouseTree tree = trees.get(accountId);
+        if (tree != null) {
+            tree.put(warehouse);
+            afterRollback(() -> evict(accountId));
+        }
+    }
+
+    public void deactivate(Long id, Long accountId) {
+        WarehouseTree tree = trees.get(accountId);
+        if (tree != null) {
+            tree.find(id).ifPresent(node -> {
+                Warehouse warehouse = node.toWarehouse();
+                warehouse.setActive(false);
+                tree.put(warehouse);
+            });
+            afterRollback(() -> evict(accountId));
+        }
+    }
+
+    public void evict(Long accountId) {
+        trees.remove(accountId);
+    }
+
+    private WarehouseNode findNode(Long id, Long accountId) {
+        return getTree(accountId).find(id)
+            .or(() -> {
+                // the warehouse may have been created by another instance of the application
+                evict(accountId);
+                return getTree(accountId).find(id);
+            })
+            .orElseThrow(() -> new WarehouseNotFoundException("Failed to obtain warehouse {id = " + id +
+                ", accountId = " + accountId + "}"));
+    }
+
+    private WarehouseTree getTree(Long accountId) {
+        return trees.computeIfAbsent(accountId, id -> new WarehouseTree(warehouseDao.findAllByAccountId(id)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.ita.if103java.ims.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streaming responses are written by a small fixed pool, so at most {@code export.threads} exports hold
+ * a pooled connection at a time; further exports wait in a queue of {@code export.queueCapacity}.
+ */
+@Configuration
+@PropertySource("classpath:application.properties")
+public class ExportConfig implements WebMvcConfigurer {
+    @Value("${export.threads}")
+    private int threads;
+    @Value("${export.queueCapacity}")
+    private int queueCapacity;
+    @Value("${export.timeout}")
+    private long timeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Export-");
+        executor.initialize();
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(timeout);
+    }
+}
@@ -4,6 +4,7 @@ import com.mchange.v2.c3p0.ComboPooledDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -35,6 +36,12 @@ public class JDBCTemplateConfig {
     @Value("${db.poolIncrement}")
     private int poolIncrement;
 
+    @Value("${db.maxStatementsPerConnection}")
+    private int maxStatementsPerConnection;
+
+    @Value("${db.streaming.fetchSize}")
+    private int streamingFetchSize;
+
     @Bean
     public DataSource dataSource() throws PropertyVetoException {
         ComboPooledDataSource dataSource = new ComboPooledDataSource();
@@ -46,6 +53,7 @@ public class JDBCTemplateConfig {
         dataSource.setMinPoolSize(minPoolSize);
         dataSource.setAcquireIncrement(poolIncrement);
         dataSource.setMaxPoolSize(maxPoolSize);
+        dataSource.setMaxStatementsPerConnection(maxStatementsPerConnection);
 
         return dataSource;
     }
@@ -56,7 +64,19 @@ public class JDBCTemplateConfig {
     }
 
     @Bean
+    @Primary
     public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
         return new NamedParameterJdbcTemplate(dataSource);
     }
+
+    /**
+     * Template for exports. Its statements are forward-only and fetch {@code db.streaming.fetchSize} rows at a time
+     * through a server-side cursor (useCursorFetch), so a result set is never held in memory as a whole.
+     */
+    @Bean
+    public NamedParameterJdbcTemplate streamingJdbcTemplate(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(streamingFetchSize);
+        return new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -22,6 +23,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${websocket.simplebroker.endpoint}")
     private String simpleBrokerEndpoint;
 
+    @Value("${websocket.sendTimeLimit}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.sendBufferSizeLimit}")
+    private int sendBufferSizeLimit;
+
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry stompEndpointRegistry) {
@@ -33,4 +40,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker(simpleBrokerEndpoint);
     }
 
+    // a client that cannot keep up is disconnected instead of buffering frames without bound
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimit).setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
 }
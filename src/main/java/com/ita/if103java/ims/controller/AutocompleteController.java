@@ -0,0 +1,36 @@
+package com.ita.if103java.ims.controller;
+
+import com.ita.if103java.ims.dto.SuggestionDto;
+import com.ita.if103java.ims.entity.SuggestionType;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.AutocompleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/autocomplete")
+public class AutocompleteController {
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    public AutocompleteController(AutocompleteService autocompleteService) {
+        this.autocompleteService = autocompleteService;
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public List<SuggestionDto> suggest(@RequestParam("q") String query,
+                                       @RequestParam(required = false) SuggestionType type,
+                                       @RequestParam(defaultValue = "10") int limit,
+                                       @AuthenticationPrincipal UserDetailsImpl user) {
+        return autocompleteService.suggest(query, type, limit, user);
+    }
+}
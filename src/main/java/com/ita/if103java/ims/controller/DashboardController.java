@@ -57,7 +57,8 @@ public class DashboardController {
 
     @GetMapping(value = "/endingItems",
         produces = MediaType.APPLICATION_JSON_VALUE)
-    public Page<EndingItemsDto> getEndingItems(Pageable pageable, @RequestParam int minQuantity,
+    public Page<EndingItemsDto> getEndingItems(Pageable pageable,
+                                               @RequestParam(required = false) Integer minQuantity,
                                                @AuthenticationPrincipal UserDetailsImpl userDetails) {
         return dashboardService.getEndingItems(pageable, minQuantity, userDetails.getUser().getAccountId());
     }
@@ -1,6 +1,8 @@
 package com.ita.if103java.ims.controller;
 
 import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.EventFeedDto;
+import com.ita.if103java.ims.entity.EventCountMode;
 import com.ita.if103java.ims.entity.EventName;
 import com.ita.if103java.ims.entity.EventType;
 import com.ita.if103java.ims.security.UserDetailsImpl;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
@@ -33,6 +36,15 @@ public class EventController {
         return eventService.findAll(pageable, params, user);
     }
 
+    @PostMapping("/feed")
+    public EventFeedDto findFeed(@RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = "20") int size,
+                                 @RequestParam(defaultValue = "FIRST_PAGE") EventCountMode count,
+                                 @RequestBody Map<String, ?> params,
+                                 @AuthenticationPrincipal UserDetailsImpl user) {
+        return eventService.findFeed(params, cursor, size, count, user);
+    }
+
     @GetMapping("/types")
     public Map<String, EventType> getEventTypes() {
         return eventService.getEventTypes();
@@ -0,0 +1,74 @@
+package com.ita.if103java.ims.controller;
+
+import com.ita.if103java.ims.dto.TransactionFilterDto;
+import com.ita.if103java.ims.entity.ExportFormat;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/transactions")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(TransactionFilterDto filter,
+                                                                    @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip,
+                                                                    @AuthenticationPrincipal UserDetailsImpl user) {
+        return stream("transactions", format, gzip,
+            out -> exportService.exportTransactions(filter, format, out, user));
+    }
+
+    @GetMapping("/savedItems")
+    public ResponseEntity<StreamingResponseBody> exportSavedItems(@RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                                  @RequestParam(defaultValue = "false") boolean gzip,
+                                                                  @AuthenticationPrincipal UserDetailsImpl user) {
+        return stream("saved-items", format, gzip, out -> exportService.exportSavedItems(format, out, user));
+    }
+
+    @PostMapping("/events")
+    public ResponseEntity<StreamingResponseBody> exportEvents(@RequestBody Map<String, ?> params,
+                                                              @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                                              @AuthenticationPrincipal UserDetailsImpl user) {
+        return stream("events", format, gzip, out -> exportService.exportEvents(params, format, out, user));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, boolean gzip,
+                                                         StreamingResponseBody body) {
+        String fileName = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody responseBody = !gzip ? body : out -> {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+            body.writeTo(gzipOut);
+            gzipOut.finish();
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder("attachment").filename(fileName).build().toString())
+            .contentType(gzip ? GZIP : MediaType.parseMediaType(format.getContentType()))
+            .body(responseBody);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ita.if103java.ims.controller;
+
+import com.ita.if103java.ims.dto.ImportReportDto;
+import com.ita.if103java.ims.entity.ImportFormat;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private ImportService importService;
+
+    @Autowired
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/items")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportReportDto importItems(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(defaultValue = "CSV") ImportFormat format,
+                                       @AuthenticationPrincipal UserDetailsImpl user) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return importService.importItems(in, format, user);
+        }
+    }
+
+    @PostMapping("/stock")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportReportDto importStock(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(defaultValue = "CSV") ImportFormat format,
+                                       @AuthenticationPrincipal UserDetailsImpl user) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return importService.importStock(in, format, user);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ImportReportDto findReport(@PathVariable("id") String id, @AuthenticationPrincipal UserDetailsImpl user) {
+        return importService.findReport(id, user);
+    }
+}
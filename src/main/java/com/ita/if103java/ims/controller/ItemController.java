@@ -1,6 +1,7 @@
 package com.ita.if103java.ims.controller;
 
 import com.ita.if103java.ims.dto.ItemDto;
+import com.ita.if103java.ims.dto.ReorderThresholdDto;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import com.ita.if103java.ims.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -71,5 +73,31 @@ public class ItemController {
         @AuthenticationPrincipal UserDetailsImpl user) {
         return itemService.updateItem(itemDto, user);
     }
+
+    @GetMapping("/{id}/reorderThresholds")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ReorderThresholdDto> findReorderThresholds(@PathVariable("id") Long id,
+        @AuthenticationPrincipal UserDetailsImpl user) {
+        return itemService.findReorderThresholds(id, user);
+    }
+
+    @PutMapping(value = "/{id}/reorderThresholds",
+        produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public ReorderThresholdDto saveReorderThreshold(@PathVariable("id") Long id,
+        @Validated @RequestBody ReorderThresholdDto reorderThresholdDto,
+        @AuthenticationPrincipal UserDetailsImpl user) {
+        reorderThresholdDto.setItemId(id);
+        return itemService.saveReorderThreshold(reorderThresholdDto, user);
+    }
+
+    @DeleteMapping("/{id}/reorderThresholds")
+    @ResponseStatus(HttpStatus.OK)
+    public boolean deleteReorderThreshold(@PathVariable("id") Long id,
+        @RequestParam(required = false) Long warehouseId,
+        @AuthenticationPrincipal UserDetailsImpl user) {
+        return itemService.deleteReorderThreshold(id, warehouseId, user);
+    }
 }
 
@@ -0,0 +1,67 @@
+package com.ita.if103java.ims.controller;
+
+import com.ita.if103java.ims.dto.AvailableStockDto;
+import com.ita.if103java.ims.dto.ReservationDto;
+import com.ita.if103java.ims.dto.ReservationRequestDto;
+import com.ita.if103java.ims.dto.SavedItemDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/reservations")
+public class ReservationController {
+    private ReservationService reservationService;
+
+    @Autowired
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<ReservationDto> reserve(@Validated @RequestBody ReservationRequestDto reservationRequest,
+                                        @AuthenticationPrincipal UserDetailsImpl user) {
+        return reservationService.reserve(reservationRequest, user);
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public List<ReservationDto> findAll(@AuthenticationPrincipal UserDetailsImpl user) {
+        return reservationService.findAll(user);
+    }
+
+    @GetMapping("/available")
+    @ResponseStatus(HttpStatus.OK)
+    public List<AvailableStockDto> findAvailable(@RequestParam Long itemId,
+                                                 @AuthenticationPrincipal UserDetailsImpl user) {
+        return reservationService.findAvailable(itemId, user);
+    }
+
+    @PostMapping("/{id}/out")
+    @ResponseStatus(HttpStatus.OK)
+    public SavedItemDto convert(@PathVariable("id") Long id, @RequestParam Long associateId,
+                                @AuthenticationPrincipal UserDetailsImpl user) {
+        return reservationService.convert(id, associateId, user);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public boolean cancel(@PathVariable("id") Long id, @AuthenticationPrincipal UserDetailsImpl user) {
+        return reservationService.cancel(id, user);
+    }
+}
@@ -1,9 +1,19 @@
 package com.ita.if103java.ims.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.PlacementDto;
+import com.ita.if103java.ims.dto.PlacementRequestDto;
 import com.ita.if103java.ims.dto.SavedItemDto;
+import com.ita.if103java.ims.dto.StockJournalReceiptDto;
 import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.IdempotencyService;
 import com.ita.if103java.ims.service.ItemService;
+import com.ita.if103java.ims.service.ItemTransactionBatchService;
+import com.ita.if103java.ims.service.PlacementService;
+import com.ita.if103java.ims.service.StockJournalService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,25 +26,73 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/savedItems")
 public class SavedItemController {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private ItemService itemService;
+    private PlacementService placementService;
+    private ItemTransactionBatchService itemTransactionBatchService;
+    private IdempotencyService idempotencyService;
+    private StockJournalService stockJournalService;
 
     @Autowired
-    public SavedItemController(ItemService itemService) {
+    public SavedItemController(ItemService itemService, PlacementService placementService,
+                               ItemTransactionBatchService itemTransactionBatchService,
+                               IdempotencyService idempotencyService, StockJournalService stockJournalService) {
         this.itemService = itemService;
+        this.placementService = placementService;
+        this.itemTransactionBatchService = itemTransactionBatchService;
+        this.idempotencyService = idempotencyService;
+        this.stockJournalService = stockJournalService;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
     public SavedItemDto addSavedItem(@RequestBody ItemTransactionRequestDto itemTransaction,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
         @AuthenticationPrincipal UserDetailsImpl user) {
-        return itemService.addSavedItem(itemTransaction, user);
+        return idempotencyService.execute(idempotencyKey, "savedItems.add", new TypeReference<>() {}, user,
+            () -> itemService.addSavedItem(itemTransaction, user));
+    }
+
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public List<ItemTransactionBatchResultDto> applyBatch(@RequestBody List<ItemTransactionBatchLineDto> lines,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @AuthenticationPrincipal UserDetailsImpl user) {
+        return idempotencyService.execute(idempotencyKey, "savedItems.batch", new TypeReference<>() {}, user,
+            () -> itemTransactionBatchService.apply(lines, user));
+    }
+
+    @PostMapping(value = "/journal", produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public StockJournalReceiptDto appendToJournal(@RequestBody List<ItemTransactionBatchLineDto> lines,
+        @AuthenticationPrincipal UserDetailsImpl user) {
+        return stockJournalService.append(lines, user);
+    }
+
+    @GetMapping(value = "/journal", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public StockJournalReceiptDto getJournalStatus() {
+        return stockJournalService.getStatus();
+    }
+
+    @PostMapping(value = "/placement", produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public PlacementDto placeShipment(@RequestBody PlacementRequestDto placementRequest,
+        @RequestParam(defaultValue = "false") boolean commit,
+        @AuthenticationPrincipal UserDetailsImpl user) {
+        return placementService.place(placementRequest, commit, user);
     }
 
     @GetMapping(path = "/itemId/{itemId}", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -55,16 +113,20 @@ public class SavedItemController {
         consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
     public boolean moveSavedItem(@RequestBody ItemTransactionRequestDto itemTransaction,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
         @AuthenticationPrincipal UserDetailsImpl user) {
-        return itemService.moveItem(itemTransaction, user);
+        return idempotencyService.execute(idempotencyKey, "savedItems.move", new TypeReference<Boolean>() {}, user,
+            () -> itemService.moveItem(itemTransaction, user));
     }
 
     @PutMapping(value = "/outcome", produces = MediaType.APPLICATION_JSON_VALUE,
         consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
     public SavedItemDto outcomeItem(@RequestBody ItemTransactionRequestDto itemTransaction,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
         @AuthenticationPrincipal UserDetailsImpl user) {
-        return itemService.outcomeItem(itemTransaction, user);
+        return idempotencyService.execute(idempotencyKey, "savedItems.outcome", new TypeReference<>() {}, user,
+            () -> itemService.outcomeItem(itemTransaction, user));
     }
 
 
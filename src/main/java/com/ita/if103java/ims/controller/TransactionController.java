@@ -2,9 +2,12 @@ package com.ita.if103java.ims.controller;
 
 
 import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import com.ita.if103java.ims.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -22,6 +25,12 @@ public class TransactionController {
         this.transactionService = transactionService;
     }
 
+    @GetMapping
+    public Page<TransactionDto> findAll(TransactionFilterDto filter, Pageable pageable,
+                                        @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return transactionService.findAll(filter, pageable, userDetails);
+    }
+
     @GetMapping("/{id}")
     public TransactionDto findById(@PathVariable("id") Long id,
                                    @AuthenticationPrincipal UserDetailsImpl userDetails) {
@@ -0,0 +1,34 @@
+package com.ita.if103java.ims.dao;
+
+import com.ita.if103java.ims.entity.Event;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface EventArchiveDao {
+
+    /**
+     * Stores the events of one account and month, merged by id with the events already archived for that month,
+     * in date order and then id order.
+     */
+    void archive(Long accountId, YearMonth month, List<Event> events);
+
+    /**
+     * Archived events of the account and month in date order and then id order, as an unmodifiable list.
+     */
+    List<Event> findByAccountIdAndMonth(Long accountId, YearMonth month);
+
+    /**
+     * Passes the archived events of the account and month to the consumer in date order and then id order,
+     * reading the archive one line at a time.
+     */
+    void streamByAccountIdAndMonth(Long accountId, YearMonth month, Consumer<Event> consumer);
+
+    /**
+     * Archived months of the account in ascending order.
+     */
+    List<YearMonth> findMonthsByAccountId(Long accountId);
+
+    void deleteByAccountId(Long accountId);
+}
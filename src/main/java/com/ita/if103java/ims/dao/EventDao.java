@@ -5,13 +5,74 @@ import com.ita.if103java.ims.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface EventDao {
 
     Event create(Event event);
 
+    /**
+     * Inserts the events in one JDBC batch and sets their generated ids.
+     */
+    List<Event> createAll(List<Event> events);
+
+    /**
+     * Pages the matching events. Queries with a date filter that reaches into archived months
+     * also read the archived events of the account.
+     */
     Page<Event> findAll(Pageable pageable, Map<String, ?> params, User user);
 
+    /**
+     * Returns up to {@code limit} matching events ordered by {@code (date, id)} descending, starting right
+     * after the given cursor, or from the newest event when {@code cursorDate} is null.
+     */
+    List<Event> findFeed(Map<String, ?> params, User user, LocalDateTime cursorDate, Long cursorId, int limit);
+
+    long count(Map<String, ?> params, User user);
+
+    /**
+     * Passes the matching events to the consumer ordered by {@code (date, id)}, archived months first,
+     * as they are read.
+     */
+    void streamAll(Map<String, ?> params, User user, Consumer<Event> consumer);
+
+    /**
+     * Passes the account's events still in the events table to the consumer in id order, as they are read.
+     */
+    void streamByAccountId(Long accountId, Consumer<Event> consumer);
+
+    /**
+     * Returns the optimizer's row estimate for the filters, which does not scan the matching events.
+     */
+    long estimateCount(Map<String, ?> params, User user);
+
     void deleteByAccountId(Long accountId);
+
+    List<Long> findAccountIdsWithEventsBefore(LocalDateTime date);
+
+    LocalDateTime findOldestDate();
+
+    LocalDateTime findOldestDateByAccountId(Long accountId);
+
+    List<Event> findByAccountIdAndPeriod(Long accountId, LocalDateTime from, LocalDateTime to);
+
+    int deleteByAccountIdAndPeriod(Long accountId, LocalDateTime from, LocalDateTime to);
+
+    boolean existsBefore(LocalDateTime date);
+
+    /**
+     * Names of the partitions of the events table, empty when the table is not partitioned.
+     */
+    List<String> findPartitionNames();
+
+    /**
+     * Splits the catch-all partition into one partition per month, named {@code pyyyyMM}.
+     */
+    void addMonthlyPartitions(List<YearMonth> months);
+
+    void dropPartition(String name);
 }
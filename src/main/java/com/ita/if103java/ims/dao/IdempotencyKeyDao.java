@@ -0,0 +1,30 @@
+package com.ita.if103java.ims.dao;
+
+import com.ita.if103java.ims.entity.IdempotencyKey;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyDao {
+    /**
+     * Returns false, inserting nothing, when the account has stored the key already.
+     */
+    boolean create(IdempotencyKey idempotencyKey);
+
+    /**
+     * Stores the response of the key created before.
+     */
+    boolean updateResponse(IdempotencyKey idempotencyKey);
+
+    /**
+     * Claims the key again for {@code idempotencyKey} when its row has no response and was claimed before
+     * {@code claimedBefore}. Returns false when the row has a response, or another request claimed it since.
+     */
+    boolean claimExpired(IdempotencyKey idempotencyKey, ZonedDateTime claimedBefore);
+
+    Optional<IdempotencyKey> find(Long accountId, byte[] keyHash);
+
+    boolean delete(Long accountId, byte[] keyHash);
+
+    int deleteCreatedBefore(ZonedDateTime date);
+}
@@ -22,6 +22,11 @@ public interface ItemDao {
 
     Item addItem(Item item);
 
+    /**
+     * Inserts the items with one batch statement and sets their generated ids.
+     */
+    List<Item> addItems(List<Item> items);
+
     boolean softDeleteItem(Long id, Long accountId);
 
     void hardDelete(Long accountId);
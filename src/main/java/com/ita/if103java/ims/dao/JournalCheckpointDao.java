@@ -0,0 +1,17 @@
+package com.ita.if103java.ims.dao;
+
+import com.ita.if103java.ims.entity.StockJournalEntry;
+
+public interface JournalCheckpointDao {
+    /**
+     * Returns 0 when the node has applied nothing yet.
+     */
+    long findAppliedSequence(String node);
+
+    void updateAppliedSequence(String node, long sequence);
+
+    /**
+     * Keeps the serialized entry that can't be applied, with the error it failed with.
+     */
+    void createDeadLetter(String node, StockJournalEntry entry, String serializedEntry, String error);
+}
@@ -0,0 +1,21 @@
+package com.ita.if103java.ims.dao;
+
+import com.ita.if103java.ims.entity.LowStockItem;
+import com.ita.if103java.ims.entity.ReorderThreshold;
+
+import java.util.List;
+
+public interface ReorderThresholdDao {
+    List<ReorderThreshold> findByAccountId(Long accountId);
+
+    List<ReorderThreshold> findByItemId(Long itemId);
+
+    ReorderThreshold save(ReorderThreshold reorderThreshold);
+
+    boolean delete(Long itemId, Long warehouseId);
+
+    /**
+     * Saved items of the account whose quantity is below the threshold of their item and warehouse.
+     */
+    List<LowStockItem> findLowStockByAccountId(Long accountId, int defaultThreshold);
+}
@@ -0,0 +1,21 @@
+package com.ita.if103java.ims.dao;
+
+import com.ita.if103java.ims.entity.Reservation;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public interface ReservationDao {
+    Reservation create(Reservation reservation);
+
+    List<Reservation> findActiveByAccountId(Long accountId, ZonedDateTime now);
+
+    boolean delete(Long id, Long accountId);
+
+    int deleteExpiredByAccountId(Long accountId, ZonedDateTime now);
+
+    /**
+     * Deletes those of the given reservations that have expired by {@code now}.
+     */
+    int deleteExpired(List<Long> ids, ZonedDateTime now);
+}
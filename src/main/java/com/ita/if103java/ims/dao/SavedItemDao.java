@@ -1,15 +1,22 @@
 package com.ita.if103java.ims.dao;
 
+import com.ita.if103java.ims.dto.SavedItemExportDto;
 import com.ita.if103java.ims.entity.SavedItem;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface SavedItemDao {
     List<SavedItem> getSavedItems();
 
     SavedItem findSavedItemById(Long id);
 
+    /**
+     * Returns the saved item and locks it until the end of the current transaction.
+     */
+    SavedItem findSavedItemByIdForUpdate(Long id);
+
     List<SavedItem> findSavedItemByItemId(Long id);
 
     List<SavedItem> findSavedItemByWarehouseId(Long id);
@@ -18,13 +25,58 @@ public interface SavedItemDao {
 
     SavedItem addSavedItem(SavedItem savedItem);
 
+    /**
+     * Inserts the saved items with one batch statement and sets their generated ids.
+     */
+    List<SavedItem> addSavedItems(List<SavedItem> savedItems);
+
+    /**
+     * Adds the quantity of each given saved item to the saved item of its item in its warehouse, inserting
+     * the saved item when there is none, with one batch of upsert statements.
+     */
+    void addQuantities(List<SavedItem> savedItems);
+
+    /**
+     * Returns the saved items of the given items and locks them until the end of the current transaction.
+     */
+    List<SavedItem> findSavedItemsByItemIds(List<Long> itemIds);
+
+    /**
+     * Stores the quantity and warehouse of each given saved item with one batch statement.
+     */
+    void updateSavedItems(List<SavedItem> savedItems);
+
+    void deleteSavedItems(List<Long> savedItemIds);
+
     boolean outComeSavedItem(SavedItem savedItem, int quantity);
 
+    /**
+     * Adds the quantity to the saved item of the item in the warehouse, inserting the saved item when there is
+     * none, with one upsert statement, and returns the stored saved item.
+     */
+    SavedItem addQuantity(Long itemId, Long warehouseId, int quantity);
+
+    /**
+     * Subtracts the quantity from the saved item unless that leaves less than {@code reserved} in it.
+     * Returns false, changing nothing, when the saved item is missing or holds less.
+     */
+    boolean takeQuantity(Long savedItemId, int quantity, int reserved);
+
+    /**
+     * Deletes the saved item if its quantity is zero.
+     */
+    boolean deleteEmptySavedItem(Long savedItemId);
+
     boolean updateSavedItem(Long warehouseId, Long savedItemId);
 
     boolean deleteSavedItem(Long savedItemId);
 
     Optional<SavedItem> findSavedItemByItemIdAndWarehouseId(Long itemId, Long warehouseId);
 
+    /**
+     * Passes the account's saved items with their item names to the consumer as they are read.
+     */
+    void streamByAccountId(Long accountId, Consumer<SavedItemExportDto> consumer);
+
     void hardDelete(Long accountId);
 }
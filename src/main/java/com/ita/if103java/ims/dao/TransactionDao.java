@@ -1,13 +1,26 @@
 package com.ita.if103java.ims.dao;
 
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
 import com.ita.if103java.ims.entity.Transaction;
 import com.ita.if103java.ims.entity.TransactionType;
 import com.ita.if103java.ims.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionDao {
     Transaction create(Transaction transaction);
 
+    /**
+     * Inserts the transactions with one batch statement, sets their generated ids and adds them to the daily rollups.
+     */
+    List<Transaction> createAll(List<Transaction> transactions);
+
     Transaction create(ItemTransactionRequestDto itemTransactionRequestDto,
                        User user,
                        Long associateId,
@@ -17,5 +30,21 @@ public interface TransactionDao {
 
     Transaction findByIdAndAccountId(Long id, Long accountId);
 
+    /**
+     * Returns a page of the account's transactions with their worker, item and associate joined in.
+     * Warehouses only carry their ids.
+     */
+    Page<TransactionDto> findHistory(Long accountId, TransactionFilterDto filter, Pageable pageable);
+
+    /**
+     * Passes the account's matching transactions to the consumer, oldest first, as they are read.
+     */
+    void streamHistory(Long accountId, TransactionFilterDto filter, Consumer<TransactionDto> consumer);
+
     void hardDelete(Long accountId);
+
+    /**
+     * Recomputes the daily rollups of the days in [from, to) from the transactions table.
+     */
+    int rebuildDailyRollups(LocalDate from, LocalDate to);
 }
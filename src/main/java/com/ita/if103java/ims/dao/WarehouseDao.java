@@ -27,6 +27,10 @@ public interface WarehouseDao {
 
     List<Warehouse> findByTopWarehouseID(Long id, Long accountId);
 
+    List<Warehouse> findAllByAccountId(Long accountId);
+
+    List<Warehouse> findBottomByAccountId(Long accountId);
+
     Integer findLevelByParentID(Long id);
 
     List<Warehouse> findChildrenById(Long id, Long accountId);
@@ -39,4 +43,14 @@ public interface WarehouseDao {
 
     List<Warehouse> findByTopWarehouseIDs(String ids, Long accountId);
 
+    void addUsedVolume(Long id, long volume);
+
+    void updateUsedVolumeByItem(Long itemId, int volume, Long accountId);
+
+    int reconcileUsedVolume();
+
+    boolean lockCapacity(Long id, int timeoutSeconds);
+
+    void unlockCapacity(Long id);
+
 }
@@ -6,14 +6,13 @@ import com.ita.if103java.ims.dto.PopularItemsDto;
 import com.ita.if103java.ims.dto.PopularItemsRequestDto;
 import com.ita.if103java.ims.dto.WarehouseLoadDto;
 import com.ita.if103java.ims.dto.WarehousePremiumStructDto;
-import com.ita.if103java.ims.entity.ChargeCapacity;
+import com.ita.if103java.ims.entity.Warehouse;
 import com.ita.if103java.ims.exception.dao.CRUDException;
 import com.ita.if103java.ims.exception.dao.DashboardDataNotFoundException;
-import com.ita.if103java.ims.mapper.jdbc.ChargeCapacityRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.EndingItemsRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.PopularItemsRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.WarehouseLoadRowMapper;
-import com.ita.if103java.ims.mapper.jdbc.WarehousePremiumStructRowMapper;
+import com.ita.if103java.ims.mapper.jdbc.WarehouseRowMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -23,33 +22,39 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.ita.if103java.ims.entity.PopType.TOP;
 import static com.ita.if103java.ims.util.JDBCUtils.getOrder;
 
 @Repository
 public class DashboardDaoImpl implements DashboardDao {
+    private static final DateTimeFormatter POPULAR_ITEMS_DATE_FORMAT =
+        DateTimeFormatter.ofPattern("[yyyy-MM-dd][dd-MM-yyyy]");
 
     private WarehouseLoadRowMapper warehouseLoadRowMapper;
     private PopularItemsRowMapper popularItemsRowMapper;
     private EndingItemsRowMapper endingItemsRowMapper;
-    private WarehousePremiumStructRowMapper warehousePremiumStructRowMapper;
-    private ChargeCapacityRowMapper chargeCapacityRowMapper;
+    private WarehouseRowMapper warehouseRowMapper;
     private JdbcTemplate jdbcTemplate;
 
     @Autowired
     public DashboardDaoImpl(WarehouseLoadRowMapper warehouseLoadRowMapper,
                             EndingItemsRowMapper endingItemsRowMapper,
                             PopularItemsRowMapper popularItemsRowMapper,
-                            WarehousePremiumStructRowMapper warehousePremiumStructRowMapper,
-                            ChargeCapacityRowMapper chargeCapacityRowMapper,
+                            WarehouseRowMapper warehouseRowMapper,
                             JdbcTemplate jdbcTemplate) {
-        this.warehousePremiumStructRowMapper = warehousePremiumStructRowMapper;
+        this.warehouseRowMapper = warehouseRowMapper;
         this.endingItemsRowMapper = endingItemsRowMapper;
         this.popularItemsRowMapper = popularItemsRowMapper;
         this.warehouseLoadRowMapper = warehouseLoadRowMapper;
-        this.chargeCapacityRowMapper = chargeCapacityRowMapper;
         this.jdbcTemplate = jdbcTemplate;
     }
 
@@ -67,21 +72,23 @@ public class DashboardDaoImpl implements DashboardDao {
 
     @Override
     public List<PopularItemsDto> findPopularItems(PopularItemsRequestDto popularItems, Long accountId) {
+        String order = popularItems.getPopType() == TOP ? Queries.SQL_ATR_POP : Queries.SQL_ATR_UNPOP;
         try {
             switch (popularItems.getDateType()) {
-                case YEAR:
-                    return jdbcTemplate.query(Queries.SQL_FIND_POPULAR_ITEMS + Queries.SQL_POP_YEAR +
-                            (popularItems.getPopType() == TOP ? Queries.SQL_ATR_POP : Queries.SQL_ATR_UNPOP),
+                case YEAR: {
+                    LocalDate from = parseDate(popularItems.getDate()).withDayOfYear(1);
+                    return jdbcTemplate.query(Queries.SQL_FIND_POPULAR_ITEMS + Queries.SQL_POP_PERIOD + order,
                         popularItemsRowMapper,
-                        accountId, popularItems.getDate(), popularItems.getQuantity());
-                case MONTH:
-                    return jdbcTemplate.query(Queries.SQL_FIND_POPULAR_ITEMS + Queries.SQL_POP_MONTH +
-                            (popularItems.getPopType() == TOP ? Queries.SQL_ATR_POP : Queries.SQL_ATR_UNPOP),
+                        accountId, Date.valueOf(from), Date.valueOf(from.plusYears(1)), popularItems.getQuantity());
+                }
+                case MONTH: {
+                    LocalDate from = parseDate(popularItems.getDate()).withDayOfMonth(1);
+                    return jdbcTemplate.query(Queries.SQL_FIND_POPULAR_ITEMS + Queries.SQL_POP_PERIOD + order,
                         popularItemsRowMapper,
-                        accountId, popularItems.getDate(), popularItems.getDate(), popularItems.getQuantity());
+                        accountId, Date.valueOf(from), Date.valueOf(from.plusMonths(1)), popularItems.getQuantity());
+                }
                 default:
-                    return jdbcTemplate.query(Queries.SQL_FIND_POPULAR_ITEMS +
-                            (popularItems.getPopType() == TOP ? Queries.SQL_ATR_POP : Queries.SQL_ATR_UNPOP),
+                    return jdbcTemplate.query(Queries.SQL_FIND_POPULAR_ITEMS + order,
                         popularItemsRowMapper,
                         accountId, popularItems.getQuantity());
             }
@@ -115,54 +122,59 @@ public class DashboardDaoImpl implements DashboardDao {
 
     @Override
     public WarehousePremiumStructDto getPreLoadByAccounId(Long id, Long accountId) {
+        List<Warehouse> subtree;
         try {
-            WarehousePremiumStructDto wpld = jdbcTemplate.queryForObject(Queries.SQL_WAREHOUSE_STRUCTURE_PRIMARY,
-                warehousePremiumStructRowMapper, id, accountId);
-
-            wpld.setChilds(findWarehouseStructureAndBottomLoad(id, id, accountId));
-
-            recursiceWarehouseDataFiller(wpld);
-
-            return wpld;
-        } catch (EmptyResultDataAccessException e) {
-            throw new DashboardDataNotFoundException(
-                "Failed to obtain root warehouse during `select`, id = " + id);
+            subtree = jdbcTemplate.query(Queries.SQL_WAREHOUSE_SUBTREE, warehouseRowMapper, id, accountId);
         } catch (DataAccessException e) {
             throw crudException(e, "getPreLoad", "accountId=" + accountId);
         }
+        if (subtree.isEmpty() || !id.equals(subtree.get(0).getId())) {
+            throw new DashboardDataNotFoundException(
+                "Failed to obtain root warehouse during `select`, id = " + id);
+        }
+        return buildPremiumStruct(subtree);
     }
 
-    private List<WarehousePremiumStructDto> findWarehouseStructureAndBottomLoad(Long id, Long topWarehouseId,
-                                                                                Long accountId) {
-        try {
-            List<WarehousePremiumStructDto> wpld = jdbcTemplate.query(Queries.SQL_WAREHOUSE_STRUCTURE_SUB,
-                warehousePremiumStructRowMapper, id, accountId);
-            for (WarehousePremiumStructDto warehouseItem : wpld) {
-                warehouseItem.setChilds(findWarehouseStructureAndBottomLoad(warehouseItem.getId(), topWarehouseId,
-                    accountId));
-                if (warehouseItem.getChilds().size() == 0) {
-                    ChargeCapacity chargeCapacity = jdbcTemplate.queryForObject(Queries.SQL_FIND_BOT_CAPACITY_CHARGE,
-                        chargeCapacityRowMapper, topWarehouseId, warehouseItem.getId(), accountId);
-                    warehouseItem.setCharge(chargeCapacity.getCharge());
-                    warehouseItem.setCapacity(chargeCapacity.getCapacity());
-                }
+    /**
+     * Links the subtree, which is ordered by depth, from the top down and then sums
+     * the bottom warehouses charge and capacity into their ancestors from the bottom up.
+     */
+    private WarehousePremiumStructDto buildPremiumStruct(List<Warehouse> subtree) {
+        Map<Long, WarehousePremiumStructDto> nodes = new HashMap<>();
+        List<WarehousePremiumStructDto> parents = new ArrayList<>();
+        for (Warehouse warehouse : subtree) {
+            WarehousePremiumStructDto node = new WarehousePremiumStructDto(warehouse.getId(), warehouse.getName(),
+                0L, 0L, new ArrayList<>());
+            if (warehouse.isBottom()) {
+                node.setCharge(warehouse.getUsedVolume());
+                node.setCapacity(warehouse.getCapacity().longValue());
+            }
+            WarehousePremiumStructDto parent = nodes.isEmpty() ? null : nodes.get(warehouse.getParentID());
+            if (parent != null) {
+                parent.getChilds().add(node);
+            }
+            nodes.put(warehouse.getId(), node);
+            parents.add(parent);
+        }
+        for (int i = subtree.size() - 1; i > 0; i--) {
+            WarehousePremiumStructDto node = nodes.get(subtree.get(i).getId());
+            WarehousePremiumStructDto parent = parents.get(i);
+            if (parent != null) {
+                parent.setCharge(parent.getCharge() + node.getCharge());
+                parent.setCapacity(parent.getCapacity() + node.getCapacity());
             }
-            return wpld;
-        } catch (EmptyResultDataAccessException e) {
-            throw new DashboardDataNotFoundException(
-                "Failed to obtain structure and load of warehouses during `select`, id = " + id);
-        } catch (DataAccessException e) {
-            throw crudException(e, "findWarehouseStructure", "*");
         }
+        return nodes.get(subtree.get(0).getId());
     }
 
-    private void recursiceWarehouseDataFiller(WarehousePremiumStructDto wp) {
-        for (WarehousePremiumStructDto child : wp.getChilds()) {
-            recursiceWarehouseDataFiller(child);
+    private LocalDate parseDate(String date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Popular items date is required for a year or month period");
         }
-        for (WarehousePremiumStructDto child : wp.getChilds()) {
-            wp.setCharge(wp.getCharge() + child.getCharge());
-            wp.setCapacity(wp.getCapacity() + child.getCapacity());
+        try {
+            return LocalDate.parse(date, POPULAR_ITEMS_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid popular items date: " + date, e);
         }
     }
 
@@ -176,53 +188,42 @@ public class DashboardDaoImpl implements DashboardDao {
     public final class Queries {
         public static final String SQL_FIND_POPULAR_ITEMS = """
                 SELECT it.name_item AS name,
-                sum(ts.quantity) AS quantity
-                FROM transactions ts
+                sum(r.out_quantity) AS quantity
+                FROM transaction_daily_rollups r
                 JOIN items it
-                ON ts.item_id = it.id and ts.account_id = it.account_id
-                WHERE type = 'OUT'
-                AND ts.account_id = ?
+                ON r.item_id = it.id and r.account_id = it.account_id
+                WHERE r.account_id = ?
             """;
 
-        public static final String SQL_POP_YEAR = """
-                AND year(?)=year(ts.timestamp)
-            """;
-
-        public static final String SQL_POP_MONTH = """
-                AND year(?)=year(ts.timestamp)
-                AND month(?)=month(ts.timestamp)
+        public static final String SQL_POP_PERIOD = """
+                AND r.day >= ?
+                AND r.day < ?
             """;
 
         public static final String SQL_ATR_POP = """
-                GROUP BY ts.item_id, name
-                ORDER BY sum(ts.quantity) DESC, name DESC
+                GROUP BY r.item_id, name
+                HAVING quantity > 0
+                ORDER BY quantity DESC, name DESC
                 LIMIT ?
             """;
 
         public static final String SQL_ATR_UNPOP = """
-                GROUP BY ts.item_id, name
-                ORDER BY sum(ts.quantity), name DESC
+                GROUP BY r.item_id, name
+                HAVING quantity > 0
+                ORDER BY quantity, name DESC
                 LIMIT ?
             """;
 
         public static final String SQL_FIND_WAREHOUSE_LOAD_BY_ACCOUNT_ID = """
-                SELECT top_warehouse_id id, cap.name, ifnull(sum(charge),0) charge, ifnull(sum(capacity),0) capacity
-                 FROM
-                 (SELECT warehouse_id, it.account_id, sum(quantity*volume) charge
-                 FROM saved_items si
-                 JOIN items it
-                 ON si.item_id = it.id
-                 JOIN warehouses wh
-                 ON si.warehouse_id = wh.id
-                 GROUP BY warehouse_id) AS  cha
-                 RIGHT JOIN
-                 (SELECT w1.id, w2.name, w1.capacity, w1.account_id, w1.top_warehouse_id
-                 FROM warehouses w1
-                 JOIN warehouses w2
-                 WHERE w1.is_bottom=1 AND w2.active=1 and w2.id=w1.top_warehouse_id) AS cap
-                 ON  cha.warehouse_id=cap.id AND  cha.account_id=cap.account_id
-                 WHERE cap.account_id=?
-                 GROUP BY top_warehouse_id
+                SELECT tw.id, tw.name, sum(w.used_volume) charge, sum(w.capacity) capacity
+                FROM warehouses w
+                JOIN warehouses tw
+                ON tw.id = w.top_warehouse_id
+                WHERE w.account_id = ?
+                AND w.is_bottom = 1
+                AND w.active = 1
+                AND tw.active = 1
+                GROUP BY tw.id, tw.name
             """;
 
         public static final String SQL_FIND_ENDED_ITEMS_BY_ACCOUNT_ID = """
@@ -249,38 +250,15 @@ public class DashboardDaoImpl implements DashboardDao {
                 AND wh.account_id = ?
             """;
 
-        public static final String SQL_WAREHOUSE_STRUCTURE_PRIMARY = """
-                SELECT id, name
-                FROM warehouses
-                WHERE id=?
-                AND account_id=?
-                AND active = 1
-            """;
-
-        public static final String SQL_WAREHOUSE_STRUCTURE_SUB = """
-                SELECT id, name
-                FROM warehouses
-                WHERE parent_id=?
-                AND account_id=?
-                AND active = 1
-            """;
-
-        public static final String SQL_FIND_BOT_CAPACITY_CHARGE = """
-                SELECT id, ifnull(sum(charge),0) charge, ifnull(sum(capacity),0) capacity
-                FROM
-                (SELECT warehouse_id, it.account_id, sum(quantity*volume) charge
-                FROM saved_items si
-                JOIN items it
-                ON si.item_id = it.id
-                JOIN warehouses wh
-                ON si.warehouse_id = wh.id
-                GROUP BY warehouse_id) AS cha
-                RIGHT JOIN
-                (SELECT id, capacity, account_id
-                FROM warehouses
-                WHERE is_bottom=1 AND top_warehouse_id = ?) AS cap
-                ON cha.warehouse_id=cap.id AND cha.account_id=cap.account_id
-                WHERE id = ? AND cap.account_id = ?
+        public static final String SQL_WAREHOUSE_SUBTREE = """
+                SELECT w.*
+                FROM warehouse_closure c
+                JOIN warehouses w
+                ON w.id = c.descendant_id
+                WHERE c.ancestor_id = ?
+                AND w.account_id = ?
+                AND w.active = 1
+                ORDER BY c.depth, w.id
             """;
     }
 }
@@ -0,0 +1,240 @@
+package com.ita.if103java.ims.dao.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.dao.EventArchiveDao;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.exception.dao.CRUDException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps archived events in gzip-compressed JSON lines files, one per account and month:
+ * {@code <events.archive.dir>/<accountId>/events-<yyyy-MM>.jsonl.gz}.
+ * The events of a file are in date order, so a month can be streamed without sorting it.
+ * The {@code events.archive.cacheSize} most recently read months are kept parsed; the files are only written
+ * through this class, which updates the cached months with them.
+ */
+@Repository
+public class EventArchiveDaoImpl implements EventArchiveDao {
+    private static final String FILE_PREFIX = "events-";
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {
+    };
+    private static final Comparator<Event> FILE_ORDER =
+        Comparator.comparing((Event event) -> event.getDate().toLocalDateTime()).thenComparing(Event::getId);
+
+    @Value("${events.archive.dir}")
+    private String archiveDir;
+    @Value("${events.archive.cacheSize}")
+    private int cacheSize;
+    private Map<String, List<Event>> months;
+
+    @PostConstruct
+    public void init() {
+        months = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Event>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void archive(Long accountId, YearMonth month, List<Event> events) {
+        Path file = file(accountId, month);
+        Map<Long, Event> merged = new HashMap<>();
+        try {
+            for (Event event : find(accountId, month)) {
+                merged.put(event.getId(), event);
+            }
+            for (Event event : events) {
+                merged.put(event.getId(), event);
+            }
+            Files.createDirectories(file.getParent());
+            // written aside and moved, so readers never see a partial file
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            List<Event> sorted = new ArrayList<>(merged.values());
+            sorted.sort(FILE_ORDER);
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8))) {
+                for (Event event : sorted) {
+                    writer.write(OBJECT_MAPPER.writeValueAsString(toRecord(event)));
+                    writer.newLine();
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            months.put(toKey(accountId, month), List.copyOf(sorted));
+        } catch (IOException e) {
+            throw new CRUDException("Error during `archive` {accountId = " + accountId + ", month = " + month +
+                "}, EventArchiveDao.archive", e);
+        }
+    }
+
+    @Override
+    public synchronized List<Event> findByAccountIdAndMonth(Long accountId, YearMonth month) {
+        try {
+            return find(accountId, month);
+        } catch (IOException e) {
+            throw new CRUDException("Error during `findByAccountIdAndMonth` {accountId = " + accountId +
+                ", month = " + month + "}, EventArchiveDao.findByAccountIdAndMonth", e);
+        }
+    }
+
+    // files are replaced by a move, so a stream opened before an archive keeps reading the old file
+    @Override
+    public void streamByAccountIdAndMonth(Long accountId, YearMonth month, Consumer<Event> consumer) {
+        List<Event> cached;
+        synchronized (this) {
+            cached = months.get(toKey(accountId, month));
+        }
+        if (cached != null) {
+            cached.forEach(consumer);
+            return;
+        }
+        try {
+            read(file(accountId, month), consumer);
+        } catch (IOException e) {
+            throw new CRUDException("Error during `streamByAccountIdAndMonth` {accountId = " + accountId +
+                ", month = " + month + "}, EventArchiveDao.streamByAccountIdAndMonth", e);
+        }
+    }
+
+    @Override
+    public List<YearMonth> findMonthsByAccountId(Long accountId) {
+        Path directory = accountDirectory(accountId);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                .map(name -> YearMonth.parse(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())))
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new CRUDException("Error during `findMonthsByAccountId` {accountId = " + accountId +
+                "}, EventArchiveDao.findMonthsByAccountId", e);
+        }
+    }
+
+    @Override
+    public synchronized void deleteByAccountId(Long accountId) {
+        String prefix = accountId + ":";
+        months.keySet().removeIf(key -> key.startsWith(prefix));
+        Path directory = accountDirectory(accountId);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new CRUDException("Error during `deleteByAccountId` {accountId = " + accountId +
+                "}, EventArchiveDao.deleteByAccountId", e);
+        }
+    }
+
+    private List<Event> find(Long accountId, YearMonth month) throws IOException {
+        String key = toKey(accountId, month);
+        List<Event> events = months.get(key);
+        if (events == null) {
+            events = List.copyOf(read(file(accountId, month)));
+            months.put(key, events);
+        }
+        return events;
+    }
+
+    private List<Event> read(Path file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        read(file, events::add);
+        return events;
+    }
+
+    private void read(Path file, Consumer<Event> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    consumer.accept(toEvent(OBJECT_MAPPER.readValue(line, RECORD_TYPE)));
+                }
+            }
+        }
+    }
+
+    private static String toKey(Long accountId, YearMonth month) {
+        return accountId + ":" + month;
+    }
+
+    private Path accountDirectory(Long accountId) {
+        return Paths.get(archiveDir, accountId.toString());
+    }
+
+    private Path file(Long accountId, YearMonth month) {
+        return accountDirectory(accountId).resolve(FILE_PREFIX + month + FILE_SUFFIX);
+    }
+
+    private Map<String, Object> toRecord(Event event) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", event.getId());
+        record.put("message", event.getMessage());
+        record.put("date", event.getDate().toLocalDateTime().toString());
+        record.put("accountId", event.getAccountId());
+        record.put("warehouseId", event.getWarehouseId());
+        record.put("authorId", event.getAuthorId());
+        record.put("name", event.getName().toString());
+        record.put("transactionId", event.getTransactionId());
+        return record;
+    }
+
+    private Event toEvent(Map<String, Object> record) {
+        Event event = new Event();
+        event.setId(toLong(record.get("id")));
+        event.setMessage((String) record.get("message"));
+        event.setDate(LocalDateTime.parse((String) record.get("date")).atZone(ZoneId.systemDefault()));
+        event.setAccountId(toLong(record.get("accountId")));
+        event.setWarehouseId(toLong(record.get("warehouseId")));
+        event.setAuthorId(toLong(record.get("authorId")));
+        event.setName(EventName.valueOf((String) record.get("name")));
+        event.setTransactionId(toLong(record.get("transactionId")));
+        return event;
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -1,54 +1,82 @@
 package com.ita.if103java.ims.dao.impl;
 
 import com.ita.if103java.ims.config.GeneratedKeyHolderFactory;
+import com.ita.if103java.ims.dao.EventArchiveDao;
 import com.ita.if103java.ims.dao.EventDao;
 import com.ita.if103java.ims.entity.Event;
-import com.ita.if103java.ims.entity.EventName;
-import com.ita.if103java.ims.entity.EventType;
-import com.ita.if103java.ims.entity.Role;
 import com.ita.if103java.ims.entity.User;
 import com.ita.if103java.ims.exception.dao.CRUDException;
 import com.ita.if103java.ims.exception.dao.EventNotFoundException;
 import com.ita.if103java.ims.mapper.jdbc.EventRowMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Collection;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.ita.if103java.ims.util.JDBCUtils.createWithAutogeneratedId;
+import static com.ita.if103java.ims.util.TransactionUtils.afterCommit;
 
 @Repository
 public class EventDaoImpl implements EventDao {
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final Comparator<Event> FEED_ORDER =
+        Comparator.comparing((Event event) -> event.getDate().toLocalDateTime()).thenComparing(Event::getId);
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "id", "id",
+        "date", "date",
+        "name", "name",
+        "message", "message",
+        "author_id", "author_id",
+        "authorId", "author_id",
+        "warehouse_id", "warehouse_id",
+        "warehouseId", "warehouse_id");
 
     private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
     private EventRowMapper eventRowMapper;
     private GeneratedKeyHolderFactory generatedKeyHolderFactory;
+    private EventArchiveDao eventArchiveDao;
 
     @Autowired
     public EventDaoImpl(JdbcTemplate jdbcTemplate,
+                        @Qualifier("streamingJdbcTemplate") NamedParameterJdbcTemplate streamingJdbcTemplate,
                         EventRowMapper eventRowMapper,
-                        GeneratedKeyHolderFactory generatedKeyHolderFactory) {
+                        GeneratedKeyHolderFactory generatedKeyHolderFactory,
+                        EventArchiveDao eventArchiveDao) {
         this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = streamingJdbcTemplate;
         this.eventRowMapper = eventRowMapper;
         this.generatedKeyHolderFactory = generatedKeyHolderFactory;
+        this.eventArchiveDao = eventArchiveDao;
     }
 
     @Override
@@ -66,57 +94,52 @@ public class EventDaoImpl implements EventDao {
     }
 
     @Override
-    public Page<Event> findAll(Pageable pageable, Map<String, ?> params, User user) {
-        Set<EventName> eventNames = new TreeSet<>(Comparator.comparing(Enum::toString));
-        if (params.containsKey("type")) {
-            for (String eventType : (Collection<String>) params.get("type")) {
-                eventNames.addAll(EventName.getValuesByType(EventType.valueOf(eventType)));
-            }
-        }
-        if (params.containsKey("name")) {
-            for (String eventName : (Collection<String>) params.get("name")) {
-                eventNames.add(EventName.valueOf(eventName));
-            }
-        }
-
-        String accountCondition = String.format("account_id = '%s'", user.getAccountId());
-
-        String personalConditions = "";
-
-        if (user.getRole().equals(Role.ROLE_WORKER)) {
-            personalConditions = restrictPersonalEventsForWorker(params, user, eventNames);
+    public List<Event> createAll(List<Event> events) {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<List<Event>>) connection -> {
+                try (PreparedStatement preparedStatement =
+                         connection.prepareStatement(Queries.SQL_CREATE_EVENT, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Event event : events) {
+                        setParameters(preparedStatement, event);
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                    try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                        for (int i = 0; i < events.size() && generatedKeys.next(); i++) {
+                            events.get(i).setId(generatedKeys.getLong(1));
+                        }
+                    }
+                }
+                return events;
+            });
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `create` of " + events.size() +
+                " events, EventDao.createAll", e);
         }
+    }
 
-        String conditions = Stream
-            .of("warehouse_id", "author_id", "date", "after", "before")
-            .filter(params::containsKey)
-            .map(x -> buildSqlCondition(x, params.get(x)))
-            .collect(Collectors.joining("\n and "));
-
-        String eventNameCondition;
-        if (eventNames.isEmpty()) {
-            eventNameCondition = personalConditions;
-        } else {
-            eventNameCondition = buildSqlCondition("name", eventNames);
-            if (!personalConditions.isBlank()) {
-                eventNameCondition = "(" + eventNameCondition + " or " + personalConditions + ")";
-            }
-        }
-        String where = Stream.of(accountCondition, conditions, eventNameCondition)
-            .filter(x -> !x.isBlank()).collect(Collectors.joining(" and "));
-
-        String sort = pageable.getSort().toString().replaceAll(": ", " ");
-        final String querySelectEvents = String.format("""
-                SELECT * FROM events WHERE %s ORDER BY %s LIMIT %s OFFSET %s
-                """,
-            where, sort, pageable.getPageSize(), pageable.getOffset());
-        final String rowCountSql = String.format("""
-            SELECT COUNT(1) FROM events WHERE %s
-            """, where);
+    @Override
+    public Page<Event> findAll(Pageable pageable, Map<String, ?> params, User user) {
+        EventQueryBuilder query = new EventQueryBuilder(params, user);
+        String sort = getOrder(pageable.getSort());
+        List<Event> archived = findArchived(query, user.getAccountId());
+        final String querySelectEvents = String.format(Queries.SQL_SELECT_PAGE, query.getWhere(), sort);
+        final String rowCountSql = String.format(Queries.SQL_COUNT, query.getWhere());
         try {
-            List<Event> events = jdbcTemplate.query(querySelectEvents, eventRowMapper);
-            Integer rowCount = jdbcTemplate.queryForObject(rowCountSql, Integer.class);
-            return new PageImpl<>(events, pageable, rowCount);
+            Integer rowCount = jdbcTemplate.queryForObject(rowCountSql, Integer.class, query.getArgs());
+            if (archived.isEmpty()) {
+                List<Event> events = jdbcTemplate.query(querySelectEvents, eventRowMapper,
+                    query.getArgs(pageable.getPageSize(), pageable.getOffset()));
+                return new PageImpl<>(events, pageable, rowCount);
+            }
+            // the page may fall anywhere in the merged order, so the hot rows before its end are merged too
+            List<Event> events = jdbcTemplate.query(querySelectEvents, eventRowMapper,
+                query.getArgs(pageable.getOffset() + pageable.getPageSize(), 0L));
+            List<Event> merged = merge(events, archived, toComparator(pageable.getSort()));
+            int from = (int) Math.min(pageable.getOffset(), merged.size());
+            int to = Math.min(from + pageable.getPageSize(), merged.size());
+            return new PageImpl<>(merged.subList(from, to), pageable,
+                rowCount + countDeleted(archived, user.getAccountId()));
         } catch (
             EmptyResultDataAccessException e) {
             throw new EventNotFoundException("Failed to obtain event during " + querySelectEvents + ", EventDao.findAll", e);
@@ -126,112 +149,314 @@ public class EventDaoImpl implements EventDao {
         }
     }
 
-    private String restrictPersonalEventsForWorker(Map<String, ?> params, User user, Set<EventName> eventNames) {
-        String personalConditions;
-        boolean showPersonalEvents =
-            !params.containsKey("author_id") ||
-                collectionContainsElement((Collection) params.get("author_id"), user.getId());
+    @Override
+    public List<Event> findFeed(Map<String, ?> params, User user, LocalDateTime cursorDate, Long cursorId, int limit) {
+        EventQueryBuilder query = new EventQueryBuilder(params, user);
+        List<Event> events;
+        try {
+            if (cursorDate == null) {
+                events = jdbcTemplate.query(String.format(Queries.SQL_SELECT_FEED, query.getWhere(), ""),
+                    eventRowMapper, query.getArgs(limit));
+            } else {
+                events = jdbcTemplate.query(
+                    String.format(Queries.SQL_SELECT_FEED, query.getWhere(), Queries.SQL_FEED_CURSOR_CONDITION),
+                    eventRowMapper, query.getArgs(cursorDate, cursorDate, cursorId, limit));
+            }
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `findFeed` {accountId = " + user.getAccountId() +
+                "}, EventDao.findFeed", e);
+        }
+        List<Event> archived = findArchived(query, user.getAccountId());
+        if (archived.isEmpty()) {
+            return events;
+        }
+        Comparator<Event> newestFirst = FEED_ORDER.reversed();
+        if (cursorDate != null) {
+            Event cursor = new Event();
+            cursor.setDate(cursorDate.atZone(ZoneId.systemDefault()));
+            cursor.setId(cursorId);
+            archived.removeIf(event -> newestFirst.compare(event, cursor) <= 0);
+        }
+        List<Event> merged = merge(events, archived, newestFirst);
+        return merged.subList(0, Math.min(limit, merged.size()));
+    }
 
+    @Override
+    public long count(Map<String, ?> params, User user) {
+        EventQueryBuilder query = new EventQueryBuilder(params, user);
+        final String rowCountSql = String.format(Queries.SQL_COUNT, query.getWhere());
+        try {
+            Long rowCount = jdbcTemplate.queryForObject(rowCountSql, Long.class, query.getArgs());
+            return (rowCount == null ? 0 : rowCount) +
+                countDeleted(findArchived(query, user.getAccountId()), user.getAccountId());
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during  " + rowCountSql + ", EventDao.count", e);
+        }
+    }
 
-        if (!eventNames.isEmpty()) {
-            if (!showPersonalEvents) {
-                eventNames.removeIf(o -> o.getType().equals(EventType.USER));
-            }
+    @Override
+    public void streamAll(Map<String, ?> params, User user, Consumer<Event> consumer) {
+        EventQueryBuilder query = new EventQueryBuilder(params, user);
+        // archived months come first and are complete, so their rows still in the table are skipped
+        Set<YearMonth> archivedMonths = new HashSet<>();
+        for (YearMonth month : findArchivedMonths(query, user.getAccountId())) {
+            archivedMonths.add(month);
+            eventArchiveDao.streamByAccountIdAndMonth(user.getAccountId(), month, event -> {
+                if (query.getPredicate().test(event)) {
+                    consumer.accept(event);
+                }
+            });
+        }
+        final String streamSql = String.format(Queries.SQL_STREAM, query.getWhere());
+        try {
+            streamingJdbcTemplate.getJdbcOperations().query(streamSql, (RowCallbackHandler) rs -> {
+                Event event = eventRowMapper.mapRow(rs, rs.getRow());
+                if (!archivedMonths.contains(YearMonth.from(event.getDate().toLocalDateTime()))) {
+                    consumer.accept(event);
+                }
+            }, query.getArgs().toArray());
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during " + streamSql + ", EventDao.streamAll", e);
+        }
+    }
 
-            personalConditions = buildSqlNameCondition(eventNames, user.getId());
+    @Override
+    public void streamByAccountId(Long accountId, Consumer<Event> consumer) {
+        try {
+            streamingJdbcTemplate.getJdbcOperations().query(Queries.SQL_STREAM_BY_ACCOUNT_ID,
+                (RowCallbackHandler) rs -> consumer.accept(eventRowMapper.mapRow(rs, rs.getRow())), accountId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during streaming events {account_id = " + accountId +
+                "}, EventDao.streamByAccountId", e);
+        }
+    }
 
-            if (eventNames.isEmpty() && !showPersonalEvents) {
-                personalConditions = "name in ('')";
-            }
-        } else {
-            personalConditions = showPersonalEvents ?
-                "(".concat(buildSqlPrivacyCondition())
-                    .concat(" or ")
-                    .concat(buildSqlDefaultCondition(user.getId()))
-                    .concat(")") :
-                buildSqlPrivacyCondition();
-        }
-        return personalConditions;
+    @Override
+    public long estimateCount(Map<String, ?> params, User user) {
+        EventQueryBuilder query = new EventQueryBuilder(params, user);
+        final String explainSql = "EXPLAIN " + String.format(Queries.SQL_COUNT, query.getWhere());
+        try {
+            Long estimate = jdbcTemplate.query(explainSql, resultSet -> resultSet.next() ?
+                Math.round(resultSet.getLong("rows") * resultSet.getDouble("filtered") / 100) : 0L,
+                query.getArgs());
+            return estimate == null ? 0 : estimate;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during  " + explainSql + ", EventDao.estimateCount", e);
+        }
     }
 
-    private boolean collectionContainsElement(Collection collection, Object target) {
-        for (Object elem : collection) {
-            if (elem.toString().equals(target.toString())) {
-                return true;
-            }
+    @Override
+    public void deleteByAccountId(Long accountId) {
+        try {
+            jdbcTemplate.update(Queries.SQL_DELETE_BY_ACCOUNT_ID, accountId);
+            afterCommit(() -> eventArchiveDao.deleteByAccountId(accountId));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during  " + Queries.SQL_DELETE_BY_ACCOUNT_ID + accountId +
+                ", EventDao.deleteByAccountId", e);
         }
-        return false;
     }
 
-    private String buildSqlNameCondition(Set<EventName> eventNames, Long userId) {
-        String condition = "";
-        Set<EventName> personalEventNames = new TreeSet<>(Comparator.comparing(Enum::toString));
+    @Override
+    public List<Long> findAccountIdsWithEventsBefore(LocalDateTime date) {
+        try {
+            return jdbcTemplate.queryForList(Queries.SQL_SELECT_ACCOUNT_IDS_WITH_EVENTS_BEFORE, Long.class, date);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `findAccountIdsWithEventsBefore` {date = " + date +
+                "}, EventDao.findAccountIdsWithEventsBefore", e);
+        }
+    }
 
-        eventNames.stream().filter(eventName -> eventName.getType().equals(EventType.USER)).
-            forEach(personalEventNames::add);
+    @Override
+    public LocalDateTime findOldestDate() {
+        try {
+            return jdbcTemplate.queryForObject(Queries.SQL_SELECT_OLDEST_DATE, LocalDateTime.class);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `findOldestDate`, EventDao.findOldestDate", e);
+        }
+    }
 
-        eventNames.removeIf(o -> o.getType().equals(EventType.USER));
+    @Override
+    public LocalDateTime findOldestDateByAccountId(Long accountId) {
+        try {
+            return jdbcTemplate.queryForObject(Queries.SQL_SELECT_OLDEST_DATE_BY_ACCOUNT_ID, LocalDateTime.class,
+                accountId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `findOldestDateByAccountId` {accountId = " + accountId +
+                "}, EventDao.findOldestDateByAccountId", e);
+        }
+    }
 
-        if (!personalEventNames.isEmpty()) {
-            condition = "("
-                .concat(buildSqlCondition("name", personalEventNames))
-                .concat(" and ")
-                .concat(buildSqlCondition("author_id", userId))
-                .concat(")");
+    @Override
+    public List<Event> findByAccountIdAndPeriod(Long accountId, LocalDateTime from, LocalDateTime to) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_BY_ACCOUNT_ID_AND_PERIOD, eventRowMapper, accountId, from, to);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `findByAccountIdAndPeriod` {accountId = " + accountId +
+                ", from = " + from + ", to = " + to + "}, EventDao.findByAccountIdAndPeriod", e);
         }
-        return condition;
     }
 
-    private String buildSqlPrivacyCondition() {
-        return "("
-            .concat(buildSqlCondition("name", EventName.getValuesByType(EventType.USER)))
-            .concat(")")
-            .replace("in", "not in");
+    @Override
+    public int deleteByAccountIdAndPeriod(Long accountId, LocalDateTime from, LocalDateTime to) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_BY_ACCOUNT_ID_AND_PERIOD, accountId, from, to);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `deleteByAccountIdAndPeriod` {accountId = " + accountId +
+                ", from = " + from + ", to = " + to + "}, EventDao.deleteByAccountIdAndPeriod", e);
+        }
     }
 
-    private String buildSqlDefaultCondition(Long userId) {
-        return "("
-            .concat(buildSqlCondition("name", EventName.getValuesByType(EventType.USER)))
-            .concat(" and ")
-            .concat(buildSqlCondition("author_id", userId))
-            .concat(")");
+    @Override
+    public boolean existsBefore(LocalDateTime date) {
+        try {
+            return !jdbcTemplate.queryForList(Queries.SQL_EXISTS_BEFORE, Integer.class, date).isEmpty();
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `existsBefore` {date = " + date + "}, EventDao.existsBefore", e);
+        }
     }
 
-    private String buildSqlCondition(String columnName, Object columnValue) {
-        if (columnName.equals("date")) {
-            return String.format("DATE(date) = '%s'", columnValue);
+    @Override
+    public List<String> findPartitionNames() {
+        try {
+            return jdbcTemplate.queryForList(Queries.SQL_SELECT_PARTITION_NAMES, String.class);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `findPartitionNames`, EventDao.findPartitionNames", e);
         }
-        if (columnName.equals("after")) {
-            return String.format("DATE(date) >= '%s'", columnValue);
+    }
+
+    @Override
+    public void addMonthlyPartitions(List<YearMonth> months) {
+        if (months.isEmpty()) {
+            return;
         }
-        if (columnName.equals("before")) {
-            return String.format("DATE(date) <= '%s'", columnValue);
+        StringJoiner partitions = new StringJoiner(",\n", "", ",\n");
+        for (YearMonth month : months) {
+            partitions.add(String.format(Queries.SQL_MONTHLY_PARTITION,
+                month.format(PARTITION_NAME_FORMAT), month.plusMonths(1).atDay(1)));
+        }
+        final String sql = String.format(Queries.SQL_ADD_MONTHLY_PARTITIONS, partitions);
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `addMonthlyPartitions` {months = " + months +
+                "}, EventDao.addMonthlyPartitions", e);
         }
+    }
 
-        if (columnValue instanceof Collection) {
-            StringJoiner values = new StringJoiner("', '", "'", "'");
-            for (Object value : (Collection<Object>) columnValue) {
-                values.add(value.toString());
+    @Override
+    public void dropPartition(String name) {
+        if (!name.matches("p\\d{6}")) {
+            throw new IllegalArgumentException("Not a monthly events partition: " + name);
+        }
+        try {
+            jdbcTemplate.execute(String.format(Queries.SQL_DROP_PARTITION, name));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `dropPartition` {name = " + name + "}, EventDao.dropPartition", e);
+        }
+    }
+
+    /**
+     * Archived events of the account matching the query, read only when its date filter reaches archived months.
+     */
+    private List<Event> findArchived(EventQueryBuilder query, Long accountId) {
+        List<Event> archived = new ArrayList<>();
+        for (YearMonth month : findArchivedMonths(query, accountId)) {
+            eventArchiveDao.findByAccountIdAndMonth(accountId, month).stream()
+                .filter(query.getPredicate())
+                .forEach(archived::add);
+        }
+        return archived;
+    }
+
+    private List<YearMonth> findArchivedMonths(EventQueryBuilder query, Long accountId) {
+        List<YearMonth> months = new ArrayList<>();
+        if (!query.isDateFiltered()) {
+            return months;
+        }
+        for (YearMonth month : eventArchiveDao.findMonthsByAccountId(accountId)) {
+            LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+            LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+            boolean overlaps = (query.getTo() == null || monthStart.isBefore(query.getTo())) &&
+                (query.getFrom() == null || monthEnd.isAfter(query.getFrom()));
+            if (overlaps) {
+                months.add(month);
             }
-            return String.format("%s in (%s)", columnName, values);
         }
+        return months;
+    }
+
+    /**
+     * Archived events of the months already deleted from the table. Months are archived and deleted oldest first,
+     * so every month before the oldest one left in the table is gone from it, and the others are counted there.
+     */
+    private long countDeleted(List<Event> archived, Long accountId) {
+        if (archived.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime oldest = findOldestDateByAccountId(accountId);
+        if (oldest == null) {
+            return archived.size();
+        }
+        YearMonth oldestMonth = YearMonth.from(oldest);
+        return archived.stream()
+            .filter(event -> YearMonth.from(event.getDate().toLocalDateTime()).isBefore(oldestMonth))
+            .count();
+    }
 
+    // events archived while still present in the table are kept once
+    private List<Event> merge(List<Event> events, List<Event> archived, Comparator<Event> order) {
+        Map<Long, Event> byId = new LinkedHashMap<>();
+        Stream.concat(events.stream(), archived.stream()).forEach(event -> byId.putIfAbsent(event.getId(), event));
+        List<Event> merged = new ArrayList<>(byId.values());
+        merged.sort(order);
+        return merged;
+    }
 
-        return String.format("%s %s '%s'", columnName, "=", columnValue);
+    // only whitelisted columns reach the statement; id breaks ties as it does in toComparator
+    private static String getOrder(Sort sort) {
+        final StringJoiner order = new StringJoiner(", ");
+        boolean byId = false;
+        for (Sort.Order sortOrder : sort) {
+            final String column = SORT_COLUMNS.get(sortOrder.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Unsupported event sort property: " + sortOrder.getProperty());
+            }
+            order.add(column + " " + sortOrder.getDirection().name());
+            byId |= column.equals("id");
+        }
+        if (!byId) {
+            order.add("id ASC");
+        }
+        return order.toString();
     }
 
-    @Override
-    public void deleteByAccountId(Long accountId) {
-        try {
-            jdbcTemplate.update(Queries.SQL_DELETE_BY_ACCOUNT_ID, accountId);
-        } catch (DataAccessException e) {
-            throw new CRUDException("Error during  " + Queries.SQL_DELETE_BY_ACCOUNT_ID + accountId +
-                ", EventDao.deleteByAccountId", e);
+    private static Comparator<Event> toComparator(Sort sort) {
+        Comparator<Event> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Event> byProperty = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Event::getId);
+                case "date" -> FEED_ORDER;
+                case "name" -> Comparator.comparing(event -> event.getName().toString());
+                case "message" -> Comparator.comparing(Event::getMessage, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "author_id", "authorId" -> Comparator.comparing(Event::getAuthorId);
+                case "warehouse_id", "warehouseId" ->
+                    Comparator.comparing(Event::getWarehouseId, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> null;
+            };
+            if (byProperty != null) {
+                comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+            }
         }
+        return comparator.thenComparing(Event::getId);
     }
 
     private PreparedStatement getPreparedStatement(Connection connection, Event event) throws SQLException {
         PreparedStatement preparedStatement = connection.prepareStatement(Queries.SQL_CREATE_EVENT, Statement.RETURN_GENERATED_KEYS);
+        setParameters(preparedStatement, event);
+        return preparedStatement;
+    }
+
+    private void setParameters(PreparedStatement preparedStatement, Event event) throws SQLException {
         int i = 0;
         preparedStatement.setString(++i, event.getMessage());
         preparedStatement.setObject(++i, event.getDate().toLocalDateTime());
@@ -240,7 +465,6 @@ public class EventDaoImpl implements EventDao {
         preparedStatement.setObject(++i, event.getWarehouseId());
         preparedStatement.setString(++i, event.getName().toString());
         preparedStatement.setObject(++i, event.getTransactionId());
-        return preparedStatement;
     }
 
     class Queries {
@@ -251,10 +475,101 @@ public class EventDaoImpl implements EventDao {
                 VALUES(?,?,?,?,?,?,?)
             """;
 
+        static final String SQL_SELECT_PAGE = """
+                SELECT * FROM events WHERE %s ORDER BY %s LIMIT ? OFFSET ?
+            """;
+
+        static final String SQL_STREAM = """
+                SELECT *
+                FROM events
+                WHERE %s
+                ORDER BY date, id
+            """;
+
+        static final String SQL_STREAM_BY_ACCOUNT_ID = """
+                SELECT *
+                FROM events
+                WHERE account_id = ?
+                ORDER BY id
+            """;
+
+        static final String SQL_SELECT_FEED = """
+                SELECT *
+                FROM events
+                WHERE %s%s
+                ORDER BY date DESC, id DESC
+                LIMIT ?
+            """;
+
+        static final String SQL_COUNT = """
+                SELECT COUNT(1) FROM events WHERE %s
+            """;
+
+        static final String SQL_FEED_CURSOR_CONDITION = " and (date < ? or (date = ? and id < ?))";
+
         static final String SQL_DELETE_BY_ACCOUNT_ID = """
                 DELETE
                 FROM events
                 WHERE account_id = ?
             """;
+
+        static final String SQL_SELECT_ACCOUNT_IDS_WITH_EVENTS_BEFORE = """
+                SELECT DISTINCT account_id
+                FROM events
+                WHERE date < ?
+            """;
+
+        static final String SQL_SELECT_OLDEST_DATE = """
+                SELECT MIN(date)
+                FROM events
+            """;
+
+        static final String SQL_SELECT_OLDEST_DATE_BY_ACCOUNT_ID = """
+                SELECT MIN(date)
+                FROM events
+                WHERE account_id = ?
+            """;
+
+        static final String SQL_SELECT_BY_ACCOUNT_ID_AND_PERIOD = """
+                SELECT *
+                FROM events
+                WHERE account_id = ?
+                AND date >= ? AND date < ?
+                ORDER BY date, id
+            """;
+
+        static final String SQL_DELETE_BY_ACCOUNT_ID_AND_PERIOD = """
+                DELETE
+                FROM events
+                WHERE account_id = ?
+                AND date >= ? AND date < ?
+            """;
+
+        static final String SQL_EXISTS_BEFORE = """
+                SELECT 1
+                FROM events
+                WHERE date < ?
+                LIMIT 1
+            """;
+
+        static final String SQL_SELECT_PARTITION_NAMES = """
+                SELECT partition_name
+                FROM information_schema.partitions
+                WHERE table_schema = DATABASE()
+                AND table_name = 'events'
+                AND partition_name IS NOT NULL
+                ORDER BY partition_ordinal_position
+            """;
+
+        static final String SQL_MONTHLY_PARTITION = "PARTITION %s VALUES LESS THAN (TO_DAYS('%s'))";
+
+        static final String SQL_ADD_MONTHLY_PARTITIONS = """
+                ALTER TABLE events REORGANIZE PARTITION p_future INTO (
+                %sPARTITION p_future VALUES LESS THAN MAXVALUE)
+            """;
+
+        static final String SQL_DROP_PARTITION = """
+                ALTER TABLE events DROP PARTITION %s
+            """;
     }
 }
@@ -0,0 +1,293 @@
+package com.ita.if103java.ims.dao.impl;
+
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.EventType;
+import com.ita.if103java.ims.entity.Role;
+import com.ita.if103java.ims.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the WHERE clause of the events queries from the filter params with bind parameters only.
+ * IN-lists are padded to the next power of two by repeating their last value, so every filter combination
+ * maps to one of a small set of statement texts that the statement caches can reuse.
+ * The same filters are also available as a predicate, for events read from the archive.
+ */
+public class EventQueryBuilder {
+    private static final DateTimeFormatter EVENT_FILTER_DATE_FORMAT =
+        DateTimeFormatter.ofPattern("[yyyy-MM-dd][dd-MM-yyyy]");
+
+    private final String where;
+    private final List<Object> args;
+    private final Predicate<Event> predicate;
+    private boolean dateFiltered;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public EventQueryBuilder(Map<String, ?> params, User user) {
+        Set<EventName> eventNames = new TreeSet<>(Comparator.comparing(Enum::toString));
+        if (params.containsKey("type")) {
+            for (String eventType : (Collection<String>) params.get("type")) {
+                eventNames.addAll(EventName.getValuesByType(EventType.valueOf(eventType)));
+            }
+        }
+        if (params.containsKey("name")) {
+            for (String eventName : (Collection<String>) params.get("name")) {
+                eventNames.add(EventName.valueOf(eventName));
+            }
+        }
+
+        List<Condition> conditions = new ArrayList<>();
+        conditions.add(equalTo("account_id", Event::getAccountId, user.getAccountId()));
+        if (params.containsKey("warehouse_id")) {
+            conditions.add(equalToAny("warehouse_id", Event::getWarehouseId, params.get("warehouse_id")));
+        }
+        if (params.containsKey("author_id")) {
+            conditions.add(equalToAny("author_id", Event::getAuthorId, params.get("author_id")));
+        }
+        conditions.addAll(dateConditions(params));
+
+        Condition personalCondition = null;
+        if (user.getRole().equals(Role.ROLE_WORKER)) {
+            personalCondition = restrictPersonalEventsForWorker(params, user, eventNames);
+        }
+
+        if (eventNames.isEmpty()) {
+            if (personalCondition != null) {
+                conditions.add(personalCondition);
+            }
+        } else if (personalCondition == null) {
+            conditions.add(in("name", Event::getName, eventNames));
+        } else {
+            conditions.add(or(in("name", Event::getName, eventNames), personalCondition));
+        }
+
+        StringJoiner sql = new StringJoiner(" and ");
+        List<Object> values = new ArrayList<>();
+        Predicate<Event> test = event -> true;
+        for (Condition condition : conditions) {
+            sql.add(condition.sql);
+            values.addAll(condition.args);
+            test = test.and(condition.test);
+        }
+        this.where = sql.toString();
+        this.args = Collections.unmodifiableList(values);
+        this.predicate = test;
+    }
+
+    public String getWhere() {
+        return where;
+    }
+
+    public List<Object> getArgs() {
+        return args;
+    }
+
+    /**
+     * Returns the bind values followed by the given trailing values, in statement order.
+     */
+    public Object[] getArgs(Object... trailing) {
+        List<Object> values = new ArrayList<>(args);
+        Collections.addAll(values, trailing);
+        return values.toArray();
+    }
+
+    public Predicate<Event> getPredicate() {
+        return predicate;
+    }
+
+    public boolean isDateFiltered() {
+        return dateFiltered;
+    }
+
+    /**
+     * Inclusive lower bound of the date filters, null when unbounded.
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Exclusive upper bound of the date filters, null when unbounded.
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    static int bucketSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private Condition restrictPersonalEventsForWorker(Map<String, ?> params, User user, Set<EventName> eventNames) {
+        boolean showPersonalEvents =
+            !params.containsKey("author_id") ||
+                collectionContainsElement((Collection) params.get("author_id"), user.getId());
+        Set<EventName> userEventNames = EventName.getValuesByType(EventType.USER);
+
+        if (eventNames.isEmpty()) {
+            Condition privacyCondition = notIn("name", Event::getName, userEventNames);
+            return showPersonalEvents ?
+                or(privacyCondition, and(in("name", Event::getName, userEventNames),
+                    equalTo("author_id", Event::getAuthorId, user.getId()))) :
+                privacyCondition;
+        }
+
+        if (!showPersonalEvents) {
+            eventNames.removeIf(o -> o.getType().equals(EventType.USER));
+        }
+        Set<EventName> personalEventNames = new TreeSet<>(Comparator.comparing(Enum::toString));
+        eventNames.stream().filter(eventName -> eventName.getType().equals(EventType.USER))
+            .forEach(personalEventNames::add);
+        eventNames.removeIf(o -> o.getType().equals(EventType.USER));
+
+        if (!personalEventNames.isEmpty()) {
+            return and(in("name", Event::getName, personalEventNames),
+                equalTo("author_id", Event::getAuthorId, user.getId()));
+        }
+        if (eventNames.isEmpty() && !showPersonalEvents) {
+            return new Condition("name in ('')", List.of(), event -> false);
+        }
+        return null;
+    }
+
+    private boolean collectionContainsElement(Collection collection, Object target) {
+        for (Object elem : collection) {
+            if (elem.toString().equals(target.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // half-open ranges on the raw column, so that the (account_id, date, id) index can be used
+    private List<Condition> dateConditions(Map<String, ?> params) {
+        List<Condition> conditions = new ArrayList<>();
+        if (params.containsKey("date")) {
+            LocalDate day = parseDate(params.get("date"));
+            conditions.add(dateAtLeast(day.atStartOfDay()));
+            conditions.add(dateBefore(day.plusDays(1).atStartOfDay()));
+        }
+        if (params.containsKey("after")) {
+            conditions.add(dateAtLeast(parseDate(params.get("after")).atStartOfDay()));
+        }
+        if (params.containsKey("before")) {
+            conditions.add(dateBefore(parseDate(params.get("before")).plusDays(1).atStartOfDay()));
+        }
+        return conditions;
+    }
+
+    private Condition dateAtLeast(LocalDateTime date) {
+        dateFiltered = true;
+        from = from == null || date.isAfter(from) ? date : from;
+        return new Condition("date >= ?", List.of(date), event -> !localDate(event).isBefore(date));
+    }
+
+    private Condition dateBefore(LocalDateTime date) {
+        dateFiltered = true;
+        to = to == null || date.isBefore(to) ? date : to;
+        return new Condition("date < ?", List.of(date), event -> localDate(event).isBefore(date));
+    }
+
+    private LocalDate parseDate(Object date) {
+        try {
+            return LocalDate.parse(date.toString(), EVENT_FILTER_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid event date filter: " + date, e);
+        }
+    }
+
+    private static LocalDateTime localDate(Event event) {
+        return event.getDate().toLocalDateTime();
+    }
+
+    private static Condition equalTo(String column, Function<Event, ?> property, Object value) {
+        Object bindValue = toBindValue(value);
+        return new Condition(column + " = ?", List.of(bindValue), event -> matches(property.apply(event), bindValue));
+    }
+
+    private static Condition equalToAny(String column, Function<Event, ?> property, Object value) {
+        return value instanceof Collection ?
+            in(column, property, (Collection<?>) value) :
+            equalTo(column, property, value);
+    }
+
+    private static Condition in(String column, Function<Event, ?> property, Collection<?> values) {
+        return inList(column + " in", property, values, true);
+    }
+
+    private static Condition notIn(String column, Function<Event, ?> property, Collection<?> values) {
+        return inList(column + " not in", property, values, false);
+    }
+
+    private static Condition inList(String prefix, Function<Event, ?> property, Collection<?> values,
+                                    boolean contained) {
+        if (values.isEmpty()) {
+            return new Condition(prefix + " ('')", List.of(), event -> !contained);
+        }
+        List<Object> padded = new ArrayList<>(bucketSize(values.size()));
+        for (Object value : values) {
+            padded.add(toBindValue(value));
+        }
+        Object last = padded.get(padded.size() - 1);
+        while (padded.size() < bucketSize(values.size())) {
+            padded.add(last);
+        }
+        Set<String> keys = padded.stream().map(Object::toString).collect(Collectors.toSet());
+        return new Condition(prefix + " (" + String.join(", ", Collections.nCopies(padded.size(), "?")) + ")",
+            padded, event -> {
+            Object actual = property.apply(event);
+            return actual != null && keys.contains(actual.toString()) == contained;
+        });
+    }
+
+    private static Condition and(Condition first, Condition second) {
+        return join(first, " and ", second, first.test.and(second.test));
+    }
+
+    private static Condition or(Condition first, Condition second) {
+        return join(first, " or ", second, first.test.or(second.test));
+    }
+
+    private static Condition join(Condition first, String operator, Condition second, Predicate<Event> test) {
+        List<Object> values = new ArrayList<>(first.args);
+        values.addAll(second.args);
+        return new Condition("(" + first.sql + operator + second.sql + ")", values, test);
+    }
+
+    private static boolean matches(Object actual, Object expected) {
+        return actual != null && Objects.equals(actual.toString(), expected.toString());
+    }
+
+    private static Object toBindValue(Object value) {
+        return value instanceof Enum ? value.toString() : value;
+    }
+
+    private static class Condition {
+        private final String sql;
+        private final List<Object> args;
+        private final Predicate<Event> test;
+
+        Condition(String sql, List<Object> args, Predicate<Event> test) {
+            this.sql = sql;
+            this.args = args;
+            this.test = test;
+        }
+    }
+}
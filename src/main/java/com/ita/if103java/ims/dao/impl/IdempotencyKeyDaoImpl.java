@@ -0,0 +1,136 @@
+package com.ita.if103java.ims.dao.impl;
+
+import com.ita.if103java.ims.dao.IdempotencyKeyDao;
+import com.ita.if103java.ims.entity.IdempotencyKey;
+import com.ita.if103java.ims.exception.dao.CRUDException;
+import com.ita.if103java.ims.mapper.jdbc.IdempotencyKeyRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+@Repository
+public class IdempotencyKeyDaoImpl implements IdempotencyKeyDao {
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyKeyRowMapper idempotencyKeyRowMapper;
+
+    @Autowired
+    public IdempotencyKeyDaoImpl(JdbcTemplate jdbcTemplate, IdempotencyKeyRowMapper idempotencyKeyRowMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idempotencyKeyRowMapper = idempotencyKeyRowMapper;
+    }
+
+    @Override
+    public boolean create(IdempotencyKey idempotencyKey) {
+        try {
+            jdbcTemplate.update(Queries.SQL_INSERT_IDEMPOTENCY_KEY, idempotencyKey.getAccountId(),
+                idempotencyKey.getKeyHash(), idempotencyKey.getOperation(), idempotencyKey.getResponse(),
+                Timestamp.from(idempotencyKey.getCreatedAt().toInstant()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `insert` " + idempotencyKey, e);
+        }
+    }
+
+    @Override
+    public boolean updateResponse(IdempotencyKey idempotencyKey) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_UPDATE_IDEMPOTENCY_KEY_RESPONSE, idempotencyKey.getResponse(),
+                idempotencyKey.getAccountId(), idempotencyKey.getKeyHash()) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `update` " + idempotencyKey, e);
+        }
+    }
+
+    @Override
+    public boolean claimExpired(IdempotencyKey idempotencyKey, ZonedDateTime claimedBefore) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_UPDATE_EXPIRED_IDEMPOTENCY_KEY_CLAIM, idempotencyKey.getOperation(),
+                Timestamp.from(idempotencyKey.getCreatedAt().toInstant()), idempotencyKey.getAccountId(),
+                idempotencyKey.getKeyHash(), Timestamp.from(claimedBefore.toInstant())) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `update` " + idempotencyKey, e);
+        }
+    }
+
+    @Override
+    public Optional<IdempotencyKey> find(Long accountId, byte[] keyHash) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_IDEMPOTENCY_KEY, idempotencyKeyRowMapper, accountId, keyHash)
+                .stream()
+                .findFirst();
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `select` idempotency key {accountId = " + accountId + "}", e);
+        }
+    }
+
+    @Override
+    public boolean delete(Long accountId, byte[] keyHash) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_IDEMPOTENCY_KEY, accountId, keyHash) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` idempotency key {accountId = " + accountId + "}", e);
+        }
+    }
+
+    @Override
+    public int deleteCreatedBefore(ZonedDateTime date) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_IDEMPOTENCY_KEYS_CREATED_BEFORE,
+                Timestamp.from(date.toInstant()));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` idempotency keys created before " + date, e);
+        }
+    }
+
+    public static final class Queries {
+        public static final String SQL_INSERT_IDEMPOTENCY_KEY = """
+                INSERT INTO idempotency_keys(account_id, key_hash, operation, response, created_at)
+                VALUES (?, ?, ?, ?, ?)
+            """;
+
+        public static final String SQL_UPDATE_IDEMPOTENCY_KEY_RESPONSE = """
+                UPDATE idempotency_keys
+                SET response = ?
+                WHERE account_id = ?
+                AND key_hash = ?
+            """;
+
+        public static final String SQL_UPDATE_EXPIRED_IDEMPOTENCY_KEY_CLAIM = """
+                UPDATE idempotency_keys
+                SET operation = ?,
+                    created_at = ?
+                WHERE account_id = ?
+                AND key_hash = ?
+                AND response IS NULL
+                AND created_at < ?
+            """;
+
+        public static final String SQL_SELECT_IDEMPOTENCY_KEY = """
+                SELECT *
+                FROM idempotency_keys
+                WHERE account_id = ?
+                AND key_hash = ?
+            """;
+
+        public static final String SQL_DELETE_IDEMPOTENCY_KEY = """
+                DELETE
+                FROM idempotency_keys
+                WHERE account_id = ?
+                AND key_hash = ?
+            """;
+
+        public static final String SQL_DELETE_IDEMPOTENCY_KEYS_CREATED_BEFORE = """
+                DELETE
+                FROM idempotency_keys
+                WHERE created_at < ?
+            """;
+    }
+}
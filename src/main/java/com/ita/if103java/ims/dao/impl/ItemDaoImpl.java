@@ -12,12 +12,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -138,17 +140,46 @@ public class ItemDaoImpl implements ItemDao {
         }
     }
 
+    @Override
+    public List<Item> addItems(List<Item> items) {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<List<Item>>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(Queries.SQL_INSERT_INTO_ITEM,
+                    PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    for (Item item : items) {
+                        item.setActive(true);
+                        setItemParameters(statement, item);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        for (int i = 0; i < items.size() && generatedKeys.next(); i++) {
+                            items.get(i).setId(generatedKeys.getLong(1));
+                        }
+                    }
+                }
+                return items;
+            });
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `insert` of " + items.size() + " items", e);
+        }
+    }
+
     private PreparedStatement createItemStatement(Item item, Connection connection) throws SQLException {
-        int i = 0;
         PreparedStatement statement = connection.prepareStatement(Queries.SQL_INSERT_INTO_ITEM,
             PreparedStatement.RETURN_GENERATED_KEYS);
+        setItemParameters(statement, item);
+        return statement;
+    }
+
+    private void setItemParameters(PreparedStatement statement, Item item) throws SQLException {
+        int i = 0;
         statement.setString(++i, item.getName());
         statement.setString(++i, item.getUnit());
         statement.setString(++i, item.getDescription());
         statement.setInt(++i, item.getVolume());
         statement.setBoolean(++i, item.isActive());
         statement.setLong(++i, item.getAccountId());
-        return statement;
     }
 
     @Override
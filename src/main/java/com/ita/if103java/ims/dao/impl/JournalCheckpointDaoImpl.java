@@ -0,0 +1,74 @@
+package com.ita.if103java.ims.dao.impl;
+
+import com.ita.if103java.ims.dao.JournalCheckpointDao;
+import com.ita.if103java.ims.entity.StockJournalEntry;
+import com.ita.if103java.ims.exception.dao.CRUDException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Repository
+public class JournalCheckpointDaoImpl implements JournalCheckpointDao {
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public JournalCheckpointDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long findAppliedSequence(String node) {
+        try {
+            return jdbcTemplate.queryForList(Queries.SQL_SELECT_APPLIED_SEQUENCE, Long.class, node)
+                .stream()
+                .findFirst()
+                .orElse(0L);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `select` journal checkpoint {node = " + node + "}", e);
+        }
+    }
+
+    @Override
+    public void updateAppliedSequence(String node, long sequence) {
+        try {
+            jdbcTemplate.update(Queries.SQL_UPSERT_APPLIED_SEQUENCE, node, sequence);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `upsert` journal checkpoint {node = " + node +
+                ", applied_sequence = " + sequence + "}", e);
+        }
+    }
+
+    @Override
+    public void createDeadLetter(String node, StockJournalEntry entry, String serializedEntry, String error) {
+        try {
+            jdbcTemplate.update(Queries.SQL_INSERT_DEAD_LETTER, node, entry.getSequence(), entry.getAccountId(),
+                entry.getWorkerId(), serializedEntry, error, Timestamp.from(Instant.now()));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `insert` journal dead letter {node = " + node +
+                ", sequence = " + entry.getSequence() + "}", e);
+        }
+    }
+
+    public static final class Queries {
+        public static final String SQL_SELECT_APPLIED_SEQUENCE = """
+                SELECT applied_sequence
+                FROM journal_checkpoints
+                WHERE node = ?
+            """;
+
+        public static final String SQL_UPSERT_APPLIED_SEQUENCE = """
+                INSERT INTO journal_checkpoints(node, applied_sequence)
+                VALUES (?, ?)
+                ON DUPLICATE KEY UPDATE applied_sequence = GREATEST(applied_sequence, VALUES(applied_sequence))
+            """;
+
+        public static final String SQL_INSERT_DEAD_LETTER = """
+                INSERT INTO journal_dead_letters(node, sequence, account_id, worker_id, entry, error, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ita.if103java.ims.dao.impl;
+
+import com.ita.if103java.ims.dao.ReorderThresholdDao;
+import com.ita.if103java.ims.entity.LowStockItem;
+import com.ita.if103java.ims.entity.ReorderThreshold;
+import com.ita.if103java.ims.exception.dao.CRUDException;
+import com.ita.if103java.ims.mapper.jdbc.LowStockItemRowMapper;
+import com.ita.if103java.ims.mapper.jdbc.ReorderThresholdRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class ReorderThresholdDaoImpl implements ReorderThresholdDao {
+    private JdbcTemplate jdbcTemplate;
+    private ReorderThresholdRowMapper reorderThresholdRowMapper;
+    private LowStockItemRowMapper lowStockItemRowMapper;
+
+    @Autowired
+    public ReorderThresholdDaoImpl(JdbcTemplate jdbcTemplate,
+                                   ReorderThresholdRowMapper reorderThresholdRowMapper,
+                                   LowStockItemRowMapper lowStockItemRowMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reorderThresholdRowMapper = reorderThresholdRowMapper;
+        this.lowStockItemRowMapper = lowStockItemRowMapper;
+    }
+
+    @Override
+    public List<ReorderThreshold> findByAccountId(Long accountId) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_REORDER_THRESHOLDS_BY_ACCOUNT_ID, reorderThresholdRowMapper,
+                accountId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `select` reorder thresholds {accountId = " + accountId + "}", e);
+        }
+    }
+
+    @Override
+    public List<ReorderThreshold> findByItemId(Long itemId) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_REORDER_THRESHOLDS_BY_ITEM_ID, reorderThresholdRowMapper,
+                itemId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `select` reorder thresholds {itemId = " + itemId + "}", e);
+        }
+    }
+
+    @Override
+    public ReorderThreshold save(ReorderThreshold reorderThreshold) {
+        try {
+            // the unique key does not cover rows without a warehouse, so the old row is replaced explicitly
+            jdbcTemplate.update(Queries.SQL_DELETE_REORDER_THRESHOLD, reorderThreshold.getItemId(),
+                reorderThreshold.getWarehouseId());
+            jdbcTemplate.update(Queries.SQL_INSERT_REORDER_THRESHOLD, reorderThreshold.getItemId(),
+                reorderThreshold.getWarehouseId(), reorderThreshold.getThreshold());
+            return reorderThreshold;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `insert` " + reorderThreshold, e);
+        }
+    }
+
+    @Override
+    public boolean delete(Long itemId, Long warehouseId) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_REORDER_THRESHOLD, itemId, warehouseId) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` reorder threshold {itemId = " + itemId +
+                ", warehouseId = " + warehouseId + "}", e);
+        }
+    }
+
+    @Override
+    public List<LowStockItem> findLowStockByAccountId(Long accountId, int defaultThreshold) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_LOW_STOCK_BY_ACCOUNT_ID, lowStockItemRowMapper,
+                accountId, defaultThreshold);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `select` low stock items {accountId = " + accountId + "}", e);
+        }
+    }
+
+    public static final class Queries {
+        public static final String SQL_SELECT_REORDER_THRESHOLDS_BY_ACCOUNT_ID = """
+                SELECT rt.*
+                FROM reorder_thresholds rt
+                JOIN items it
+                ON it.id = rt.item_id
+                WHERE it.account_id = ?
+            """;
+
+        public static final String SQL_SELECT_REORDER_THRESHOLDS_BY_ITEM_ID = """
+                SELECT *
+                FROM reorder_thresholds
+                WHERE item_id = ?
+                ORDER BY warehouse_id
+            """;
+
+        public static final String SQL_INSERT_REORDER_THRESHOLD = """
+                INSERT INTO reorder_thresholds(item_id, warehouse_id, threshold)
+                VALUES (?, ?, ?)
+            """;
+
+        public static final String SQL_DELETE_REORDER_THRESHOLD = """
+                DELETE
+                FROM reorder_thresholds
+                WHERE item_id = ?
+                AND warehouse_id <=> ?
+            """;
+
+        public static final String SQL_SELECT_LOW_STOCK_BY_ACCOUNT_ID = """
+                SELECT si.id, si.item_id, it.name_item, si.warehouse_id, wh.name, si.quantity
+                FROM saved_items si
+                JOIN items it
+                ON it.id = si.item_id
+                JOIN warehouses wh
+                ON wh.id = si.warehouse_id
+                LEFT JOIN reorder_thresholds wt
+                ON wt.item_id = si.item_id AND wt.warehouse_id = si.warehouse_id
+                LEFT JOIN reorder_thresholds t
+                ON t.item_id = si.item_id AND t.warehouse_id IS NULL
+                WHERE it.account_id = ?
+                AND si.quantity <= COALESCE(wt.threshold, t.threshold, ?)
+            """;
+    }
+}
@@ -0,0 +1,147 @@
+package com.ita.if103java.ims.dao.impl;
+
+import com.ita.if103java.ims.config.GeneratedKeyHolderFactory;
+import com.ita.if103java.ims.dao.ReservationDao;
+import com.ita.if103java.ims.entity.Reservation;
+import com.ita.if103java.ims.exception.dao.CRUDException;
+import com.ita.if103java.ims.mapper.jdbc.ReservationRowMapper;
+import com.ita.if103java.ims.util.JDBCUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+public class ReservationDaoImpl implements ReservationDao {
+    private JdbcTemplate jdbcTemplate;
+    private ReservationRowMapper reservationRowMapper;
+    private GeneratedKeyHolderFactory generatedKeyHolderFactory;
+
+    @Autowired
+    public ReservationDaoImpl(JdbcTemplate jdbcTemplate, ReservationRowMapper reservationRowMapper,
+                              GeneratedKeyHolderFactory generatedKeyHolderFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationRowMapper = reservationRowMapper;
+        this.generatedKeyHolderFactory = generatedKeyHolderFactory;
+    }
+
+    @Override
+    public Reservation create(Reservation reservation) {
+        try {
+            reservation.setId(JDBCUtils.createWithAutogeneratedId(keyHolder ->
+                    jdbcTemplate.update(connection -> createReservationStatement(reservation, connection), keyHolder),
+                generatedKeyHolderFactory.newKeyHolder()));
+            return reservation;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `insert` " + reservation, e);
+        }
+    }
+
+    @Override
+    public List<Reservation> findActiveByAccountId(Long accountId, ZonedDateTime now) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_ACTIVE_RESERVATIONS_BY_ACCOUNT_ID, reservationRowMapper,
+                accountId, toTimestamp(now));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `select` reservations {accountId = " + accountId + "}", e);
+        }
+    }
+
+    @Override
+    public boolean delete(Long id, Long accountId) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_RESERVATION, id, accountId) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` reservation {id = " + id + "}", e);
+        }
+    }
+
+    @Override
+    public int deleteExpiredByAccountId(Long accountId, ZonedDateTime now) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_EXPIRED_RESERVATIONS_BY_ACCOUNT_ID, accountId,
+                toTimestamp(now));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` expired reservations {accountId = " + accountId + "}", e);
+        }
+    }
+
+    @Override
+    public int deleteExpired(List<Long> ids, ZonedDateTime now) {
+        final Timestamp timestamp = toTimestamp(now);
+        try {
+            return Arrays.stream(jdbcTemplate.batchUpdate(Queries.SQL_DELETE_EXPIRED_RESERVATION,
+                ids.stream().map(id -> new Object[]{id, timestamp}).collect(Collectors.toList())))
+                .map(count -> Math.max(count, 0))
+                .sum();
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` expired reservations " + ids, e);
+        }
+    }
+
+    private PreparedStatement createReservationStatement(Reservation reservation, Connection connection)
+        throws SQLException {
+        PreparedStatement preparedStatement =
+            connection.prepareStatement(Queries.SQL_INSERT_RESERVATION, Statement.RETURN_GENERATED_KEYS);
+        int i = 0;
+        preparedStatement.setLong(++i, reservation.getAccountId());
+        preparedStatement.setLong(++i, reservation.getItemId());
+        preparedStatement.setLong(++i, reservation.getSavedItemId());
+        preparedStatement.setInt(++i, reservation.getQuantity());
+        preparedStatement.setString(++i, reservation.getReference());
+        preparedStatement.setLong(++i, reservation.getCreatedBy());
+        preparedStatement.setTimestamp(++i, toTimestamp(reservation.getCreatedAt()));
+        preparedStatement.setTimestamp(++i, toTimestamp(reservation.getExpiresAt()));
+        return preparedStatement;
+    }
+
+    private static Timestamp toTimestamp(ZonedDateTime date) {
+        return Timestamp.from(date.toInstant());
+    }
+
+    public static final class Queries {
+        public static final String SQL_INSERT_RESERVATION = """
+                INSERT INTO reservations(account_id, item_id, saved_item_id, quantity, reference, created_by,
+                                         created_at, expires_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        public static final String SQL_SELECT_ACTIVE_RESERVATIONS_BY_ACCOUNT_ID = """
+                SELECT *
+                FROM reservations
+                WHERE account_id = ?
+                AND expires_at > ?
+            """;
+
+        public static final String SQL_DELETE_RESERVATION = """
+                DELETE
+                FROM reservations
+                WHERE id = ?
+                AND account_id = ?
+            """;
+
+        public static final String SQL_DELETE_EXPIRED_RESERVATIONS_BY_ACCOUNT_ID = """
+                DELETE
+                FROM reservations
+                WHERE account_id = ?
+                AND expires_at <= ?
+            """;
+
+        public static final String SQL_DELETE_EXPIRED_RESERVATION = """
+                DELETE
+                FROM reservations
+                WHERE id = ?
+                AND expires_at <= ?
+            """;
+    }
+}
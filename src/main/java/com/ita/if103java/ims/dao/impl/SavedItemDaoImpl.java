@@ -2,37 +2,52 @@ package com.ita.if103java.ims.dao.impl;
 
 import com.ita.if103java.ims.config.GeneratedKeyHolderFactory;
 import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dto.SavedItemExportDto;
 import com.ita.if103java.ims.entity.SavedItem;
 import com.ita.if103java.ims.exception.dao.CRUDException;
 import com.ita.if103java.ims.exception.dao.SavedItemNotFoundException;
+import com.ita.if103java.ims.mapper.jdbc.SavedItemExportRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.SavedItemRowMapper;
 import com.ita.if103java.ims.util.JDBCUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 
 @Repository
 public class SavedItemDaoImpl implements SavedItemDao {
     private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
     private SavedItemRowMapper savedItemRowMapper;
+    private SavedItemExportRowMapper savedItemExportRowMapper;
     private GeneratedKeyHolderFactory generatedKeyHolderFactory;
 
     @Autowired
     public SavedItemDaoImpl(DataSource dataSource,
+                            @Qualifier("streamingJdbcTemplate") NamedParameterJdbcTemplate streamingJdbcTemplate,
                             SavedItemRowMapper savedItemRowMapper,
+                            SavedItemExportRowMapper savedItemExportRowMapper,
                             GeneratedKeyHolderFactory generatedKeyHolderFactory) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = streamingJdbcTemplate;
         this.savedItemRowMapper = savedItemRowMapper;
+        this.savedItemExportRowMapper = savedItemExportRowMapper;
         this.generatedKeyHolderFactory = generatedKeyHolderFactory;
     }
 
@@ -60,6 +75,17 @@ public class SavedItemDaoImpl implements SavedItemDao {
 
     }
 
+    @Override
+    public SavedItem findSavedItemByIdForUpdate(Long id) {
+        try {
+            return jdbcTemplate.queryForObject(Queries.SQL_SELECT_SAVED_ITEMS_BY_ID_FOR_UPDATE, savedItemRowMapper, id);
+        } catch (EmptyResultDataAccessException e) {
+            throw new SavedItemNotFoundException("Failed to get savedItem during `select` {id = " + id + "}", e);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Failed during `select` {id = " + id + "}", e);
+        }
+    }
+
     @Override
     public List<SavedItem> findSavedItemByItemId(Long id) {
         try {
@@ -113,14 +139,95 @@ public class SavedItemDaoImpl implements SavedItemDao {
 
     }
 
+    @Override
+    public List<SavedItem> addSavedItems(List<SavedItem> savedItems) {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<List<SavedItem>>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(Queries.SQL_INSERT_INTO_SAVED_ITEM,
+                    PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    for (SavedItem savedItem : savedItems) {
+                        setSavedItemParameters(statement, savedItem);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        for (int i = 0; i < savedItems.size() && generatedKeys.next(); i++) {
+                            savedItems.get(i).setId(generatedKeys.getLong(1));
+                        }
+                    }
+                }
+                return savedItems;
+            });
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `insert` of " + savedItems.size() + " saved items", e);
+        }
+    }
+
+    @Override
+    public void addQuantities(List<SavedItem> savedItems) {
+        try {
+            jdbcTemplate.batchUpdate(Queries.SQL_UPSERT_SAVED_ITEM, savedItems, savedItems.size(),
+                (statement, savedItem) -> {
+                    statement.setLong(1, savedItem.getItemId());
+                    statement.setInt(2, savedItem.getQuantity());
+                    statement.setLong(3, savedItem.getWarehouseId());
+                });
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `upsert` of " + savedItems.size() + " saved items", e);
+        }
+    }
+
+    @Override
+    public List<SavedItem> findSavedItemsByItemIds(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return jdbcTemplate.query(
+                String.format(Queries.SQL_SELECT_SAVED_ITEMS_BY_ITEM_IDS_FOR_UPDATE,
+                    String.join(",", Collections.nCopies(itemIds.size(), "?"))),
+                savedItemRowMapper, itemIds.toArray());
+        } catch (DataAccessException e) {
+            throw new CRUDException("Failed during `select` {item_ids = " + itemIds + "}", e);
+        }
+    }
+
+    @Override
+    public void updateSavedItems(List<SavedItem> savedItems) {
+        try {
+            jdbcTemplate.batchUpdate(Queries.SQL_UPDATE_SAVED_ITEM, savedItems, savedItems.size(),
+                (statement, savedItem) -> {
+                    statement.setInt(1, savedItem.getQuantity());
+                    statement.setLong(2, savedItem.getWarehouseId());
+                    statement.setLong(3, savedItem.getId());
+                });
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `update` of " + savedItems.size() + " saved items", e);
+        }
+    }
+
+    @Override
+    public void deleteSavedItems(List<Long> savedItemIds) {
+        try {
+            jdbcTemplate.batchUpdate(Queries.SQL_DELETE_SAVED_ITEM_BY_SAVED_ITEM_ID, savedItemIds, savedItemIds.size(),
+                (statement, savedItemId) -> statement.setLong(1, savedItemId));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `delete` {ids = " + savedItemIds + "}", e);
+        }
+    }
+
     private PreparedStatement createSavedItemStatement(SavedItem savedItem, Connection connection) throws SQLException {
-        int i = 0;
         PreparedStatement statement = connection.prepareStatement(Queries.SQL_INSERT_INTO_SAVED_ITEM,
             PreparedStatement.RETURN_GENERATED_KEYS);
+        setSavedItemParameters(statement, savedItem);
+        return statement;
+    }
+
+    private void setSavedItemParameters(PreparedStatement statement, SavedItem savedItem) throws SQLException {
+        int i = 0;
         statement.setLong(++i, savedItem.getItemId());
         statement.setInt(++i, savedItem.getQuantity());
         statement.setLong(++i, savedItem.getWarehouseId());
-        return statement;
     }
 
     @Override
@@ -142,6 +249,38 @@ public class SavedItemDaoImpl implements SavedItemDao {
         return true;
     }
 
+    @Override
+    public SavedItem addQuantity(Long itemId, Long warehouseId, int quantity) {
+        try {
+            jdbcTemplate.update(Queries.SQL_UPSERT_SAVED_ITEM, itemId, quantity, warehouseId);
+            // the row stays locked by the upsert until the end of the transaction
+            return jdbcTemplate.queryForObject(Queries.SQL_SELECT_SAVED_ITEM_BY_ITEM_ID_AND_WAREHOUSE_ID,
+                savedItemRowMapper, itemId, warehouseId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `upsert` {item_id = " + itemId + ", warehouse_id = " + warehouseId +
+                "}", e);
+        }
+    }
+
+    @Override
+    public boolean takeQuantity(Long savedItemId, int quantity, int reserved) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_TAKE_QUANTITY_SAVED_ITEM, quantity, savedItemId,
+                quantity + reserved) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `update` {id = " + savedItemId + ", quantity = " + quantity + "}",
+                e);
+        }
+    }
+
+    @Override
+    public boolean deleteEmptySavedItem(Long savedItemId) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_DELETE_EMPTY_SAVED_ITEM, savedItemId) > 0;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `delete` {id = " + savedItemId + "}", e);
+        }
+    }
 
     @Override
     public boolean updateSavedItem(Long warehouseId, Long savedItemId) {
@@ -195,6 +334,16 @@ public class SavedItemDaoImpl implements SavedItemDao {
 
     }
 
+    @Override
+    public void streamByAccountId(Long accountId, Consumer<SavedItemExportDto> consumer) {
+        try {
+            streamingJdbcTemplate.getJdbcOperations().query(Queries.SQL_STREAM_SAVED_ITEMS_BY_ACCOUNT_ID,
+                (RowCallbackHandler) rs -> consumer.accept(savedItemExportRowMapper.mapRow(rs, rs.getRow())), accountId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Failed during streaming `select` {accountId = " + accountId + "}", e);
+        }
+    }
+
     @Override
     public void hardDelete(Long accountId) {
         try {
@@ -214,6 +363,12 @@ public class SavedItemDaoImpl implements SavedItemDao {
                 from saved_items
                 where id=?
             """;
+        static final String SQL_SELECT_SAVED_ITEMS_BY_ID_FOR_UPDATE = """
+                select *
+                from saved_items
+                where id=?
+                for update
+            """;
         static final String SQL_SELECT_SAVED_ITEMS_BY_ITEM_ID = """
                 select *
                 from saved_items
@@ -242,11 +397,44 @@ public class SavedItemDaoImpl implements SavedItemDao {
                 set quantity=?
                 where id=?
             """;
+        static final String SQL_UPSERT_SAVED_ITEM = """
+                insert into saved_items(item_id, quantity, warehouse_id)
+                values(?, ?, ?)
+                on duplicate key update quantity = quantity + values(quantity)
+            """;
+        static final String SQL_TAKE_QUANTITY_SAVED_ITEM = """
+                update saved_items
+                set quantity = quantity - ?
+                where id = ? and quantity >= ?
+            """;
+        static final String SQL_DELETE_EMPTY_SAVED_ITEM = """
+                delete from saved_items
+                where id = ? and quantity = 0
+            """;
         static final String SQL_SELECT_SAVED_ITEM_BY_ITEM_ID_AND_WAREHOUSE_ID = """
                 select *
                 from saved_items
                 where item_id = ? and warehouse_id = ?
             """;
+        static final String SQL_SELECT_SAVED_ITEMS_BY_ITEM_IDS_FOR_UPDATE = """
+                select *
+                from saved_items
+                where item_id in (%s)
+                order by id
+                for update
+            """;
+        static final String SQL_UPDATE_SAVED_ITEM = """
+                update saved_items
+                set quantity = ?, warehouse_id = ?
+                where id = ?
+            """;
+        static final String SQL_STREAM_SAVED_ITEMS_BY_ACCOUNT_ID = """
+                select si.id, si.item_id, i.name_item, i.unit, si.quantity, si.warehouse_id
+                from saved_items si
+                join items i on i.id = si.item_id
+                where i.account_id = ?
+                order by si.id
+            """;
         static final String SQL_DELETE_SAVED_ITEM_BY_ID = """
                DELETE
                FROM saved_items
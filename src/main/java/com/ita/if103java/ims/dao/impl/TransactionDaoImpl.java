@@ -3,40 +3,72 @@ package com.ita.if103java.ims.dao.impl;
 import com.ita.if103java.ims.config.GeneratedKeyHolderFactory;
 import com.ita.if103java.ims.dao.TransactionDao;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
 import com.ita.if103java.ims.entity.Transaction;
 import com.ita.if103java.ims.entity.TransactionType;
 import com.ita.if103java.ims.entity.User;
 import com.ita.if103java.ims.exception.dao.CRUDException;
 import com.ita.if103java.ims.exception.dao.TransactionNotFoundException;
+import com.ita.if103java.ims.mapper.jdbc.TransactionHistoryRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.TransactionRowMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
 
 import static com.ita.if103java.ims.util.JDBCUtils.createWithAutogeneratedId;
 
 
 @Repository
 public class TransactionDaoImpl implements TransactionDao {
+    private static final Map<String, String> HISTORY_SORT_COLUMNS = Map.of(
+        "timestamp", "t.timestamp",
+        "quantity", "t.quantity",
+        "type", "t.type",
+        "id", "t.id");
+
     private JdbcTemplate jdbcTemplate;
     private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
     private TransactionRowMapper mapper;
+    private TransactionHistoryRowMapper historyMapper;
     private GeneratedKeyHolderFactory generatedKeyHolderFactory;
 
     @Autowired
     public TransactionDaoImpl(JdbcTemplate jdbcTemplate,
                               NamedParameterJdbcTemplate namedJdbcTemplate,
+                              @Qualifier("streamingJdbcTemplate") NamedParameterJdbcTemplate streamingJdbcTemplate,
                               TransactionRowMapper mapper,
+                              TransactionHistoryRowMapper historyMapper,
                               GeneratedKeyHolderFactory generatedKeyHolderFactory) {
         this.jdbcTemplate = jdbcTemplate;
         this.namedJdbcTemplate = namedJdbcTemplate;
+        this.streamingJdbcTemplate = streamingJdbcTemplate;
         this.mapper = mapper;
+        this.historyMapper = historyMapper;
         this.generatedKeyHolderFactory = generatedKeyHolderFactory;
     }
 
@@ -48,12 +80,40 @@ public class TransactionDaoImpl implements TransactionDao {
                 generatedKeyHolderFactory.newKeyHolder()
             );
             transaction.setId(id);
+            jdbcTemplate.update(Queries.SQL_ADD_TO_DAILY_ROLLUP, id);
             return transaction;
         } catch (DataAccessException e) {
             throw new CRUDException("Error during a transaction 'insert' -> Transaction.create(" + transaction + ")", e);
         }
     }
 
+    @Override
+    public List<Transaction> createAll(List<Transaction> transactions) {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<List<Transaction>>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(Queries.SQL_CREATE_TRANSACTIONS,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                    for (Transaction transaction : transactions) {
+                        setParameters(statement, transaction);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        for (int i = 0; i < transactions.size() && generatedKeys.next(); i++) {
+                            transactions.get(i).setId(generatedKeys.getLong(1));
+                        }
+                    }
+                }
+                return transactions;
+            });
+            jdbcTemplate.batchUpdate(Queries.SQL_ADD_TO_DAILY_ROLLUP, transactions, transactions.size(),
+                (statement, transaction) -> statement.setLong(1, transaction.getId()));
+            return transactions;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during batch `insert` of " + transactions.size() + " transactions", e);
+        }
+    }
+
     @Override
     public Transaction create(ItemTransactionRequestDto itemTransactionRequestDto,
                               User user,
@@ -106,21 +166,129 @@ public class TransactionDaoImpl implements TransactionDao {
         }
     }
 
+    @Override
+    public Page<TransactionDto> findHistory(Long accountId, TransactionFilterDto filter, Pageable pageable) {
+        final MapSqlParameterSource parameterSource = new MapSqlParameterSource("account_id", accountId);
+        final String where = getHistoryConditions(filter, parameterSource);
+        try {
+            final Long total = namedJdbcTemplate.queryForObject(
+                String.format(Queries.SQL_COUNT_TRANSACTION_HISTORY, where), parameterSource, Long.class);
+            if (total == null || total == 0 || pageable.getOffset() >= total) {
+                return new PageImpl<>(List.of(), pageable, total == null ? 0 : total);
+            }
+            parameterSource
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+            final List<TransactionDto> transactions = namedJdbcTemplate.query(
+                String.format(Queries.SQL_SELECT_TRANSACTION_HISTORY_PAGE, where, getHistoryOrder(pageable.getSort())),
+                parameterSource, historyMapper);
+            return new PageImpl<>(transactions, pageable, total);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during a transaction 'select' -> " +
+                "Transaction.findHistory(" + accountId + ", " + filter + ")", e);
+        }
+    }
+
+    @Override
+    public void streamHistory(Long accountId, TransactionFilterDto filter, Consumer<TransactionDto> consumer) {
+        final MapSqlParameterSource parameterSource = new MapSqlParameterSource("account_id", accountId);
+        final String where = getHistoryConditions(filter, parameterSource);
+        try {
+            streamingJdbcTemplate.query(String.format(Queries.SQL_STREAM_TRANSACTION_HISTORY, where), parameterSource,
+                (RowCallbackHandler) rs -> consumer.accept(historyMapper.mapRow(rs, rs.getRow())));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during a transaction 'select' -> " +
+                "Transaction.streamHistory(" + accountId + ", " + filter + ")", e);
+        }
+    }
+
     @Override
     public void hardDelete(Long accountId) {
         try {
             jdbcTemplate.update(Queries.SQL_DELETE_TRANSACTION_BY_ID, accountId);
+            jdbcTemplate.update(Queries.SQL_DELETE_DAILY_ROLLUPS_BY_ACCOUNT_ID, accountId);
         } catch (DataAccessException e) {
             throw new CRUDException("Error during hard `delete` transaction {accountId = " + accountId + "}", e);
         }
     }
 
+    @Override
+    public int rebuildDailyRollups(LocalDate from, LocalDate to) {
+        try {
+            return jdbcTemplate.update(Queries.SQL_REBUILD_DAILY_ROLLUPS, Date.valueOf(from), Date.valueOf(to));
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during daily rollups rebuild {from = " + from + ", to = " + to + "}", e);
+        }
+    }
+
+    private String getHistoryConditions(TransactionFilterDto filter, MapSqlParameterSource parameterSource) {
+        final StringJoiner where = new StringJoiner(" and ", " and ", "").setEmptyValue("");
+        if (filter.getItemId() != null) {
+            where.add("t.item_id = :item_id");
+            parameterSource.addValue("item_id", filter.getItemId());
+        }
+        if (filter.getWarehouseId() != null) {
+            where.add(Queries.SQL_HISTORY_WAREHOUSE_CONDITION);
+            parameterSource.addValue("warehouse_id", filter.getWarehouseId());
+        }
+        if (filter.getAssociateId() != null) {
+            where.add("t.associate_id = :associate_id");
+            parameterSource.addValue("associate_id", filter.getAssociateId());
+        }
+        if (filter.getType() != null) {
+            where.add("t.type = :type");
+            parameterSource.addValue("type", filter.getType().name());
+        }
+        if (filter.getFrom() != null) {
+            where.add("t.timestamp >= :from");
+            parameterSource.addValue("from", filter.getFrom().atStartOfDay());
+        }
+        if (filter.getTo() != null) {
+            where.add("t.timestamp < :to");
+            parameterSource.addValue("to", filter.getTo().plusDays(1).atStartOfDay());
+        }
+        return where.toString();
+    }
+
+    // only whitelisted columns reach the statement; id breaks ties so that pages don't overlap
+    private String getHistoryOrder(Sort sort) {
+        final StringJoiner order = new StringJoiner(", ");
+        boolean byId = false;
+        for (Sort.Order sortOrder : sort) {
+            final String column = HISTORY_SORT_COLUMNS.get(sortOrder.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Unsupported transaction sort property: " + sortOrder.getProperty());
+            }
+            order.add(column + " " + sortOrder.getDirection().name());
+            byId |= column.equals("t.id");
+        }
+        if (sort.isUnsorted()) {
+            order.add("t.timestamp DESC");
+        }
+        if (!byId) {
+            order.add("t.id DESC");
+        }
+        return order.toString();
+    }
+
+    private void setParameters(PreparedStatement statement, Transaction transaction) throws SQLException {
+        int i = 0;
+        statement.setLong(++i, transaction.getAccountId());
+        statement.setLong(++i, transaction.getWorkerId());
+        statement.setObject(++i, transaction.getAssociateId(), Types.BIGINT);
+        statement.setLong(++i, transaction.getItemId());
+        statement.setLong(++i, transaction.getQuantity());
+        statement.setObject(++i, transaction.getMovedFrom(), Types.BIGINT);
+        statement.setObject(++i, transaction.getMovedTo(), Types.BIGINT);
+        statement.setString(++i, transaction.getType().toString());
+    }
+
     private MapSqlParameterSource getSqlParameterSource(Transaction transaction) {
         final MapSqlParameterSource parameterSource = new MapSqlParameterSource()
             .addValue("account_id", transaction.getAccountId())
             .addValue("worker_id", transaction.getWorkerId())
             .addValue("item_id", transaction.getItemId())
-            .addValue("quantity", transaction.getAccountId())
+            .addValue("quantity", transaction.getQuantity())
             .addValue("associate_id", transaction.getAssociateId())
             .addValue("moved_from", transaction.getMovedFrom())
             .addValue("moved_to", transaction.getMovedTo())
@@ -135,6 +303,11 @@ public class TransactionDaoImpl implements TransactionDao {
                 values (:account_id, :worker_id, :associate_id, :item_id, :quantity, :moved_from, :moved_to, :type)
             """;
 
+        public static final String SQL_CREATE_TRANSACTIONS = """
+                insert into transactions(account_id, worker_id, associate_id, item_id, quantity, moved_from, moved_to, type)
+                values (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
         public static final String SQL_SELECT_TRANSACTION_BY_ID = """
                 select *
                 from transactions
@@ -147,10 +320,74 @@ public class TransactionDaoImpl implements TransactionDao {
                 where id = ? and account_id = ?
             """;
 
+        public static final String SQL_SELECT_TRANSACTION_HISTORY = """
+                select t.id, t.timestamp, t.type, t.quantity, t.account_id, t.moved_from, t.moved_to,
+                t.worker_id, u.first_name, u.last_name, u.email, u.role,
+                t.item_id, i.name_item, i.unit, i.description, i.volume, i.active as item_active,
+                t.associate_id, a.name as associate_name, a.email as associate_email, a.phone as associate_phone,
+                a.type as associate_type, a.active as associate_active
+                from transactions t
+                join users u on u.id = t.worker_id
+                join items i on i.id = t.item_id
+                left join associates a on a.id = t.associate_id
+                where t.account_id = :account_id%s
+            """;
+
+        public static final String SQL_SELECT_TRANSACTION_HISTORY_PAGE = SQL_SELECT_TRANSACTION_HISTORY + """
+                order by %s
+                limit :limit offset :offset
+            """;
+
+        public static final String SQL_STREAM_TRANSACTION_HISTORY = SQL_SELECT_TRANSACTION_HISTORY + """
+                order by t.timestamp, t.id
+            """;
+
+        public static final String SQL_COUNT_TRANSACTION_HISTORY = """
+                select count(*)
+                from transactions t
+                where t.account_id = :account_id%s
+            """;
+
+        // the warehouse and all of its sub-warehouses
+        public static final String SQL_HISTORY_WAREHOUSE_CONDITION =
+            "(t.moved_from in (select descendant_id from warehouse_closure where ancestor_id = :warehouse_id) " +
+                "or t.moved_to in (select descendant_id from warehouse_closure where ancestor_id = :warehouse_id))";
+
         public static final String SQL_DELETE_TRANSACTION_BY_ID = """
                 DELETE
                 FROM transactions
                 WHERE account_id = ?
             """;
+
+        public static final String SQL_ADD_TO_DAILY_ROLLUP = """
+                INSERT INTO transaction_daily_rollups(account_id, day, item_id, in_quantity, out_quantity, move_quantity)
+                SELECT account_id, DATE(timestamp), item_id,
+                IF(type = 'IN', quantity, 0), IF(type = 'OUT', quantity, 0), IF(type = 'MOVE', quantity, 0)
+                FROM transactions
+                WHERE id = ?
+                ON DUPLICATE KEY UPDATE
+                in_quantity = in_quantity + VALUES(in_quantity),
+                out_quantity = out_quantity + VALUES(out_quantity),
+                move_quantity = move_quantity + VALUES(move_quantity)
+            """;
+
+        public static final String SQL_REBUILD_DAILY_ROLLUPS = """
+                INSERT INTO transaction_daily_rollups(account_id, day, item_id, in_quantity, out_quantity, move_quantity)
+                SELECT account_id, DATE(timestamp) AS day, item_id,
+                SUM(IF(type = 'IN', quantity, 0)), SUM(IF(type = 'OUT', quantity, 0)), SUM(IF(type = 'MOVE', quantity, 0))
+                FROM transactions
+                WHERE timestamp >= ? AND timestamp < ?
+                GROUP BY account_id, day, item_id
+                ON DUPLICATE KEY UPDATE
+                in_quantity = VALUES(in_quantity),
+                out_quantity = VALUES(out_quantity),
+                move_quantity = VALUES(move_quantity)
+            """;
+
+        public static final String SQL_DELETE_DAILY_ROLLUPS_BY_ACCOUNT_ID = """
+                DELETE
+                FROM transaction_daily_rollups
+                WHERE account_id = ?
+            """;
     }
 }
@@ -112,6 +112,7 @@ public class WarehouseDaoImpl implements WarehouseDao {
                 warehouse.setTopWarehouseID(id);
                 this.update(warehouse);
             }
+            jdbcTemplate.update(Queries.SQL_INSERT_WAREHOUSE_CLOSURE, id, warehouse.getParentID(), id, id);
             return warehouse;
         } catch (DataAccessException e) {
             throw new CRUDException("Error during an warehouse creation: " + warehouse.getId(), e);
@@ -140,6 +141,7 @@ public class WarehouseDaoImpl implements WarehouseDao {
         int status;
         try {
             status = jdbcTemplate.update(Queries.SQL_SET_ACTIVE_STATUS_WAREHOUSE, false, id);
+            jdbcTemplate.update(Queries.SQL_DELETE_WAREHOUSE_CLOSURE_BY_ID, id);
         } catch (DataAccessException e) {
             throw new CRUDException("Error during soft `delete` warehouse {id = " + id + "}", e);
         }
@@ -161,10 +163,32 @@ public class WarehouseDaoImpl implements WarehouseDao {
         }
     }
 
+    @Override
+    public List<Warehouse> findAllByAccountId(Long accountId) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_BY_ACCOUNT_ID, warehouseRowMapper, accountId);
+
+        } catch (DataAccessException e) {
+            throw new WarehouseNotFoundException("Error during finding all warehouses {accountId = " + accountId + "}",
+                e);
+        }
+    }
+
+    @Override
+    public List<Warehouse> findBottomByAccountId(Long accountId) {
+        try {
+            return jdbcTemplate.query(Queries.SQL_SELECT_BOTTOM_BY_ACCOUNT_ID, warehouseRowMapper, accountId);
+
+        } catch (DataAccessException e) {
+            throw new WarehouseNotFoundException("Error during finding bottom warehouses {accountId = " + accountId +
+                "}", e);
+        }
+    }
+
     @Override
     public Integer findLevelByParentID(Long id) {
         try {
-            return jdbcTemplate.queryForObject(Queries.SQL_LEVEL_WAREHOUSE_BY_PARENT_ID, Integer.class, id);
+            return jdbcTemplate.queryForObject(Queries.SQL_LEVEL_WAREHOUSE_BY_ID, Integer.class, id);
 
         } catch (DataAccessException e) {
             throw new WarehouseNotFoundException("Error during finding level of warehouse {Id = " + id + "}", e);
@@ -225,9 +249,62 @@ public class WarehouseDaoImpl implements WarehouseDao {
         }
     }
 
+    @Override
+    public void addUsedVolume(Long id, long volume) {
+        int status;
+        try {
+            status = jdbcTemplate.update(Queries.SQL_ADD_USED_VOLUME, volume, id);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `update` used volume of warehouse {id = " + id + "}", e);
+        }
+        if (status == 0) {
+            throw new WarehouseNotFoundException("Failed to obtain warehouse during `update` used volume {id = " + id +
+                "}");
+        }
+    }
+
+    @Override
+    public void updateUsedVolumeByItem(Long itemId, int volume, Long accountId) {
+        try {
+            jdbcTemplate.update(Queries.SQL_UPDATE_USED_VOLUME_BY_ITEM, volume, itemId, accountId);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during `update` used volume by item {itemId = " + itemId + "}", e);
+        }
+    }
+
+    @Override
+    public int reconcileUsedVolume() {
+        try {
+            return jdbcTemplate.update(Queries.SQL_RECONCILE_USED_VOLUME);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during reconciliation of warehouses used volume", e);
+        }
+    }
+
+    @Override
+    public boolean lockCapacity(Long id, int timeoutSeconds) {
+        try {
+            Integer status = jdbcTemplate.queryForObject(Queries.SQL_GET_CAPACITY_LOCK, Integer.class, id,
+                timeoutSeconds);
+            return status != null && status == 1;
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during locking capacity of warehouse {id = " + id + "}", e);
+        }
+    }
+
+    @Override
+    public void unlockCapacity(Long id) {
+        try {
+            jdbcTemplate.queryForObject(Queries.SQL_RELEASE_CAPACITY_LOCK, Integer.class, id);
+        } catch (DataAccessException e) {
+            throw new CRUDException("Error during unlocking capacity of warehouse {id = " + id + "}", e);
+        }
+    }
+
     @Override
     public void hardDelete(Long accountId) {
         try {
+            jdbcTemplate.update(Queries.SQL_DELETE_WAREHOUSE_CLOSURE_BY_ACCOUNT_ID, accountId);
             jdbcTemplate.update(Queries.SQL_DELETE_WAREHOUSE_BY_ID, accountId);
         } catch (DataAccessException e) {
             throw new CRUDException("Error during hard `delete` warehouse {accountId = " + accountId + "}", e);
@@ -287,14 +364,31 @@ public class WarehouseDaoImpl implements WarehouseDao {
             """;
 
         static final String SQL_SELECT_BY_TOP_WAREHOUSE_ID = """
+                SELECT w.*
+                FROM warehouse_closure c
+                JOIN warehouses w
+                ON w.id = c.descendant_id
+                WHERE c.ancestor_id = ? AND w.account_id = ?
+            """;
+        static final String SQL_SELECT_BY_ACCOUNT_ID = """
                 SELECT *
                 FROM warehouses
-                WHERE top_warehouse_id = ? AND account_id = ?
+                WHERE account_id = ?
             """;
-        static final String SQL_SELECT_BY_TOP_WAREHOUSE_IDS = """
+
+        static final String SQL_SELECT_BOTTOM_BY_ACCOUNT_ID = """
                 SELECT *
                 FROM warehouses
-                WHERE account_id = ? AND top_warehouse_id IN (%s)
+                WHERE account_id = ? AND is_bottom = 1
+                AND active = 1
+            """;
+
+        static final String SQL_SELECT_BY_TOP_WAREHOUSE_IDS = """
+                SELECT DISTINCT w.*
+                FROM warehouse_closure c
+                JOIN warehouses w
+                ON w.id = c.descendant_id
+                WHERE w.account_id = ? AND c.ancestor_id IN (%s)
             """;
 
         static final String SQL_SET_ACTIVE_STATUS_WAREHOUSE = """
@@ -311,18 +405,36 @@ public class WarehouseDaoImpl implements WarehouseDao {
                 AND account_id = ?
             """;
 
-        static final String SQL_LEVEL_WAREHOUSE_BY_PARENT_ID = """
-                WITH RECURSIVE cte AS
-                (SELECT id, 0 as depth
-                 FROM warehouses
-                 WHERE parent_id IS NULL
-                 UNION ALL
-                 SELECT w.id, cte.depth+1
-                 FROM warehouses w JOIN cte
-                 ON cte.id=w.parent_id)
-                 SELECT depth
-                 FROM cte
-                 WHERE cte.id = ?
+        static final String SQL_LEVEL_WAREHOUSE_BY_ID = """
+                SELECT depth
+                FROM warehouse_closure
+                WHERE descendant_id = ?
+                ORDER BY depth DESC
+                LIMIT 1
+            """;
+
+        static final String SQL_INSERT_WAREHOUSE_CLOSURE = """
+                INSERT INTO warehouse_closure
+                (ancestor_id, descendant_id, depth)
+                SELECT ancestor_id, ?, depth + 1
+                FROM warehouse_closure
+                WHERE descendant_id = ?
+                UNION ALL
+                SELECT ?, ?, 0
+            """;
+
+        static final String SQL_DELETE_WAREHOUSE_CLOSURE_BY_ID = """
+                DELETE
+                FROM warehouse_closure
+                WHERE descendant_id = ?
+            """;
+
+        static final String SQL_DELETE_WAREHOUSE_CLOSURE_BY_ACCOUNT_ID = """
+                DELETE c
+                FROM warehouse_closure c
+                JOIN warehouses w
+                ON w.id = c.descendant_id
+                WHERE w.account_id = ?
             """;
 
         static final String SQL_SELECT_ALL_NAMES = """
@@ -346,17 +458,55 @@ public class WarehouseDaoImpl implements WarehouseDao {
             """;
 
         static final String SQL_SELECT_SUM_CAPACITY = """
-                SELECT SUM(capacity)
-                FROM warehouses
-                WHERE top_warehouse_id = ? AND
-                account_id = ? AND capacity > 0
-                AND active = 1
+                SELECT SUM(w.capacity)
+                FROM warehouse_closure c
+                JOIN warehouses w
+                ON w.id = c.descendant_id
+                WHERE c.ancestor_id = ? AND
+                w.account_id = ? AND w.capacity > 0
+                AND w.active = 1
             """;
 
         static final String SQL_SELECT_USEFUL_WAREHOUSES = """
                 SELECT *
                 FROM warehouses
-                WHERE account_id = ? AND is_bottom=true AND capacity >= ?
+                WHERE account_id = ? AND is_bottom=true AND capacity - used_volume >= ?
+            """;
+
+        static final String SQL_ADD_USED_VOLUME = """
+                UPDATE warehouses
+                SET used_volume = used_volume + ?
+                WHERE id = ?
+            """;
+
+        static final String SQL_UPDATE_USED_VOLUME_BY_ITEM = """
+                UPDATE warehouses w
+                JOIN saved_items si
+                ON si.warehouse_id = w.id
+                JOIN items i
+                ON i.id = si.item_id
+                SET w.used_volume = w.used_volume + si.quantity * (? - i.volume)
+                WHERE i.id = ? AND i.account_id = ?
+            """;
+
+        static final String SQL_RECONCILE_USED_VOLUME = """
+                UPDATE warehouses w
+                LEFT JOIN (SELECT si.warehouse_id, SUM(si.quantity * i.volume) AS volume
+                           FROM saved_items si
+                           JOIN items i
+                           ON i.id = si.item_id
+                           GROUP BY si.warehouse_id) v
+                ON v.warehouse_id = w.id
+                SET w.used_volume = IFNULL(v.volume, 0)
+                WHERE w.used_volume <> IFNULL(v.volume, 0)
+            """;
+
+        static final String SQL_GET_CAPACITY_LOCK = """
+                SELECT GET_LOCK(CONCAT('ims.warehouse.capacity.', ?), ?)
+            """;
+
+        static final String SQL_RELEASE_CAPACITY_LOCK = """
+                SELECT RELEASE_LOCK(CONCAT('ims.warehouse.capacity.', ?))
             """;
 
         public static final String SQL_DELETE_WAREHOUSE_BY_ID = """
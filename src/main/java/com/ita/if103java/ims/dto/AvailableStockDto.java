@@ -0,0 +1,71 @@
+package com.ita.if103java.ims.dto;
+
+public class AvailableStockDto {
+    private Long savedItemId;
+    private Long warehouseId;
+    private int quantity;
+    private int reserved;
+    private int available;
+
+    public AvailableStockDto() {
+    }
+
+    public AvailableStockDto(Long savedItemId, Long warehouseId, int quantity, int reserved, int available) {
+        this.savedItemId = savedItemId;
+        this.warehouseId = warehouseId;
+        this.quantity = quantity;
+        this.reserved = reserved;
+        this.available = available;
+    }
+
+    public Long getSavedItemId() {
+        return savedItemId;
+    }
+
+    public void setSavedItemId(Long savedItemId) {
+        this.savedItemId = savedItemId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(int reserved) {
+        this.reserved = reserved;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailableStockDto{" +
+            "savedItemId=" + savedItemId +
+            ", warehouseId=" + warehouseId +
+            ", quantity=" + quantity +
+            ", reserved=" + reserved +
+            ", available=" + available +
+            '}';
+    }
+}
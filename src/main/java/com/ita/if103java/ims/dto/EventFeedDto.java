@@ -0,0 +1,51 @@
+package com.ita.if103java.ims.dto;
+
+import java.util.List;
+
+public class EventFeedDto {
+    private List<EventDto> content;
+    private String nextCursor;
+    private Long totalElements;
+
+    public EventFeedDto() {
+    }
+
+    public EventFeedDto(List<EventDto> content, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public List<EventDto> getContent() {
+        return content;
+    }
+
+    public void setContent(List<EventDto> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    @Override
+    public String toString() {
+        return "EventFeedDto{" +
+            "content=" + content +
+            ", nextCursor='" + nextCursor + '\'' +
+            ", totalElements=" + totalElements +
+            '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.ita.if103java.ims.dto;
+
+public class ImportErrorDto {
+    private int row;
+    private String message;
+
+    public ImportErrorDto() {
+    }
+
+    public ImportErrorDto(int row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportErrorDto{" +
+            "row=" + row +
+            ", message='" + message + '\'' +
+            '}';
+    }
+}
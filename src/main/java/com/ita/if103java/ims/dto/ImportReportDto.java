@@ -0,0 +1,100 @@
+package com.ita.if103java.ims.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ita.if103java.ims.entity.ImportStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of an import, updated by the import thread while clients poll it. At most {@code maxErrors}
+ * errors are kept, {@code errorCount} counts all of them.
+ */
+public class ImportReportDto {
+    private final String id;
+    private final String type;
+    @JsonIgnore
+    private final Long accountId;
+    private final int totalRows;
+    private final int maxErrors;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicInteger processedRows = new AtomicInteger();
+    private final AtomicInteger importedRows = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final List<ImportErrorDto> errors = new CopyOnWriteArrayList<>();
+    private volatile ImportStatus status = ImportStatus.RUNNING;
+    private volatile LocalDateTime finishedAt;
+
+    public ImportReportDto(String id, String type, Long accountId, int totalRows, int maxErrors) {
+        this.id = id;
+        this.type = type;
+        this.accountId = accountId;
+        this.totalRows = totalRows;
+        this.maxErrors = maxErrors;
+    }
+
+    public void addError(int row, String message) {
+        if (errorCount.incrementAndGet() <= maxErrors) {
+            errors.add(new ImportErrorDto(row, message));
+        }
+    }
+
+    public void addProcessed(int rows) {
+        processedRows.addAndGet(rows);
+    }
+
+    public void addImported(int rows) {
+        importedRows.addAndGet(rows);
+    }
+
+    public void finish(ImportStatus status) {
+        this.finishedAt = LocalDateTime.now();
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getProcessedRows() {
+        return processedRows.get();
+    }
+
+    public int getImportedRows() {
+        return importedRows.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public List<ImportErrorDto> getErrors() {
+        return errors;
+    }
+
+    public ImportStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
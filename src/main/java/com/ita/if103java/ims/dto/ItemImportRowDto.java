@@ -0,0 +1,50 @@
+package com.ita.if103java.ims.dto;
+
+public class ItemImportRowDto {
+    private String name;
+    private String unit;
+    private String description;
+    private String volume;
+
+    public ItemImportRowDto() {
+    }
+
+    public ItemImportRowDto(String name, String unit, String description, String volume) {
+        this.name = name;
+        this.unit = unit;
+        this.description = description;
+        this.volume = volume;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getVolume() {
+        return volume;
+    }
+
+    public void setVolume(String volume) {
+        this.volume = volume;
+    }
+}
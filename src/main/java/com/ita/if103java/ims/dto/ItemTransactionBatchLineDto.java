@@ -0,0 +1,18 @@
+package com.ita.if103java.ims.dto;
+
+import com.ita.if103java.ims.entity.TransactionType;
+
+import javax.validation.constraints.NotNull;
+
+public class ItemTransactionBatchLineDto extends ItemTransactionRequestDto {
+    @NotNull
+    private TransactionType type;
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ita.if103java.ims.dto;
+
+import com.ita.if103java.ims.entity.TransactionType;
+
+public class ItemTransactionBatchResultDto {
+    private int index;
+    private TransactionType type;
+    private boolean success;
+    private String message;
+    private Long transactionId;
+    private SavedItemDto savedItem;
+
+    public ItemTransactionBatchResultDto() {
+    }
+
+    public ItemTransactionBatchResultDto(int index, TransactionType type) {
+        this.index = index;
+        this.type = type;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public SavedItemDto getSavedItem() {
+        return savedItem;
+    }
+
+    public void setSavedItem(SavedItemDto savedItem) {
+        this.savedItem = savedItem;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemTransactionBatchResultDto{" +
+            "index=" + index +
+            ", type=" + type +
+            ", success=" + success +
+            ", message='" + message + '\'' +
+            ", transactionId=" + transactionId +
+            '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.ita.if103java.ims.dto;
+
+import java.util.List;
+
+public class NotificationBatchDto {
+    private List<EventDto> events;
+    private int dropped;
+
+    public NotificationBatchDto() {
+    }
+
+    public NotificationBatchDto(List<EventDto> events, int dropped) {
+        this.events = events;
+        this.dropped = dropped;
+    }
+
+    public List<EventDto> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<EventDto> events) {
+        this.events = events;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(int dropped) {
+        this.dropped = dropped;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationBatchDto{" +
+            "events=" + events +
+            ", dropped=" + dropped +
+            '}';
+    }
+}
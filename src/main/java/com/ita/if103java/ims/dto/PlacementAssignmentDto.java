@@ -0,0 +1,61 @@
+package com.ita.if103java.ims.dto;
+
+import java.util.List;
+
+public class PlacementAssignmentDto {
+    private Long itemId;
+    private Long warehouseId;
+    private List<String> path;
+    private Long quantity;
+
+    public PlacementAssignmentDto() {
+    }
+
+    public PlacementAssignmentDto(Long itemId, Long warehouseId, List<String> path, Long quantity) {
+        this.itemId = itemId;
+        this.warehouseId = warehouseId;
+        this.path = path;
+        this.quantity = quantity;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public List<String> getPath() {
+        return path;
+    }
+
+    public void setPath(List<String> path) {
+        this.path = path;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "PlacementAssignmentDto{" +
+            "itemId=" + itemId +
+            ", warehouseId=" + warehouseId +
+            ", quantity=" + quantity +
+            '}';
+    }
+}
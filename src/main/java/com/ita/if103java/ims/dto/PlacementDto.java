@@ -0,0 +1,37 @@
+package com.ita.if103java.ims.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PlacementDto {
+    private List<PlacementAssignmentDto> assignments = new ArrayList<>();
+    private List<PlacementLineDto> unplaced = new ArrayList<>();
+    private boolean committed;
+
+    public PlacementDto() {
+    }
+
+    public List<PlacementAssignmentDto> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(List<PlacementAssignmentDto> assignments) {
+        this.assignments = assignments;
+    }
+
+    public List<PlacementLineDto> getUnplaced() {
+        return unplaced;
+    }
+
+    public void setUnplaced(List<PlacementLineDto> unplaced) {
+        this.unplaced = unplaced;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ita.if103java.ims.dto;
+
+import javax.validation.constraints.NotNull;
+
+public class PlacementLineDto {
+    @NotNull
+    private Long itemId;
+    @NotNull
+    private Long quantity;
+
+    public PlacementLineDto() {
+    }
+
+    public PlacementLineDto(Long itemId, Long quantity) {
+        this.itemId = itemId;
+        this.quantity = quantity;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "PlacementLineDto{" +
+            "itemId=" + itemId +
+            ", quantity=" + quantity +
+            '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.ita.if103java.ims.dto;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+public class PlacementRequestDto {
+    @NotNull
+    private Long associateId;
+    @NotEmpty
+    private List<PlacementLineDto> lines;
+
+    public PlacementRequestDto() {
+    }
+
+    public PlacementRequestDto(Long associateId, List<PlacementLineDto> lines) {
+        this.associateId = associateId;
+        this.lines = lines;
+    }
+
+    public Long getAssociateId() {
+        return associateId;
+    }
+
+    public void setAssociateId(Long associateId) {
+        this.associateId = associateId;
+    }
+
+    public List<PlacementLineDto> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<PlacementLineDto> lines) {
+        this.lines = lines;
+    }
+}
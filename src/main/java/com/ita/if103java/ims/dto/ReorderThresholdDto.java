@@ -0,0 +1,68 @@
+package com.ita.if103java.ims.dto;
+
+import javax.validation.constraints.PositiveOrZero;
+import java.util.Objects;
+
+public class ReorderThresholdDto {
+    private Long itemId;
+    private Long warehouseId;
+    @PositiveOrZero
+    private int threshold;
+
+    public ReorderThresholdDto() {
+    }
+
+    public ReorderThresholdDto(Long itemId, Long warehouseId, int threshold) {
+        this.itemId = itemId;
+        this.warehouseId = warehouseId;
+        this.threshold = threshold;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReorderThresholdDto that = (ReorderThresholdDto) o;
+        return threshold == that.threshold &&
+            Objects.equals(itemId, that.itemId) &&
+            Objects.equals(warehouseId, that.warehouseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(itemId, warehouseId, threshold);
+    }
+
+    @Override
+    public String toString() {
+        return "ReorderThresholdDto{" +
+            "itemId=" + itemId +
+            ", warehouseId=" + warehouseId +
+            ", threshold=" + threshold +
+            '}';
+    }
+}
@@ -0,0 +1,107 @@
+package com.ita.if103java.ims.dto;
+
+import java.time.ZonedDateTime;
+
+public class ReservationDto {
+    private Long id;
+    private Long itemId;
+    private Long savedItemId;
+    private int quantity;
+    private String reference;
+    private Long createdBy;
+    private ZonedDateTime createdAt;
+    private ZonedDateTime expiresAt;
+
+    public ReservationDto() {
+    }
+
+    public ReservationDto(Long id, Long itemId, Long savedItemId, int quantity, String reference, Long createdBy,
+                          ZonedDateTime createdAt, ZonedDateTime expiresAt) {
+        this.id = id;
+        this.itemId = itemId;
+        this.savedItemId = savedItemId;
+        this.quantity = quantity;
+        this.reference = reference;
+        this.createdBy = createdBy;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getSavedItemId() {
+        return savedItemId;
+    }
+
+    public void setSavedItemId(Long savedItemId) {
+        this.savedItemId = savedItemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(Long createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(ZonedDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public ZonedDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(ZonedDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationDto{" +
+            "id=" + id +
+            ", itemId=" + itemId +
+            ", savedItemId=" + savedItemId +
+            ", quantity=" + quantity +
+            ", reference='" + reference + '\'' +
+            ", createdBy=" + createdBy +
+            ", createdAt=" + createdAt +
+            ", expiresAt=" + expiresAt +
+            '}';
+    }
+}
@@ -0,0 +1,72 @@
+package com.ita.if103java.ims.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+
+public class ReservationRequestDto {
+    @NotNull
+    private Long itemId;
+    private Long savedItemId;
+    @NotNull
+    @Positive
+    private Integer quantity;
+    @Positive
+    private Long ttlMinutes;
+    @Size(max = 255)
+    private String reference;
+
+    public ReservationRequestDto() {
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getSavedItemId() {
+        return savedItemId;
+    }
+
+    public void setSavedItemId(Long savedItemId) {
+        this.savedItemId = savedItemId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Long getTtlMinutes() {
+        return ttlMinutes;
+    }
+
+    public void setTtlMinutes(Long ttlMinutes) {
+        this.ttlMinutes = ttlMinutes;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationRequestDto{" +
+            "itemId=" + itemId +
+            ", savedItemId=" + savedItemId +
+            ", quantity=" + quantity +
+            ", ttlMinutes=" + ttlMinutes +
+            ", reference='" + reference + '\'' +
+            '}';
+    }
+}
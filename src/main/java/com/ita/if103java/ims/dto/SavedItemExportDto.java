@@ -0,0 +1,70 @@
+package com.ita.if103java.ims.dto;
+
+public class SavedItemExportDto {
+    private Long id;
+    private Long itemId;
+    private String itemName;
+    private String unit;
+    private int quantity;
+    private Long warehouseId;
+
+    public SavedItemExportDto() {
+    }
+
+    public SavedItemExportDto(Long id, Long itemId, String itemName, String unit, int quantity, Long warehouseId) {
+        this.id = id;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.unit = unit;
+        this.quantity = quantity;
+        this.warehouseId = warehouseId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ita.if103java.ims.dto;
+
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.SearchDocumentType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Search query and filters. Only events have a date and an event name, so setting the date range or the
+ * event name restricts the results to events.
+ */
+public class SearchFilterDto {
+    private String q;
+    private Set<SearchDocumentType> types;
+    private EventName eventName;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public Set<SearchDocumentType> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Set<SearchDocumentType> types) {
+        this.types = types;
+    }
+
+    public EventName getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(EventName eventName) {
+        this.eventName = eventName;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchFilterDto{" +
+            "q='" + q + '\'' +
+            ", types=" + types +
+            ", eventName=" + eventName +
+            ", from=" + from +
+            ", to=" + to +
+            '}';
+    }
+}
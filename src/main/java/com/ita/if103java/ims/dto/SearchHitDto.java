@@ -0,0 +1,85 @@
+package com.ita.if103java.ims.dto;
+
+import com.ita.if103java.ims.entity.SearchDocumentType;
+
+import java.time.ZonedDateTime;
+
+public class SearchHitDto {
+    private SearchDocumentType type;
+    private Long id;
+    private String title;
+    private String text;
+    private ZonedDateTime date;
+    private double score;
+
+    public SearchHitDto() {
+    }
+
+    public SearchHitDto(SearchDocumentType type, Long id, String title, String text, ZonedDateTime date,
+                        double score) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.text = text;
+        this.date = date;
+        this.score = score;
+    }
+
+    public SearchDocumentType getType() {
+        return type;
+    }
+
+    public void setType(SearchDocumentType type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(ZonedDateTime date) {
+        this.date = date;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHitDto{" +
+            "type=" + type +
+            ", id=" + id +
+            ", title='" + title + '\'' +
+            ", score=" + score +
+            '}';
+    }
+}
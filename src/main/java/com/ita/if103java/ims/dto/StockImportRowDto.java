@@ -0,0 +1,47 @@
+package com.ita.if103java.ims.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An opening stock balance. The warehouse is given by its path, e.g. "Main / Hall 1 / Shelf 3",
+ * the columns match the saved items export.
+ */
+public class StockImportRowDto {
+    @JsonProperty("item_name")
+    private String itemName;
+    private String warehouse;
+    private String quantity;
+
+    public StockImportRowDto() {
+    }
+
+    public StockImportRowDto(String itemName, String warehouse, String quantity) {
+        this.itemName = itemName;
+        this.warehouse = warehouse;
+        this.quantity = quantity;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getWarehouse() {
+        return warehouse;
+    }
+
+    public void setWarehouse(String warehouse) {
+        this.warehouse = warehouse;
+    }
+
+    public String getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(String quantity) {
+        this.quantity = quantity;
+    }
+}
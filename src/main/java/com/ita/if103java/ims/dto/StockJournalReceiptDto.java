@@ -0,0 +1,38 @@
+package com.ita.if103java.ims.dto;
+
+public class StockJournalReceiptDto {
+    private long sequence;
+    private long appliedSequence;
+
+    public StockJournalReceiptDto() {
+    }
+
+    public StockJournalReceiptDto(long sequence, long appliedSequence) {
+        this.sequence = sequence;
+        this.appliedSequence = appliedSequence;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public void setAppliedSequence(long appliedSequence) {
+        this.appliedSequence = appliedSequence;
+    }
+
+    @Override
+    public String toString() {
+        return "StockJournalReceiptDto{" +
+            "sequence=" + sequence +
+            ", appliedSequence=" + appliedSequence +
+            '}';
+    }
+}
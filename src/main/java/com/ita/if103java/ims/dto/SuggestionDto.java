@@ -0,0 +1,68 @@
+package com.ita.if103java.ims.dto;
+
+import com.ita.if103java.ims.entity.SuggestionType;
+
+import java.util.Objects;
+
+public class SuggestionDto {
+    private Long id;
+    private String name;
+    private SuggestionType type;
+
+    public SuggestionDto() {
+    }
+
+    public SuggestionDto(Long id, String name, SuggestionType type) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SuggestionType getType() {
+        return type;
+    }
+
+    public void setType(SuggestionType type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SuggestionDto that = (SuggestionDto) o;
+        return Objects.equals(id, that.id) &&
+            Objects.equals(name, that.name) &&
+            type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, type);
+    }
+
+    @Override
+    public String toString() {
+        return "SuggestionDto{" +
+            "id=" + id +
+            ", name='" + name + '\'' +
+            ", type=" + type +
+            '}';
+    }
+}
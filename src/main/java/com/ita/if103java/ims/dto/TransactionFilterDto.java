@@ -0,0 +1,90 @@
+package com.ita.if103java.ims.dto;
+
+import com.ita.if103java.ims.entity.TransactionType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class TransactionFilterDto {
+    private Long itemId;
+    private Long warehouseId;
+    private Long associateId;
+    private TransactionType type;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    public TransactionFilterDto() {
+    }
+
+    public TransactionFilterDto(Long itemId, Long warehouseId, Long associateId, TransactionType type,
+                                LocalDate from, LocalDate to) {
+        this.itemId = itemId;
+        this.warehouseId = warehouseId;
+        this.associateId = associateId;
+        this.type = type;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public Long getAssociateId() {
+        return associateId;
+    }
+
+    public void setAssociateId(Long associateId) {
+        this.associateId = associateId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionFilterDto{" +
+            "itemId=" + itemId +
+            ", warehouseId=" + warehouseId +
+            ", associateId=" + associateId +
+            ", type=" + type +
+            ", from=" + from +
+            ", to=" + to +
+            '}';
+    }
+}
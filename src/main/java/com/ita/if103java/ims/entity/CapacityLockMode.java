@@ -0,0 +1,6 @@
+package com.ita.if103java.ims.entity;
+
+public enum CapacityLockMode {
+    LOCAL,
+    MYSQL
+}
@@ -1,22 +0,0 @@
-package com.ita.if103java.ims.entity;
-
-public class ChargeCapacity {
-    private Long charge;
-    private Long capacity;
-
-    public Long getCharge() {
-        return charge;
-    }
-
-    public void setCharge(Long charge) {
-        this.charge = charge;
-    }
-
-    public Long getCapacity() {
-        return capacity;
-    }
-
-    public void setCapacity(Long capacity) {
-        this.capacity = capacity;
-    }
-}
@@ -0,0 +1,91 @@
+package com.ita.if103java.ims.entity;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+public class IdempotencyKey {
+    private Long accountId;
+    private byte[] keyHash;
+    private String operation;
+    private String response;
+    private ZonedDateTime createdAt;
+
+    public IdempotencyKey() {
+    }
+
+    public IdempotencyKey(Long accountId, byte[] keyHash, String operation, String response,
+                          ZonedDateTime createdAt) {
+        this.accountId = accountId;
+        this.keyHash = keyHash;
+        this.operation = operation;
+        this.response = response;
+        this.createdAt = createdAt;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public byte[] getKeyHash() {
+        return keyHash;
+    }
+
+    public void setKeyHash(byte[] keyHash) {
+        this.keyHash = keyHash;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(ZonedDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdempotencyKey that = (IdempotencyKey) o;
+        return Objects.equals(accountId, that.accountId) &&
+            Arrays.equals(keyHash, that.keyHash) &&
+            Objects.equals(operation, that.operation) &&
+            Objects.equals(response, that.response) &&
+            Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(accountId, operation, response, createdAt) + Arrays.hashCode(keyHash);
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyKey{" +
+            "accountId=" + accountId +
+            ", operation='" + operation + '\'' +
+            ", createdAt=" + createdAt +
+            '}';
+    }
+}
@@ -0,0 +1,5 @@
+package com.ita.if103java.ims.entity;
+
+public enum ImportStatus {
+    RUNNING, DONE, FAILED
+}
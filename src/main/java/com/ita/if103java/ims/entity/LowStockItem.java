@@ -0,0 +1,71 @@
+package com.ita.if103java.ims.entity;
+
+public class LowStockItem {
+    private Long savedItemId;
+    private Long itemId;
+    private String itemName;
+    private Long warehouseId;
+    private String warehouseName;
+    private int quantity;
+
+    public LowStockItem() {
+    }
+
+    public LowStockItem(Long savedItemId, Long itemId, String itemName, Long warehouseId, String warehouseName,
+                        int quantity) {
+        this.savedItemId = savedItemId;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.warehouseId = warehouseId;
+        this.warehouseName = warehouseName;
+        this.quantity = quantity;
+    }
+
+    public Long getSavedItemId() {
+        return savedItemId;
+    }
+
+    public void setSavedItemId(Long savedItemId) {
+        this.savedItemId = savedItemId;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public String getWarehouseName() {
+        return warehouseName;
+    }
+
+    public void setWarehouseName(String warehouseName) {
+        this.warehouseName = warehouseName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ita.if103java.ims.entity;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+public class Reservation {
+    private Long id;
+    private Long accountId;
+    private Long itemId;
+    private Long savedItemId;
+    private int quantity;
+    private String reference;
+    private Long createdBy;
+    private ZonedDateTime createdAt;
+    private ZonedDateTime expiresAt;
+
+    public Reservation() {
+    }
+
+    public Reservation(Long accountId, Long itemId, Long savedItemId, int quantity, String reference, Long createdBy,
+                       ZonedDateTime createdAt, ZonedDateTime expiresAt) {
+        this.accountId = accountId;
+        this.itemId = itemId;
+        this.savedItemId = savedItemId;
+        this.quantity = quantity;
+        this.reference = reference;
+        this.createdBy = createdBy;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public Long getSavedItemId() {
+        return savedItemId;
+    }
+
+    public void setSavedItemId(Long savedItemId) {
+        this.savedItemId = savedItemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(Long createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(ZonedDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public ZonedDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(ZonedDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Reservation that = (Reservation) o;
+        return quantity == that.quantity &&
+            Objects.equals(id, that.id) &&
+            Objects.equals(accountId, that.accountId) &&
+            Objects.equals(itemId, that.itemId) &&
+            Objects.equals(savedItemId, that.savedItemId) &&
+            Objects.equals(reference, that.reference) &&
+            Objects.equals(createdBy, that.createdBy) &&
+            Objects.equals(createdAt, that.createdAt) &&
+            Objects.equals(expiresAt, that.expiresAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, accountId, itemId, savedItemId, quantity, reference, createdBy, createdAt, expiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+            "id=" + id +
+            ", accountId=" + accountId +
+            ", itemId=" + itemId +
+            ", savedItemId=" + savedItemId +
+            ", quantity=" + quantity +
+            ", reference='" + reference + '\'' +
+            ", createdBy=" + createdBy +
+            ", createdAt=" + createdAt +
+            ", expiresAt=" + expiresAt +
+            '}';
+    }
+}
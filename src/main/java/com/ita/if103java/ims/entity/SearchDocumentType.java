@@ -0,0 +1,8 @@
+package com.ita.if103java.ims.entity;
+
+public enum SearchDocumentType {
+    ITEM,
+    WAREHOUSE,
+    ASSOCIATE,
+    EVENT
+}
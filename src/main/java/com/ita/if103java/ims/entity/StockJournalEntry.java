@@ -0,0 +1,81 @@
+package com.ita.if103java.ims.entity;
+
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+
+import java.util.List;
+import java.util.Objects;
+
+public class StockJournalEntry {
+    private long sequence;
+    private Long accountId;
+    private Long workerId;
+    private List<ItemTransactionBatchLineDto> lines;
+
+    public StockJournalEntry() {
+    }
+
+    public StockJournalEntry(long sequence, Long accountId, Long workerId, List<ItemTransactionBatchLineDto> lines) {
+        this.sequence = sequence;
+        this.accountId = accountId;
+        this.workerId = workerId;
+        this.lines = lines;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(Long workerId) {
+        this.workerId = workerId;
+    }
+
+    public List<ItemTransactionBatchLineDto> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<ItemTransactionBatchLineDto> lines) {
+        this.lines = lines;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockJournalEntry that = (StockJournalEntry) o;
+        return sequence == that.sequence &&
+            Objects.equals(accountId, that.accountId) &&
+            Objects.equals(workerId, that.workerId) &&
+            Objects.equals(lines, that.lines);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, accountId, workerId, lines);
+    }
+
+    @Override
+    public String toString() {
+        return "StockJournalEntry{" +
+            "sequence=" + sequence +
+            ", accountId=" + accountId +
+            ", workerId=" + workerId +
+            ", lines=" + lines.size() +
+            '}';
+    }
+}
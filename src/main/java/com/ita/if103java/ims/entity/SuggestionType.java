@@ -0,0 +1,7 @@
+package com.ita.if103java.ims.entity;
+
+public enum SuggestionType {
+    ITEM,
+    WAREHOUSE,
+    ASSOCIATE
+}
@@ -14,6 +14,7 @@ public class Warehouse {
     private Long accountID;
     private Long topWarehouseID;
     private boolean active;
+    private long usedVolume;
     private List<String> path = new ArrayList<>();
 
     public Warehouse() {
@@ -108,6 +109,14 @@ public class Warehouse {
         this.active = active;
     }
 
+    public long getUsedVolume() {
+        return usedVolume;
+    }
+
+    public void setUsedVolume(long usedVolume) {
+        this.usedVolume = usedVolume;
+    }
+
     public List<String> getPath() {
         return path;
     }
@@ -0,0 +1,18 @@
+package com.ita.if103java.ims.exception.dao;
+
+public class ReservationNotFoundException extends EntityNotFoundException {
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+
+    public ReservationNotFoundException() {
+    }
+
+    public ReservationNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ReservationNotFoundException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ita.if103java.ims.exception.service;
+
+import com.ita.if103java.ims.exception.BaseRuntimeException;
+
+public class CapacityReservationException extends BaseRuntimeException {
+    public CapacityReservationException(String message) {
+        super(message);
+    }
+
+    public CapacityReservationException() {
+    }
+
+    public CapacityReservationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CapacityReservationException(Throwable cause) {
+        super(cause);
+    }
+}
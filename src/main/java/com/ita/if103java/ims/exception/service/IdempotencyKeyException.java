@@ -0,0 +1,20 @@
+package com.ita.if103java.ims.exception.service;
+
+import com.ita.if103java.ims.exception.BaseRuntimeException;
+
+public class IdempotencyKeyException extends BaseRuntimeException {
+    public IdempotencyKeyException(String message) {
+        super(message);
+    }
+
+    public IdempotencyKeyException() {
+    }
+
+    public IdempotencyKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public IdempotencyKeyException(Throwable cause) {
+        super(cause);
+    }
+}
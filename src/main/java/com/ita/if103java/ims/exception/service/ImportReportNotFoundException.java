@@ -0,0 +1,20 @@
+package com.ita.if103java.ims.exception.service;
+
+import com.ita.if103java.ims.exception.dao.EntityNotFoundException;
+
+public class ImportReportNotFoundException extends EntityNotFoundException {
+    public ImportReportNotFoundException(String message) {
+        super(message);
+    }
+
+    public ImportReportNotFoundException() {
+    }
+
+    public ImportReportNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ImportReportNotFoundException(Throwable cause) {
+        super(cause);
+    }
+}
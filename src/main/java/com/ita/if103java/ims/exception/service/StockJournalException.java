@@ -0,0 +1,20 @@
+package com.ita.if103java.ims.exception.service;
+
+import com.ita.if103java.ims.exception.BaseRuntimeException;
+
+public class StockJournalException extends BaseRuntimeException {
+    public StockJournalException(String message) {
+        super(message);
+    }
+
+    public StockJournalException() {
+    }
+
+    public StockJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StockJournalException(Throwable cause) {
+        super(cause);
+    }
+}
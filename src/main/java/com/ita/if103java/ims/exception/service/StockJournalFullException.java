@@ -0,0 +1,18 @@
+package com.ita.if103java.ims.exception.service;
+
+public class StockJournalFullException extends StockJournalException {
+    public StockJournalFullException(String message) {
+        super(message);
+    }
+
+    public StockJournalFullException() {
+    }
+
+    public StockJournalFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StockJournalFullException(Throwable cause) {
+        super(cause);
+    }
+}
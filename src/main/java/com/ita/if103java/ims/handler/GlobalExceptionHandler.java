@@ -5,7 +5,9 @@ import com.ita.if103java.ims.exception.dao.CRUDException;
 import com.ita.if103java.ims.exception.dao.EntityNotFoundException;
 import com.ita.if103java.ims.exception.service.AssociateLimitReachedException;
 import com.ita.if103java.ims.exception.service.BottomLevelWarehouseException;
+import com.ita.if103java.ims.exception.service.CapacityReservationException;
 import com.ita.if103java.ims.exception.service.GoogleAPIException;
+import com.ita.if103java.ims.exception.service.IdempotencyKeyException;
 import com.ita.if103java.ims.exception.service.ImpossibleWarehouseAdviceException;
 import com.ita.if103java.ims.exception.service.ItemDuplicateException;
 import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseException;
@@ -17,6 +19,8 @@ import com.ita.if103java.ims.exception.service.SavedItemAddException;
 import com.ita.if103java.ims.exception.service.SavedItemMoveException;
 import com.ita.if103java.ims.exception.service.SavedItemOutException;
 import com.ita.if103java.ims.exception.service.SavedItemValidateInputException;
+import com.ita.if103java.ims.exception.service.StockJournalException;
+import com.ita.if103java.ims.exception.service.StockJournalFullException;
 import com.ita.if103java.ims.exception.service.UpgradationException;
 import com.ita.if103java.ims.exception.service.UserLimitReachedException;
 import com.ita.if103java.ims.exception.service.UserOrPasswordIncorrectException;
@@ -60,6 +64,14 @@ public class GlobalExceptionHandler {
             .body(new ResponseMessageDto(e.getMessage()));
     }
 
+    @ExceptionHandler({StockJournalFullException.class})
+    public ResponseEntity<ResponseMessageDto> handleServiceUnavailableException(Exception e) {
+        LOGGER.warn(e.getMessage(), e);
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(new ResponseMessageDto(e.getMessage()));
+    }
+
     @ExceptionHandler({
         ImpossibleWarehouseAdviceException.class,
         MaxWarehouseDepthLimitReachedException.class,
@@ -81,7 +93,8 @@ public class GlobalExceptionHandler {
         WarehouseDeleteException.class,
         WarehouseUpdateException.class,
         BottomLevelWarehouseException.class,
-        WarehouseCreateException.class
+        WarehouseCreateException.class,
+        IdempotencyKeyException.class
     })
     public ResponseEntity<ResponseMessageDto> handleUpgradeException(Exception e) {
         LOGGER.error(e.getMessage(), e);
@@ -91,6 +104,8 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler({ItemNotEnoughCapacityInWarehouseException.class,
+        CapacityReservationException.class,
+        StockJournalException.class,
         ItemNotEnoughQuantityException.class,
         SavedItemAddException.class,
         SavedItemMoveException.class,
@@ -0,0 +1,113 @@
+package com.ita.if103java.ims.job;
+
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.dao.EventArchiveDao;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.entity.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Moves events of whole months older than {@code events.archive.retentionDays} from the events table
+ * into the per-account archive, then keeps the monthly partitions of the table: creates them
+ * {@code events.partitions.monthsAhead} months ahead and drops the ones left empty by archiving.
+ * The search index of an account is dropped once its events are archived, as it only covers the table.
+ */
+@Component
+public class EventArchiveJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventArchiveJob.class);
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Value("${events.archive.retentionDays}")
+    private int retentionDays;
+    @Value("${events.partitions.monthsAhead}")
+    private int monthsAhead;
+    private EventDao eventDao;
+    private EventArchiveDao eventArchiveDao;
+    private TextSearchIndex textSearchIndex;
+
+    @Autowired
+    public EventArchiveJob(EventDao eventDao, EventArchiveDao eventArchiveDao, TextSearchIndex textSearchIndex) {
+        this.eventDao = eventDao;
+        this.eventArchiveDao = eventArchiveDao;
+        this.textSearchIndex = textSearchIndex;
+    }
+
+    @Scheduled(cron = "${events.archive.cron}")
+    public void run() {
+        YearMonth cutoff = YearMonth.from(LocalDate.now().minusDays(retentionDays));
+        archive(cutoff);
+        maintainPartitions(cutoff);
+    }
+
+    private void archive(YearMonth cutoff) {
+        LocalDateTime before = start(cutoff);
+        long archived = 0;
+        for (Long accountId : eventDao.findAccountIdsWithEventsBefore(before)) {
+            LocalDateTime oldest = eventDao.findOldestDateByAccountId(accountId);
+            for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+                List<Event> events = eventDao.findByAccountIdAndPeriod(accountId, start(month), start(month.plusMonths(1)));
+                if (!events.isEmpty()) {
+                    // written before deleting, a failure in between leaves duplicates that readers merge by id
+                    eventArchiveDao.archive(accountId, month, events);
+                    eventDao.deleteByAccountIdAndPeriod(accountId, start(month), start(month.plusMonths(1)));
+                    archived += events.size();
+                }
+            }
+            textSearchIndex.evict(accountId);
+        }
+        if (archived > 0) {
+            LOGGER.info("Archived {} events older than {}", archived, cutoff);
+        }
+    }
+
+    private void maintainPartitions(YearMonth cutoff) {
+        List<String> partitionNames = eventDao.findPartitionNames();
+        if (partitionNames.isEmpty()) {
+            return;
+        }
+        TreeMap<YearMonth, String> monthlyPartitions = new TreeMap<>();
+        for (String name : partitionNames) {
+            if (name.matches("p\\d{6}")) {
+                monthlyPartitions.put(YearMonth.parse(name, PARTITION_NAME_FORMAT), name);
+            }
+        }
+
+        YearMonth next;
+        if (!monthlyPartitions.isEmpty()) {
+            next = monthlyPartitions.lastKey().plusMonths(1);
+        } else {
+            LocalDateTime oldest = eventDao.findOldestDate();
+            next = oldest == null ? YearMonth.now() : YearMonth.from(oldest);
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth last = YearMonth.now().plusMonths(monthsAhead); !next.isAfter(last); next = next.plusMonths(1)) {
+            months.add(next);
+        }
+        eventDao.addMonthlyPartitions(months);
+
+        // the lowest partition holds every older row, so partitions are dropped in order while nothing is left below
+        for (YearMonth month : monthlyPartitions.headMap(cutoff).keySet()) {
+            if (eventDao.existsBefore(start(month.plusMonths(1)))) {
+                break;
+            }
+            eventDao.dropPartition(monthlyPartitions.get(month));
+        }
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ita.if103java.ims.job;
+
+import com.ita.if103java.ims.dao.IdempotencyKeyDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Deletes idempotency keys older than {@code idempotency.retentionHours}, after which a retried request
+ * is applied again.
+ */
+@Component
+public class IdempotencyKeyCleanupJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeyCleanupJob.class);
+
+    @Value("${idempotency.retentionHours}")
+    private long retentionHours;
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    @Autowired
+    public IdempotencyKeyCleanupJob(IdempotencyKeyDao idempotencyKeyDao) {
+        this.idempotencyKeyDao = idempotencyKeyDao;
+    }
+
+    @Scheduled(cron = "${idempotency.cleanupCron}")
+    public void run() {
+        int deleted = idempotencyKeyDao.deleteCreatedBefore(ZonedDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            LOGGER.info("Deleted {} idempotency keys older than {} hours", deleted, retentionHours);
+        }
+    }
+}
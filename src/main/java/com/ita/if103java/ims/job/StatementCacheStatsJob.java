@@ -0,0 +1,66 @@
+package com.ita.if103java.ims.job;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Samples the prepared statement cache and logs it. The hit rate is the share of statement executions since the previous
+ * sample that did not need a new server-side prepare, taken from the server's Com_stmt_* counters.
+ */
+@Component
+public class StatementCacheStatsJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementCacheStatsJob.class);
+    private static final String SQL_STATEMENT_STATUS = """
+            SHOW GLOBAL STATUS
+            WHERE Variable_name IN ('Com_stmt_prepare', 'Com_stmt_execute')
+        """;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private long lastPrepared = -1;
+    private long lastExecuted = -1;
+
+    @Autowired
+    public StatementCacheStatsJob(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${db.statementCache.statsDelay}")
+    public synchronized void sample() {
+        Map<String, Long> status = new HashMap<>();
+        int cachedStatements = 0;
+        try {
+            jdbcTemplate.query(SQL_STATEMENT_STATUS,
+                resultSet -> {
+                    status.put(resultSet.getString(1), resultSet.getLong(2));
+                });
+            if (dataSource instanceof PooledDataSource) {
+                cachedStatements = ((PooledDataSource) dataSource).getStatementCacheNumStatementsAllUsers();
+            }
+        } catch (DataAccessException | SQLException e) {
+            LOGGER.warn("Failed to sample statement cache stats", e);
+            return;
+        }
+        long prepared = status.getOrDefault("Com_stmt_prepare", 0L);
+        long executed = status.getOrDefault("Com_stmt_execute", 0L);
+        if (lastExecuted >= 0 && executed > lastExecuted) {
+            double hitRate = Math.max(0, 1 - (double) (prepared - lastPrepared) / (executed - lastExecuted));
+            LOGGER.info("Statement cache: {} statements cached, hit rate {}", cachedStatements,
+                String.format("%.3f", hitRate));
+        }
+        lastPrepared = prepared;
+        lastExecuted = executed;
+    }
+}
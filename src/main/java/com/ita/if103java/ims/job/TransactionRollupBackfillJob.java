@@ -0,0 +1,35 @@
+package com.ita.if103java.ims.job;
+
+import com.ita.if103java.ims.dao.TransactionDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Rebuilds the daily transaction rollups of the last days, covering transactions whose rollup
+ * update was lost or which were written outside of TransactionDaoImpl.
+ */
+@Component
+public class TransactionRollupBackfillJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionRollupBackfillJob.class);
+    @Value("${transactions.rollup.backfillDays}")
+    private int backfillDays;
+    private TransactionDao transactionDao;
+
+    @Autowired
+    public TransactionRollupBackfillJob(TransactionDao transactionDao) {
+        this.transactionDao = transactionDao;
+    }
+
+    @Scheduled(cron = "${transactions.rollup.backfillCron}")
+    public void backfill() {
+        LocalDate to = LocalDate.now().plusDays(1);
+        int rows = transactionDao.rebuildDailyRollups(to.minusDays(backfillDays), to);
+        LOGGER.info("Rebuilt {} daily transaction rollups of the last {} days", rows, backfillDays);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ita.if103java.ims.job;
+
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes warehouses used volume from saved items, correcting counters that drifted
+ * because of writes made outside of ItemServiceImpl. The in-memory indexes are reloaded on every
+ * run, as they may have drifted from correct counters as well.
+ */
+@Component
+public class UsedVolumeReconciliationJob {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UsedVolumeReconciliationJob.class);
+    private WarehouseDao warehouseDao;
+    private FreeSpaceIndex freeSpaceIndex;
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+
+    @Autowired
+    public UsedVolumeReconciliationJob(WarehouseDao warehouseDao, FreeSpaceIndex freeSpaceIndex,
+                                       WarehouseLoadSnapshot warehouseLoadSnapshot) {
+        this.warehouseDao = warehouseDao;
+        this.freeSpaceIndex = freeSpaceIndex;
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+    }
+
+    @Scheduled(cron = "${warehouses.usedVolume.reconciliationCron}")
+    public void reconcile() {
+        int corrected = warehouseDao.reconcileUsedVolume();
+        if (corrected > 0) {
+            LOGGER.warn("Corrected used volume of {} warehouses", corrected);
+        }
+        freeSpaceIndex.clear();
+        warehouseLoadSnapshot.clear();
+    }
+}
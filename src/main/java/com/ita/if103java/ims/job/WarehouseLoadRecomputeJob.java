@@ -0,0 +1,21 @@
+package com.ita.if103java.ims.job;
+
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WarehouseLoadRecomputeJob {
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+
+    @Autowired
+    public WarehouseLoadRecomputeJob(WarehouseLoadSnapshot warehouseLoadSnapshot) {
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.warehouseLoad.recomputeDelay}")
+    public void recompute() {
+        warehouseLoadSnapshot.recompute();
+    }
+}
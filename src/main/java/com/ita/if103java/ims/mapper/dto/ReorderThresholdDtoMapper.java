@@ -0,0 +1,25 @@
+package com.ita.if103java.ims.mapper.dto;
+
+import com.ita.if103java.ims.dto.ReorderThresholdDto;
+import com.ita.if103java.ims.entity.ReorderThreshold;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReorderThresholdDtoMapper extends AbstractEntityDtoMapper<ReorderThreshold, ReorderThresholdDto> {
+
+    @Override
+    public ReorderThreshold toEntity(ReorderThresholdDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        return new ReorderThreshold(dto.getItemId(), dto.getWarehouseId(), dto.getThreshold());
+    }
+
+    @Override
+    public ReorderThresholdDto toDto(ReorderThreshold entity) {
+        if (entity == null) {
+            return null;
+        }
+        return new ReorderThresholdDto(entity.getItemId(), entity.getWarehouseId(), entity.getThreshold());
+    }
+}
@@ -0,0 +1,29 @@
+package com.ita.if103java.ims.mapper.dto;
+
+import com.ita.if103java.ims.dto.ReservationDto;
+import com.ita.if103java.ims.entity.Reservation;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReservationDtoMapper extends AbstractEntityDtoMapper<Reservation, ReservationDto> {
+
+    @Override
+    public Reservation toEntity(ReservationDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        Reservation reservation = new Reservation(null, dto.getItemId(), dto.getSavedItemId(), dto.getQuantity(),
+            dto.getReference(), dto.getCreatedBy(), dto.getCreatedAt(), dto.getExpiresAt());
+        reservation.setId(dto.getId());
+        return reservation;
+    }
+
+    @Override
+    public ReservationDto toDto(Reservation entity) {
+        if (entity == null) {
+            return null;
+        }
+        return new ReservationDto(entity.getId(), entity.getItemId(), entity.getSavedItemId(), entity.getQuantity(),
+            entity.getReference(), entity.getCreatedBy(), entity.getCreatedAt(), entity.getExpiresAt());
+    }
+}
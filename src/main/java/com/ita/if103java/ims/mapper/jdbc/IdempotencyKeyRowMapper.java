@@ -0,0 +1,26 @@
+package com.ita.if103java.ims.mapper.jdbc;
+
+import com.ita.if103java.ims.entity.IdempotencyKey;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+@Component
+public class IdempotencyKeyRowMapper implements RowMapper<IdempotencyKey> {
+    @Override
+    public IdempotencyKey mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        IdempotencyKey idempotencyKey = new IdempotencyKey();
+        idempotencyKey.setAccountId(resultSet.getLong("account_id"));
+        idempotencyKey.setKeyHash(resultSet.getBytes("key_hash"));
+        idempotencyKey.setOperation(resultSet.getString("operation"));
+        idempotencyKey.setResponse(resultSet.getString("response"));
+        idempotencyKey.setCreatedAt(ZonedDateTime.of(resultSet.getObject("created_at", LocalDateTime.class),
+            ZoneId.systemDefault()));
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ita.if103java.ims.mapper.jdbc;
+
+import com.ita.if103java.ims.entity.LowStockItem;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class LowStockItemRowMapper implements RowMapper<LowStockItem> {
+    @Override
+    public LowStockItem mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        LowStockItem lowStockItem = new LowStockItem();
+        lowStockItem.setSavedItemId(resultSet.getLong("id"));
+        lowStockItem.setItemId(resultSet.getLong("item_id"));
+        lowStockItem.setItemName(resultSet.getString("name_item"));
+        lowStockItem.setWarehouseId(resultSet.getLong("warehouse_id"));
+        lowStockItem.setWarehouseName(resultSet.getString("name"));
+        lowStockItem.setQuantity(resultSet.getInt("quantity"));
+        return lowStockItem;
+    }
+}
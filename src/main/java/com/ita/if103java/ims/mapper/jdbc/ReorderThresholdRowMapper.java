@@ -0,0 +1,20 @@
+package com.ita.if103java.ims.mapper.jdbc;
+
+import com.ita.if103java.ims.entity.ReorderThreshold;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class ReorderThresholdRowMapper implements RowMapper<ReorderThreshold> {
+    @Override
+    public ReorderThreshold mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        ReorderThreshold reorderThreshold = new ReorderThreshold();
+        reorderThreshold.setItemId(resultSet.getLong("item_id"));
+        reorderThreshold.setWarehouseId(resultSet.getObject("warehouse_id", Long.class));
+        reorderThreshold.setThreshold(resultSet.getInt("threshold"));
+        return reorderThreshold;
+    }
+}
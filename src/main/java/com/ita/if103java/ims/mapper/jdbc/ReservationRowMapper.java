@@ -0,0 +1,31 @@
+package com.ita.if103java.ims.mapper.jdbc;
+
+import com.ita.if103java.ims.entity.Reservation;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+@Component
+public class ReservationRowMapper implements RowMapper<Reservation> {
+    @Override
+    public Reservation mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        Reservation reservation = new Reservation();
+        reservation.setId(resultSet.getLong("id"));
+        reservation.setAccountId(resultSet.getLong("account_id"));
+        reservation.setItemId(resultSet.getLong("item_id"));
+        reservation.setSavedItemId(resultSet.getLong("saved_item_id"));
+        reservation.setQuantity(resultSet.getInt("quantity"));
+        reservation.setReference(resultSet.getString("reference"));
+        reservation.setCreatedBy(resultSet.getLong("created_by"));
+        reservation.setCreatedAt(ZonedDateTime.of(resultSet.getObject("created_at", LocalDateTime.class),
+            ZoneId.systemDefault()));
+        reservation.setExpiresAt(ZonedDateTime.of(resultSet.getObject("expires_at", LocalDateTime.class),
+            ZoneId.systemDefault()));
+        return reservation;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ita.if103java.ims.mapper.jdbc;
+
+import com.ita.if103java.ims.dto.SavedItemExportDto;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class SavedItemExportRowMapper implements RowMapper<SavedItemExportDto> {
+    @Override
+    public SavedItemExportDto mapRow(ResultSet resultSet, int i) throws SQLException {
+        SavedItemExportDto savedItem = new SavedItemExportDto();
+        savedItem.setId(resultSet.getLong("id"));
+        savedItem.setItemId(resultSet.getLong("item_id"));
+        savedItem.setItemName(resultSet.getString("name_item"));
+        savedItem.setUnit(resultSet.getString("unit"));
+        savedItem.setQuantity(resultSet.getInt("quantity"));
+        savedItem.setWarehouseId(resultSet.getLong("warehouse_id"));
+        return savedItem;
+    }
+}
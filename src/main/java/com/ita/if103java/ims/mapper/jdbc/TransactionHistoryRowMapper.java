@@ -0,0 +1,77 @@
+package com.ita.if103java.ims.mapper.jdbc;
+
+import com.ita.if103java.ims.dto.AssociateDto;
+import com.ita.if103java.ims.dto.ItemDto;
+import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.UserDto;
+import com.ita.if103java.ims.dto.WarehouseDto;
+import com.ita.if103java.ims.entity.AssociateType;
+import com.ita.if103java.ims.entity.Role;
+import com.ita.if103java.ims.entity.TransactionType;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a row of the joined transaction history query. Warehouses only get their id here,
+ * the rest is filled in from the warehouse cache.
+ */
+@Component
+public class TransactionHistoryRowMapper implements RowMapper<TransactionDto> {
+    @Override
+    public TransactionDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        final TransactionDto transaction = new TransactionDto();
+        transaction.setId(rs.getLong("id"));
+        transaction.setTimestamp(rs.getTimestamp("timestamp"));
+        transaction.setType(TransactionType.valueOf(rs.getString("type")));
+        transaction.setQuantity(rs.getLong("quantity"));
+
+        final UserDto worker = new UserDto();
+        worker.setId(rs.getLong("worker_id"));
+        worker.setFirstName(rs.getString("first_name"));
+        worker.setLastName(rs.getString("last_name"));
+        worker.setEmail(rs.getString("email"));
+        worker.setRole(Role.valueOf(rs.getString("role")));
+        worker.setAccountId(rs.getLong("account_id"));
+        transaction.setWorker(worker);
+
+        final ItemDto item = new ItemDto();
+        item.setId(rs.getLong("item_id"));
+        item.setName(rs.getString("name_item"));
+        item.setUnit(rs.getString("unit"));
+        item.setDescription(rs.getString("description"));
+        item.setVolume(rs.getInt("volume"));
+        item.setActive(rs.getBoolean("item_active"));
+        item.setAccountId(rs.getLong("account_id"));
+        transaction.setItem(item);
+
+        final long associateId = rs.getLong("associate_id");
+        if (!rs.wasNull()) {
+            final AssociateDto associate = new AssociateDto();
+            associate.setId(associateId);
+            associate.setAccountId(rs.getLong("account_id"));
+            associate.setName(rs.getString("associate_name"));
+            associate.setEmail(rs.getString("associate_email"));
+            associate.setPhone(rs.getString("associate_phone"));
+            associate.setType(AssociateType.valueOf(rs.getString("associate_type")));
+            associate.setActive(rs.getBoolean("associate_active"));
+            transaction.setAssociate(associate);
+        }
+
+        transaction.setMovedFrom(warehouse(rs, "moved_from"));
+        transaction.setMovedTo(warehouse(rs, "moved_to"));
+        return transaction;
+    }
+
+    private WarehouseDto warehouse(ResultSet rs, String column) throws SQLException {
+        final long id = rs.getLong(column);
+        if (rs.wasNull()) {
+            return null;
+        }
+        final WarehouseDto warehouse = new WarehouseDto();
+        warehouse.setId(id);
+        return warehouse;
+    }
+}
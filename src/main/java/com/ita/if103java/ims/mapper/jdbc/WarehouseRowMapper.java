@@ -23,6 +23,7 @@ public class WarehouseRowMapper implements RowMapper<Warehouse> {
         warehouse.setAccountID(resultSet.getLong("account_id"));
         warehouse.setTopWarehouseID(resultSet.getLong("top_warehouse_id"));
         warehouse.setActive(resultSet.getBoolean("active"));
+        warehouse.setUsedVolume(resultSet.getLong("used_volume"));
 
         return warehouse;
     }
@@ -0,0 +1,11 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.SuggestionDto;
+import com.ita.if103java.ims.entity.SuggestionType;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.util.List;
+
+public interface AutocompleteService {
+    List<SuggestionDto> suggest(String query, SuggestionType type, int limit, UserDetailsImpl user);
+}
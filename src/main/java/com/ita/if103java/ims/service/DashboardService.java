@@ -17,5 +17,8 @@ public interface DashboardService {
 
     List<PopularItemsDto> getPopularItems(PopularItemsRequestDto popularItems, Long accountId);
 
-    Page<EndingItemsDto> getEndingItems(Pageable pageable, int minQuantity, Long accountID);
+    /**
+     * Saved items below their reorder threshold, or below {@code minQuantity} when it is given.
+     */
+    Page<EndingItemsDto> getEndingItems(Pageable pageable, Integer minQuantity, Long accountID);
 }
@@ -1,7 +1,9 @@
 package com.ita.if103java.ims.service;
 
 import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.EventFeedDto;
 import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventCountMode;
 import com.ita.if103java.ims.entity.EventName;
 import com.ita.if103java.ims.entity.EventType;
 import com.ita.if103java.ims.security.UserDetailsImpl;
@@ -16,6 +18,9 @@ public interface EventService {
 
     Page<EventDto> findAll(Pageable pageable, Map<String, ?> params, UserDetailsImpl user);
 
+    EventFeedDto findFeed(Map<String, ?> params, String cursor, int size, EventCountMode countMode,
+                          UserDetailsImpl user);
+
     Map<String, EventType> getEventTypes();
 
     Map<String, EventName> getEventNames();
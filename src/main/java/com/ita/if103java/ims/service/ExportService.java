@@ -0,0 +1,19 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.TransactionFilterDto;
+import com.ita.if103java.ims.entity.ExportFormat;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+public interface ExportService {
+    void exportTransactions(TransactionFilterDto filter, ExportFormat format, OutputStream out,
+                            UserDetailsImpl userDetails) throws IOException;
+
+    void exportSavedItems(ExportFormat format, OutputStream out, UserDetailsImpl userDetails) throws IOException;
+
+    void exportEvents(Map<String, ?> params, ExportFormat format, OutputStream out,
+                      UserDetailsImpl userDetails) throws IOException;
+}
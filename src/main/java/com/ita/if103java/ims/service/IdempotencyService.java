@@ -0,0 +1,15 @@
+package com.ita.if103java.ims.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    /**
+     * Claims the key and runs the action in a transaction that stores its response under it, or returns the
+     * stored response when the account has sent the key before. A null key runs the action as it is.
+     */
+    <T> T execute(String key, String operation, TypeReference<T> responseType, UserDetailsImpl user,
+                  Supplier<T> action);
+}
@@ -0,0 +1,16 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.ImportReportDto;
+import com.ita.if103java.ims.entity.ImportFormat;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportReportDto importItems(InputStream in, ImportFormat format, UserDetailsImpl userDetails) throws IOException;
+
+    ImportReportDto importStock(InputStream in, ImportFormat format, UserDetailsImpl userDetails) throws IOException;
+
+    ImportReportDto findReport(String id, UserDetailsImpl userDetails);
+}
@@ -2,6 +2,7 @@ package com.ita.if103java.ims.service;
 
 import com.ita.if103java.ims.dto.ItemDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.ReorderThresholdDto;
 import com.ita.if103java.ims.dto.SavedItemDto;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import org.springframework.data.domain.Page;
@@ -33,4 +34,10 @@ public interface ItemService {
 
     ItemDto updateItem(ItemDto itemDto, UserDetailsImpl user);
 
+    List<ReorderThresholdDto> findReorderThresholds(Long itemId, UserDetailsImpl user);
+
+    ReorderThresholdDto saveReorderThreshold(ReorderThresholdDto reorderThresholdDto, UserDetailsImpl user);
+
+    boolean deleteReorderThreshold(Long itemId, Long warehouseId, UserDetailsImpl user);
+
 }
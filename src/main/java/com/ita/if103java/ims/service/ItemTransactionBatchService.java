@@ -0,0 +1,11 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.util.List;
+
+public interface ItemTransactionBatchService {
+    List<ItemTransactionBatchResultDto> apply(List<ItemTransactionBatchLineDto> lines, UserDetailsImpl user);
+}
@@ -0,0 +1,9 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.PlacementDto;
+import com.ita.if103java.ims.dto.PlacementRequestDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+public interface PlacementService {
+    PlacementDto place(PlacementRequestDto placementRequest, boolean commit, UserDetailsImpl user);
+}
@@ -0,0 +1,21 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.AvailableStockDto;
+import com.ita.if103java.ims.dto.ReservationDto;
+import com.ita.if103java.ims.dto.ReservationRequestDto;
+import com.ita.if103java.ims.dto.SavedItemDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.util.List;
+
+public interface ReservationService {
+    List<ReservationDto> reserve(ReservationRequestDto reservationRequest, UserDetailsImpl user);
+
+    List<ReservationDto> findAll(UserDetailsImpl user);
+
+    List<AvailableStockDto> findAvailable(Long itemId, UserDetailsImpl user);
+
+    SavedItemDto convert(Long id, Long associateId, UserDetailsImpl user);
+
+    boolean cancel(Long id, UserDetailsImpl user);
+}
@@ -0,0 +1,13 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.SearchFilterDto;
+import com.ita.if103java.ims.dto.SearchHitDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface SearchService {
+    Page<SearchHitDto> search(SearchFilterDto filter, Pageable pageable, UserDetailsImpl user);
+
+    void rebuild(UserDetailsImpl user);
+}
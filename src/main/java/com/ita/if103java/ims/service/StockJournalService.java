@@ -0,0 +1,19 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.StockJournalReceiptDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+
+import java.util.List;
+
+public interface StockJournalService {
+    /**
+     * Returns once the lines are durable in the journal, before they are applied.
+     */
+    StockJournalReceiptDto append(List<ItemTransactionBatchLineDto> lines, UserDetailsImpl user);
+
+    /**
+     * Returns the last appended and the last applied sequence.
+     */
+    StockJournalReceiptDto getStatus();
+}
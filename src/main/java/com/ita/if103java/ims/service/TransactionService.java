@@ -1,8 +1,13 @@
 package com.ita.if103java.ims.service;
 
 import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
 import com.ita.if103java.ims.security.UserDetailsImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface TransactionService {
     TransactionDto findById(Long id, UserDetailsImpl userDetails);
+
+    Page<TransactionDto> findAll(TransactionFilterDto filter, Pageable pageable, UserDetailsImpl userDetails);
 }
@@ -1,5 +1,7 @@
 package com.ita.if103java.ims.service.impl;
 
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.TextSearchIndex;
 import com.ita.if103java.ims.dao.AddressDao;
 import com.ita.if103java.ims.dao.AssociateDao;
 import com.ita.if103java.ims.dto.AddressDto;
@@ -10,6 +12,8 @@ import com.ita.if103java.ims.entity.Associate;
 import com.ita.if103java.ims.entity.AssociateType;
 import com.ita.if103java.ims.entity.Event;
 import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.SearchDocumentType;
+import com.ita.if103java.ims.entity.SuggestionType;
 import com.ita.if103java.ims.exception.service.AssociateLimitReachedException;
 import com.ita.if103java.ims.mapper.dto.AddressDtoMapper;
 import com.ita.if103java.ims.mapper.dto.AssociateDtoMapper;
@@ -41,12 +45,15 @@ public class AssociateServiceImpl implements AssociateService {
     private EventService eventService;
     private LocationService locationService;
     private SavedItemAssociateDtoMapper savedItemAssociateDtoMapper;
+    private AutocompleteIndex autocompleteIndex;
+    private TextSearchIndex textSearchIndex;
 
     @Autowired
     public AssociateServiceImpl(AssociateDao associateDao, AddressDao addressDao,
                                 AssociateDtoMapper associateDtoMapper, AddressDtoMapper addressDtoMapper,
                                 EventService eventService, LocationService locationService,
-                                SavedItemAssociateDtoMapper savedItemAssociateDtoMapper) {
+                                SavedItemAssociateDtoMapper savedItemAssociateDtoMapper,
+                                AutocompleteIndex autocompleteIndex, TextSearchIndex textSearchIndex) {
         this.associateDao = associateDao;
         this.addressDao = addressDao;
         this.associateDtoMapper = associateDtoMapper;
@@ -54,6 +61,8 @@ public class AssociateServiceImpl implements AssociateService {
         this.eventService = eventService;
         this.locationService = locationService;
         this.savedItemAssociateDtoMapper = savedItemAssociateDtoMapper;
+        this.autocompleteIndex = autocompleteIndex;
+        this.textSearchIndex = textSearchIndex;
     }
 
     @Override
@@ -78,6 +87,9 @@ public class AssociateServiceImpl implements AssociateService {
             associateDto = associateDtoMapper.toDto(associate);
             associateDto.setAddressDto(addressDtoMapper.toDto(address));
             associateDto.setAccountId(user.getUser().getAccountId());
+            autocompleteIndex.put(user.getUser().getAccountId(), SuggestionType.ASSOCIATE, associate.getId(),
+                associate.getName());
+            textSearchIndex.putAssociate(user.getUser().getAccountId(), associate);
 
             EventName eventName =
                 associate.getType() == AssociateType.SUPPLIER ? EventName.NEW_SUPPLIER : EventName.NEW_CLIENT;
@@ -101,6 +113,9 @@ public class AssociateServiceImpl implements AssociateService {
         associateDto = associateDtoMapper.toDto(associate);
         associateDto.setAddressDto(addressDtoMapper.toDto(address));
         associateDto.setAccountId(user.getUser().getAccountId());
+        autocompleteIndex.rename(user.getUser().getAccountId(), SuggestionType.ASSOCIATE, associate.getId(),
+            associate.getName());
+        textSearchIndex.replaceAssociate(user.getUser().getAccountId(), associate);
 
         EventName eventName =
             associate.getType() == AssociateType.SUPPLIER ? EventName.SUPPLIER_EDITED : EventName.CLIENT_EDITED;
@@ -136,6 +151,8 @@ public class AssociateServiceImpl implements AssociateService {
         Associate associate = associateDao.findById(user.getUser().getAccountId(), id);
 
         if (associateDao.delete(user.getUser().getAccountId(), id)) {
+            autocompleteIndex.remove(user.getUser().getAccountId(), SuggestionType.ASSOCIATE, id);
+            textSearchIndex.remove(user.getUser().getAccountId(), SearchDocumentType.ASSOCIATE, id);
             EventName eventName =
                 associate.getType() == AssociateType.SUPPLIER ? EventName.SUPPLIER_REMOVED : EventName.CLIENT_REMOVED;
 
@@ -0,0 +1,29 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.dto.SuggestionDto;
+import com.ita.if103java.ims.entity.SuggestionType;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.AutocompleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class AutocompleteServiceImpl implements AutocompleteService {
+    @Value("${autocomplete.maxLimit}")
+    private int maxLimit;
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    public AutocompleteServiceImpl(AutocompleteIndex autocompleteIndex) {
+        this.autocompleteIndex = autocompleteIndex;
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String query, SuggestionType type, int limit, UserDetailsImpl user) {
+        return autocompleteIndex.suggest(user.getUser().getAccountId(), type, query, Math.min(limit, maxLimit));
+    }
+}
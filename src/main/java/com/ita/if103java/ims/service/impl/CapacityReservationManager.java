@@ -0,0 +1,101 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.entity.CapacityLockMode;
+import com.ita.if103java.ims.exception.service.CapacityReservationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterCompletion;
+
+/**
+ * Makes the capacity check and the used volume update of a warehouse atomic: a reservation locks the warehouse
+ * until the current transaction commits or rolls back, so the next reservation of it sees the final used volume.
+ * In the {@code LOCAL} mode warehouses share {@code warehouses.capacityLock.stripes} locks by id, in the
+ * {@code MYSQL} mode every warehouse has a named database lock that all application nodes see.
+ * Reserve before the first read of the transaction, a MySQL snapshot taken earlier misses the previous update.
+ */
+@Component
+public class CapacityReservationManager {
+    @Value("${warehouses.capacityLock.mode}")
+    private CapacityLockMode mode;
+    @Value("${warehouses.capacityLock.stripes}")
+    private int stripes;
+    @Value("${warehouses.capacityLock.timeout}")
+    private long timeout;
+    private WarehouseDao warehouseDao;
+
+    private ReentrantLock[] locks;
+
+    @Autowired
+    public CapacityReservationManager(WarehouseDao warehouseDao) {
+        this.warehouseDao = warehouseDao;
+    }
+
+    @PostConstruct
+    public void init() {
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public void reserve(Long warehouseId) {
+        reserve(Collections.singletonList(warehouseId));
+    }
+
+    /**
+     * Locks the warehouses in a fixed order, so transactions reserving several of them can not deadlock.
+     */
+    public void reserve(Collection<Long> warehouseIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Capacity can only be reserved in a transaction");
+        }
+        if (mode == CapacityLockMode.MYSQL) {
+            final int timeoutSeconds = (int) TimeUnit.MILLISECONDS.toSeconds(timeout + 999);
+            for (Long warehouseId : sorted(warehouseIds)) {
+                if (!warehouseDao.lockCapacity(warehouseId, timeoutSeconds)) {
+                    throw new CapacityReservationException("Timed out reserving capacity {warehouse_id = " +
+                        warehouseId + "}");
+                }
+                afterCompletion(() -> warehouseDao.unlockCapacity(warehouseId));
+            }
+        } else {
+            final TreeSet<Integer> stripeIndexes = sorted(warehouseIds).stream()
+                .map(warehouseId -> Math.floorMod(warehouseId, stripes))
+                .collect(Collectors.toCollection(TreeSet::new));
+            for (Integer stripe : stripeIndexes) {
+                lock(locks[stripe]);
+            }
+        }
+    }
+
+    private void lock(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+                throw new CapacityReservationException("Timed out reserving capacity");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CapacityReservationException("Interrupted while reserving capacity", e);
+        }
+        afterCompletion(lock::unlock);
+    }
+
+    private static TreeSet<Long> sorted(Collection<Long> warehouseIds) {
+        return warehouseIds.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+}
@@ -1,5 +1,7 @@
 package com.ita.if103java.ims.service.impl;
 
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
 import com.ita.if103java.ims.dao.DashboardDao;
 import com.ita.if103java.ims.dto.EndingItemsDto;
 import com.ita.if103java.ims.dto.PopularItemsDto;
@@ -17,10 +19,15 @@ import java.util.List;
 @Service
 public class DashboardServiceImpl implements DashboardService {
     private DashboardDao dashboardDao;
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    private LowStockIndex lowStockIndex;
 
     @Autowired
-    public DashboardServiceImpl(DashboardDao dashboardDao) {
+    public DashboardServiceImpl(DashboardDao dashboardDao, WarehouseLoadSnapshot warehouseLoadSnapshot,
+                                LowStockIndex lowStockIndex) {
         this.dashboardDao = dashboardDao;
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+        this.lowStockIndex = lowStockIndex;
     }
 
     @Override
@@ -30,7 +37,7 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public List<WarehouseLoadDto> getWarehouseLoad(Long accountID) {
-        return dashboardDao.findWarehouseLoadByAccountId(accountID);
+        return warehouseLoadSnapshot.find(accountID);
     }
 
     @Override
@@ -40,7 +47,10 @@ public class DashboardServiceImpl implements DashboardService {
 
 
     @Override
-    public Page<EndingItemsDto> getEndingItems(Pageable pageable, int minQuantity, Long accountId) {
+    public Page<EndingItemsDto> getEndingItems(Pageable pageable, Integer minQuantity, Long accountId) {
+        if (minQuantity == null) {
+            return lowStockIndex.findEndingItems(accountId, pageable);
+        }
         return dashboardDao.findEndedItemsByAccountId(pageable, minQuantity, accountId);
     }
 }
@@ -0,0 +1,163 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.entity.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers events in a bounded queue and writes them from a single thread with batch inserts of up to
+ * {@code events.writer.batchSize} events, at least every {@code events.writer.flushInterval} ms.
+ * When the queue stays full for {@code events.writer.offerTimeout} ms the producer writes its event itself,
+ * so events are slowed down rather than dropped. The queue is drained on shutdown. The queue depth and the
+ * batches, producer writes and failed writes since the previous line are logged every
+ * {@code events.writer.statsDelay} ms.
+ */
+@Component
+public class EventBatchWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventBatchWriter.class);
+
+    @Value("${events.writer.capacity}")
+    private int capacity;
+    @Value("${events.writer.batchSize}")
+    private int batchSize;
+    @Value("${events.writer.flushInterval}")
+    private long flushInterval;
+    @Value("${events.writer.offerTimeout}")
+    private long offerTimeout;
+    private EventDao eventDao;
+    private NotificationDispatcher notificationDispatcher;
+    private TextSearchIndex textSearchIndex;
+
+    private BlockingQueue<Event> queue;
+    private Thread flusher;
+    private volatile boolean running;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // counts at the previous stats line: written, batches, overflowed, failed
+    private final long[] logged = new long[4];
+
+    @Autowired
+    public EventBatchWriter(EventDao eventDao, NotificationDispatcher notificationDispatcher,
+                            TextSearchIndex textSearchIndex) {
+        this.eventDao = eventDao;
+        this.notificationDispatcher = notificationDispatcher;
+        this.textSearchIndex = textSearchIndex;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        flusher = new Thread(this::flushLoop, "EventBatchWriter");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        // events offered while the flusher was finishing
+        List<Event> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    public void submit(Event event) {
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(event, offerTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            if (overflowed.incrementAndGet() % 1000 == 1) {
+                LOGGER.warn("Event queue is full, {} events were written by their producers", overflowed.get());
+            }
+            write(List.of(event));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${events.writer.statsDelay}")
+    public synchronized void logStats() {
+        long[] counts = {written.get(), batches.get(), overflowed.get(), failed.get()};
+        int queued = queue.size();
+        if (queued > 0 || counts[1] > logged[1] || counts[2] > logged[2] || counts[3] > logged[3]) {
+            LOGGER.info("Event writer: {} queued, {} events in {} batches, {} written by producers, {} failed",
+                queued, counts[0] - logged[0], counts[1] - logged[1], counts[2] - logged[2], counts[3] - logged[3]);
+        }
+        System.arraycopy(counts, 0, logged, 0, counts.length);
+    }
+
+    private void flushLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Event next = remaining > 0 && running ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                queue.drainTo(batch);
+                write(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Event> events) {
+        try {
+            eventDao.createAll(events);
+        } catch (RuntimeException e) {
+            failed.addAndGet(events.size());
+            LOGGER.error("Failed to write {} events", events.size(), e);
+            return;
+        }
+        written.addAndGet(events.size());
+        batches.incrementAndGet();
+        textSearchIndex.putEvents(events);
+        for (Event event : events) {
+            if (event.getName().isNotification()) {
+                notificationDispatcher.dispatch(event);
+            }
+        }
+    }
+}
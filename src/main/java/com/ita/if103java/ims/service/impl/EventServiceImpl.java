@@ -4,7 +4,9 @@ import com.ita.if103java.ims.dao.EventDao;
 import com.ita.if103java.ims.dao.UserDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
 import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.EventFeedDto;
 import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventCountMode;
 import com.ita.if103java.ims.entity.EventName;
 import com.ita.if103java.ims.entity.EventType;
 import com.ita.if103java.ims.mapper.dto.EventDtoMapper;
@@ -16,12 +18,14 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,33 +37,28 @@ public class EventServiceImpl implements EventService {
 
     private EventDao eventDao;
     private EventDtoMapper eventDtoMapper;
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private EventBatchWriter eventBatchWriter;
     private UserDao userDao;
     private WarehouseDao warehouseDao;
-
-    @Value("${websocket.topic.events}")
-    private String eventTopic;
+    @Value("${events.feed.maxSize}")
+    private int maxFeedSize;
 
     @Autowired
     public EventServiceImpl(EventDao eventDao, EventDtoMapper eventDtoMapper,
-                            SimpMessagingTemplate simpMessagingTemplate, UserDao userDao,
+                            EventBatchWriter eventBatchWriter, UserDao userDao,
                             WarehouseDao warehouseDao) {
         this.eventDao = eventDao;
         this.eventDtoMapper = eventDtoMapper;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.eventBatchWriter = eventBatchWriter;
         this.userDao = userDao;
         this.warehouseDao = warehouseDao;
     }
 
     @Override
-    @Async("threadPoolTaskExecutor")
     public void create(Event event) {
         ZonedDateTime currentDateTime = ZonedDateTime.now(ZoneId.systemDefault());
         event.setDate(currentDateTime);
-        event = eventDao.create(event);
-        if (event.getName().isNotification()) {
-            simpMessagingTemplate.convertAndSend(eventTopic + event.getAccountId(), eventDtoMapper.toDto(event));
-        }
+        eventBatchWriter.submit(event);
     }
 
     @Override
@@ -80,6 +79,45 @@ public class EventServiceImpl implements EventService {
         return new PageImpl<EventDto>(eventDtos, pageable, page.getTotalElements());
     }
 
+    @Override
+    public EventFeedDto findFeed(Map<String, ?> params, String cursor, int size, EventCountMode countMode,
+                                 UserDetailsImpl user) {
+        int limit = Math.max(1, Math.min(size, maxFeedSize));
+        LocalDateTime cursorDate = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("_", 2);
+                cursorDate = LocalDateTime.parse(decoded[0]);
+                cursorId = Long.valueOf(decoded[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid events cursor: " + cursor, e);
+            }
+        }
+        // one extra row tells whether there is a next page
+        List<Event> events = eventDao.findFeed(params, user.getUser(), cursorDate, cursorId, limit + 1);
+        String nextCursor = null;
+        if (events.size() > limit) {
+            events = events.subList(0, limit);
+            nextCursor = encodeCursor(events.get(limit - 1));
+        }
+        List<EventDto> eventDtos = eventDtoMapper.toDtoList(events);
+        populateAdditionalInfo(eventDtos);
+        Long totalElements = switch (countMode) {
+            case EXACT -> eventDao.count(params, user.getUser());
+            case FIRST_PAGE -> cursorDate == null ? eventDao.count(params, user.getUser()) : null;
+            case ESTIMATED -> eventDao.estimateCount(params, user.getUser());
+            case NONE -> null;
+        };
+        return new EventFeedDto(eventDtos, nextCursor, totalElements);
+    }
+
+    private String encodeCursor(Event event) {
+        String cursor = event.getDate().toLocalDateTime() + "_" + event.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
     private void populateAdditionalInfo(List<EventDto> eventDtos) {
         List<Long> listAuthorsId = eventDtos.stream()
             .map(EventDto::getAuthorId).distinct().collect(Collectors.toList());
@@ -0,0 +1,149 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dao.TransactionDao;
+import com.ita.if103java.ims.dto.SavedItemExportDto;
+import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
+import com.ita.if103java.ims.dto.WarehouseDto;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.ExportFormat;
+import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ExportService;
+import com.ita.if103java.ims.util.ExportWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes each record as soon as the DAO reads it, so an export never holds more than one row
+ * (and the account's warehouse paths) in memory.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+    private static final List<String> TRANSACTION_COLUMNS = List.of("id", "timestamp", "type", "quantity",
+        "item_id", "item_name", "unit", "worker_id", "worker_name", "associate_id", "associate_name",
+        "moved_from_id", "moved_from", "moved_to_id", "moved_to");
+    private static final List<String> SAVED_ITEM_COLUMNS = List.of("id", "item_id", "item_name", "unit", "quantity",
+        "warehouse_id", "warehouse");
+    private static final List<String> EVENT_COLUMNS = List.of("id", "date", "name", "type", "message",
+        "author_id", "warehouse_id", "transaction_id");
+    private static final String PATH_SEPARATOR = " / ";
+
+    private TransactionDao transactionDao;
+    private SavedItemDao savedItemDao;
+    private EventDao eventDao;
+    private WarehouseTreeCache warehouseTreeCache;
+
+    @Autowired
+    public ExportServiceImpl(TransactionDao transactionDao, SavedItemDao savedItemDao, EventDao eventDao,
+                             WarehouseTreeCache warehouseTreeCache) {
+        this.transactionDao = transactionDao;
+        this.savedItemDao = savedItemDao;
+        this.eventDao = eventDao;
+        this.warehouseTreeCache = warehouseTreeCache;
+    }
+
+    @Override
+    public void exportTransactions(TransactionFilterDto filter, ExportFormat format, OutputStream out,
+                                   UserDetailsImpl userDetails) throws IOException {
+        final Long accountId = userDetails.getUser().getAccountId();
+        final Map<Long, String> paths = new HashMap<>();
+        export(ExportWriter.of(format, out, TRANSACTION_COLUMNS),
+            consumer -> transactionDao.streamHistory(accountId, filter, consumer),
+            (TransactionDto transaction) -> Arrays.asList(
+                transaction.getId(),
+                transaction.getTimestamp().toLocalDateTime().toString(),
+                transaction.getType().name(),
+                transaction.getQuantity(),
+                transaction.getItem().getId(),
+                transaction.getItem().getName(),
+                transaction.getItem().getUnit(),
+                transaction.getWorker().getId(),
+                transaction.getWorker().getFirstName() + " " + transaction.getWorker().getLastName(),
+                transaction.getAssociate() == null ? null : transaction.getAssociate().getId(),
+                transaction.getAssociate() == null ? null : transaction.getAssociate().getName(),
+                warehouseId(transaction.getMovedFrom()),
+                warehousePath(warehouseId(transaction.getMovedFrom()), accountId, paths),
+                warehouseId(transaction.getMovedTo()),
+                warehousePath(warehouseId(transaction.getMovedTo()), accountId, paths)));
+    }
+
+    @Override
+    public void exportSavedItems(ExportFormat format, OutputStream out, UserDetailsImpl userDetails) throws IOException {
+        final Long accountId = userDetails.getUser().getAccountId();
+        final Map<Long, String> paths = new HashMap<>();
+        export(ExportWriter.of(format, out, SAVED_ITEM_COLUMNS),
+            consumer -> savedItemDao.streamByAccountId(accountId, consumer),
+            (SavedItemExportDto savedItem) -> Arrays.asList(
+                savedItem.getId(),
+                savedItem.getItemId(),
+                savedItem.getItemName(),
+                savedItem.getUnit(),
+                savedItem.getQuantity(),
+                savedItem.getWarehouseId(),
+                warehousePath(savedItem.getWarehouseId(), accountId, paths)));
+    }
+
+    @Override
+    public void exportEvents(Map<String, ?> params, ExportFormat format, OutputStream out,
+                             UserDetailsImpl userDetails) throws IOException {
+        export(ExportWriter.of(format, out, EVENT_COLUMNS),
+            consumer -> eventDao.streamAll(params, userDetails.getUser(), consumer),
+            (Event event) -> Arrays.asList(
+                event.getId(),
+                event.getDate().toLocalDateTime().toString(),
+                event.getName().name(),
+                event.getName().getType().name(),
+                event.getMessage(),
+                event.getAuthorId(),
+                event.getWarehouseId(),
+                event.getTransactionId()));
+    }
+
+    // a failed write, e.g. a client that went away, aborts the query and releases its connection
+    private <T> void export(ExportWriter writer, Consumer<Consumer<T>> source,
+                            Function<T, List<?>> toRecord) throws IOException {
+        try {
+            source.accept(record -> {
+                try {
+                    writer.write(toRecord.apply(record));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private Long warehouseId(WarehouseDto warehouse) {
+        return warehouse == null ? null : warehouse.getId();
+    }
+
+    private String warehousePath(Long warehouseId, Long accountId, Map<Long, String> paths) {
+        if (warehouseId == null) {
+            return null;
+        }
+        return paths.computeIfAbsent(warehouseId, id -> {
+            try {
+                return String.join(PATH_SEPARATOR, warehouseTreeCache.findPath(id, accountId));
+            } catch (WarehouseNotFoundException e) {
+                return "";
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.cache.IdempotencyCache;
+import com.ita.if103java.ims.dao.IdempotencyKeyDao;
+import com.ita.if103java.ims.entity.IdempotencyKey;
+import com.ita.if103java.ims.exception.service.IdempotencyKeyException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.IdempotencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterCommit;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${idempotency.claimLeaseSeconds}")
+    private long claimLeaseSeconds;
+    private IdempotencyKeyDao idempotencyKeyDao;
+    private IdempotencyCache idempotencyCache;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyKeyDao idempotencyKeyDao, IdempotencyCache idempotencyCache,
+                                  TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.idempotencyKeyDao = idempotencyKeyDao;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> T execute(String key, String operation, TypeReference<T> responseType, UserDetailsImpl user,
+                         Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException("Idempotency-Key must have from 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        final Long accountId = user.getUser().getAccountId();
+        final byte[] keyHash = hash(key);
+        final Optional<IdempotencyKey> cached = idempotencyCache.find(accountId, keyHash);
+        if (cached.isPresent()) {
+            return replay(cached.get(), operation, responseType);
+        }
+
+        // the key is claimed before the action runs, so a concurrent retry never applies the change, nor
+        // submits its events, a second time
+        final IdempotencyKey idempotencyKey = new IdempotencyKey(accountId, keyHash, operation, null,
+            ZonedDateTime.now());
+        if (!idempotencyKeyDao.create(idempotencyKey)) {
+            final Optional<IdempotencyKey> stored = idempotencyKeyDao.find(accountId, keyHash)
+                .filter(claimed -> claimed.getResponse() != null);
+            if (stored.isPresent()) {
+                idempotencyCache.put(stored.get());
+                return replay(stored.get(), operation, responseType);
+            }
+            // a claim without a response past its lease was left by a request that died before it could
+            // finish, the update lets only one of the retries take it over
+            if (!idempotencyKeyDao.claimExpired(idempotencyKey,
+                idempotencyKey.getCreatedAt().minusSeconds(claimLeaseSeconds))) {
+                throw new IdempotencyKeyException("Idempotency-Key is being used by another request");
+            }
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                final T result = action.get();
+                idempotencyKey.setResponse(write(result));
+                idempotencyKeyDao.updateResponse(idempotencyKey);
+                afterCommit(() -> idempotencyCache.put(idempotencyKey));
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // nothing was applied, so the key is released for the client to retry
+            idempotencyKeyDao.delete(accountId, keyHash);
+            throw e;
+        }
+    }
+
+    private <T> T replay(IdempotencyKey idempotencyKey, String operation, TypeReference<T> responseType) {
+        if (!idempotencyKey.getOperation().equals(operation)) {
+            throw new IdempotencyKeyException("Idempotency-Key was used for " + idempotencyKey.getOperation() +
+                " and can't be reused for " + operation);
+        }
+        try {
+            return objectMapper.readValue(idempotencyKey.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IdempotencyKeyException("Failed to read the stored response of " + operation, e);
+        }
+    }
+
+    private String write(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IdempotencyKeyException("Failed to store the response", e);
+        }
+    }
+
+    private static byte[] hash(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
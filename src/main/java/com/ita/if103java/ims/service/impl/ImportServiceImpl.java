@@ -0,0 +1,407 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.ImportReportDto;
+import com.ita.if103java.ims.dto.ItemImportRowDto;
+import com.ita.if103java.ims.dto.StockImportRowDto;
+import com.ita.if103java.ims.entity.ImportFormat;
+import com.ita.if103java.ims.entity.ImportStatus;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.SuggestionType;
+import com.ita.if103java.ims.exception.service.ImportReportNotFoundException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ImportService;
+import com.ita.if103java.ims.util.CsvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the item catalog or opening stock balances. The file is parsed up front and then processed on the
+ * async executor: rows are validated in parallel against in-memory indexes of the account's item names and
+ * warehouse paths, and the valid ones are written with batch statements in transactions of
+ * {@code import.chunkSize} rows. A failed chunk is reported and the import goes on with the next one.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportServiceImpl.class);
+    private static final List<String> ITEM_COLUMNS = List.of("name", "unit", "description", "volume");
+    private static final List<String> STOCK_COLUMNS = List.of("item_name", "warehouse", "quantity");
+    private static final String PATH_SEPARATOR = " / ";
+
+    @Value("${import.chunkSize}")
+    private int chunkSize;
+    @Value("${import.maxRows}")
+    private int maxRows;
+    @Value("${import.maxErrors}")
+    private int maxErrors;
+    @Value("${import.maxReports}")
+    private int maxReports;
+    private ItemDao itemDao;
+    private SavedItemDao savedItemDao;
+    private WarehouseDao warehouseDao;
+    private WarehouseTreeCache warehouseTreeCache;
+    private FreeSpaceIndex freeSpaceIndex;
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    private LowStockIndex lowStockIndex;
+    private AutocompleteIndex autocompleteIndex;
+    private TextSearchIndex textSearchIndex;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+    private Executor executor;
+
+    private final Map<String, ImportReportDto> reports = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportReportDto> eldest) {
+            return size() > maxReports;
+        }
+    });
+
+    @Autowired
+    public ImportServiceImpl(ItemDao itemDao, SavedItemDao savedItemDao, WarehouseDao warehouseDao,
+                             WarehouseTreeCache warehouseTreeCache, FreeSpaceIndex freeSpaceIndex,
+                             WarehouseLoadSnapshot warehouseLoadSnapshot, LowStockIndex lowStockIndex,
+                             AutocompleteIndex autocompleteIndex, TextSearchIndex textSearchIndex,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Qualifier("threadPoolTaskExecutor") Executor executor) {
+        this.itemDao = itemDao;
+        this.savedItemDao = savedItemDao;
+        this.warehouseDao = warehouseDao;
+        this.warehouseTreeCache = warehouseTreeCache;
+        this.freeSpaceIndex = freeSpaceIndex;
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+        this.lowStockIndex = lowStockIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.textSearchIndex = textSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+    }
+
+    @Override
+    public ImportReportDto importItems(InputStream in, ImportFormat format, UserDetailsImpl userDetails)
+        throws IOException {
+        final Long accountId = userDetails.getUser().getAccountId();
+        final List<ImportRow<ItemImportRowDto>> rows = read(in, format, ItemImportRowDto.class, ITEM_COLUMNS,
+            values -> new ItemImportRowDto(values.get(0), values.get(1), values.get(2), values.get(3)));
+        return start("items", accountId, rows.size(), report -> importItems(rows, accountId, report));
+    }
+
+    @Override
+    public ImportReportDto importStock(InputStream in, ImportFormat format, UserDetailsImpl userDetails)
+        throws IOException {
+        final Long accountId = userDetails.getUser().getAccountId();
+        final List<ImportRow<StockImportRowDto>> rows = read(in, format, StockImportRowDto.class, STOCK_COLUMNS,
+            values -> new StockImportRowDto(values.get(0), values.get(1), values.get(2)));
+        return start("stock", accountId, rows.size(), report -> importStock(rows, accountId, report));
+    }
+
+    @Override
+    public ImportReportDto findReport(String id, UserDetailsImpl userDetails) {
+        final ImportReportDto report = reports.get(id);
+        if (report == null || !report.getAccountId().equals(userDetails.getUser().getAccountId())) {
+            throw new ImportReportNotFoundException("Import report not found {id = " + id + "}");
+        }
+        return report;
+    }
+
+    private ImportReportDto start(String type, Long accountId, int totalRows, Consumer<ImportReportDto> task) {
+        final ImportReportDto report =
+            new ImportReportDto(UUID.randomUUID().toString(), type, accountId, totalRows, maxErrors);
+        reports.put(report.getId(), report);
+        executor.execute(() -> {
+            try {
+                task.accept(report);
+                report.finish(ImportStatus.DONE);
+            } catch (RuntimeException e) {
+                LOGGER.error("Import {} of account {} failed", report.getId(), accountId, e);
+                report.addError(0, e.getMessage());
+                report.finish(ImportStatus.FAILED);
+            }
+        });
+        return report;
+    }
+
+    private void importItems(List<ImportRow<ItemImportRowDto>> rows, Long accountId, ImportReportDto report) {
+        final Map<String, Item> existing = itemDao.findItemByAccountId(accountId).stream()
+            .collect(Collectors.toMap(Item::getName, Function.identity(), (first, second) -> first));
+        final List<ImportRow<Item>> validated = rows.parallelStream()
+            .map(row -> row.map(value -> toItem(value, accountId, existing)))
+            .collect(Collectors.toList());
+
+        final Map<String, Integer> names = new HashMap<>();
+        final List<ImportRow<Item>> accepted = new ArrayList<>();
+        for (ImportRow<Item> row : validated) {
+            if (row.error == null && names.putIfAbsent(row.value.getName(), row.getNumber()) != null) {
+                row = row.reject("Duplicate of row " + names.get(row.value.getName()));
+            }
+            if (row.error == null) {
+                accepted.add(row);
+            } else {
+                report.addError(row.getNumber(), row.error);
+                report.addProcessed(1);
+            }
+        }
+        writeInChunks(accepted, report, items -> itemDao.addItems(items).forEach(item -> {
+            autocompleteIndex.put(accountId, SuggestionType.ITEM, item.getId(), item.getName());
+            textSearchIndex.putItem(item);
+        }));
+    }
+
+    private Item toItem(ItemImportRowDto row, Long accountId, Map<String, Item> existing) {
+        final String name = required(row.getName(), "name");
+        if (existing.containsKey(name)) {
+            throw new IllegalArgumentException("Item already exists: " + name);
+        }
+        return new Item(name, required(row.getUnit(), "unit"), required(row.getDescription(), "description"),
+            positiveInt(row.getVolume(), "volume"), accountId, true);
+    }
+
+    private void importStock(List<ImportRow<StockImportRowDto>> rows, Long accountId, ImportReportDto report) {
+        final Map<String, Item> items = itemDao.findItemByAccountId(accountId).stream()
+            .filter(Item::isActive)
+            .collect(Collectors.toMap(Item::getName, Function.identity(), (first, second) -> first));
+        final Map<Long, Integer> volumes = items.values().stream()
+            .collect(Collectors.toMap(Item::getId, Item::getVolume));
+        // only bottom warehouses hold items, and those are exactly the ones the free space index knows
+        final Map<Long, Long> freeSpace = new HashMap<>(freeSpaceIndex.findFreeSpace(accountId, Long.MIN_VALUE));
+        final Map<String, Long> warehouses = new HashMap<>();
+        for (Long warehouseId : freeSpace.keySet()) {
+            warehouses.put(normalizePath(String.join(PATH_SEPARATOR, warehouseTreeCache.findPath(warehouseId, accountId))),
+                warehouseId);
+        }
+
+        final List<ImportRow<SavedItem>> validated = rows.parallelStream()
+            .map(row -> row.map(value -> toSavedItem(value, items, warehouses)))
+            .collect(Collectors.toList());
+
+        final Map<String, ImportRow<SavedItem>> merged = new LinkedHashMap<>();
+        for (ImportRow<SavedItem> row : validated) {
+            if (row.error == null) {
+                final SavedItem savedItem = row.value;
+                final long volume = (long) savedItem.getQuantity() * volumes.get(savedItem.getItemId());
+                if (volume > freeSpace.get(savedItem.getWarehouseId())) {
+                    row = row.reject("Not enough capacity in warehouse " +
+                        String.join(PATH_SEPARATOR, warehouseTreeCache.findPath(savedItem.getWarehouseId(), accountId)));
+                } else {
+                    freeSpace.merge(savedItem.getWarehouseId(), -volume, Long::sum);
+                    merged.merge(savedItem.getItemId() + ":" + savedItem.getWarehouseId(), row, ImportRow::mergeStock);
+                    continue;
+                }
+            }
+            report.addError(row.getNumber(), row.error);
+            report.addProcessed(1);
+        }
+
+        writeInChunks(new ArrayList<>(merged.values()), report, savedItems -> {
+            final Map<Long, Long> usedVolumes = new TreeMap<>();
+            for (SavedItem savedItem : savedItems) {
+                usedVolumes.merge(savedItem.getWarehouseId(),
+                    (long) savedItem.getQuantity() * volumes.get(savedItem.getItemId()), Long::sum);
+            }
+            // each row is inserted or added to the stored saved item atomically, stock written meanwhile included
+            savedItemDao.addQuantities(savedItems);
+            usedVolumes.forEach((warehouseId, volume) -> {
+                warehouseDao.addUsedVolume(warehouseId, volume);
+                freeSpaceIndex.adjust(warehouseId, accountId, volume);
+                warehouseLoadSnapshot.adjust(warehouseId, accountId, volume);
+            });
+        });
+        lowStockIndex.evict(accountId);
+    }
+
+    private SavedItem toSavedItem(StockImportRowDto row, Map<String, Item> items, Map<String, Long> warehouses) {
+        final String itemName = required(row.getItemName(), "item_name");
+        final Item item = items.get(itemName);
+        if (item == null) {
+            throw new IllegalArgumentException("Item not found: " + itemName);
+        }
+        final Long warehouseId = warehouses.get(normalizePath(required(row.getWarehouse(), "warehouse")));
+        if (warehouseId == null) {
+            throw new IllegalArgumentException("Bottom level warehouse not found: " + row.getWarehouse());
+        }
+        return new SavedItem(item.getId(), positiveInt(row.getQuantity(), "quantity"), warehouseId);
+    }
+
+    private <T> void writeInChunks(List<ImportRow<T>> rows, ImportReportDto report, Consumer<List<T>> writer) {
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            final List<ImportRow<T>> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            final List<T> values = chunk.stream().map(row -> row.value).collect(Collectors.toList());
+            final int rowCount = chunk.stream().mapToInt(row -> row.numbers.size()).sum();
+            try {
+                transactionTemplate.executeWithoutResult(status -> writer.accept(values));
+                report.addImported(rowCount);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Import {}: chunk of {} rows failed", report.getId(), rowCount, e);
+                for (ImportRow<T> row : chunk) {
+                    row.numbers.forEach(number -> report.addError(number, "Not imported: " + e.getMessage()));
+                }
+            }
+            report.addProcessed(rowCount);
+        }
+    }
+
+    private <T> List<ImportRow<T>> read(InputStream in, ImportFormat format, Class<T> type, List<String> columns,
+                                        Function<List<String>, T> fromCsv) throws IOException {
+        final List<ImportRow<T>> rows = new ArrayList<>();
+        switch (format) {
+            case CSV -> {
+                final CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                final int[] indexes = columnIndexes(reader.readRecord(), columns);
+                int number = 1;
+                for (List<String> record = reader.readRecord(); record != null; record = reader.readRecord()) {
+                    number++;
+                    if (record.size() == 1 && record.get(0).isBlank()) {
+                        continue;
+                    }
+                    final List<String> values = new ArrayList<>(indexes.length);
+                    for (int index : indexes) {
+                        values.add(index < record.size() ? record.get(index) : null);
+                    }
+                    rows.add(new ImportRow<>(number, fromCsv.apply(values)));
+                    checkRowCount(rows);
+                }
+            }
+            case JSON -> {
+                final List<T> values;
+                try {
+                    values = objectMapper
+                        .readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, type))
+                        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                        .readValue(in);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Malformed JSON import: " + e.getOriginalMessage(), e);
+                }
+                for (int i = 0; i < values.size(); i++) {
+                    rows.add(new ImportRow<>(i + 1, values.get(i)));
+                    checkRowCount(rows);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int[] columnIndexes(List<String> header, List<String> columns) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import has no header line, expected " + columns);
+        }
+        final List<String> names = header.stream()
+            .map(name -> name.trim().toLowerCase(Locale.ROOT))
+            .collect(Collectors.toList());
+        final int[] indexes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            indexes[i] = names.indexOf(columns.get(i));
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("CSV import has no '" + columns.get(i) + "' column");
+            }
+        }
+        return indexes;
+    }
+
+    private void checkRowCount(List<?> rows) {
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("An import may have at most " + maxRows + " rows");
+        }
+    }
+
+    private static String normalizePath(String path) {
+        return Arrays.stream(path.split("/"))
+            .map(String::trim)
+            .collect(Collectors.joining(PATH_SEPARATOR));
+    }
+
+    private static String required(String value, String column) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value.trim();
+    }
+
+    private static int positiveInt(String value, String column) {
+        try {
+            final int number = Integer.parseInt(required(value, column));
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(column + " must be a positive integer: " + value);
+    }
+
+    private static class ImportRow<T> {
+        private final List<Integer> numbers;
+        private final T value;
+        private final String error;
+
+        ImportRow(int number, T value) {
+            this(List.of(number), value, null);
+        }
+
+        private ImportRow(List<Integer> numbers, T value, String error) {
+            this.numbers = numbers;
+            this.value = value;
+            this.error = error;
+        }
+
+        int getNumber() {
+            return numbers.get(0);
+        }
+
+        <R> ImportRow<R> map(Function<T, R> validator) {
+            try {
+                return new ImportRow<>(numbers, validator.apply(value), null);
+            } catch (IllegalArgumentException e) {
+                return new ImportRow<>(numbers, null, e.getMessage());
+            }
+        }
+
+        ImportRow<T> reject(String error) {
+            return new ImportRow<>(numbers, null, error);
+        }
+
+        // rows for the same item and warehouse are written as one saved item
+        static ImportRow<SavedItem> mergeStock(ImportRow<SavedItem> first, ImportRow<SavedItem> second) {
+            final List<Integer> numbers = new ArrayList<>(first.numbers);
+            numbers.addAll(second.numbers);
+            final SavedItem savedItem = new SavedItem(first.value.getItemId(),
+                first.value.getQuantity() + second.value.getQuantity(), first.value.getWarehouseId());
+            return new ImportRow<>(numbers, savedItem, null);
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.ita.if103java.ims.service.impl;
 
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
 import com.ita.if103java.ims.dao.AssociateDao;
 import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.ReorderThresholdDao;
 import com.ita.if103java.ims.dao.SavedItemDao;
 import com.ita.if103java.ims.dao.TransactionDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
 import com.ita.if103java.ims.dto.ItemDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.ReorderThresholdDto;
 import com.ita.if103java.ims.dto.SavedItemDto;
 import com.ita.if103java.ims.entity.Event;
 import com.ita.if103java.ims.entity.EventName;
 import com.ita.if103java.ims.entity.Item;
 import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.SearchDocumentType;
+import com.ita.if103java.ims.entity.SuggestionType;
 import com.ita.if103java.ims.entity.Transaction;
 import com.ita.if103java.ims.entity.TransactionType;
 import com.ita.if103java.ims.entity.Warehouse;
@@ -23,6 +33,7 @@ import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseE
 import com.ita.if103java.ims.exception.service.ItemNotEnoughQuantityException;
 import com.ita.if103java.ims.exception.service.ItemValidateInputException;
 import com.ita.if103java.ims.mapper.dto.ItemDtoMapper;
+import com.ita.if103java.ims.mapper.dto.ReorderThresholdDtoMapper;
 import com.ita.if103java.ims.mapper.dto.SavedItemDtoMapper;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import com.ita.if103java.ims.service.EventService;
@@ -39,15 +50,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterCompletion;
 
 @Service
 public class ItemServiceImpl implements ItemService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ItemServiceImpl.class);
     @Value("${items.maxWarehouseLoad}")
     private String maxWarehouseLoad;
-    @Value("${items.minQuantityItemsInWarehouse}")
-    private String minQuantityItemsInWarehouse;
     private ItemDtoMapper itemDtoMapper;
     private SavedItemDtoMapper savedItemDtoMapper;
     private ItemDao itemDao;
@@ -57,11 +67,24 @@ public class ItemServiceImpl implements ItemService {
     private EventService eventService;
     private AssociateDao associateDao;
     private SavedItemService savedItemService;
+    private FreeSpaceIndex freeSpaceIndex;
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    private ReorderThresholdDao reorderThresholdDao;
+    private ReorderThresholdDtoMapper reorderThresholdDtoMapper;
+    private LowStockIndex lowStockIndex;
+    private AutocompleteIndex autocompleteIndex;
+    private TextSearchIndex textSearchIndex;
+    private CapacityReservationManager capacityReservationManager;
+    private ReservationLedger reservationLedger;
 
     @Autowired
     public ItemServiceImpl(ItemDtoMapper itemDtoMapper, SavedItemDtoMapper savedItemDtoMapper, ItemDao itemDao,
         SavedItemDao savedItemDao, WarehouseDao warehouseDao, TransactionDao transactionDao,
-        EventService eventService, AssociateDao associateDao, SavedItemService savedItemService) {
+        EventService eventService, AssociateDao associateDao, SavedItemService savedItemService,
+        FreeSpaceIndex freeSpaceIndex, WarehouseLoadSnapshot warehouseLoadSnapshot,
+        ReorderThresholdDao reorderThresholdDao, ReorderThresholdDtoMapper reorderThresholdDtoMapper,
+        LowStockIndex lowStockIndex, AutocompleteIndex autocompleteIndex, TextSearchIndex textSearchIndex,
+        CapacityReservationManager capacityReservationManager, ReservationLedger reservationLedger) {
         this.itemDtoMapper = itemDtoMapper;
         this.savedItemDtoMapper = savedItemDtoMapper;
         this.itemDao = itemDao;
@@ -71,6 +94,15 @@ public class ItemServiceImpl implements ItemService {
         this.eventService = eventService;
         this.associateDao = associateDao;
         this.savedItemService = savedItemService;
+        this.freeSpaceIndex = freeSpaceIndex;
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+        this.reorderThresholdDao = reorderThresholdDao;
+        this.reorderThresholdDtoMapper = reorderThresholdDtoMapper;
+        this.lowStockIndex = lowStockIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.textSearchIndex = textSearchIndex;
+        this.capacityReservationManager = capacityReservationManager;
+        this.reservationLedger = reservationLedger;
     }
 
     @Override
@@ -92,26 +124,24 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     @Override
     public SavedItemDto addSavedItem(ItemTransactionRequestDto itemTransaction, UserDetailsImpl user) {
+        capacityReservationManager.reserve(itemTransaction.getDestinationWarehouseId());
         Long accountId = user.getUser().getAccountId();
         Long userId = user.getUser().getId();
         ItemDto itemDto = findById(itemTransaction.getItemId(), user);
         savedItemService.validateInputs(itemTransaction, itemDto, accountId, TransactionType.IN);
         Warehouse warehouse = warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId);
         if (savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)) {
-            Optional<SavedItem> item =
-                savedItemDao.findSavedItemByItemIdAndWarehouseId(itemTransaction.getItemId(),
-                    itemTransaction.getDestinationWarehouseId());
-            if (item.isPresent()) {
-                SavedItem savedItem = item.get();
-                int quantity = Long.valueOf(savedItem.getQuantity() + itemTransaction.getQuantity()).intValue();
-                savedItem.setQuantity(quantity);
-                savedItemDao.outComeSavedItem(savedItem, quantity);
-                return savedItemDtoMapper.toDto(savedItem);
+            int quantity = itemTransaction.getQuantity().intValue();
+            SavedItem savedItem = savedItemDao.addQuantity(itemTransaction.getItemId(),
+                itemTransaction.getDestinationWarehouseId(), quantity);
+            addUsedVolume(itemTransaction.getDestinationWarehouseId(), accountId,
+                itemTransaction.getQuantity() * itemDto.getVolume());
+            lowStockIndex.update(accountId, savedItem, itemDto.getName());
+            SavedItemDto savedItemDto = savedItemDtoMapper.toDto(savedItem);
+            // saved items never hold zero, so holding more than the added quantity means it was there before
+            if (savedItem.getQuantity() > quantity) {
+                return savedItemDto;
             }
-            SavedItem savedItem = new SavedItem(itemTransaction.getItemId(),
-                itemTransaction.getQuantity().intValue(), itemTransaction.getDestinationWarehouseId());
-            SavedItemDto savedItemDto = savedItemDtoMapper.toDto(savedItemDao.addSavedItem(savedItem));
-
 
             Transaction transaction = transactionDao.create(transactionDao.create(itemTransaction,
                 user.getUser(), itemTransaction.getAssociateId(), TransactionType.IN));
@@ -140,7 +170,10 @@ public class ItemServiceImpl implements ItemService {
             throw new ItemDuplicateException("Failed to create item, because exist the same " + itemDto.toString());
         }
         itemDto.setAccountId(accountId);
-        return itemDtoMapper.toDto(itemDao.addItem(itemDtoMapper.toEntity(itemDto)));
+        Item addedItem = itemDao.addItem(itemDtoMapper.toEntity(itemDto));
+        autocompleteIndex.put(accountId, SuggestionType.ITEM, addedItem.getId(), addedItem.getName());
+        textSearchIndex.putItem(addedItem);
+        return itemDtoMapper.toDto(addedItem);
     }
 
     @Override
@@ -158,7 +191,12 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public boolean softDelete(Long id, UserDetailsImpl user) {
-        return itemDao.softDeleteItem(id, user.getUser().getAccountId());
+        boolean isDeleted = itemDao.softDeleteItem(id, user.getUser().getAccountId());
+        if (isDeleted) {
+            autocompleteIndex.remove(user.getUser().getAccountId(), SuggestionType.ITEM, id);
+            textSearchIndex.remove(user.getUser().getAccountId(), SearchDocumentType.ITEM, id);
+        }
+        return isDeleted;
     }
 
     @Override
@@ -173,14 +211,41 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     @Override
     public boolean moveItem(ItemTransactionRequestDto itemTransaction, UserDetailsImpl user) {
+        capacityReservationManager.reserve(itemTransaction.getDestinationWarehouseId());
         Long accountId = user.getUser().getAccountId();
         Long userId = user.getUser().getId();
         ItemDto itemDto = findById(itemTransaction.getItemId(), user);
         savedItemService.validateInputs(itemTransaction, itemDto, accountId, TransactionType.MOVE);
         Warehouse warehouse = warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId);
         if (savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)) {
-            boolean isMove = savedItemDao.updateSavedItem(itemTransaction.getDestinationWarehouseId(),
-                itemTransaction.getSavedItemId());
+            // locked before the reserved quantity is read, so a reservation in progress is counted
+            SavedItem savedItem = savedItemDao.findSavedItemByIdForUpdate(itemTransaction.getSavedItemId());
+            Long sourceWarehouseId = savedItem.getWarehouseId();
+            long volume = (long) savedItem.getQuantity() * itemDto.getVolume();
+            boolean isMove;
+            if (savedItemDao.findSavedItemByItemIdAndWarehouseId(savedItem.getItemId(),
+                itemTransaction.getDestinationWarehouseId()).isPresent()) {
+                // the item is stored there already, so the quantity joins that saved item
+                // reservations hold the saved item itself, so a reserved one can not be merged away
+                isMove = savedItemDao.takeQuantity(savedItem.getId(), savedItem.getQuantity(),
+                    reservationLedger.findReserved(accountId, savedItem.getId()));
+                if (!isMove) {
+                    throw new ItemNotEnoughQuantityException("Move failed, the saved item is reserved or changed " +
+                        "meanwhile {id = " + savedItem.getId() + "}");
+                }
+                if (savedItemDao.deleteEmptySavedItem(savedItem.getId())) {
+                    lowStockIndex.remove(accountId, savedItem.getId());
+                }
+                savedItem = savedItemDao.addQuantity(savedItem.getItemId(),
+                    itemTransaction.getDestinationWarehouseId(), savedItem.getQuantity());
+            } else {
+                isMove = savedItemDao.updateSavedItem(itemTransaction.getDestinationWarehouseId(),
+                    itemTransaction.getSavedItemId());
+                savedItem.setWarehouseId(itemTransaction.getDestinationWarehouseId());
+            }
+            addUsedVolume(sourceWarehouseId, accountId, -volume);
+            addUsedVolume(itemTransaction.getDestinationWarehouseId(), accountId, volume);
+            lowStockIndex.update(accountId, savedItem, itemDto.getName());
             Transaction transaction = transactionDao.create(transactionDao.create(itemTransaction,
                 user.getUser(), itemTransaction.getAssociateId(), TransactionType.MOVE));
             eventService.create(createMoveEvent(itemTransaction, warehouse, itemDto, accountId, transaction, userId));
@@ -205,27 +270,34 @@ public class ItemServiceImpl implements ItemService {
         Long userId = user.getUser().getId();
         ItemDto itemDto = findById(itemTransaction.getItemId(), user);
         savedItemService.validateInputs(itemTransaction, itemDto, accountId, TransactionType.OUT);
-        SavedItemDto savedItemDto =
-            savedItemDtoMapper.toDto(savedItemDao.findSavedItemById(itemTransaction.getSavedItemId()));
-        if (savedItemDto.getQuantity() >= itemTransaction.getQuantity()) {
-            long difference = savedItemDto.getQuantity() - itemTransaction.getQuantity();
-            if (savedItemDto.getQuantity() == itemTransaction.getQuantity()) {
-                savedItemDao.deleteSavedItem(itemTransaction.getSavedItemId());
-                savedItemDto.setQuantity(Long.valueOf(difference).intValue());
-                Transaction transaction = transactionDao.create(transactionDao.create(itemTransaction,
-                    user.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT));
-                eventService.create(createOutEvent(itemTransaction, itemDto, accountId, transaction, userId));
-                return savedItemDto;
+        int quantity = itemTransaction.getQuantity().intValue();
+        // locked before the reserved quantity is read, so a reservation in progress is counted
+        savedItemDao.findSavedItemByIdForUpdate(itemTransaction.getSavedItemId());
+        int reserved = reservationLedger.findReserved(accountId, itemTransaction.getSavedItemId());
+        if (savedItemDao.takeQuantity(itemTransaction.getSavedItemId(), quantity, reserved)) {
+            // the update holds the row lock, so this reads the quantity it left
+            SavedItem savedItem = savedItemDao.findSavedItemById(itemTransaction.getSavedItemId());
+            SavedItemDto savedItemDto = savedItemDtoMapper.toDto(savedItem);
+            int threshold = lowStockIndex.findThreshold(accountId, savedItem.getItemId(),
+                savedItem.getWarehouseId());
+            // the same boundary as the low stock index, so the event fires when the item becomes an ending item
+            boolean isThresholdCrossed = savedItem.getQuantity() + quantity > threshold &&
+                savedItem.getQuantity() <= threshold;
+            addUsedVolume(savedItem.getWarehouseId(), accountId,
+                -itemTransaction.getQuantity() * itemDto.getVolume());
+            if (savedItem.getQuantity() == 0) {
+                savedItemDao.deleteEmptySavedItem(savedItem.getId());
+                lowStockIndex.remove(accountId, savedItem.getId());
+            } else {
+                lowStockIndex.update(accountId, savedItem, itemDto.getName());
             }
-            savedItemDao.outComeSavedItem(savedItemDtoMapper.toEntity(savedItemDto),
-                Long.valueOf(difference).intValue());
             Transaction transaction = transactionDao.create(transactionDao.create(itemTransaction,
                 user.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT));
             eventService.create(createOutEvent(itemTransaction, itemDto, accountId, transaction, userId));
-            savedItemDto.setQuantity(Long.valueOf(difference).intValue());
-            if (savedItemDto.getQuantity() < Integer.parseInt(minQuantityItemsInWarehouse)) {
-                Event event = createOutEventIfMinQuantityItemsInWarehouse(itemTransaction, itemDto, accountId, userId);
-                LOGGER.info("Left less than " + minQuantityItemsInWarehouse + " items!", event);
+            if (isThresholdCrossed) {
+                Event event = createOutEventIfMinQuantityItemsInWarehouse(itemTransaction, itemDto, accountId, userId,
+                    threshold);
+                LOGGER.info("Left less than " + threshold + " items!", event);
                 eventService.create(event);
             }
             return savedItemDto;
@@ -246,10 +318,62 @@ public class ItemServiceImpl implements ItemService {
         return itemDtoMapper.toDtoList(itemDao.findItemsByNameQuery(query, user.getUser().getAccountId()));
     }
 
+    @Transactional
     @Override
     public ItemDto updateItem(ItemDto itemDto, UserDetailsImpl user) {
         itemDto.setAccountId(user.getUser().getAccountId());
-        return itemDtoMapper.toDto(itemDao.updateItem(itemDtoMapper.toEntity(itemDto)));
+        warehouseDao.updateUsedVolumeByItem(itemDto.getId(), itemDto.getVolume(), itemDto.getAccountId());
+        afterCompletion(() -> {
+            freeSpaceIndex.evict(itemDto.getAccountId());
+            warehouseLoadSnapshot.evict(itemDto.getAccountId());
+            // ending items carry the item name
+            lowStockIndex.evict(itemDto.getAccountId());
+        });
+        Item updatedItem = itemDao.updateItem(itemDtoMapper.toEntity(itemDto));
+        autocompleteIndex.rename(itemDto.getAccountId(), SuggestionType.ITEM, updatedItem.getId(),
+            updatedItem.getName());
+        textSearchIndex.replaceItem(updatedItem);
+        return itemDtoMapper.toDto(updatedItem);
+    }
+
+    @Override
+    public List<ReorderThresholdDto> findReorderThresholds(Long itemId, UserDetailsImpl user) {
+        validateItemExists(itemId, user.getUser().getAccountId());
+        return reorderThresholdDtoMapper.toDtoList(reorderThresholdDao.findByItemId(itemId));
+    }
+
+    @Transactional
+    @Override
+    public ReorderThresholdDto saveReorderThreshold(ReorderThresholdDto reorderThresholdDto, UserDetailsImpl user) {
+        Long accountId = user.getUser().getAccountId();
+        validateItemExists(reorderThresholdDto.getItemId(), accountId);
+        if (reorderThresholdDto.getWarehouseId() != null) {
+            warehouseDao.findById(reorderThresholdDto.getWarehouseId(), accountId);
+        }
+        reorderThresholdDao.save(reorderThresholdDtoMapper.toEntity(reorderThresholdDto));
+        afterCompletion(() -> lowStockIndex.evict(accountId));
+        return reorderThresholdDto;
+    }
+
+    @Transactional
+    @Override
+    public boolean deleteReorderThreshold(Long itemId, Long warehouseId, UserDetailsImpl user) {
+        Long accountId = user.getUser().getAccountId();
+        validateItemExists(itemId, accountId);
+        afterCompletion(() -> lowStockIndex.evict(accountId));
+        return reorderThresholdDao.delete(itemId, warehouseId);
+    }
+
+    private void validateItemExists(Long itemId, Long accountId) {
+        if (!itemDao.isExistItemById(itemId, accountId)) {
+            throw new ItemNotFoundException("Failed to get item during `select` {item_id = " + itemId + "}");
+        }
+    }
+
+    private void addUsedVolume(Long warehouseId, Long accountId, long volume) {
+        warehouseDao.addUsedVolume(warehouseId, volume);
+        freeSpaceIndex.adjust(warehouseId, accountId, volume);
+        warehouseLoadSnapshot.adjust(warehouseId, accountId, volume);
     }
 
     private Event createAddEvent(ItemTransactionRequestDto itemTransaction, Warehouse warehouse, ItemDto itemDto,
@@ -320,8 +444,8 @@ public class ItemServiceImpl implements ItemService {
 
     private Event createOutEventIfMinQuantityItemsInWarehouse(ItemTransactionRequestDto itemTransaction,
         ItemDto itemDto,
-        Long accountId, Long userId) {
-        return new Event("Left less than " + minQuantityItemsInWarehouse + " items! Quantity" +
+        Long accountId, Long userId, int threshold) {
+        return new Event("Left less than " + threshold + " items! Quantity" +
             itemTransaction.getQuantity() + " " +
             itemDto.getName() +
             " in warehouse " +
@@ -0,0 +1,443 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.AssociateDao;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dao.TransactionDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
+import com.ita.if103java.ims.entity.Associate;
+import com.ita.if103java.ims.entity.AssociateType;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.Transaction;
+import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.entity.Warehouse;
+import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseException;
+import com.ita.if103java.ims.exception.service.ItemNotEnoughQuantityException;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.mapper.dto.SavedItemDtoMapper;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.EventService;
+import com.ita.if103java.ims.service.ItemTransactionBatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ItemTransactionBatchServiceImpl implements ItemTransactionBatchService {
+    @Value("${items.maxWarehouseLoad}")
+    private String maxWarehouseLoad;
+    @Value("${items.batch.maxLines}")
+    private int maxLines;
+    private ItemDao itemDao;
+    private SavedItemDao savedItemDao;
+    private AssociateDao associateDao;
+    private TransactionDao transactionDao;
+    private WarehouseDao warehouseDao;
+    private EventService eventService;
+    private WarehouseTreeCache warehouseTreeCache;
+    private FreeSpaceIndex freeSpaceIndex;
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    private LowStockIndex lowStockIndex;
+    private SavedItemDtoMapper savedItemDtoMapper;
+    private CapacityReservationManager capacityReservationManager;
+    private ReservationLedger reservationLedger;
+
+    @Autowired
+    public ItemTransactionBatchServiceImpl(ItemDao itemDao, SavedItemDao savedItemDao, AssociateDao associateDao,
+                                           TransactionDao transactionDao, WarehouseDao warehouseDao,
+                                           EventService eventService, WarehouseTreeCache warehouseTreeCache,
+                                           FreeSpaceIndex freeSpaceIndex, WarehouseLoadSnapshot warehouseLoadSnapshot,
+                                           LowStockIndex lowStockIndex, SavedItemDtoMapper savedItemDtoMapper,
+                                           CapacityReservationManager capacityReservationManager,
+                                           ReservationLedger reservationLedger) {
+        this.itemDao = itemDao;
+        this.savedItemDao = savedItemDao;
+        this.associateDao = associateDao;
+        this.transactionDao = transactionDao;
+        this.warehouseDao = warehouseDao;
+        this.eventService = eventService;
+        this.warehouseTreeCache = warehouseTreeCache;
+        this.freeSpaceIndex = freeSpaceIndex;
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+        this.lowStockIndex = lowStockIndex;
+        this.savedItemDtoMapper = savedItemDtoMapper;
+        this.capacityReservationManager = capacityReservationManager;
+        this.reservationLedger = reservationLedger;
+    }
+
+    /**
+     * Loads every referenced item, associate and saved item once, then checks the lines one after another
+     * against that state and the free space index, so a line sees the effect of the lines before it. Lines
+     * that fail are reported and skipped; the rest are written with batch statements in this transaction.
+     * The destination warehouses are reserved up front and stay locked until this transaction completes.
+     */
+    @Transactional
+    @Override
+    public List<ItemTransactionBatchResultDto> apply(List<ItemTransactionBatchLineDto> lines, UserDetailsImpl user) {
+        if (lines == null || lines.isEmpty() || lines.size() > maxLines) {
+            throw new ItemValidateInputException("A batch must have from 1 to " + maxLines + " lines");
+        }
+        capacityReservationManager.reserve(lines.stream()
+            .map(ItemTransactionBatchLineDto::getDestinationWarehouseId)
+            .collect(Collectors.toList()));
+        final User worker = user.getUser();
+        final Long accountId = worker.getAccountId();
+        final Batch batch = load(lines, accountId);
+
+        final List<ItemTransactionBatchResultDto> results = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            final ItemTransactionBatchLineDto line = lines.get(i);
+            final ItemTransactionBatchResultDto result = new ItemTransactionBatchResultDto(i, line.getType());
+            results.add(result);
+            try {
+                batch.apply(i, line, worker);
+                result.setSuccess(true);
+            } catch (ItemValidateInputException e) {
+                result.setMessage(e.getMessage());
+            } catch (ItemNotEnoughCapacityInWarehouseException e) {
+                result.setMessage(e.getMessage());
+                final Warehouse warehouse = warehouseTreeCache.findById(line.getDestinationWarehouseId(), accountId);
+                eventService.create(new Event("Not enough capacity! Capacity " + warehouse.getCapacity() +
+                    " in Warehouse " + warehouse.getName(), accountId, warehouse.getId(), worker.getId(),
+                    EventName.LOW_SPACE_IN_WAREHOUSE, null));
+            } catch (ItemNotEnoughQuantityException e) {
+                result.setMessage(e.getMessage());
+                final Long warehouseId = batch.savedItems.get(line.getSavedItemId()).getWarehouseId();
+                eventService.create(new Event("Not enough quantity  " + line.getQuantity() + " " +
+                    batch.items.get(line.getItemId()).getName() + " in warehouse " +
+                    warehouseName(warehouseId, accountId), accountId, warehouseId, worker.getId(),
+                    EventName.ITEM_ENDED, null));
+            }
+        }
+        write(batch, accountId);
+
+        for (int i = 0; i < results.size(); i++) {
+            final Applied applied = batch.applied.get(i);
+            if (applied != null) {
+                results.get(i).setTransactionId(applied.transaction.getId());
+                results.get(i).setSavedItem(savedItemDtoMapper.toDto(applied.savedItem));
+                eventService.create(createEvent(applied, batch, accountId));
+            }
+        }
+        createLowSpaceEvents(batch, worker);
+        createEndedEvents(batch, worker);
+        return results;
+    }
+
+    private Batch load(List<ItemTransactionBatchLineDto> lines, Long accountId) {
+        final List<Long> itemIds = lines.stream()
+            .map(ItemTransactionBatchLineDto::getItemId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        final Batch batch = new Batch(accountId);
+        if (!itemIds.isEmpty()) {
+            itemDao.findItemsById(itemIds.stream().map(String::valueOf).collect(Collectors.joining(",")), accountId)
+                .forEach(item -> batch.items.put(item.getId(), item));
+            savedItemDao.findSavedItemsByItemIds(new ArrayList<>(batch.items.keySet()))
+                .forEach(batch::addStored);
+        }
+        batch.associates.putAll(associateDao.findByAccountId(accountId).stream()
+            .collect(Collectors.toMap(Associate::getId, Function.identity())));
+        batch.freeSpace.putAll(freeSpaceIndex.findFreeSpace(accountId, Long.MIN_VALUE));
+        return batch;
+    }
+
+    private void write(Batch batch, Long accountId) {
+        final List<SavedItem> inserts = new ArrayList<>();
+        final List<SavedItem> updates = new ArrayList<>();
+        final List<Long> deletes = new ArrayList<>();
+        for (SavedItem savedItem : batch.touched) {
+            if (savedItem.getId() == null) {
+                if (savedItem.getQuantity() > 0) {
+                    inserts.add(savedItem);
+                }
+            } else if (savedItem.getQuantity() == 0) {
+                deletes.add(savedItem.getId());
+            } else {
+                updates.add(savedItem);
+            }
+        }
+        // a saved item may move out of a warehouse that receives a new one for the same item
+        if (!deletes.isEmpty()) {
+            savedItemDao.deleteSavedItems(deletes);
+        }
+        if (!updates.isEmpty()) {
+            savedItemDao.updateSavedItems(updates);
+        }
+        if (!inserts.isEmpty()) {
+            savedItemDao.addSavedItems(inserts);
+        }
+        final List<Transaction> transactions = batch.applied.values().stream()
+            .map(applied -> applied.transaction)
+            .collect(Collectors.toList());
+        if (!transactions.isEmpty()) {
+            transactionDao.createAll(transactions);
+        }
+        // warehouses are updated in id order so that concurrent batches lock them in the same order
+        batch.usedVolume.forEach((warehouseId, volume) -> {
+            if (volume != 0) {
+                warehouseDao.addUsedVolume(warehouseId, volume);
+                freeSpaceIndex.adjust(warehouseId, accountId, volume);
+                warehouseLoadSnapshot.adjust(warehouseId, accountId, volume);
+            }
+        });
+        for (SavedItem savedItem : batch.touched) {
+            if (savedItem.getQuantity() == 0) {
+                if (savedItem.getId() != null) {
+                    lowStockIndex.remove(accountId, savedItem.getId());
+                }
+            } else {
+                lowStockIndex.update(accountId, savedItem, batch.items.get(savedItem.getItemId()).getName());
+            }
+        }
+    }
+
+    private Event createEvent(Applied applied, Batch batch, Long accountId) {
+        final Transaction transaction = applied.transaction;
+        final String itemName = batch.items.get(transaction.getItemId()).getName();
+        return switch (transaction.getType()) {
+            case IN -> new Event("Moved " + transaction.getQuantity() + " " + itemName + " to warehouse " +
+                warehouseName(transaction.getMovedTo(), accountId) + " from supplier " +
+                batch.associates.get(transaction.getAssociateId()).getName(), accountId, transaction.getMovedTo(),
+                transaction.getWorkerId(), EventName.ITEM_CAME, transaction.getId());
+            case MOVE -> new Event("Moved " + transaction.getQuantity() + " " + itemName + " from warehouse " +
+                warehouseName(transaction.getMovedFrom(), accountId) + " to warehouse " +
+                warehouseName(transaction.getMovedTo(), accountId), accountId, transaction.getMovedFrom(),
+                transaction.getWorkerId(), EventName.ITEM_MOVED, transaction.getId());
+            case OUT -> new Event("Sold  " + transaction.getQuantity() + " " + itemName + " to client " +
+                batch.associates.get(transaction.getAssociateId()).getName(), accountId, transaction.getMovedFrom(),
+                transaction.getWorkerId(), EventName.ITEM_SHIPPED, transaction.getId());
+        };
+    }
+
+    private void createLowSpaceEvents(Batch batch, User worker) {
+        final Long accountId = worker.getAccountId();
+        final float maxLoad = Float.parseFloat(maxWarehouseLoad);
+        batch.usedVolume.forEach((warehouseId, volume) -> {
+            if (volume > 0) {
+                final Warehouse warehouse = warehouseTreeCache.findById(warehouseId, accountId);
+                final long used = warehouse.getCapacity() - batch.freeSpace.get(warehouseId);
+                if ((float) used * 100 / warehouse.getCapacity() > maxLoad) {
+                    eventService.create(new Event("Warehouse is loaded more than " + maxWarehouseLoad +
+                        "%! Capacity " + warehouse.getCapacity() + " in Warehouse " + warehouse.getName(), accountId,
+                        warehouseId, worker.getId(), EventName.LOW_SPACE_IN_WAREHOUSE, null));
+                }
+            }
+        });
+    }
+
+    private void createEndedEvents(Batch batch, User worker) {
+        final Long accountId = worker.getAccountId();
+        for (Applied applied : batch.applied.values()) {
+            if (applied.transaction.getType() == TransactionType.OUT) {
+                final SavedItem savedItem = applied.savedItem;
+                final int threshold =
+                    lowStockIndex.findThreshold(accountId, savedItem.getItemId(), savedItem.getWarehouseId());
+                if (applied.quantityBefore > threshold && applied.quantityAfter <= threshold) {
+                    eventService.create(new Event("Left less than " + threshold + " items! Quantity" +
+                        applied.transaction.getQuantity() + " " + batch.items.get(savedItem.getItemId()).getName() +
+                        " in warehouse " + warehouseName(savedItem.getWarehouseId(), accountId), accountId,
+                        savedItem.getWarehouseId(), worker.getId(), EventName.ITEM_ENDED, null));
+                }
+            }
+        }
+    }
+
+    private String warehouseName(Long warehouseId, Long accountId) {
+        return warehouseTreeCache.findById(warehouseId, accountId).getName();
+    }
+
+    private static String key(Long itemId, Long warehouseId) {
+        return itemId + ":" + warehouseId;
+    }
+
+    /**
+     * The stock state of one batch: saved items as the lines applied so far have left them.
+     */
+    private class Batch {
+        private final Long accountId;
+        private final Map<Long, Item> items = new HashMap<>();
+        private final Map<Long, Associate> associates = new HashMap<>();
+        private final Map<Long, SavedItem> savedItems = new HashMap<>();
+        private final Map<String, SavedItem> locations = new HashMap<>();
+        private final Map<Long, Long> freeSpace = new HashMap<>();
+        private final Map<Long, Long> usedVolume = new TreeMap<>();
+        // saved items compare by value and change while the batch is applied, so they are tracked by identity
+        private final Set<SavedItem> touchedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<SavedItem> touched = new ArrayList<>();
+        private final Map<Integer, Applied> applied = new TreeMap<>();
+
+        Batch(Long accountId) {
+            this.accountId = accountId;
+        }
+
+        void addStored(SavedItem savedItem) {
+            savedItems.put(savedItem.getId(), savedItem);
+            locations.putIfAbsent(key(savedItem.getItemId(), savedItem.getWarehouseId()), savedItem);
+        }
+
+        void apply(int index, ItemTransactionBatchLineDto line, User worker) {
+            if (line.getType() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new ItemValidateInputException("Type and a positive quantity are required");
+            }
+            final Item item = items.get(line.getItemId());
+            if (item == null || !item.isActive() || item.getVolume() <= 0) {
+                throw new ItemValidateInputException("Item not found {item_id = " + line.getItemId() + "}");
+            }
+            final Transaction transaction = transactionDao.create(line, worker, line.getAssociateId(), line.getType());
+            final Applied result = switch (line.getType()) {
+                case IN -> applyIn(line, item);
+                case MOVE -> applyMove(line, item, transaction);
+                case OUT -> applyOut(line, item, transaction);
+            };
+            result.transaction = transaction;
+            applied.put(index, result);
+        }
+
+        private Applied applyIn(ItemTransactionBatchLineDto line, Item item) {
+            checkAssociate(line.getAssociateId(), AssociateType.CLIENT);
+            final Long warehouseId = line.getDestinationWarehouseId();
+            final long volume = line.getQuantity() * item.getVolume();
+            checkCapacity(warehouseId, volume);
+            SavedItem savedItem = locations.get(key(item.getId(), warehouseId));
+            if (savedItem == null) {
+                savedItem = new SavedItem(item.getId(), 0, warehouseId);
+                locations.put(key(item.getId(), warehouseId), savedItem);
+            }
+            final int before = savedItem.getQuantity();
+            savedItem.setQuantity(Math.toIntExact(before + line.getQuantity()));
+            addVolume(warehouseId, volume);
+            return touch(savedItem, before);
+        }
+
+        private Applied applyMove(ItemTransactionBatchLineDto line, Item item, Transaction transaction) {
+            final SavedItem savedItem = findSavedItem(line, item);
+            final Long warehouseId = line.getDestinationWarehouseId();
+            if (warehouseId == null || warehouseId.equals(savedItem.getWarehouseId())) {
+                throw new ItemValidateInputException("Destination warehouse must differ from the source one " +
+                    "{warehouse_id = " + warehouseId + "}");
+            }
+            final SavedItem target = locations.get(key(item.getId(), warehouseId));
+            // every check runs before the volume moves, so a failed line leaves the free space untouched
+            if (target != null && reserved(savedItem) > 0) {
+                throw new ItemNotEnoughQuantityException("Saved item is reserved {id = " + savedItem.getId() + "}");
+            }
+            // the whole saved item changes warehouse, as in a single move
+            final long volume = (long) savedItem.getQuantity() * item.getVolume();
+            checkCapacity(warehouseId, volume);
+            addVolume(savedItem.getWarehouseId(), -volume);
+            addVolume(warehouseId, volume);
+            transaction.setMovedFrom(savedItem.getWarehouseId());
+            transaction.setQuantity((long) savedItem.getQuantity());
+            if (target != null) {
+                // there is one saved item per item and warehouse, so the quantity joins the one already there
+                final int moved = savedItem.getQuantity();
+                savedItem.setQuantity(0);
+                touch(savedItem, moved);
+                final int before = target.getQuantity();
+                target.setQuantity(before + moved);
+                return touch(target, before);
+            }
+            locations.remove(key(item.getId(), savedItem.getWarehouseId()), savedItem);
+            savedItem.setWarehouseId(warehouseId);
+            locations.put(key(item.getId(), warehouseId), savedItem);
+            return touch(savedItem, savedItem.getQuantity());
+        }
+
+        private Applied applyOut(ItemTransactionBatchLineDto line, Item item, Transaction transaction) {
+            checkAssociate(line.getAssociateId(), AssociateType.SUPPLIER);
+            final SavedItem savedItem = findSavedItem(line, item);
+            if (savedItem.getQuantity() - reserved(savedItem) < line.getQuantity()) {
+                throw new ItemNotEnoughQuantityException("Not enough quantity of item in warehouse " +
+                    "{warehouse_id = " + savedItem.getWarehouseId() + ", quantity = " + line.getQuantity() + "}");
+            }
+            final int before = savedItem.getQuantity();
+            savedItem.setQuantity(Math.toIntExact(before - line.getQuantity()));
+            addVolume(savedItem.getWarehouseId(), -line.getQuantity() * item.getVolume());
+            transaction.setMovedFrom(savedItem.getWarehouseId());
+            return touch(savedItem, before);
+        }
+
+        private SavedItem findSavedItem(ItemTransactionBatchLineDto line, Item item) {
+            final SavedItem savedItem = savedItems.get(line.getSavedItemId());
+            if (savedItem == null || !savedItem.getItemId().equals(item.getId()) || savedItem.getQuantity() == 0) {
+                throw new ItemValidateInputException("Saved item not found {id = " + line.getSavedItemId() +
+                    ", item_id = " + item.getId() + "}");
+            }
+            return savedItem;
+        }
+
+        private int reserved(SavedItem savedItem) {
+            return savedItem.getId() == null ? 0 : reservationLedger.findReserved(accountId, savedItem.getId());
+        }
+
+        private void checkAssociate(Long associateId, AssociateType forbiddenType) {
+            final Associate associate = associates.get(associateId);
+            if (associate == null || associate.getType() == forbiddenType) {
+                throw new ItemValidateInputException("Associate not found {id = " + associateId + "}");
+            }
+        }
+
+        private void checkCapacity(Long warehouseId, long volume) {
+            final Long free = freeSpace.get(warehouseId);
+            if (free == null) {
+                throw new ItemValidateInputException("Bottom level warehouse not found {warehouse_id = " +
+                    warehouseId + ", account_id = " + accountId + "}");
+            }
+            if (free < volume) {
+                throw new ItemNotEnoughCapacityInWarehouseException("Not enough capacity in warehouse " +
+                    "{warehouse_id = " + warehouseId + "}");
+            }
+        }
+
+        private void addVolume(Long warehouseId, long volume) {
+            freeSpace.merge(warehouseId, -volume, Long::sum);
+            usedVolume.merge(warehouseId, volume, Long::sum);
+        }
+
+        private Applied touch(SavedItem savedItem, int quantityBefore) {
+            if (touchedSet.add(savedItem)) {
+                touched.add(savedItem);
+            }
+            return new Applied(savedItem, quantityBefore, savedItem.getQuantity());
+        }
+    }
+
+    private static class Applied {
+        private final SavedItem savedItem;
+        private final int quantityBefore;
+        private final int quantityAfter;
+        private Transaction transaction;
+
+        Applied(SavedItem savedItem, int quantityBefore, int quantityAfter) {
+            this.savedItem = savedItem;
+            this.quantityBefore = quantityBefore;
+            this.quantityAfter = quantityAfter;
+        }
+    }
+}
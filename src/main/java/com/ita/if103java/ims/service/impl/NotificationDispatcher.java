@@ -0,0 +1,211 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.NotificationBatchDto;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.mapper.dto.EventDtoMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends notification events to the account topics in batches: events of an account collected within
+ * {@code events.notifications.window} ms are sent in frames of at most {@code events.notifications.maxBatch}
+ * events, as many frames as it takes. Events are only queued for accounts with a subscribed session, and an
+ * account's queue goes away with its last session. A queue holds at most {@code events.notifications.maxPending}
+ * unsent events, the bound for subscribers that fall behind; the oldest ones beyond it are dropped and reported
+ * as a count in the next frame, so a burst of events costs each subscriber a few frames instead of one per event.
+ * The send rate and queue depth of each topic are logged every {@code events.notifications.statsDelay} ms.
+ */
+@Component
+public class NotificationDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Value("${events.notifications.window}")
+    private long window;
+    @Value("${events.notifications.maxBatch}")
+    private int maxBatch;
+    @Value("${events.notifications.maxPending}")
+    private int maxPending;
+    @Value("${websocket.topic.events}")
+    private String eventTopic;
+    private SimpMessagingTemplate simpMessagingTemplate;
+    private EventDtoMapper eventDtoMapper;
+
+    private final Map<Long, PendingNotifications> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionAccounts = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> accountSessions = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> sent = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+    private long lastStatsAt = System.nanoTime();
+
+    @Autowired
+    public NotificationDispatcher(SimpMessagingTemplate simpMessagingTemplate, EventDtoMapper eventDtoMapper) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.eventDtoMapper = eventDtoMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "NotificationDispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || !destination.startsWith(eventTopic)) {
+            return;
+        }
+        try {
+            Long accountId = Long.valueOf(destination.substring(eventTopic.length()));
+            subscribe(headers.getSessionId(), accountId);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring subscription to {}", destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    public void subscribe(String sessionId, Long accountId) {
+        sessionAccounts.put(sessionId, accountId);
+        accountSessions.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+    }
+
+    public void disconnect(String sessionId) {
+        Long accountId = sessionAccounts.remove(sessionId);
+        if (accountId == null) {
+            return;
+        }
+        accountSessions.computeIfPresent(accountId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            if (!sessions.isEmpty()) {
+                return sessions;
+            }
+            // nobody listens to the account anymore, so its unsent events go too
+            pending.remove(id);
+            sent.remove(id);
+            return null;
+        });
+    }
+
+    public void dispatch(Event event) {
+        Long accountId = event.getAccountId();
+        if (accountSessions.containsKey(accountId)) {
+            pending.computeIfAbsent(accountId, id -> new PendingNotifications()).add(event, maxPending);
+        }
+    }
+
+    public void flush() {
+        for (Map.Entry<Long, PendingNotifications> entry : pending.entrySet()) {
+            String topic = eventTopic + entry.getKey();
+            for (NotificationBatchDto batch : entry.getValue().takeBatches(maxBatch)) {
+                try {
+                    simpMessagingTemplate.convertAndSend(topic, batch);
+                    sent.computeIfAbsent(entry.getKey(), id -> new LongAdder()).add(batch.getEvents().size());
+                } catch (MessagingException e) {
+                    LOGGER.warn("Failed to send {} notifications to {}", batch.getEvents().size(), topic, e);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Logs the events per second sent to each account topic since the previous call and the events queued
+     * for it, for the topics that have either.
+     */
+    @Scheduled(fixedDelayString = "${events.notifications.statsDelay}")
+    public synchronized void logStats() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - lastStatsAt)) / 1000.0;
+        lastStatsAt = now;
+        Set<Long> accountIds = new TreeSet<>(sent.keySet());
+        accountIds.addAll(pending.keySet());
+        for (Long accountId : accountIds) {
+            LongAdder sentEvents = sent.get(accountId);
+            long count = sentEvents == null ? 0 : sentEvents.sumThenReset();
+            int queueDepth = getQueueDepth(accountId);
+            if (count > 0 || queueDepth > 0) {
+                LOGGER.info("Notifications to {}{}: {} events/s sent, {} queued", eventTopic, accountId,
+                    String.format("%.1f", count / seconds), queueDepth);
+            }
+        }
+    }
+
+    public int getQueueDepth(Long accountId) {
+        PendingNotifications notifications = pending.get(accountId);
+        return notifications == null ? 0 : notifications.size();
+    }
+
+    private class PendingNotifications {
+        private final ArrayDeque<Event> events = new ArrayDeque<>();
+        private int dropped;
+
+        synchronized void add(Event event, int limit) {
+            if (events.size() >= limit) {
+                events.pollFirst();
+                dropped++;
+            }
+            events.addLast(event);
+        }
+
+        /**
+         * Takes every queued event, in frames of at most {@code limit} events; the first frame reports the drops.
+         */
+        synchronized List<NotificationBatchDto> takeBatches(int limit) {
+            List<NotificationBatchDto> batches = new ArrayList<>();
+            while (!events.isEmpty()) {
+                List<EventDto> batch = new ArrayList<>(Math.min(limit, events.size()));
+                while (batch.size() < limit && !events.isEmpty()) {
+                    batch.add(eventDtoMapper.toDto(events.pollFirst()));
+                }
+                batches.add(new NotificationBatchDto(batch, dropped));
+                dropped = 0;
+            }
+            return batches;
+        }
+
+        synchronized int size() {
+            return events.size();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.PlacementAssignmentDto;
+import com.ita.if103java.ims.dto.PlacementDto;
+import com.ita.if103java.ims.dto.PlacementLineDto;
+import com.ita.if103java.ims.dto.PlacementRequestDto;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseException;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ItemService;
+import com.ita.if103java.ims.service.PlacementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class PlacementServiceImpl implements PlacementService {
+    @Value("${items.placement.maxLines}")
+    private int maxLines;
+    private ItemDao itemDao;
+    private ItemService itemService;
+    private FreeSpaceIndex freeSpaceIndex;
+    private WarehouseTreeCache warehouseTreeCache;
+    private CapacityReservationManager capacityReservationManager;
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PlacementServiceImpl(ItemDao itemDao, ItemService itemService, FreeSpaceIndex freeSpaceIndex,
+                                WarehouseTreeCache warehouseTreeCache,
+                                CapacityReservationManager capacityReservationManager,
+                                TransactionTemplate transactionTemplate) {
+        this.itemDao = itemDao;
+        this.itemService = itemService;
+        this.freeSpaceIndex = freeSpaceIndex;
+        this.warehouseTreeCache = warehouseTreeCache;
+        this.capacityReservationManager = capacityReservationManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Spreads the lines over the bottom warehouses first-fit decreasing: the bulkiest items are placed first,
+     * each into the tightest bins that still take at least one unit. With {@code commit} every assignment is
+     * stored as an incoming saved item in one transaction, which is refused if any line is left unplaced.
+     * That transaction first reserves the capacity of every assigned warehouse in id order, so concurrent
+     * placements can't deadlock, and the capacity checks of the saved items read the final used volumes.
+     */
+    @Override
+    public PlacementDto place(PlacementRequestDto placementRequest, boolean commit, UserDetailsImpl user) {
+        Long accountId = user.getUser().getAccountId();
+        List<PlacementLineDto> lines = placementRequest.getLines();
+        if (lines == null || lines.isEmpty() || lines.size() > maxLines) {
+            throw new IllegalArgumentException("A shipment must have from 1 to " + maxLines + " lines");
+        }
+        Map<Long, Item> items = findItems(lines, accountId);
+        List<PlacementLineDto> sortedLines = lines.stream()
+            .sorted(Comparator.comparingInt((PlacementLineDto line) -> items.get(line.getItemId()).getVolume())
+                .reversed())
+            .collect(Collectors.toList());
+        int minVolume = items.values().stream().mapToInt(Item::getVolume).min().orElse(0);
+        Map<Long, Long> freeSpace = new LinkedHashMap<>(freeSpaceIndex.findFreeSpace(accountId, minVolume));
+
+        PlacementDto placement = new PlacementDto();
+        for (PlacementLineDto line : sortedLines) {
+            int volume = items.get(line.getItemId()).getVolume();
+            long remaining = line.getQuantity();
+            for (Map.Entry<Long, Long> bin : freeSpace.entrySet()) {
+                long quantity = Math.min(remaining, bin.getValue() / volume);
+                if (quantity > 0) {
+                    bin.setValue(bin.getValue() - quantity * volume);
+                    remaining -= quantity;
+                    placement.getAssignments().add(new PlacementAssignmentDto(line.getItemId(), bin.getKey(),
+                        warehouseTreeCache.findPath(bin.getKey(), accountId), quantity));
+                }
+                if (remaining == 0) {
+                    break;
+                }
+            }
+            if (remaining > 0) {
+                placement.getUnplaced().add(new PlacementLineDto(line.getItemId(), remaining));
+            }
+        }
+
+        if (commit) {
+            if (!placement.getUnplaced().isEmpty()) {
+                throw new ItemNotEnoughCapacityInWarehouseException("Can't place shipment because warehouses " +
+                    "don't have enough capacity {unplaced = " + placement.getUnplaced() + "}");
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                capacityReservationManager.reserve(placement.getAssignments().stream()
+                    .map(PlacementAssignmentDto::getWarehouseId)
+                    .collect(Collectors.toList()));
+                for (PlacementAssignmentDto assignment : placement.getAssignments()) {
+                    itemService.addSavedItem(toItemTransaction(assignment, placementRequest.getAssociateId()), user);
+                }
+            });
+            placement.setCommitted(true);
+        }
+        return placement;
+    }
+
+    private Map<Long, Item> findItems(List<PlacementLineDto> lines, Long accountId) {
+        for (PlacementLineDto line : lines) {
+            if (line.getItemId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new ItemValidateInputException("Failed to place shipment because of invalid line " + line);
+            }
+        }
+        String itemIds = lines.stream()
+            .map(line -> line.getItemId().toString())
+            .distinct()
+            .collect(Collectors.joining(","));
+        Map<Long, Item> items = itemDao.findItemsById(itemIds, accountId).stream()
+            .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (PlacementLineDto line : lines) {
+            Item item = items.get(line.getItemId());
+            if (item == null || item.getVolume() <= 0) {
+                throw new ItemValidateInputException("Failed to place shipment because of invalid item " +
+                    "{item_id = " + line.getItemId() + ", account_id = " + accountId + "}");
+            }
+        }
+        return items;
+    }
+
+    private ItemTransactionRequestDto toItemTransaction(PlacementAssignmentDto assignment, Long associateId) {
+        ItemTransactionRequestDto itemTransaction = new ItemTransactionRequestDto();
+        itemTransaction.setItemId(assignment.getItemId());
+        itemTransaction.setQuantity(assignment.getQuantity());
+        itemTransaction.setAssociateId(associateId);
+        itemTransaction.setDestinationWarehouseId(assignment.getWarehouseId());
+        return itemTransaction;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.dao.ReservationDao;
+import com.ita.if103java.ims.entity.Reservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Every {@code reservations.expiry.tick} ms takes the expired reservations out of the ledger,
+ * which makes their quantity available again, and deletes them.
+ */
+@Component
+public class ReservationExpirySweeper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReservationExpirySweeper.class);
+
+    @Value("${reservations.expiry.tick}")
+    private long tick;
+    private ReservationLedger reservationLedger;
+    private ReservationDao reservationDao;
+
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public ReservationExpirySweeper(ReservationLedger reservationLedger, ReservationDao reservationDao) {
+        this.reservationLedger = reservationLedger;
+        this.reservationDao = reservationDao;
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ReservationExpirySweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sweeper.shutdown();
+        sweeper.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public void sweep() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final List<Reservation> expired = reservationLedger.pollExpired(now);
+        if (expired.isEmpty()) {
+            return;
+        }
+        try {
+            reservationDao.deleteExpired(expired.stream().map(Reservation::getId).collect(Collectors.toList()), now);
+            LOGGER.debug("Expired {} reservations", expired.size());
+        } catch (RuntimeException e) {
+            // the rows are deleted anyway when their account is loaded again
+            LOGGER.warn("Failed to delete {} expired reservations", expired.size(), e);
+        }
+    }
+}
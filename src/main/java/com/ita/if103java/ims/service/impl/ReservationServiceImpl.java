@@ -0,0 +1,179 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.ReservationDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dto.AvailableStockDto;
+import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.ReservationDto;
+import com.ita.if103java.ims.dto.ReservationRequestDto;
+import com.ita.if103java.ims.dto.SavedItemDto;
+import com.ita.if103java.ims.entity.Reservation;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.exception.dao.ItemNotFoundException;
+import com.ita.if103java.ims.exception.dao.ReservationNotFoundException;
+import com.ita.if103java.ims.exception.dao.SavedItemNotFoundException;
+import com.ita.if103java.ims.exception.service.ItemNotEnoughQuantityException;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.mapper.dto.ReservationDtoMapper;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ItemService;
+import com.ita.if103java.ims.service.ReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class ReservationServiceImpl implements ReservationService {
+    @Value("${reservations.defaultTtl}")
+    private long defaultTtl;
+    @Value("${reservations.maxTtl}")
+    private long maxTtl;
+    private ItemDao itemDao;
+    private SavedItemDao savedItemDao;
+    private ReservationDao reservationDao;
+    private ReservationLedger reservationLedger;
+    private ReservationDtoMapper reservationDtoMapper;
+    private ItemService itemService;
+
+    @Autowired
+    public ReservationServiceImpl(ItemDao itemDao, SavedItemDao savedItemDao, ReservationDao reservationDao,
+                                  ReservationLedger reservationLedger, ReservationDtoMapper reservationDtoMapper,
+                                  ItemService itemService) {
+        this.itemDao = itemDao;
+        this.savedItemDao = savedItemDao;
+        this.reservationDao = reservationDao;
+        this.reservationLedger = reservationLedger;
+        this.reservationDtoMapper = reservationDtoMapper;
+        this.itemService = itemService;
+    }
+
+    /**
+     * Reserves in the given saved item, or else across the saved items of the item, taking the ones with
+     * the most available quantity first so an order is split over as few warehouses as possible.
+     */
+    @Transactional
+    @Override
+    public List<ReservationDto> reserve(ReservationRequestDto reservationRequest, UserDetailsImpl user) {
+        final Long accountId = user.getUser().getAccountId();
+        final Long itemId = reservationRequest.getItemId();
+        validateItemExists(itemId, accountId);
+        final long ttl = reservationRequest.getTtlMinutes() == null ? defaultTtl : reservationRequest.getTtlMinutes();
+        if (ttl > maxTtl) {
+            throw new ItemValidateInputException("A reservation can be held for at most " + maxTtl + " minutes");
+        }
+
+        // the saved items stay locked until commit, so an OUT or MOVE of them waits for the reservation
+        // to reach the ledger and one running already has taken its quantity before they are read here
+        final List<SavedItem> savedItems = new ArrayList<>();
+        if (reservationRequest.getSavedItemId() == null) {
+            savedItems.addAll(savedItemDao.findSavedItemsByItemIds(List.of(itemId)));
+        } else {
+            final SavedItem savedItem = savedItemDao.findSavedItemByIdForUpdate(reservationRequest.getSavedItemId());
+            if (!itemId.equals(savedItem.getItemId())) {
+                throw new SavedItemNotFoundException("Saved item not found {id = " + savedItem.getId() +
+                    ", item_id = " + itemId + "}");
+            }
+            savedItems.add(savedItem);
+        }
+        savedItems.sort(Comparator.comparingInt((SavedItem savedItem) -> available(savedItem, accountId)).reversed());
+
+        final ZonedDateTime now = ZonedDateTime.now();
+        final List<Reservation> reservations = new ArrayList<>();
+        int remaining = reservationRequest.getQuantity();
+        for (SavedItem savedItem : savedItems) {
+            final int quantity = Math.min(remaining, available(savedItem, accountId));
+            if (quantity <= 0) {
+                break;
+            }
+            final Reservation reservation = reservationDao.create(new Reservation(accountId, itemId,
+                savedItem.getId(), quantity, reservationRequest.getReference(), user.getUser().getId(), now,
+                now.plusMinutes(ttl)));
+            if (!reservationLedger.reserve(reservation, savedItem.getQuantity())) {
+                throw notEnoughQuantity(reservationRequest);
+            }
+            reservations.add(reservation);
+            remaining -= quantity;
+        }
+        if (remaining > 0) {
+            throw notEnoughQuantity(reservationRequest);
+        }
+        return reservationDtoMapper.toDtoList(reservations);
+    }
+
+    @Override
+    public List<ReservationDto> findAll(UserDetailsImpl user) {
+        return reservationDtoMapper.toDtoList(reservationLedger.findAll(user.getUser().getAccountId()));
+    }
+
+    @Override
+    public List<AvailableStockDto> findAvailable(Long itemId, UserDetailsImpl user) {
+        final Long accountId = user.getUser().getAccountId();
+        validateItemExists(itemId, accountId);
+        return savedItemDao.findSavedItemByItemId(itemId).stream()
+            .map(savedItem -> {
+                final int reserved = reservationLedger.findReserved(accountId, savedItem.getId());
+                return new AvailableStockDto(savedItem.getId(), savedItem.getWarehouseId(), savedItem.getQuantity(),
+                    reserved, Math.max(savedItem.getQuantity() - reserved, 0));
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Ships the reserved quantity as an OUT transaction to the given client.
+     */
+    @Transactional
+    @Override
+    public SavedItemDto convert(Long id, Long associateId, UserDetailsImpl user) {
+        final Long accountId = user.getUser().getAccountId();
+        final Reservation reservation = take(id, accountId);
+        final ItemTransactionRequestDto itemTransaction = new ItemTransactionRequestDto();
+        itemTransaction.setItemId(reservation.getItemId());
+        itemTransaction.setSavedItemId(reservation.getSavedItemId());
+        itemTransaction.setQuantity((long) reservation.getQuantity());
+        itemTransaction.setAssociateId(associateId);
+        itemTransaction.setSourceWarehouseId(savedItemDao.findSavedItemById(reservation.getSavedItemId())
+            .getWarehouseId());
+        return itemService.outcomeItem(itemTransaction, user);
+    }
+
+    @Transactional
+    @Override
+    public boolean cancel(Long id, UserDetailsImpl user) {
+        take(id, user.getUser().getAccountId());
+        return true;
+    }
+
+    private Reservation take(Long id, Long accountId) {
+        final Reservation reservation = reservationLedger.findById(accountId, id)
+            .orElseThrow(() -> new ReservationNotFoundException("Reservation not found {id = " + id + "}"));
+        if (!reservationDao.delete(id, accountId)) {
+            throw new ReservationNotFoundException("Reservation not found {id = " + id + "}");
+        }
+        reservationLedger.remove(accountId, id);
+        return reservation;
+    }
+
+    private int available(SavedItem savedItem, Long accountId) {
+        return savedItem.getQuantity() - reservationLedger.findReserved(accountId, savedItem.getId());
+    }
+
+    private void validateItemExists(Long itemId, Long accountId) {
+        if (!itemDao.isExistItemById(itemId, accountId)) {
+            throw new ItemNotFoundException("Failed to get item during `select` {item_id = " + itemId + "}");
+        }
+    }
+
+    private static ItemNotEnoughQuantityException notEnoughQuantity(ReservationRequestDto reservationRequest) {
+        return new ItemNotEnoughQuantityException("Not enough available quantity to reserve {item_id = " +
+            reservationRequest.getItemId() + ", quantity = " + reservationRequest.getQuantity() + "}");
+    }
+}
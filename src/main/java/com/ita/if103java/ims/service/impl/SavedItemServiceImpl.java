@@ -2,14 +2,12 @@ package com.ita.if103java.ims.service.impl;
 
 import com.ita.if103java.ims.dao.AssociateDao;
 import com.ita.if103java.ims.dao.ItemDao;
-import com.ita.if103java.ims.dao.SavedItemDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
 import com.ita.if103java.ims.dto.ItemDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
 import com.ita.if103java.ims.entity.AssociateType;
-import com.ita.if103java.ims.entity.Item;
-import com.ita.if103java.ims.entity.SavedItem;
 import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.entity.Warehouse;
 import com.ita.if103java.ims.exception.BaseRuntimeException;
 import com.ita.if103java.ims.exception.service.SavedItemAddException;
 import com.ita.if103java.ims.exception.service.SavedItemMoveException;
@@ -20,23 +18,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Service
 public class SavedItemServiceImpl implements SavedItemService {
     @Value("${items.maxWarehouseLoad}")
     private String maxWarehouseLoad;
     private ItemDao itemDao;
-    private SavedItemDao savedItemDao;
     private WarehouseDao warehouseDao;
     private AssociateDao associateDao;
 
     @Autowired
-    public SavedItemServiceImpl(ItemDao itemDao, SavedItemDao savedItemDao, WarehouseDao warehouseDao,
-        AssociateDao associateDao) {
+    public SavedItemServiceImpl(ItemDao itemDao, WarehouseDao warehouseDao, AssociateDao associateDao) {
         this.itemDao = itemDao;
-        this.savedItemDao = savedItemDao;
         this.warehouseDao = warehouseDao;
         this.associateDao = associateDao;
     }
@@ -85,37 +77,23 @@ public class SavedItemServiceImpl implements SavedItemService {
     @Override
     public boolean isEnoughCapacityInWarehouse(ItemTransactionRequestDto itemTransaction, ItemDto itemDto,
         Long accountId) {
-        float volume =
-            toVolumeOfPassSavedItems(itemTransaction.getDestinationWarehouseId(), accountId) +
-                itemTransaction.getQuantity() * itemDto.getVolume();
-        return warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId).getCapacity() >= volume;
+        Warehouse warehouse = warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId);
+        float volume = warehouse.getUsedVolume() + itemTransaction.getQuantity() * itemDto.getVolume();
+        return warehouse.getCapacity() >= volume;
     }
 
     @Override
     public float toVolumeOfPassSavedItems(Long warehouseId, Long accountId) {
-        float volumePassSavedItems = 0;
-        if (savedItemDao.existSavedItemByWarehouseId(warehouseId)) {
-            List<SavedItem> savedItem = savedItemDao.findSavedItemByWarehouseId(warehouseId);
-            if (savedItem.isEmpty()) {
-                return 0;
-            }
-            String itemIds = savedItem.stream().map(x -> x.getItemId().toString()).collect(Collectors.joining(","));
-            List<Item> item = itemDao.findItemsById(itemIds, accountId);
-            for (int i = 0; i < savedItem.size(); i++) {
-                volumePassSavedItems += savedItem.get(i).getQuantity() * item.get(i).getVolume();
-            }
-        }
-        return volumePassSavedItems;
+        return warehouseDao.findById(warehouseId, accountId).getUsedVolume();
     }
 
     @Override
     public boolean isLowSpaceInWarehouse(ItemTransactionRequestDto itemTransaction, Long accountId) {
-        float volume = toVolumeOfPassSavedItems(itemTransaction.getDestinationWarehouseId(), accountId);
-        if (volume == 0) {
+        Warehouse warehouse = warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId);
+        if (warehouse.getUsedVolume() == 0) {
             return true;
         } else {
-            return getCurrentWarehouseLoadPercentege(itemTransaction, volume, accountId) >
-                Float.parseFloat(maxWarehouseLoad);
+            return getCurrentWarehouseLoadPercentege(warehouse) > Float.parseFloat(maxWarehouseLoad);
         }
 
     }
@@ -131,9 +109,7 @@ public class SavedItemServiceImpl implements SavedItemService {
         return itemDto.getVolume() <= 0;
     }
 
-    private float getCurrentWarehouseLoadPercentege(ItemTransactionRequestDto itemTransaction, float volume,
-        Long accountId){
-        return volume * 100 /
-            warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId).getCapacity();
+    private float getCurrentWarehouseLoadPercentege(Warehouse warehouse){
+        return (float) warehouse.getUsedVolume() * 100 / warehouse.getCapacity();
     }
 }
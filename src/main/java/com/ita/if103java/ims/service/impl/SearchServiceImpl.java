@@ -0,0 +1,31 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.dto.SearchFilterDto;
+import com.ita.if103java.ims.dto.SearchHitDto;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SearchServiceImpl implements SearchService {
+    private TextSearchIndex textSearchIndex;
+
+    @Autowired
+    public SearchServiceImpl(TextSearchIndex textSearchIndex) {
+        this.textSearchIndex = textSearchIndex;
+    }
+
+    @Override
+    public Page<SearchHitDto> search(SearchFilterDto filter, Pageable pageable, UserDetailsImpl user) {
+        return textSearchIndex.search(user.getUser().getAccountId(), filter, pageable);
+    }
+
+    @Override
+    public void rebuild(UserDetailsImpl user) {
+        textSearchIndex.rebuild(user.getUser().getAccountId());
+    }
+}
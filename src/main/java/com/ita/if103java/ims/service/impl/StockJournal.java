@@ -0,0 +1,289 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.dao.JournalCheckpointDao;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.StockJournalReceiptDto;
+import com.ita.if103java.ims.entity.StockJournalEntry;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.exception.service.StockJournalException;
+import com.ita.if103java.ims.exception.service.StockJournalFullException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.StockJournalService;
+import com.ita.if103java.ims.util.JournalFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaled write mode for stock transactions, on when {@code items.journal.enabled}. Validated lines are
+ * appended to a memory-mapped journal file and acknowledged once a flush has made them durable; flushes run
+ * every {@code items.journal.flushInterval} ms, one for all the entries appended meanwhile.
+ * {@link StockJournalApplier} applies the flushed entries to the database and checkpoints them there, and on
+ * startup the entries after the checkpoint of {@code items.journal.node} are read back from the file.
+ * The journal takes two segment files, {@code items.journal.path} with the suffixes .0 and .1; when the
+ * active one is full, the entries not applied yet are copied into the other one and appends go on there.
+ */
+@Component
+public class StockJournal implements StockJournalService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockJournal.class);
+
+    @Value("${items.journal.enabled}")
+    private boolean enabled;
+    @Value("${items.journal.node}")
+    private String node;
+    @Value("${items.journal.path}")
+    private String path;
+    @Value("${items.journal.size}")
+    private int size;
+    @Value("${items.journal.flushInterval}")
+    private long flushInterval;
+    @Value("${items.batch.maxLines}")
+    private int maxLines;
+    private JournalCheckpointDao journalCheckpointDao;
+    private ObjectMapper objectMapper;
+
+    private final JournalFile[] segments = new JournalFile[2];
+    private int active;
+    private long segmentSequence;
+    private final Deque<StockJournalEntry> pending = new ArrayDeque<>();
+    private List<CompletableFuture<Void>> unflushed = new ArrayList<>();
+    private long lastSequence;
+    private long flushedSequence;
+    private long appliedSequence;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public StockJournal(JournalCheckpointDao journalCheckpointDao, ObjectMapper objectMapper) {
+        this.journalCheckpointDao = journalCheckpointDao;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        final List<List<JournalFile.Record>> recovered = new ArrayList<>();
+        final long[] segmentSequences = new long[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new JournalFile(Path.of(path + "." + i), size);
+            recovered.add(segments[i].recover());
+            final List<JournalFile.Record> records = recovered.get(i);
+            segmentSequences[i] = records.isEmpty() ? 0 : records.get(records.size() - 1).getSequence();
+        }
+        // the segment with the latest record holds every entry not applied yet, see rotate()
+        active = segmentSequences[1] > segmentSequences[0] ? 1 : 0;
+        segments[1 - active].reset();
+        appliedSequence = journalCheckpointDao.findAppliedSequence(node);
+        lastSequence = Math.max(appliedSequence, segmentSequences[active]);
+        segmentSequence = recovered.get(active).isEmpty() ? lastSequence + 1 :
+            recovered.get(active).get(0).getSequence();
+        for (JournalFile.Record record : recovered.get(active)) {
+            if (record.getSequence() > appliedSequence) {
+                pending.add(objectMapper.readValue(record.getPayload(), StockJournalEntry.class));
+            }
+        }
+        flushedSequence = lastSequence;
+        if (!pending.isEmpty()) {
+            LOGGER.info("Recovered {} stock journal entries after sequence {}", pending.size(), appliedSequence);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StockJournalFlusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+        for (JournalFile segment : segments) {
+            segment.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    @Override
+    public StockJournalReceiptDto append(List<ItemTransactionBatchLineDto> lines, UserDetailsImpl user) {
+        if (!enabled) {
+            throw new StockJournalException("Journaled stock writes are disabled");
+        }
+        validate(lines);
+        final CompletableFuture<Void> flushed = new CompletableFuture<>();
+        final long sequence;
+        synchronized (this) {
+            sequence = lastSequence + 1;
+            final StockJournalEntry entry = new StockJournalEntry(sequence, user.getUser().getAccountId(),
+                user.getUser().getId(), lines);
+            final byte[] payload = write(entry);
+            if (!segments[active].append(sequence, payload) &&
+                !(segmentSequence <= appliedSequence && rotate() && segments[active].append(sequence, payload))) {
+                throw new StockJournalFullException("Stock journal is full, " + pending.size() + " entries wait to " +
+                    "be applied");
+            }
+            lastSequence = sequence;
+            pending.add(entry);
+            unflushed.add(flushed);
+        }
+        try {
+            flushed.join();
+        } catch (CompletionException e) {
+            throw new StockJournalException("Failed to flush the stock journal", e.getCause());
+        }
+        return new StockJournalReceiptDto(sequence, getAppliedSequence());
+    }
+
+    @Override
+    public synchronized StockJournalReceiptDto getStatus() {
+        return new StockJournalReceiptDto(lastSequence, appliedSequence);
+    }
+
+    public synchronized long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Returns the flushed entries to apply next: the oldest one and those after it from the same worker,
+     * up to {@code maxLines} lines together.
+     */
+    public synchronized List<StockJournalEntry> next(int maxLines) {
+        final List<StockJournalEntry> entries = new ArrayList<>();
+        int lines = 0;
+        for (StockJournalEntry entry : pending) {
+            if (entry.getSequence() > flushedSequence || !entries.isEmpty() &&
+                (!entry.getWorkerId().equals(entries.get(0).getWorkerId()) ||
+                    !entry.getAccountId().equals(entries.get(0).getAccountId()) ||
+                    lines + entry.getLines().size() > maxLines)) {
+                break;
+            }
+            entries.add(entry);
+            lines += entry.getLines().size();
+        }
+        return entries;
+    }
+
+    /**
+     * Drops the entries up to {@code sequence}, checkpointed in the database by now.
+     */
+    public synchronized void markApplied(long sequence) {
+        while (!pending.isEmpty() && pending.peekFirst().getSequence() <= sequence) {
+            pending.pollFirst();
+        }
+        appliedSequence = Math.max(appliedSequence, sequence);
+        // everything appended is applied, so the file starts over; its records are all behind the checkpoint
+        if (pending.isEmpty() && !segments[active].isEmpty()) {
+            segments[active].reset();
+            segmentSequence = lastSequence + 1;
+        }
+    }
+
+    /**
+     * Copies the entries not applied yet into the other segment and goes on appending there, once the active
+     * one is full and holds applied entries. The copy is forced before the active segment is dropped, so a
+     * crash meanwhile still recovers them from the latter. Returns false, keeping the active segment, when
+     * they do not fit into a segment by themselves.
+     */
+    private boolean rotate() {
+        final JournalFile next = segments[1 - active];
+        next.reset();
+        for (StockJournalEntry entry : pending) {
+            if (!next.append(entry.getSequence(), write(entry))) {
+                next.reset();
+                return false;
+            }
+        }
+        next.force();
+        segments[active].reset();
+        active = 1 - active;
+        segmentSequence = pending.isEmpty() ? lastSequence + 1 : pending.peekFirst().getSequence();
+        LOGGER.debug("Rotated the stock journal with {} entries after sequence {}", pending.size(), appliedSequence);
+        return true;
+    }
+
+    void flush() {
+        final List<CompletableFuture<Void>> flushing;
+        final long sequence;
+        final JournalFile segment;
+        synchronized (this) {
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            flushing = unflushed;
+            unflushed = new ArrayList<>();
+            sequence = lastSequence;
+            segment = segments[active];
+        }
+        // forcing the mapping does not need the lock, appends go on meanwhile; entries a rotation moved to the
+        // other segment since were forced there by it
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to flush the stock journal", e);
+            flushing.forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        synchronized (this) {
+            flushedSequence = Math.max(flushedSequence, sequence);
+        }
+        flushing.forEach(future -> future.complete(null));
+    }
+
+    private void validate(List<ItemTransactionBatchLineDto> lines) {
+        if (lines == null || lines.isEmpty() || lines.size() > maxLines) {
+            throw new ItemValidateInputException("A batch must have from 1 to " + maxLines + " lines");
+        }
+        for (ItemTransactionBatchLineDto line : lines) {
+            if (line.getType() == null || line.getItemId() == null || line.getQuantity() == null ||
+                line.getQuantity() <= 0) {
+                throw new ItemValidateInputException("Type, item and a positive quantity are required");
+            }
+            final boolean isValid = switch (line.getType()) {
+                case IN -> line.getDestinationWarehouseId() != null && line.getAssociateId() != null;
+                case MOVE -> line.getSavedItemId() != null && line.getDestinationWarehouseId() != null;
+                case OUT -> line.getSavedItemId() != null && line.getAssociateId() != null;
+            };
+            if (!isValid) {
+                throw new ItemValidateInputException("Line misses the warehouse, saved item or associate of " +
+                    line.getType() + " {item_id = " + line.getItemId() + "}");
+            }
+        }
+    }
+
+    private byte[] write(StockJournalEntry entry) {
+        try {
+            return objectMapper.writeValueAsBytes(entry);
+        } catch (IOException e) {
+            throw new StockJournalException("Failed to write the stock journal entry", e);
+        }
+    }
+}
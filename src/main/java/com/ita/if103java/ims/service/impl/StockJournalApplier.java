@@ -0,0 +1,177 @@
+package com.ita.if103java.ims.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.dao.JournalCheckpointDao;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
+import com.ita.if103java.ims.entity.StockJournalEntry;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.service.CapacityReservationException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.ItemTransactionBatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Every {@code items.journal.applyInterval} ms applies the flushed stock journal entries through
+ * {@link ItemTransactionBatchService}, consecutive entries of a worker in one transaction of batch statements
+ * that also moves the checkpoint. Failed lines are reported as the batch reports them, with events. A group
+ * that fails as a whole is retried entry by entry, and an entry that fails on its own as well is moved to the
+ * journal_dead_letters table in the transaction that checkpoints it, so no acknowledged entry is dropped.
+ * Only transient failures, lock and connection timeouts, leave the entries to the next run.
+ */
+@Component
+public class StockJournalApplier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StockJournalApplier.class);
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    @Value("${items.journal.applyInterval}")
+    private long applyInterval;
+    @Value("${items.batch.maxLines}")
+    private int maxLines;
+    private StockJournal stockJournal;
+    private ItemTransactionBatchService itemTransactionBatchService;
+    private JournalCheckpointDao journalCheckpointDao;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+
+    private ScheduledExecutorService applier;
+
+    @Autowired
+    public StockJournalApplier(StockJournal stockJournal, ItemTransactionBatchService itemTransactionBatchService,
+                               JournalCheckpointDao journalCheckpointDao, TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper) {
+        this.stockJournal = stockJournal;
+        this.itemTransactionBatchService = itemTransactionBatchService;
+        this.journalCheckpointDao = journalCheckpointDao;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!stockJournal.isEnabled()) {
+            return;
+        }
+        applier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "StockJournalApplier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // recovered entries are applied right away
+        applier.scheduleWithFixedDelay(this::applyPending, 0, applyInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (applier != null) {
+            applier.shutdown();
+            applier.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public void applyPending() {
+        List<StockJournalEntry> entries = stockJournal.next(maxLines);
+        while (!entries.isEmpty() && apply(entries)) {
+            entries = stockJournal.next(maxLines);
+        }
+    }
+
+    private boolean apply(List<StockJournalEntry> entries) {
+        final StockJournalEntry first = entries.get(0);
+        final long sequence = entries.get(entries.size() - 1).getSequence();
+        final List<ItemTransactionBatchLineDto> lines = entries.stream()
+            .flatMap(entry -> entry.getLines().stream())
+            .collect(Collectors.toList());
+        try {
+            final List<ItemTransactionBatchResultDto> results = transactionTemplate.execute(status -> {
+                final List<ItemTransactionBatchResultDto> applied = itemTransactionBatchService.apply(lines,
+                    worker(first));
+                journalCheckpointDao.updateAppliedSequence(stockJournal.getNode(), sequence);
+                return applied;
+            });
+            results.stream()
+                .filter(result -> !result.isSuccess())
+                .forEach(result -> LOGGER.warn("Stock journal line failed {sequence <= {}, line = {}}: {}",
+                    sequence, result.getIndex(), result.getMessage()));
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                // the database is busy or down, the entries are applied on the next run
+                LOGGER.warn("Failed to apply stock journal entries {} - {}", first.getSequence(), sequence, e);
+                return false;
+            }
+            if (entries.size() == 1) {
+                return deadLetter(first, e);
+            }
+            LOGGER.warn("Retrying stock journal entries {} - {} one by one", first.getSequence(), sequence, e);
+            for (StockJournalEntry entry : entries) {
+                if (!apply(List.of(entry))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        stockJournal.markApplied(sequence);
+        return true;
+    }
+
+    private boolean deadLetter(StockJournalEntry entry, RuntimeException cause) {
+        LOGGER.error("Moving stock journal entry {} that can't be applied to the dead letters", entry.getSequence(),
+            cause);
+        final String error = String.valueOf(cause);
+        try {
+            final String serializedEntry = objectMapper.writeValueAsString(entry);
+            transactionTemplate.execute(status -> {
+                journalCheckpointDao.createDeadLetter(stockJournal.getNode(), entry, serializedEntry,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                journalCheckpointDao.updateAppliedSequence(stockJournal.getNode(), entry.getSequence());
+                return null;
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            // the checkpoint stays before the entry, which is tried again on the next run
+            LOGGER.warn("Failed to move stock journal entry {} to the dead letters", entry.getSequence(), e);
+            return false;
+        }
+        stockJournal.markApplied(entry.getSequence());
+        return true;
+    }
+
+    /**
+     * Tells the failures that go away by themselves, lock and connection timeouts, from those of the entries,
+     * looking through the CRUDException the DAOs wrap them into.
+     */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException ||
+                cause instanceof CannotGetJdbcConnectionException ||
+                cause instanceof CannotCreateTransactionException || cause instanceof CapacityReservationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static UserDetailsImpl worker(StockJournalEntry entry) {
+        final User user = new User();
+        user.setId(entry.getWorkerId());
+        user.setAccountId(entry.getAccountId());
+        return new UserDetailsImpl(user);
+    }
+}
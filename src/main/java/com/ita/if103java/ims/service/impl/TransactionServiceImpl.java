@@ -1,9 +1,15 @@
 package com.ita.if103java.ims.service.impl;
 
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
 import com.ita.if103java.ims.dao.TransactionDao;
+import com.ita.if103java.ims.dto.AccountDto;
 import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
+import com.ita.if103java.ims.dto.WarehouseDto;
 import com.ita.if103java.ims.entity.Transaction;
 import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
+import com.ita.if103java.ims.mapper.dto.WarehouseDtoMapper;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import com.ita.if103java.ims.service.AccountService;
 import com.ita.if103java.ims.service.AssociateService;
@@ -12,8 +18,13 @@ import com.ita.if103java.ims.service.TransactionService;
 import com.ita.if103java.ims.service.UserService;
 import com.ita.if103java.ims.service.WarehouseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class TransactionServiceImpl implements TransactionService {
     private TransactionDao transactionDao;
@@ -22,17 +33,22 @@ public class TransactionServiceImpl implements TransactionService {
     private ItemService itemService;
     private WarehouseService warehouseService;
     private AssociateService associateService;
+    private WarehouseTreeCache warehouseTreeCache;
+    private WarehouseDtoMapper warehouseDtoMapper;
 
     @Autowired
     public TransactionServiceImpl(TransactionDao transactionDao, AccountService accountService,
                                   UserService userService, ItemService itemService,
-                                  WarehouseService warehouseService, AssociateService associateService) {
+                                  WarehouseService warehouseService, AssociateService associateService,
+                                  WarehouseTreeCache warehouseTreeCache, WarehouseDtoMapper warehouseDtoMapper) {
         this.transactionDao = transactionDao;
         this.accountService = accountService;
         this.userService = userService;
         this.itemService = itemService;
         this.warehouseService = warehouseService;
         this.associateService = associateService;
+        this.warehouseTreeCache = warehouseTreeCache;
+        this.warehouseDtoMapper = warehouseDtoMapper;
     }
 
     @Override
@@ -46,6 +62,42 @@ public class TransactionServiceImpl implements TransactionService {
         };
     }
 
+    /**
+     * Workers, items and associates come joined in from the page query; the account is loaded once per page
+     * and the warehouses with their paths are resolved from the warehouse cache.
+     */
+    @Override
+    public Page<TransactionDto> findAll(TransactionFilterDto filter, Pageable pageable, UserDetailsImpl userDetails) {
+        final Long accountId = userDetails.getUser().getAccountId();
+        final Page<TransactionDto> page = transactionDao.findHistory(accountId, filter, pageable);
+        if (page.isEmpty()) {
+            return page;
+        }
+        final AccountDto account = accountService.view(accountId);
+        final Map<Long, WarehouseDto> warehouses = new HashMap<>();
+        for (TransactionDto transaction : page) {
+            transaction.setAccount(account);
+            transaction.setMovedFrom(resolveWarehouse(transaction.getMovedFrom(), accountId, warehouses));
+            transaction.setMovedTo(resolveWarehouse(transaction.getMovedTo(), accountId, warehouses));
+        }
+        return page;
+    }
+
+    private WarehouseDto resolveWarehouse(WarehouseDto warehouse, Long accountId, Map<Long, WarehouseDto> warehouses) {
+        if (warehouse == null) {
+            return null;
+        }
+        return warehouses.computeIfAbsent(warehouse.getId(), id -> {
+            try {
+                final WarehouseDto warehouseDto = warehouseDtoMapper.toDto(warehouseTreeCache.findById(id, accountId));
+                warehouseDto.setPath(warehouseTreeCache.findPath(id, accountId));
+                return warehouseDto;
+            } catch (WarehouseNotFoundException e) {
+                return warehouse;
+            }
+        });
+    }
+
     private TransactionDto buildIncomeTransactionDto(Transaction transaction, UserDetailsImpl userDetails) {
         return new TransactionDto(
             transaction.getId(),
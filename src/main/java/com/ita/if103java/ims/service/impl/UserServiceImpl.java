@@ -1,5 +1,6 @@
 package com.ita.if103java.ims.service.impl;
 
+import com.ita.if103java.ims.cache.TextSearchIndex;
 import com.ita.if103java.ims.dao.AccountDao;
 import com.ita.if103java.ims.dao.AccountTypeDao;
 import com.ita.if103java.ims.dao.AddressDao;
@@ -42,6 +43,7 @@ import static com.ita.if103java.ims.config.MailMessagesConfig.FOOTER;
 import static com.ita.if103java.ims.entity.EventName.PASSWORD_CHANGED;
 import static com.ita.if103java.ims.entity.EventName.PROFILE_CHANGED;
 import static com.ita.if103java.ims.util.TokenUtil.isValidToken;
+import static com.ita.if103java.ims.util.TransactionUtils.afterCommit;
 import static com.ita.if103java.ims.util.UserEventUtil.createEvent;
 
 @Service
@@ -67,6 +69,7 @@ public class UserServiceImpl implements UserService {
     private SavedItemDao savedItemDao;
     private ItemDao itemDao;
     private WarehouseDao warehouseDao;
+    private TextSearchIndex textSearchIndex;
 
 
     @Autowired
@@ -84,7 +87,8 @@ public class UserServiceImpl implements UserService {
                            AssociateDao associateDao,
                            SavedItemDao savedItemDao,
                            ItemDao itemDao,
-                           WarehouseDao warehouseDao) {
+                           WarehouseDao warehouseDao,
+                           TextSearchIndex textSearchIndex) {
 
         this.userDao = userDao;
         this.mapper = mapper;
@@ -102,6 +106,7 @@ public class UserServiceImpl implements UserService {
         this.savedItemDao = savedItemDao;
         this.itemDao = itemDao;
         this.warehouseDao = warehouseDao;
+        this.textSearchIndex = textSearchIndex;
     }
 
     @Override
@@ -176,6 +181,7 @@ public class UserServiceImpl implements UserService {
             itemDao.hardDelete(accountId);
             warehouseDao.hardDelete(accountId);
             userDao.hardDelete(accountId);
+            afterCommit(() -> textSearchIndex.evict(accountId));
             return accountDao.hardDelete(accountId);
         }
         return userDao.activate(id, accountId, false);
@@ -1,5 +1,11 @@
 package com.ita.if103java.ims.service.impl;
 
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
 import com.ita.if103java.ims.dao.AddressDao;
 import com.ita.if103java.ims.dao.SavedItemDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
@@ -9,6 +15,8 @@ import com.ita.if103java.ims.dto.UsefulWarehouseDto;
 import com.ita.if103java.ims.entity.Address;
 import com.ita.if103java.ims.entity.Event;
 import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.SearchDocumentType;
+import com.ita.if103java.ims.entity.SuggestionType;
 import com.ita.if103java.ims.entity.Warehouse;
 import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
 import com.ita.if103java.ims.exception.service.MaxWarehouseDepthLimitReachedException;
@@ -22,24 +30,20 @@ import com.ita.if103java.ims.mapper.dto.WarehouseDtoMapper;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import com.ita.if103java.ims.service.EventService;
 import com.ita.if103java.ims.service.WarehouseService;
-import com.ita.if103java.ims.service.SavedItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.Comparator;
+import java.util.Objects;
+
+import static com.ita.if103java.ims.util.TransactionUtils.afterCompletion;
 
 @Service
 public class WarehouseServiceImpl implements WarehouseService {
@@ -49,7 +53,12 @@ public class WarehouseServiceImpl implements WarehouseService {
     private AddressDtoMapper addressDtoMapper;
     private EventService eventService;
     private SavedItemDao savedItemDao;
-    private SavedItemService savedItemService;
+    private WarehouseTreeCache warehouseTreeCache;
+    private FreeSpaceIndex freeSpaceIndex;
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    private LowStockIndex lowStockIndex;
+    private AutocompleteIndex autocompleteIndex;
+    private TextSearchIndex textSearchIndex;
 
     @Autowired
     public WarehouseServiceImpl(WarehouseDao warehouseDao,
@@ -58,14 +67,23 @@ public class WarehouseServiceImpl implements WarehouseService {
                                 AddressDtoMapper addressDtoMapper,
                                 EventService eventService,
                                 SavedItemDao savedItemDao,
-                                SavedItemService savedItemService) {
+                                WarehouseTreeCache warehouseTreeCache,
+                                FreeSpaceIndex freeSpaceIndex,
+                                WarehouseLoadSnapshot warehouseLoadSnapshot,
+                                LowStockIndex lowStockIndex,
+                                AutocompleteIndex autocompleteIndex, TextSearchIndex textSearchIndex) {
         this.warehouseDao = warehouseDao;
         this.warehouseDtoMapper = warehouseDtoMapper;
         this.addressDao = addressDao;
         this.addressDtoMapper = addressDtoMapper;
         this.eventService = eventService;
         this.savedItemDao = savedItemDao;
-        this.savedItemService = savedItemService;
+        this.warehouseTreeCache = warehouseTreeCache;
+        this.freeSpaceIndex = freeSpaceIndex;
+        this.warehouseLoadSnapshot = warehouseLoadSnapshot;
+        this.lowStockIndex = lowStockIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.textSearchIndex = textSearchIndex;
     }
 
     @Override
@@ -92,7 +110,7 @@ public class WarehouseServiceImpl implements WarehouseService {
         }
 
         Integer maxWarehouseDepth = userDetails.getAccountType().getMaxWarehouseDepth();
-        int parentLevel = warehouseDao.findLevelByParentID(warehouseDto.getParentID());
+        int parentLevel = warehouseTreeCache.findLevel(warehouseDto.getParentID(), accountId);
         if (parentLevel + 1 < maxWarehouseDepth) {
             return createNewWarehouse(warehouseDto, userDetails);
         } else {
@@ -111,6 +129,12 @@ public class WarehouseServiceImpl implements WarehouseService {
         warehouseDto.setAccountID(user.getUser().getAccountId());
         warehouseDto.setActive(true);
         Warehouse warehouse = warehouseDao.create(warehouseDtoMapper.toEntity(warehouseDto));
+        warehouseTreeCache.put(warehouse);
+        freeSpaceIndex.put(warehouse);
+        autocompleteIndex.put(warehouse.getAccountID(), SuggestionType.WAREHOUSE, warehouse.getId(),
+            warehouse.getName());
+        textSearchIndex.putWarehouse(warehouse);
+        evictAccountViews(warehouse.getAccountID());
 
         Address address = addressDtoMapper.toEntity(warehouseDto.getAddressDto());
         AddressDto addressDto = null;
@@ -120,7 +144,7 @@ public class WarehouseServiceImpl implements WarehouseService {
         }
         createEvent(user, warehouse, EventName.WAREHOUSE_CREATED);
 
-        populatePath(warehouse, user);
+        populatePath(warehouse);
         WarehouseDto createdWarehouseDto = warehouseDtoMapper.toDto(warehouse);
         createdWarehouseDto.setAddressDto(addressDto);
         return createdWarehouseDto;
@@ -131,9 +155,7 @@ public class WarehouseServiceImpl implements WarehouseService {
         Long accountId = user.getUser().getAccountId();
         Integer warehouseQuantity = warehouseDao.findQuantityOfWarehousesByAccountId(accountId);
         List<Warehouse> all = warehouseDao.findAllTopLevel(pageable, accountId);
-        Map<Long, Warehouse> groupedWarehouses = getGroupedWarehouses(pageable, user, all);
-
-        all.forEach(o -> findPath(o, groupedWarehouses));
+        all.forEach(this::populatePath);
         List<WarehouseDto> warehouses = new ArrayList<>();
         for (Warehouse warehouse : all) {
             WarehouseDto warehouseDto = warehouseDtoMapper.toDto(warehouse);
@@ -152,51 +174,26 @@ public class WarehouseServiceImpl implements WarehouseService {
         return warehouseDtoMapper.toDtoList(all);
     }
 
-    private Map<Long, Warehouse> getGroupedWarehouses(Pageable pageable, UserDetailsImpl user,
-                                                      List<Warehouse> all) {
-        Map<Long, Warehouse> groupedWarehouses = all.stream()
-            .collect(Collectors.toMap(Warehouse::getId, Function.identity()));
-        if (pageable.isPaged()) {
-            List<Warehouse> allUnpaged = warehouseDao.findAllTopLevel(PageRequest.of(0, Integer.MAX_VALUE),
-                user.getUser().getAccountId());
-            groupedWarehouses = allUnpaged.stream()
-                .collect(Collectors.toMap(Warehouse::getId, Function.identity()));
-        }
-        return groupedWarehouses;
-    }
-
     @Override
     public WarehouseDto findById(Long id, UserDetailsImpl user) {
         Warehouse warehouse = warehouseDao.findById(id, user.getUser().getAccountId());
+        populatePath(warehouse);
         WarehouseDto warehouseDto = warehouseDtoMapper.toDto(warehouse);
         if (warehouse.isTopLevel()) {
             AddressDto addressDto = addressDtoMapper.toDto(addressDao.findByWarehouseId(id));
             warehouseDto.setAddressDto(addressDto);
         }
-        populatePath(warehouse, user);
         return warehouseDto;
     }
 
-    private void populatePath(Warehouse warehouse, UserDetailsImpl user) {
-        Map<Long, Warehouse> groupedWarehouses = new HashMap<>();
-        if (!warehouse.isTopLevel()) {
-            List<Warehouse> warehousesInHierarchy = warehouseDao.findByTopWarehouseID(warehouse.getTopWarehouseID(),
-                user.getUser().getAccountId());
-            groupedWarehouses = warehousesInHierarchy.stream()
-                .collect(Collectors.toMap(Warehouse::getId, Function.identity()));
-        } else {
-            groupedWarehouses.put(warehouse.getId(), warehouse);
-        }
-        findPath(warehouse, groupedWarehouses);
+    private void populatePath(Warehouse warehouse) {
+        warehouse.setPath(warehouseTreeCache.findPath(warehouse.getId(), warehouse.getAccountID()));
     }
 
     @Override
     public List<WarehouseDto> findWarehousesByTopLevelId(Long topLevelId, UserDetailsImpl user) {
-        List<Warehouse> byTopWarehouseID = warehouseDao.findByTopWarehouseID(topLevelId, user.getUser().getAccountId());
-        Map<Long, Warehouse> groupedWarehouses = byTopWarehouseID.stream()
-            .collect(Collectors.toMap(Warehouse::getId, Function.identity()));
-        byTopWarehouseID.forEach(o -> findPath(o, groupedWarehouses));
-        return warehouseDtoMapper.toDtoList(byTopWarehouseID);
+        return warehouseDtoMapper.toDtoList(
+            warehouseTreeCache.findByTopWarehouseId(topLevelId, user.getUser().getAccountId()));
     }
 
     @Override
@@ -209,9 +206,11 @@ public class WarehouseServiceImpl implements WarehouseService {
         } else {
             updatedWarehouse.setActive(dBWarehouse.isActive());
         }
+        updatedWarehouse.setAccountID(dBWarehouse.getAccountID());
+        updatedWarehouse.setUsedVolume(dBWarehouse.getUsedVolume());
 
-        if (updatedWarehouse.getParentID().equals(dBWarehouse.getParentID())) {
-            updatedWarehouse.setParentID(dBWarehouse.getId());
+        if (Objects.equals(updatedWarehouse.getParentID(), dBWarehouse.getParentID())) {
+            updatedWarehouse.setParentID(dBWarehouse.getParentID());
             updatedWarehouse.setTopWarehouseID(dBWarehouse.getTopWarehouseID());
         } else {
             throw new WarehouseUpdateException("You can't change parent warehouse!");
@@ -229,7 +228,13 @@ public class WarehouseServiceImpl implements WarehouseService {
         }
         createEvent(user, updatedWarehouse, EventName.WAREHOUSE_EDITED);
         Warehouse editedWarehouse = warehouseDao.update(updatedWarehouse);
-        populatePath(editedWarehouse, user);
+        warehouseTreeCache.put(editedWarehouse);
+        freeSpaceIndex.put(editedWarehouse);
+        autocompleteIndex.rename(editedWarehouse.getAccountID(), SuggestionType.WAREHOUSE, editedWarehouse.getId(),
+            editedWarehouse.getName());
+        textSearchIndex.replaceWarehouse(editedWarehouse);
+        evictAccountViews(editedWarehouse.getAccountID());
+        populatePath(editedWarehouse);
         return warehouseDtoMapper.toDto(editedWarehouse);
     }
 
@@ -244,19 +249,31 @@ public class WarehouseServiceImpl implements WarehouseService {
         }
         boolean isDelete = warehouseDao.softDelete(id);
         if (isDelete) {
+            warehouseTreeCache.deactivate(id, user.getUser().getAccountId());
+            freeSpaceIndex.remove(id, user.getUser().getAccountId());
+            autocompleteIndex.remove(user.getUser().getAccountId(), SuggestionType.WAREHOUSE, id);
+            textSearchIndex.remove(user.getUser().getAccountId(), SearchDocumentType.WAREHOUSE, id);
+            evictAccountViews(user.getUser().getAccountId());
             createEvent(user, warehouse, EventName.WAREHOUSE_REMOVED);
         }
 
         return isDelete;
     }
 
+    private void evictAccountViews(Long accountId) {
+        afterCompletion(() -> {
+            warehouseLoadSnapshot.evict(accountId);
+            lowStockIndex.evict(accountId);
+        });
+    }
+
     private void createEvent(UserDetailsImpl user, Warehouse warehouse, EventName eventName) {
         Event event = new Event();
         int level = 0;
         StringBuilder message = new StringBuilder(eventName.getLabel());
 
         if (warehouse.getParentID() != null) {
-            level = warehouseDao.findLevelByParentID(warehouse.getParentID());
+            level = warehouseTreeCache.findLevel(warehouse.getParentID(), user.getUser().getAccountId());
         }
         message.append(" Name : ").append(warehouse.getName()).append(" level : ").append(level);
 
@@ -271,26 +288,6 @@ public class WarehouseServiceImpl implements WarehouseService {
         eventService.create(event);
     }
 
-    private List<String> findPath(Warehouse warehouse, Map<Long, Warehouse> groupedWarehouses) {
-        List<String> path = warehouse.getPath();
-        path.add(warehouse.getName());
-        if (warehouse.getParentID() != null) {
-
-            Warehouse parentWarehouse = groupedWarehouses.get(warehouse.getParentID());
-            List<String> parentPath;
-            if (!parentWarehouse.getPath().isEmpty()) {
-                parentPath = parentWarehouse.getPath();
-            } else {
-                parentPath = findPath(parentWarehouse, groupedWarehouses);
-            }
-            path.addAll(parentPath);
-        }
-        List<String> reversePath = new ArrayList<>(path);
-        Collections.reverse(reversePath);
-        warehouse.setPath(reversePath);
-        return path;
-    }
-
     @Override
     public Map<Long, String> findAllWarehouseNames(UserDetailsImpl user) {
         return warehouseDao.findAllWarehouseNames(user.getUser().getAccountId());
@@ -298,7 +295,7 @@ public class WarehouseServiceImpl implements WarehouseService {
 
     @Override
     public List<WarehouseDto> findChildrenById(Long id, UserDetailsImpl user) {
-        return warehouseDtoMapper.toDtoList(warehouseDao.findChildrenById(id, user.getUser().getAccountId()));
+        return warehouseDtoMapper.toDtoList(warehouseTreeCache.findChildren(id, user.getUser().getAccountId()));
     }
 
     public Integer findTotalCapacity(Long id, UserDetailsImpl user) {
@@ -310,19 +307,9 @@ public class WarehouseServiceImpl implements WarehouseService {
         try {
             Long accountId = user.getUser().getAccountId();
             List<UsefulWarehouseDto> usefulWarehouseDtos = new ArrayList<>();
-            List<Warehouse> warehouses = warehouseDao.findUsefulTopWarehouse(capacity, accountId);
-            String ids =  warehouses.stream().
-                map(x -> x.getTopWarehouseID().toString()).collect(Collectors.joining(","));
-            Map<Long, Map<Long, Warehouse>> groupedWarehouses = warehouseDao.findByTopWarehouseIDs(ids, accountId).stream().
-                collect(Collectors.groupingBy(Warehouse::getTopWarehouseID, Collectors.toMap(Warehouse::getId,
-                    Function.identity())));
-
-            for (Warehouse warehouse : warehouses) {
-                if (freeSpace(warehouse, accountId) >= capacity) {
-                     List<String> path = findPath(warehouse, groupedWarehouses.get(warehouse.getTopWarehouseID()));
-                    path.sort(Comparator.reverseOrder());
-                    usefulWarehouseDtos.add(new UsefulWarehouseDto(warehouse.getId(), path));
-                }
+            for (Long id : freeSpaceIndex.findFitting(accountId, capacity)) {
+                List<String> path = warehouseTreeCache.findPath(id, accountId);
+                usefulWarehouseDtos.add(new UsefulWarehouseDto(id, path));
             }
 
             return usefulWarehouseDtos;
@@ -330,8 +317,4 @@ public class WarehouseServiceImpl implements WarehouseService {
             throw new BottomLevelWarehouseException("Error during finding useful warehouses {capacity = " + capacity + "}");
         }
     }
-
-    private float freeSpace(Warehouse warehouse, Long accountId) {
-        return warehouse.getCapacity() - savedItemService.toVolumeOfPassSavedItems(warehouse.getId(), accountId);
-    }
 }
@@ -0,0 +1,76 @@
+package com.ita.if103java.ims.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV records: quoted fields may contain separators, line breaks and doubled quotes.
+ */
+public class CsvReader {
+    private final Reader reader;
+    private int next = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Returns the fields of the next record, or null at the end of the input.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field: " + field);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        field.append('"');
+                        read();
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = next == -2 ? reader.read() : next;
+        next = -2;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+}
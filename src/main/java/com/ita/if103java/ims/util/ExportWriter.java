@@ -0,0 +1,97 @@
+package com.ita.if103java.ims.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.entity.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes export records one at a time, either as CSV lines after a header line or as one JSON object per line.
+ */
+public abstract class ExportWriter implements Flushable {
+    protected final Writer writer;
+    protected final List<String> columns;
+
+    private ExportWriter(OutputStream out, List<String> columns) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.columns = columns;
+    }
+
+    public static ExportWriter of(ExportFormat format, OutputStream out, List<String> columns) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvWriter(out, columns);
+            case NDJSON -> new NdjsonWriter(out, columns);
+        };
+    }
+
+    /**
+     * Writes one record, its values in the order of the columns.
+     */
+    public abstract void write(List<?> values) throws IOException;
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static class CsvWriter extends ExportWriter {
+        CsvWriter(OutputStream out, List<String> columns) throws IOException {
+            super(out, columns);
+            write(columns);
+        }
+
+        @Override
+        public void write(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static class NdjsonWriter extends ExportWriter {
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        NdjsonWriter(OutputStream out, List<String> columns) {
+            super(out, columns);
+        }
+
+        @Override
+        public void write(List<?> values) throws IOException {
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                record.put(columns.get(i), values.get(i));
+            }
+            try {
+                writer.write(OBJECT_MAPPER.writeValueAsString(record));
+            } catch (JsonProcessingException e) {
+                throw new IOException("Failed to write export record " + values, e);
+            }
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ita.if103java.ims.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal in a memory-mapped file of a fixed size. A record is its payload length, sequence,
+ * payload checksum and payload, followed by a zero length that ends the journal until the next record is
+ * appended. Records are written to the mapping and become durable on {@link #force()}. Not thread safe.
+ */
+public class JournalFile implements Closeable {
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Long.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    public JournalFile(Path path, int size) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Reads the records from the start of the file up to the first torn or stale one, after which the next
+     * record is appended.
+     */
+    public List<Record> recover() {
+        final List<Record> records = new ArrayList<>();
+        int offset = 0;
+        long lastSequence = Long.MIN_VALUE;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            final int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            final long sequence = buffer.getLong(offset + Integer.BYTES);
+            final long checksum = buffer.getLong(offset + Integer.BYTES + Long.BYTES);
+            final byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_SIZE, payload);
+            // records left from before a reset have lower sequences
+            if (sequence <= lastSequence || checksum(payload) != checksum) {
+                break;
+            }
+            records.add(new Record(sequence, payload));
+            lastSequence = sequence;
+            offset += HEADER_SIZE + length;
+        }
+        position = offset;
+        return records;
+    }
+
+    /**
+     * Returns false, writing nothing, when the record does not fit into the rest of the file.
+     */
+    public boolean append(long sequence, byte[] payload) {
+        final int next = position + HEADER_SIZE + payload.length;
+        if (next + Integer.BYTES > buffer.capacity()) {
+            return false;
+        }
+        buffer.putInt(next, 0);
+        buffer.putLong(position + Integer.BYTES, sequence);
+        buffer.putLong(position + Integer.BYTES + Long.BYTES, checksum(payload));
+        buffer.put(position + HEADER_SIZE, payload);
+        // the length goes last, so a record is not readable before it is complete
+        buffer.putInt(position, payload.length);
+        position = next;
+        return true;
+    }
+
+    /**
+     * Starts appending from the start of the file again, dropping the records written so far.
+     */
+    public void reset() {
+        buffer.putInt(0, 0);
+        position = 0;
+    }
+
+    public boolean isEmpty() {
+        return position == 0;
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private static long checksum(byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    public static class Record {
+        private final long sequence;
+        private final byte[] payload;
+
+        Record(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ita.if103java.ims.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class TextUtils {
+    /**
+     * Lower-cases the trimmed text and strips its accents, so "Crème" and "creme" compare equal.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text.trim(), Normalizer.Form.NFKD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits the folded text into its runs of letters and digits.
+     */
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ita.if103java.ims.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timer wheel: an entry goes into one of {@code slots} buckets by the tick of its deadline, so scheduling
+ * and cancelling are constant time and advancing the wheel by one tick visits one bucket. Entries due more than
+ * a turn ahead stay in their bucket until the turn they are due. Not thread safe.
+ */
+public class TimerWheel<T> {
+    private final List<Set<Entry<T>>> buckets;
+    private final long tick;
+    private long nextTick;
+    private int size;
+
+    public TimerWheel(int slots, long tick, long now) {
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new LinkedHashSet<>());
+        }
+        this.tick = tick;
+        this.nextTick = now / tick;
+    }
+
+    /**
+     * Schedules the value and returns its entry, which {@link #cancel(Entry)} takes out of the wheel again.
+     */
+    public Entry<T> schedule(T value, long deadline) {
+        final long due = Math.max(-Math.floorDiv(-deadline, tick), nextTick);
+        final Entry<T> entry = new Entry<>(value, due);
+        bucket(due).add(entry);
+        size++;
+        return entry;
+    }
+
+    public void cancel(Entry<T> entry) {
+        if (bucket(entry.tick).remove(entry)) {
+            size--;
+        }
+    }
+
+    /**
+     * Takes the entries whose value matches out of the wheel, visiting every bucket, and returns their values.
+     */
+    public List<T> removeIf(Predicate<? super T> filter) {
+        final List<T> removed = new ArrayList<>();
+        for (Set<Entry<T>> bucket : buckets) {
+            final Iterator<Entry<T>> entries = bucket.iterator();
+            while (entries.hasNext()) {
+                final Entry<T> entry = entries.next();
+                if (filter.test(entry.value)) {
+                    removed.add(entry.value);
+                    entries.remove();
+                }
+            }
+        }
+        size -= removed.size();
+        return removed;
+    }
+
+    /**
+     * Returns the entries whose deadline is not after {@code now}.
+     */
+    public List<T> advance(long now) {
+        final long lastTick = Math.floorDiv(now, tick);
+        final List<T> due = new ArrayList<>();
+        // after a pause longer than a turn every bucket is visited once
+        for (long t = nextTick; t <= lastTick && t < nextTick + buckets.size(); t++) {
+            final Iterator<Entry<T>> entries = bucket(t).iterator();
+            while (entries.hasNext()) {
+                final Entry<T> entry = entries.next();
+                if (entry.tick <= lastTick) {
+                    due.add(entry.value);
+                    entries.remove();
+                }
+            }
+        }
+        size -= due.size();
+        nextTick = Math.max(nextTick, lastTick + 1);
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Set<Entry<T>> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+
+    public static class Entry<T> {
+        private final T value;
+        private final long tick;
+
+        private Entry(T value, long tick) {
+            this.value = value;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Composite indexes for the events feed. Every query is restricted to one account and ordered
+-- by (date, id), so these serve the range filters on date and the (date, id) cursor of
+-- EventDao.findFeed without a filesort, for the unfiltered feed and for the common filters.
+CREATE INDEX idx_events_account_date ON events (account_id, date, id);
+CREATE INDEX idx_events_account_name_date ON events (account_id, name, date, id);
+CREATE INDEX idx_events_account_author_date ON events (account_id, author_id, date, id);
+CREATE INDEX idx_events_account_warehouse_date ON events (account_id, warehouse_id, date, id);
@@ -0,0 +1,25 @@
+-- Monthly RANGE partitions of events on date. EventArchiveJob splits p_future into partitions
+-- pyyyyMM ahead of time and drops the old ones once their events are archived.
+-- Assumes events.date is DATETIME (TO_DAYS is not allowed on TIMESTAMP partitioning).
+
+-- InnoDB does not support foreign keys on partitioned tables
+SET @drop_foreign_keys = (
+    SELECT GROUP_CONCAT(CONCAT('DROP FOREIGN KEY ', constraint_name))
+    FROM information_schema.table_constraints
+    WHERE table_schema = DATABASE()
+    AND table_name = 'events'
+    AND constraint_type = 'FOREIGN KEY');
+SET @sql = IF(@drop_foreign_keys IS NULL, 'DO 0', CONCAT('ALTER TABLE events ', @drop_foreign_keys));
+PREPARE statement FROM @sql;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- every unique key must contain the partitioning column
+ALTER TABLE events
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, date);
+
+ALTER TABLE events
+    PARTITION BY RANGE (TO_DAYS(date)) (
+        PARTITION p_future VALUES LESS THAN MAXVALUE
+    );
@@ -0,0 +1,17 @@
+-- Responses of stock-mutating requests sent with an Idempotency-Key header, so a retried request
+-- returns the original response instead of applying the change again. The key is stored as its
+-- SHA-256 hash; the row is inserted with a null response before the change runs, so a concurrent
+-- retry sees the key claimed, and the response is stored in the transaction of the change. A failed
+-- change deletes its row again; a row left without a response by a request that died is claimed again
+-- by a retry once created_at is idempotency.claimLeaseSeconds old. IdempotencyKeyCleanupJob deletes rows older than
+-- idempotency.retentionHours. A batch response of items.batch.maxLines lines does not fit in TEXT.
+CREATE TABLE idempotency_keys
+(
+    account_id BIGINT      NOT NULL,
+    key_hash   BINARY(32)  NOT NULL,
+    operation  VARCHAR(32) NOT NULL,
+    response   MEDIUMTEXT  NULL,
+    created_at DATETIME    NOT NULL,
+    PRIMARY KEY (account_id, key_hash),
+    INDEX idx_idempotency_keys_created_at (created_at)
+);
@@ -0,0 +1,7 @@
+-- The last stock journal entry applied by each node. StockJournalApplier updates it in the transaction that
+-- applies the entries, so entries replayed from the journal after a crash are applied exactly once.
+CREATE TABLE journal_checkpoints
+(
+    node             VARCHAR(64) NOT NULL PRIMARY KEY,
+    applied_sequence BIGINT      NOT NULL
+);
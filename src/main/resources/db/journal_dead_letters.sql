@@ -0,0 +1,14 @@
+-- Stock journal entries that failed to apply on their own as well as in their group. StockJournalApplier
+-- inserts an entry here in the transaction that moves the checkpoint past it, so an acknowledged entry is
+-- either applied or kept here for an operator to replay.
+CREATE TABLE journal_dead_letters
+(
+    node       VARCHAR(64)   NOT NULL,
+    sequence   BIGINT        NOT NULL,
+    account_id BIGINT        NOT NULL,
+    worker_id  BIGINT        NOT NULL,
+    entry      MEDIUMTEXT    NOT NULL,
+    error      VARCHAR(1024) NOT NULL,
+    created_at DATETIME      NOT NULL,
+    PRIMARY KEY (node, sequence)
+);
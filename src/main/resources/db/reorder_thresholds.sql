@@ -0,0 +1,13 @@
+-- Reorder thresholds of items. A row without warehouse_id applies to the item in every warehouse,
+-- a row with warehouse_id overrides it for that warehouse. Items without a row fall back
+-- to items.minQuantityItemsInWarehouse.
+CREATE TABLE reorder_thresholds
+(
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    item_id      BIGINT NOT NULL,
+    warehouse_id BIGINT NULL,
+    threshold    INT    NOT NULL,
+    UNIQUE KEY (item_id, warehouse_id),
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    FOREIGN KEY (warehouse_id) REFERENCES warehouses (id) ON DELETE CASCADE
+);
@@ -0,0 +1,18 @@
+-- Stock held for orders that are picked later. A reservation holds quantity of one saved item until
+-- expires_at; ReservationLedger keeps the active ones of an account in memory, and they are deleted when
+-- they expire, are cancelled or are converted into an OUT transaction.
+CREATE TABLE reservations
+(
+    id            BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id    BIGINT       NOT NULL,
+    item_id       BIGINT       NOT NULL,
+    saved_item_id BIGINT       NOT NULL,
+    quantity      INT          NOT NULL,
+    reference     VARCHAR(255) NULL,
+    created_by    BIGINT       NOT NULL,
+    created_at    DATETIME     NOT NULL,
+    expires_at    DATETIME     NOT NULL,
+    INDEX idx_reservations_account_expires (account_id, expires_at),
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    FOREIGN KEY (saved_item_id) REFERENCES saved_items (id) ON DELETE CASCADE
+);
@@ -0,0 +1,19 @@
+-- One saved item per item and warehouse, so inbound stock is added with an upsert
+-- (SavedItemDao.addQuantity). Duplicates stored before are merged into their oldest row first.
+UPDATE saved_items si
+JOIN (SELECT MIN(id) AS id, SUM(quantity) AS quantity
+      FROM saved_items
+      GROUP BY item_id, warehouse_id
+      HAVING COUNT(*) > 1) d
+ON d.id = si.id
+SET si.quantity = d.quantity;
+
+DELETE si
+FROM saved_items si
+JOIN saved_items kept
+ON kept.item_id = si.item_id
+AND kept.warehouse_id = si.warehouse_id
+AND kept.id < si.id;
+
+ALTER TABLE saved_items
+    ADD UNIQUE KEY uq_saved_items_item_warehouse (item_id, warehouse_id);
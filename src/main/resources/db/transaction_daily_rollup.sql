@@ -0,0 +1,24 @@
+-- Quantities moved per account, item and day. Maintained by TransactionDaoImpl.create
+-- right after the transaction insert and rebuilt for recent days
+-- by TransactionRollupBackfillJob.
+CREATE TABLE transaction_daily_rollups
+(
+    account_id    BIGINT NOT NULL,
+    day           DATE   NOT NULL,
+    item_id       BIGINT NOT NULL,
+    in_quantity   BIGINT NOT NULL DEFAULT 0,
+    out_quantity  BIGINT NOT NULL DEFAULT 0,
+    move_quantity BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, day, item_id)
+);
+
+-- Backfill for transactions stored before the table existed.
+INSERT INTO transaction_daily_rollups(account_id, day, item_id, in_quantity, out_quantity, move_quantity)
+SELECT account_id,
+       DATE(timestamp),
+       item_id,
+       SUM(IF(type = 'IN', quantity, 0)),
+       SUM(IF(type = 'OUT', quantity, 0)),
+       SUM(IF(type = 'MOVE', quantity, 0))
+FROM transactions
+GROUP BY account_id, DATE(timestamp), item_id;
@@ -0,0 +1,8 @@
+-- Composite indexes for the transaction history (TransactionDao.findHistory). Every page is
+-- restricted to one account and ordered by (timestamp, id) by default, so the plain listing and
+-- the item, associate and warehouse filters are served from an index range without a filesort.
+CREATE INDEX idx_transactions_account_timestamp ON transactions (account_id, timestamp, id);
+CREATE INDEX idx_transactions_account_item_timestamp ON transactions (account_id, item_id, timestamp, id);
+CREATE INDEX idx_transactions_account_associate_timestamp ON transactions (account_id, associate_id, timestamp, id);
+CREATE INDEX idx_transactions_account_moved_from ON transactions (account_id, moved_from, timestamp, id);
+CREATE INDEX idx_transactions_account_moved_to ON transactions (account_id, moved_to, timestamp, id);
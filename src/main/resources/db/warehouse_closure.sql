@@ -0,0 +1,26 @@
+-- Ancestor/descendant pairs of the warehouse hierarchy, including a (id, id, 0) row per warehouse.
+-- Maintained by WarehouseDaoImpl.create/softDelete/hardDelete.
+CREATE TABLE IF NOT EXISTS warehouse_closure
+(
+    ancestor_id   BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth         INT    NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    KEY idx_warehouse_closure_descendant (descendant_id, depth)
+);
+
+-- Backfill for warehouses created before the table existed.
+INSERT IGNORE INTO warehouse_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE cte (ancestor_id, descendant_id, depth) AS
+    (SELECT id, id, 0
+     FROM warehouses
+     WHERE active = 1
+     UNION ALL
+     SELECT w.parent_id, cte.descendant_id, cte.depth + 1
+     FROM cte
+     JOIN warehouses w
+     ON w.id = cte.ancestor_id
+     WHERE w.parent_id IS NOT NULL
+     AND w.parent_id <> w.id)
+SELECT ancestor_id, descendant_id, depth
+FROM cte;
@@ -0,0 +1,15 @@
+-- Sum of quantity * item volume over the saved items of a warehouse.
+-- Maintained by ItemServiceImpl in the same transaction as the saved item change
+-- and corrected periodically by UsedVolumeReconciliationJob.
+ALTER TABLE warehouses
+    ADD COLUMN used_volume BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill for saved items stored before the column existed.
+UPDATE warehouses w
+JOIN (SELECT si.warehouse_id, SUM(si.quantity * i.volume) AS volume
+      FROM saved_items si
+      JOIN items i
+      ON i.id = si.item_id
+      GROUP BY si.warehouse_id) v
+ON v.warehouse_id = w.id
+SET w.used_volume = v.volume;
@@ -0,0 +1,112 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.AssociateDao;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.SuggestionDto;
+import com.ita.if103java.ims.entity.Associate;
+import com.ita.if103java.ims.entity.AssociateType;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SuggestionType;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AutocompleteIndexTest {
+    private final Long accountId = 1L;
+
+    @Mock
+    private ItemDao itemDao;
+    @Mock
+    private WarehouseDao warehouseDao;
+    @Mock
+    private AssociateDao associateDao;
+
+    private AutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(itemDao.findItemByAccountId(accountId)).thenReturn(List.of(
+            item(1L, "Bolt M8", true),
+            item(2L, "Hex bolt", true),
+            item(3L, "Bolt", true),
+            item(4L, "Bolt cutter", false),
+            item(5L, "Crème brûlée", true)));
+        when(warehouseDao.findAllByAccountId(accountId)).thenReturn(List.of(
+            new Warehouse(10L, "Bolt storage", null, 100, true, null, accountId, 10L, true)));
+        when(associateDao.findByAccountId(accountId)).thenReturn(List.of(
+            new Associate(20L, accountId, "Bolton Ltd", null, null, null, AssociateType.SUPPLIER, true)));
+        autocompleteIndex = new AutocompleteIndex(itemDao, warehouseDao, associateDao);
+    }
+
+    @Test
+    void suggest_nameStartsBeforeWordStarts() {
+        assertEquals(List.of(3L, 1L, 2L), ids(autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "BOL", 10)));
+        assertEquals(List.of(3L, 1L), ids(autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "bol", 2)));
+        assertEquals(List.of(5L), ids(autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "brul", 10)));
+        assertEquals(List.of(), autocompleteIndex.suggest(accountId, SuggestionType.ITEM, " ", 10));
+        verify(itemDao, times(1)).findItemByAccountId(accountId);
+    }
+
+    @Test
+    void suggest_allTypes() {
+        List<SuggestionDto> suggestions = autocompleteIndex.suggest(accountId, null, "bolt", 4);
+
+        assertEquals(List.of(3L, 1L, 10L, 20L), ids(suggestions));
+        assertEquals(SuggestionType.ASSOCIATE, suggestions.get(3).getType());
+    }
+
+    @Test
+    void putRenameAndRemove() {
+        autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "a", 1);
+
+        autocompleteIndex.put(accountId, SuggestionType.ITEM, 6L, "Anchor bolt");
+        autocompleteIndex.rename(accountId, SuggestionType.ITEM, 3L, "Nut");
+        autocompleteIndex.rename(accountId, SuggestionType.ITEM, 4L, "Bolt cutter XL");
+        autocompleteIndex.remove(accountId, SuggestionType.ITEM, 1L);
+
+        assertEquals(List.of(2L, 6L), ids(autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "bolt", 10)));
+        assertEquals(List.of(3L), ids(autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "nu", 10)));
+    }
+
+    @Test
+    void put_ofUnloadedAccountEvictsLoadMadeBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            autocompleteIndex.put(accountId, SuggestionType.ITEM, 6L, "Anchor bolt");
+            // a concurrent suggestion loads the names before the inserting transaction commits
+            autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "anchor", 10);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        autocompleteIndex.suggest(accountId, SuggestionType.ITEM, "anchor", 10);
+
+        verify(itemDao, times(2)).findItemByAccountId(accountId);
+    }
+
+    private List<Long> ids(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::getId).collect(Collectors.toList());
+    }
+
+    private Item item(Long id, String name, boolean active) {
+        Item item = new Item(name, "pcs", name, 1, accountId, active);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FreeSpaceIndexTest {
+    private final Long accountId = 1L;
+
+    @Mock
+    private WarehouseDao warehouseDao;
+
+    private FreeSpaceIndex freeSpaceIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(warehouseDao.findBottomByAccountId(accountId)).thenReturn(List.of(
+            bin(3L, 100, 40),
+            bin(4L, 50, 0),
+            bin(5L, 80, 70),
+            bin(6L, 60, 0)));
+        freeSpaceIndex = new FreeSpaceIndex(warehouseDao);
+    }
+
+    @Test
+    void findFitting_tightestFitFirst() {
+        assertEquals(List.of(4L, 3L, 6L), freeSpaceIndex.findFitting(accountId, 50));
+        assertEquals(List.of(5L, 4L, 3L, 6L), freeSpaceIndex.findFitting(accountId, 0));
+        assertEquals(List.of(), freeSpaceIndex.findFitting(accountId, 61));
+        verify(warehouseDao, times(1)).findBottomByAccountId(accountId);
+    }
+
+    @Test
+    void adjust_movesBinWithinOrder() {
+        freeSpaceIndex.findFitting(accountId, 0);
+
+        freeSpaceIndex.adjust(6L, accountId, 15);
+        freeSpaceIndex.adjust(5L, accountId, -60);
+
+        assertEquals(List.of(6L, 4L, 3L, 5L), freeSpaceIndex.findFitting(accountId, 45));
+    }
+
+    @Test
+    void put_removesBinThatIsNoLongerBottom() {
+        freeSpaceIndex.findFitting(accountId, 0);
+        Warehouse warehouse = bin(4L, 50, 0);
+        warehouse.setBottom(false);
+
+        freeSpaceIndex.put(warehouse);
+        freeSpaceIndex.put(bin(7L, 200, 10));
+
+        assertEquals(List.of(3L, 6L, 7L), freeSpaceIndex.findFitting(accountId, 50));
+    }
+
+    @Test
+    void evict_reloadsOnNextLookup() {
+        freeSpaceIndex.findFitting(accountId, 0);
+        freeSpaceIndex.evict(accountId);
+        freeSpaceIndex.findFitting(accountId, 0);
+
+        verify(warehouseDao, times(2)).findBottomByAccountId(accountId);
+    }
+
+    @Test
+    void adjust_ofUnloadedAccountEvictsLoadMadeBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            freeSpaceIndex.adjust(6L, accountId, 15);
+            // a concurrent lookup loads the bins before the adjusting transaction commits
+            freeSpaceIndex.findFitting(accountId, 0);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        freeSpaceIndex.findFitting(accountId, 0);
+
+        verify(warehouseDao, times(2)).findBottomByAccountId(accountId);
+    }
+
+    private Warehouse bin(Long id, int capacity, long usedVolume) {
+        Warehouse warehouse = new Warehouse(id, "Shelf" + id, "info", capacity, true, 2L, accountId, 1L, true);
+        warehouse.setUsedVolume(usedVolume);
+        return warehouse;
+    }
+}
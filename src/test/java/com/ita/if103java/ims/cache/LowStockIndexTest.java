@@ -0,0 +1,122 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.ReorderThresholdDao;
+import com.ita.if103java.ims.dto.EndingItemsDto;
+import com.ita.if103java.ims.entity.LowStockItem;
+import com.ita.if103java.ims.entity.ReorderThreshold;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LowStockIndexTest {
+    private final Long accountId = 1L;
+
+    @Mock
+    private ReorderThresholdDao reorderThresholdDao;
+    @Mock
+    private WarehouseTreeCache warehouseTreeCache;
+
+    private LowStockIndex lowStockIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(reorderThresholdDao.findByAccountId(accountId)).thenReturn(List.of(
+            new ReorderThreshold(100L, null, 20),
+            new ReorderThreshold(100L, 4L, 5)));
+        when(reorderThresholdDao.findLowStockByAccountId(accountId, 10)).thenReturn(new ArrayList<>(List.of(
+            new LowStockItem(1L, 100L, "Apple", 3L, "Shelf3", 15),
+            new LowStockItem(2L, 200L, "Pear", 3L, "Shelf3", 2))));
+        when(warehouseTreeCache.findById(4L, accountId))
+            .thenReturn(new Warehouse(4L, "Shelf4", "info", 50, true, 2L, accountId, 1L, true));
+        lowStockIndex = new LowStockIndex(reorderThresholdDao, warehouseTreeCache);
+        ReflectionTestUtils.setField(lowStockIndex, "defaultThreshold", 10);
+    }
+
+    @Test
+    void findThreshold_warehouseOverridesItem() {
+        assertEquals(5, lowStockIndex.findThreshold(accountId, 100L, 4L));
+        assertEquals(20, lowStockIndex.findThreshold(accountId, 100L, 3L));
+        assertEquals(10, lowStockIndex.findThreshold(accountId, 200L, 4L));
+        verify(reorderThresholdDao, times(1)).findByAccountId(accountId);
+    }
+
+    @Test
+    void findEndingItems_sortedAndPaged() {
+        Page<EndingItemsDto> page =
+            lowStockIndex.findEndingItems(accountId, PageRequest.of(0, 1, Sort.by("quantity")));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of("Pear"), itemNames(page));
+    }
+
+    @Test
+    void update_addsAndRemovesByThreshold() {
+        lowStockIndex.findThreshold(accountId, 100L, 3L);
+
+        lowStockIndex.update(accountId, savedItem(1L, 100L, 25, 3L), "Apple");
+        lowStockIndex.update(accountId, savedItem(3L, 200L, 9, 4L), "Pear");
+
+        Page<EndingItemsDto> page =
+            lowStockIndex.findEndingItems(accountId, PageRequest.of(0, 10, Sort.by("name")));
+        assertEquals(List.of("Pear", "Pear"), itemNames(page));
+        assertEquals("Shelf4", page.getContent().get(1).getName());
+    }
+
+    @Test
+    void update_keepsQuantityEqualToThreshold() {
+        lowStockIndex.findThreshold(accountId, 100L, 3L);
+
+        lowStockIndex.update(accountId, savedItem(1L, 100L, 5, 4L), "Apple");
+        lowStockIndex.update(accountId, savedItem(3L, 200L, 10, 4L), "Pear");
+
+        assertEquals(List.of("Pear", "Apple", "Pear"),
+            itemNames(lowStockIndex.findEndingItems(accountId, PageRequest.of(0, 10, Sort.by("name")))));
+    }
+
+    @Test
+    void remove_dropsSavedItem() {
+        lowStockIndex.findThreshold(accountId, 100L, 3L);
+
+        lowStockIndex.remove(accountId, 2L);
+
+        assertEquals(List.of("Apple"), itemNames(lowStockIndex.findEndingItems(accountId, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void evict_reloadsOnNextLookup() {
+        lowStockIndex.findThreshold(accountId, 100L, 3L);
+        lowStockIndex.evict(accountId);
+        lowStockIndex.findThreshold(accountId, 100L, 3L);
+
+        verify(reorderThresholdDao, times(2)).findLowStockByAccountId(accountId, 10);
+    }
+
+    private List<String> itemNames(Page<EndingItemsDto> page) {
+        return page.getContent().stream()
+            .map(EndingItemsDto::getItemName)
+            .collect(Collectors.toList());
+    }
+
+    private SavedItem savedItem(Long id, Long itemId, int quantity, Long warehouseId) {
+        SavedItem savedItem = new SavedItem(itemId, quantity, warehouseId);
+        savedItem.setId(id);
+        return savedItem;
+    }
+}
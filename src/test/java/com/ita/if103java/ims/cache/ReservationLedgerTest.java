@@ -0,0 +1,119 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.ReservationDao;
+import com.ita.if103java.ims.entity.Reservation;
+import com.ita.if103java.ims.util.TimerWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReservationLedgerTest {
+    private final Long accountId = 1L;
+    private final ZonedDateTime now = ZonedDateTime.now();
+
+    @Mock
+    private ReservationDao reservationDao;
+
+    private ReservationLedger reservationLedger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(reservationDao.findActiveByAccountId(eq(accountId), any())).thenReturn(List.of(
+            reservation(1L, 10L, 4, 30),
+            reservation(2L, 10L, 2, 90)));
+        reservationLedger = new ReservationLedger(reservationDao);
+        ReflectionTestUtils.setField(reservationLedger, "slots", 8);
+        ReflectionTestUtils.setField(reservationLedger, "tick", 60000L);
+        reservationLedger.init();
+    }
+
+    @Test
+    void findReserved_sumsActiveReservationsOfSavedItem() {
+        assertEquals(6, reservationLedger.findReserved(accountId, 10L));
+        assertEquals(0, reservationLedger.findReserved(accountId, 11L));
+        assertEquals(List.of(1L, 2L), ids(reservationLedger.findAll(accountId)));
+        verify(reservationDao, times(1)).deleteExpiredByAccountId(eq(accountId), any());
+        verify(reservationDao, times(1)).findActiveByAccountId(eq(accountId), any());
+    }
+
+    @Test
+    void reserve_keepsReservedQuantityWithinSavedItem() {
+        assertTrue(reservationLedger.reserve(reservation(3L, 10L, 4, 60), 10));
+        assertFalse(reservationLedger.reserve(reservation(4L, 10L, 1, 60), 10));
+        assertTrue(reservationLedger.reserve(reservation(5L, 11L, 3, 60), 3));
+
+        assertEquals(10, reservationLedger.findReserved(accountId, 10L));
+        assertEquals(3, reservationLedger.findReserved(accountId, 11L));
+    }
+
+    @Test
+    void remove_releasesQuantity() {
+        reservationLedger.findReserved(accountId, 10L);
+        reservationLedger.remove(accountId, 1L);
+
+        assertEquals(2, reservationLedger.findReserved(accountId, 10L));
+        reservationLedger.remove(accountId, 1L);
+        assertEquals(2, reservationLedger.findReserved(accountId, 10L));
+        assertTrue(reservationLedger.findById(accountId, 1L).isEmpty());
+    }
+
+    @Test
+    void pollExpired_takesReservationsDueInTheTimerWheel() {
+        reservationLedger.findReserved(accountId, 10L);
+        reservationLedger.reserve(reservation(3L, 11L, 1, 600), 1);
+
+        assertEquals(List.of(), ids(reservationLedger.pollExpired(now.plusMinutes(10))));
+        assertEquals(List.of(1L), ids(reservationLedger.pollExpired(now.plusMinutes(31))));
+        assertEquals(2, reservationLedger.findReserved(accountId, 10L));
+
+        reservationLedger.remove(accountId, 2L);
+        // more than a turn of the wheel later
+        assertEquals(List.of(3L), ids(reservationLedger.pollExpired(now.plusMinutes(601))));
+        assertEquals(0, reservationLedger.findReserved(accountId, 11L));
+    }
+
+    @Test
+    void removeAndEvict_takeReservationsOutOfTheTimerWheel() {
+        TimerWheel<?> expiries = (TimerWheel<?>) ReflectionTestUtils.getField(reservationLedger, "expiries");
+        reservationLedger.findReserved(accountId, 10L);
+        reservationLedger.reserve(reservation(3L, 11L, 1, 600), 1);
+        assertEquals(3, expiries.size());
+
+        reservationLedger.remove(accountId, 3L);
+        assertEquals(2, expiries.size());
+
+        for (int i = 0; i < 3; i++) {
+            reservationLedger.evict(accountId);
+            assertEquals(0, expiries.size());
+            reservationLedger.findReserved(accountId, 10L);
+            assertEquals(2, expiries.size());
+        }
+    }
+
+    private List<Long> ids(List<Reservation> reservations) {
+        return reservations.stream().map(Reservation::getId).collect(Collectors.toList());
+    }
+
+    private Reservation reservation(Long id, Long savedItemId, int quantity, int minutes) {
+        Reservation reservation = new Reservation(accountId, 7L, savedItemId, quantity, null, 3L, now,
+            now.plusMinutes(minutes));
+        reservation.setId(id);
+        return reservation;
+    }
+}
@@ -0,0 +1,192 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.AssociateDao;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.SearchFilterDto;
+import com.ita.if103java.ims.dto.SearchHitDto;
+import com.ita.if103java.ims.entity.Associate;
+import com.ita.if103java.ims.entity.AssociateType;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SearchDocumentType;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TextSearchIndexTest {
+    private final Long accountId = 1L;
+
+    @Mock
+    private ItemDao itemDao;
+    @Mock
+    private WarehouseDao warehouseDao;
+    @Mock
+    private AssociateDao associateDao;
+    @Mock
+    private EventDao eventDao;
+
+    private TextSearchIndex textSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(itemDao.findItemByAccountId(accountId)).thenReturn(List.of(
+            item(1L, "Steel bolt", "Zinc plated steel bolt for heavy loads", true),
+            item(2L, "Wood screw", "Screw for soft wood, steel", true),
+            item(3L, "Steel nail", "Old nail", false)));
+        when(warehouseDao.findAllByAccountId(accountId)).thenReturn(List.of(
+            new Warehouse(10L, "Cold store", "Keeps steel parts dry", 100, true, null, accountId, 10L, true)));
+        when(associateDao.findByAccountId(accountId)).thenReturn(List.of(
+            new Associate(20L, accountId, "Acme", "sales@acme.com", null, "Café supplier", AssociateType.SUPPLIER,
+                true)));
+        doAnswer(invocation -> {
+            Consumer<Event> consumer = invocation.getArgument(1);
+            consumer.accept(event(30L, "Steel bolt came to Cold store", EventName.ITEM_CAME, 2020, 1, 10));
+            consumer.accept(event(31L, "Wood screw shipped", EventName.ITEM_SHIPPED, 2020, 2, 20));
+            return null;
+        }).when(eventDao).streamByAccountId(eq(accountId), any());
+        textSearchIndex = new TextSearchIndex(itemDao, warehouseDao, associateDao, eventDao);
+        ReflectionTestUtils.setField(textSearchIndex, "maxAccounts", 1);
+        ReflectionTestUtils.setField(textSearchIndex, "ttlMinutes", 60L);
+        textSearchIndex.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        textSearchIndex.stop();
+    }
+
+    @Test
+    void search_ranksTitleMatchesFirst() {
+        List<SearchHitDto> hits = search(filter("STEEL"));
+
+        assertEquals(SearchDocumentType.ITEM, hits.get(0).getType());
+        assertEquals(1L, hits.get(0).getId());
+        assertEquals(Set.of(1L, 2L, 10L, 30L), hits.stream().map(SearchHitDto::getId).collect(Collectors.toSet()));
+        verify(itemDao, times(1)).findItemByAccountId(accountId);
+    }
+
+    @Test
+    void search_requiresAllTerms() {
+        assertEquals(List.of(1L, 30L), ids(search(filter("steel bolt"))));
+        assertEquals(List.of(20L), ids(search(filter("cafe"))));
+        assertEquals(List.of(), ids(search(filter("steel brick"))));
+        assertEquals(List.of(), ids(search(filter(" - "))));
+    }
+
+    @Test
+    void search_filters() {
+        SearchFilterDto types = filter("steel");
+        types.setTypes(Set.of(SearchDocumentType.WAREHOUSE, SearchDocumentType.EVENT));
+        assertEquals(Set.of(10L, 30L), Set.copyOf(ids(search(types))));
+
+        SearchFilterDto dates = filter("wood");
+        dates.setFrom(LocalDate.of(2020, 2, 1));
+        dates.setTo(LocalDate.of(2020, 2, 20));
+        assertEquals(List.of(31L), ids(search(dates)));
+
+        SearchFilterDto eventName = filter("steel");
+        eventName.setEventName(EventName.ITEM_SHIPPED);
+        assertEquals(List.of(), ids(search(eventName)));
+    }
+
+    @Test
+    void search_pages() {
+        Page<SearchHitDto> page = textSearchIndex.search(accountId, filter("steel"), PageRequest.of(1, 3));
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+    }
+
+    @Test
+    void updatesAreAppliedToLoadedAccounts() throws InterruptedException {
+        search(filter("steel"));
+
+        textSearchIndex.putItem(item(4L, "Anchor", "Steel anchor", true));
+        textSearchIndex.replaceItem(item(2L, "Wood screw", "Brass screw", true));
+        textSearchIndex.replaceItem(item(3L, "Steel nail", "Old nail", true));
+        textSearchIndex.remove(accountId, SearchDocumentType.WAREHOUSE, 10L);
+        textSearchIndex.putEvents(List.of(event(32L, "Anchor came", EventName.ITEM_CAME, 2020, 3, 1)));
+        textSearchIndex.stop();
+
+        assertEquals(Set.of(1L, 4L, 30L), Set.copyOf(ids(search(filter("steel")))));
+        assertEquals(List.of(32L), ids(search(filter("anchor came"))));
+    }
+
+    @Test
+    void search_dropsLeastRecentlySearchedAccount() {
+        search(filter("steel"));
+        textSearchIndex.search(2L, filter("steel"), PageRequest.of(0, 20));
+        search(filter("steel"));
+
+        verify(itemDao, times(2)).findItemByAccountId(accountId);
+    }
+
+    @Test
+    void search_reloadsExpiredAccount() {
+        search(filter("steel"));
+        ReflectionTestUtils.setField(textSearchIndex, "clock", Clock.offset(Clock.systemUTC(), Duration.ofMinutes(59)));
+        search(filter("steel"));
+        verify(itemDao, times(1)).findItemByAccountId(accountId);
+
+        ReflectionTestUtils.setField(textSearchIndex, "clock", Clock.offset(Clock.systemUTC(), Duration.ofMinutes(61)));
+        search(filter("steel"));
+        search(filter("steel"));
+
+        verify(itemDao, times(2)).findItemByAccountId(accountId);
+    }
+
+    private List<SearchHitDto> search(SearchFilterDto filter) {
+        return textSearchIndex.search(accountId, filter, PageRequest.of(0, 20)).getContent();
+    }
+
+    private List<Long> ids(List<SearchHitDto> hits) {
+        return hits.stream().map(SearchHitDto::getId).collect(Collectors.toList());
+    }
+
+    private SearchFilterDto filter(String q) {
+        SearchFilterDto filter = new SearchFilterDto();
+        filter.setQ(q);
+        return filter;
+    }
+
+    private Item item(Long id, String name, String description, boolean active) {
+        Item item = new Item(name, "pcs", description, 1, accountId, active);
+        item.setId(id);
+        return item;
+    }
+
+    private Event event(Long id, String message, EventName name, int year, int month, int day) {
+        Event event = new Event(message, accountId, null, null, name, null);
+        event.setId(id);
+        event.setDate(ZonedDateTime.of(year, month, day, 12, 0, 0, 0, ZoneOffset.UTC));
+        return event;
+    }
+}
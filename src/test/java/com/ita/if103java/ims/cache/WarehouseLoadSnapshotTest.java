@@ -0,0 +1,121 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.DashboardDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.WarehouseLoadDto;
+import com.ita.if103java.ims.entity.Warehouse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WarehouseLoadSnapshotTest {
+    private final Long accountId = 1L;
+
+    @Mock
+    private DashboardDao dashboardDao;
+    @Mock
+    private WarehouseDao warehouseDao;
+
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(dashboardDao.findWarehouseLoadByAccountId(accountId)).thenReturn(List.of(
+            new WarehouseLoadDto(1L, "Warehouse", 150L, 40L),
+            new WarehouseLoadDto(10L, "Annex", 60L, 0L)));
+        when(warehouseDao.findBottomByAccountId(accountId)).thenReturn(List.of(
+            bin(3L, 1L),
+            bin(4L, 1L),
+            bin(11L, 10L)));
+        warehouseLoadSnapshot = new WarehouseLoadSnapshot(dashboardDao, warehouseDao);
+    }
+
+    @Test
+    void find_loadsOnce() {
+        assertEquals(List.of(40L, 0L), charges());
+        assertEquals(List.of(40L, 0L), charges());
+
+        verify(dashboardDao, times(1)).findWarehouseLoadByAccountId(accountId);
+        verify(warehouseDao, times(1)).findBottomByAccountId(accountId);
+    }
+
+    @Test
+    void adjust_changesChargeOfTopWarehouse() {
+        warehouseLoadSnapshot.find(accountId);
+
+        warehouseLoadSnapshot.adjust(4L, accountId, 25);
+        warehouseLoadSnapshot.adjust(11L, accountId, 30);
+        warehouseLoadSnapshot.adjust(3L, accountId, -10);
+        warehouseLoadSnapshot.adjust(99L, accountId, 5);
+
+        assertEquals(List.of(55L, 30L), charges());
+    }
+
+    @Test
+    void adjust_ignoresAccountThatIsNotLoaded() {
+        warehouseLoadSnapshot.adjust(4L, accountId, 25);
+
+        assertEquals(List.of(40L, 0L), charges());
+    }
+
+    @Test
+    void adjust_ofUnloadedAccountEvictsLoadMadeBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            warehouseLoadSnapshot.adjust(4L, accountId, 25);
+            // a concurrent lookup loads the snapshot before the adjusting transaction commits
+            warehouseLoadSnapshot.find(accountId);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        warehouseLoadSnapshot.find(accountId);
+
+        verify(dashboardDao, times(2)).findWarehouseLoadByAccountId(accountId);
+    }
+
+    @Test
+    void recompute_reloadsLoadedAccounts() {
+        warehouseLoadSnapshot.find(accountId);
+        warehouseLoadSnapshot.adjust(4L, accountId, 25);
+
+        warehouseLoadSnapshot.recompute();
+
+        assertEquals(List.of(40L, 0L), charges());
+        verify(dashboardDao, times(2)).findWarehouseLoadByAccountId(accountId);
+        verify(dashboardDao, times(0)).findWarehouseLoadByAccountId(2L);
+    }
+
+    @Test
+    void evict_reloadsOnNextLookup() {
+        warehouseLoadSnapshot.find(accountId);
+        warehouseLoadSnapshot.evict(accountId);
+        warehouseLoadSnapshot.find(accountId);
+
+        verify(dashboardDao, times(2)).findWarehouseLoadByAccountId(accountId);
+    }
+
+    private List<Long> charges() {
+        return warehouseLoadSnapshot.find(accountId).stream()
+            .map(WarehouseLoadDto::getCharge)
+            .collect(Collectors.toList());
+    }
+
+    private Warehouse bin(Long id, Long topWarehouseId) {
+        return new Warehouse(id, "Shelf" + id, "info", 50, true, topWarehouseId, accountId, topWarehouseId, true);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ita.if103java.ims.cache;
+
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.entity.Warehouse;
+import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WarehouseTreeCacheTest {
+    private final Long accountId = 1L;
+
+    @Mock
+    private WarehouseDao warehouseDao;
+
+    private WarehouseTreeCache warehouseTreeCache;
+    private List<Warehouse> warehouses;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        warehouses = new ArrayList<>(List.of(
+            new Warehouse(1L, "Warehouse", "info", 0, false, null, accountId, 1L, true),
+            new Warehouse(2L, "Section", "info", 0, false, 1L, accountId, 1L, true),
+            new Warehouse(3L, "Shelf", "info", 50, true, 2L, accountId, 1L, true),
+            new Warehouse(4L, "Rack", "info", 50, true, 2L, accountId, 1L, false)));
+        when(warehouseDao.findAllByAccountId(accountId)).thenReturn(warehouses);
+        warehouseTreeCache = new WarehouseTreeCache(warehouseDao);
+    }
+
+    @Test
+    void findPath_fromTopLevelDown() {
+        assertEquals(List.of("Warehouse", "Section", "Shelf"), warehouseTreeCache.findPath(3L, accountId));
+        assertEquals(List.of("Warehouse"), warehouseTreeCache.findPath(1L, accountId));
+        verify(warehouseDao, times(1)).findAllByAccountId(accountId);
+    }
+
+    @Test
+    void findLevel_countsAncestors() {
+        assertEquals(0, warehouseTreeCache.findLevel(1L, accountId));
+        assertEquals(2, warehouseTreeCache.findLevel(3L, accountId));
+    }
+
+    @Test
+    void findChildren_skipsInactive() {
+        List<Long> children = warehouseTreeCache.findChildren(2L, accountId).stream()
+            .map(Warehouse::getId)
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(3L), children);
+    }
+
+    @Test
+    void put_renameIsVisibleInChildPaths() {
+        List<String> path = warehouseTreeCache.findPath(3L, accountId);
+
+        warehouseTreeCache.put(new Warehouse(2L, "Hall", "info", 0, false, 1L, accountId, 1L, true));
+
+        assertEquals(List.of("Warehouse", "Hall", "Shelf"), path);
+    }
+
+    @Test
+    void put_newWarehouseIsLinkedToParent() {
+        warehouseTreeCache.findPath(1L, accountId);
+
+        warehouseTreeCache.put(new Warehouse(5L, "Bin", "info", 10, true, 2L, accountId, 1L, true));
+
+        assertEquals(List.of("Warehouse", "Section", "Bin"), warehouseTreeCache.findPath(5L, accountId));
+        assertEquals(2, warehouseTreeCache.findChildren(2L, accountId).size());
+    }
+
+    @Test
+    void deactivate_removesFromChildren() {
+        warehouseTreeCache.deactivate(3L, accountId);
+        warehouseTreeCache.findPath(1L, accountId);
+        warehouseTreeCache.deactivate(3L, accountId);
+
+        assertTrue(warehouseTreeCache.findChildren(2L, accountId).isEmpty());
+    }
+
+    @Test
+    void findPath_reloadsWhenWarehouseIsUnknown() {
+        warehouseTreeCache.findPath(1L, accountId);
+        warehouses.add(new Warehouse(6L, "Annex", "info", 0, false, null, accountId, 6L, true));
+
+        assertEquals(List.of("Annex"), warehouseTreeCache.findPath(6L, accountId));
+        assertThrows(WarehouseNotFoundException.class, () -> warehouseTreeCache.findPath(7L, accountId));
+    }
+}
@@ -2,6 +2,8 @@ package com.ita.if103java.ims.controller;
 
 
 import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.EventFeedDto;
+import com.ita.if103java.ims.entity.EventCountMode;
 import com.ita.if103java.ims.security.UserDetailsImpl;
 import com.ita.if103java.ims.service.EventService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +20,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -46,6 +49,14 @@ public class EventControllerTest {
         when(eventService.findAll(pageable, params, userDetails)).thenReturn(new PageImpl<EventDto>(new ArrayList<>()));
     }
 
+    @Test
+    public void testFindFeed() {
+        EventFeedDto feed = new EventFeedDto(new ArrayList<>(), null, 0L);
+        when(eventService.findFeed(params, "cursor", 20, EventCountMode.NONE, userDetails)).thenReturn(feed);
+
+        assertEquals(feed, eventController.findFeed("cursor", 20, EventCountMode.NONE, params, userDetails));
+    }
+
     @Test
     public void testFindAll() {
         assertTrue(eventController.findAll(pageable, params, userDetails).getContent().isEmpty());
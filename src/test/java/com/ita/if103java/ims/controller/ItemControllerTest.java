@@ -3,6 +3,7 @@ package com.ita.if103java.ims.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.ita.if103java.ims.dto.ItemDto;
+import com.ita.if103java.ims.dto.ReorderThresholdDto;
 import com.ita.if103java.ims.exception.dao.ItemNotFoundException;
 import com.ita.if103java.ims.exception.service.ItemDuplicateException;
 import com.ita.if103java.ims.handler.GlobalExceptionHandler;
@@ -129,6 +130,22 @@ public class ItemControllerTest {
         verify(itemService, times(1)).addItem(any(ItemDto.class), any(UserDetailsImpl.class));
     }
 
+    @Test
+    void saveReorderThreshold_successFlow() throws Exception {
+        ReorderThresholdDto reorderThresholdDto = new ReorderThresholdDto(3L, 18L, 20);
+        when(itemService.saveReorderThreshold(eq(reorderThresholdDto), any())).thenReturn(reorderThresholdDto);
+
+        mockMvc.perform(put("/items/3/reorderThresholds")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(new ObjectMapper().writeValueAsString(new ReorderThresholdDto(null, 18L, 20))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.itemId").value(3L))
+            .andExpect(jsonPath("$.warehouseId").value(18L))
+            .andExpect(jsonPath("$.threshold").value(20));
+
+        verify(itemService, times(1)).saveReorderThreshold(eq(reorderThresholdDto), any());
+    }
+
     @Test
     void sort_successFlow() throws Exception {
         Page page = new PageImpl<>(Collections.singletonList(itemDto));
@@ -2,15 +2,27 @@ package com.ita.if103java.ims.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.PlacementAssignmentDto;
+import com.ita.if103java.ims.dto.PlacementDto;
+import com.ita.if103java.ims.dto.PlacementLineDto;
+import com.ita.if103java.ims.dto.PlacementRequestDto;
 import com.ita.if103java.ims.dto.SavedItemDto;
+import com.ita.if103java.ims.dto.StockJournalReceiptDto;
+import com.ita.if103java.ims.entity.TransactionType;
 import com.ita.if103java.ims.exception.dao.SavedItemNotFoundException;
 import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseException;
 import com.ita.if103java.ims.exception.service.ItemNotEnoughQuantityException;
 import com.ita.if103java.ims.exception.service.ItemValidateInputException;
 import com.ita.if103java.ims.handler.GlobalExceptionHandler;
 import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.IdempotencyService;
 import com.ita.if103java.ims.service.ItemService;
+import com.ita.if103java.ims.service.ItemTransactionBatchService;
+import com.ita.if103java.ims.service.PlacementService;
+import com.ita.if103java.ims.service.StockJournalService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -22,10 +34,15 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +57,14 @@ public class SavedItemControllerTest {
 
     @Mock
     ItemService itemService;
+    @Mock
+    PlacementService placementService;
+    @Mock
+    ItemTransactionBatchService itemTransactionBatchService;
+    @Mock
+    IdempotencyService idempotencyService;
+    @Mock
+    StockJournalService stockJournalService;
 
     @InjectMocks
     SavedItemController savedItemController;
@@ -57,6 +82,8 @@ public class SavedItemControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
+        when(idempotencyService.execute(isNull(), any(), any(), any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
 
         mockMvc = MockMvcBuilders
             .standaloneSetup(savedItemController)
@@ -116,6 +143,21 @@ public class SavedItemControllerTest {
         verify(itemService, times(1)).addSavedItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class));
     }
 
+    @Test
+    void addSavedItem_repeatedIdempotencyKeyReturnsStoredResponse() throws Exception {
+        doReturn(savedItemDto).when(idempotencyService)
+            .execute(eq("scan-17"), eq("savedItems.add"), any(), any(UserDetailsImpl.class), any());
+
+        mockMvc.perform(post("/savedItems")
+            .header(SavedItemController.IDEMPOTENCY_KEY_HEADER, "scan-17")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(new ObjectMapper().writeValueAsString(itemTransactionRequestDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(savedItemDto.getId()));
+
+        verify(itemService, never()).addSavedItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class));
+    }
+
     @Test
     void addSavedItem_failFlowNotValidInputs() throws Exception{
         when(itemService.addSavedItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class))).thenThrow(itemValidateInputException);
@@ -150,6 +192,81 @@ public class SavedItemControllerTest {
         verify(itemService, times(1)).addSavedItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class));
     }
 
+    @Test
+    void placeShipment_successFlow() throws Exception {
+        PlacementDto placementDto = new PlacementDto();
+        placementDto.getAssignments().add(new PlacementAssignmentDto(108L, 37L, List.of("Warehouse", "Shelf"), 5L));
+        placementDto.setCommitted(true);
+        PlacementRequestDto placementRequestDto = new PlacementRequestDto(40L, List.of(new PlacementLineDto(108L, 5L)));
+
+        when(placementService.place(any(PlacementRequestDto.class), anyBoolean(), any(UserDetailsImpl.class)))
+            .thenReturn(placementDto);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        String resultJson = objectMapper.writeValueAsString(placementRequestDto);
+
+        mockMvc.perform(post("/savedItems/placement?commit=true")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(resultJson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.assignments[0].warehouseId").value(37L))
+            .andExpect(jsonPath("$.assignments[0].path[1]").value("Shelf"))
+            .andExpect(jsonPath("$.committed").value(true));
+
+        verify(placementService, times(1)).place(any(PlacementRequestDto.class), eq(true), any(UserDetailsImpl.class));
+    }
+
+    @Test
+    void applyBatch_successfully() throws Exception {
+        ItemTransactionBatchLineDto line = new ItemTransactionBatchLineDto();
+        line.setType(TransactionType.OUT);
+        line.setItemId(108L);
+        line.setSavedItemId(1L);
+        line.setQuantity(2L);
+        line.setAssociateId(40L);
+        ItemTransactionBatchResultDto applied = new ItemTransactionBatchResultDto(0, TransactionType.OUT);
+        applied.setSuccess(true);
+        applied.setTransactionId(12L);
+        applied.setSavedItem(savedItemDto);
+        ItemTransactionBatchResultDto failed = new ItemTransactionBatchResultDto(1, TransactionType.IN);
+        failed.setMessage("Not enough capacity in warehouse {warehouse_id = 37}");
+
+        when(itemTransactionBatchService.apply(any(), any(UserDetailsImpl.class))).thenReturn(List.of(applied, failed));
+
+        mockMvc.perform(post("/savedItems/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(new ObjectMapper().writeValueAsString(List.of(line, line))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].success").value(true))
+            .andExpect(jsonPath("$[0].transactionId").value(12L))
+            .andExpect(jsonPath("$[0].savedItem.quantity").value(5))
+            .andExpect(jsonPath("$[1].success").value(false))
+            .andExpect(jsonPath("$[1].index").value(1));
+
+        verify(itemTransactionBatchService, times(1)).apply(any(), any(UserDetailsImpl.class));
+    }
+
+    @Test
+    void appendToJournal_acceptsLines() throws Exception {
+        ItemTransactionBatchLineDto line = new ItemTransactionBatchLineDto();
+        line.setType(TransactionType.IN);
+        line.setItemId(108L);
+        line.setDestinationWarehouseId(37L);
+        line.setQuantity(2L);
+        line.setAssociateId(40L);
+
+        when(stockJournalService.append(any(), any(UserDetailsImpl.class))).thenReturn(new StockJournalReceiptDto(12L, 9L));
+
+        mockMvc.perform(post("/savedItems/journal")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(new ObjectMapper().writeValueAsString(List.of(line))))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.sequence").value(12L))
+            .andExpect(jsonPath("$.appliedSequence").value(9L));
+
+        verify(stockJournalService, times(1)).append(any(), any(UserDetailsImpl.class));
+    }
+
     @Test
     void moveSavedItem_successFlow() throws Exception{
         when(itemService.moveItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class))).thenReturn(true);
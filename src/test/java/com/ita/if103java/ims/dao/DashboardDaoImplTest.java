@@ -5,23 +5,30 @@ import com.ita.if103java.ims.dto.PopularItemsRequestDto;
 import com.ita.if103java.ims.dto.WarehousePremiumStructDto;
 import com.ita.if103java.ims.entity.DateType;
 import com.ita.if103java.ims.entity.PopType;
+import com.ita.if103java.ims.entity.Warehouse;
+import com.ita.if103java.ims.exception.dao.CRUDException;
 import com.ita.if103java.ims.exception.dao.DashboardDataNotFoundException;
 import com.ita.if103java.ims.mapper.jdbc.EndingItemsRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.PopularItemsRowMapper;
 import com.ita.if103java.ims.mapper.jdbc.WarehouseLoadRowMapper;
-import com.ita.if103java.ims.mapper.jdbc.WarehousePremiumStructRowMapper;
+import com.ita.if103java.ims.mapper.jdbc.WarehouseRowMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.ita.if103java.ims.util.JDBCUtils.getOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -36,7 +43,7 @@ public class DashboardDaoImplTest {
     @Mock
     private EndingItemsRowMapper endingItemsRowMapper;
     @Mock
-    private WarehousePremiumStructRowMapper warehousePremiumStructRowMapper;
+    private WarehouseRowMapper warehouseRowMapper;
     @Mock
     JdbcTemplate jdbcTemplate;
 
@@ -79,10 +86,10 @@ public class DashboardDaoImplTest {
 
         verify(jdbcTemplate, times(1))
             .query(
-                DashboardDaoImpl.Queries.SQL_FIND_POPULAR_ITEMS + DashboardDaoImpl.Queries.SQL_POP_YEAR +
+                DashboardDaoImpl.Queries.SQL_FIND_POPULAR_ITEMS + DashboardDaoImpl.Queries.SQL_POP_PERIOD +
                     DashboardDaoImpl.Queries.SQL_ATR_POP,
                 popularItemsRowMapper,
-                fakeAccountId, popularItems.getDate(), popularItems.getQuantity()
+                fakeAccountId, Date.valueOf("2020-01-01"), Date.valueOf("2021-01-01"), popularItems.getQuantity()
             );
     }
 
@@ -96,13 +103,38 @@ public class DashboardDaoImplTest {
         verify(jdbcTemplate, times(1))
             .query(
                 DashboardDaoImpl.Queries.SQL_FIND_POPULAR_ITEMS +
-                    DashboardDaoImpl.Queries.SQL_POP_MONTH + DashboardDaoImpl.Queries.SQL_ATR_UNPOP,
+                    DashboardDaoImpl.Queries.SQL_POP_PERIOD + DashboardDaoImpl.Queries.SQL_ATR_UNPOP,
                 popularItemsRowMapper,
-                fakeAccountId, popularItems.getDate(), popularItems.getDate(), popularItems.getQuantity()
+                fakeAccountId, Date.valueOf("2019-02-01"), Date.valueOf("2019-03-01"), popularItems.getQuantity()
             );
     }
 
 
+    @Test
+    public void testPopularItems_isoDate() {
+        PopularItemsRequestDto popularItems =
+            new PopularItemsRequestDto(3, DateType.MONTH, PopType.TOP, "2019-12-31");
+
+        dashboardDaoImpl.findPopularItems(popularItems, fakeAccountId);
+
+        verify(jdbcTemplate, times(1))
+            .query(
+                DashboardDaoImpl.Queries.SQL_FIND_POPULAR_ITEMS +
+                    DashboardDaoImpl.Queries.SQL_POP_PERIOD + DashboardDaoImpl.Queries.SQL_ATR_POP,
+                popularItemsRowMapper,
+                fakeAccountId, Date.valueOf("2019-12-01"), Date.valueOf("2020-01-01"), popularItems.getQuantity()
+            );
+    }
+
+    @Test
+    public void testPopularItems_invalidDate() {
+        PopularItemsRequestDto popularItems =
+            new PopularItemsRequestDto(3, DateType.MONTH, PopType.TOP, "31/12/2019");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> dashboardDaoImpl.findPopularItems(popularItems, fakeAccountId));
+    }
+
     @Test
     public void testPopularItems_unpopularDuringWholeTime() {
         PopularItemsRequestDto popularItems =
@@ -183,29 +215,34 @@ public class DashboardDaoImplTest {
     }
     @Test
     public void testPremiumLoad(){
-        when(jdbcTemplate.queryForObject(
-            DashboardDaoImpl.Queries.SQL_WAREHOUSE_STRUCTURE_PRIMARY,
-            warehousePremiumStructRowMapper, fakeWarehouseId, fakeAccountId
-        )).thenReturn(new WarehousePremiumStructDto());
-
-        when(jdbcTemplate.query(DashboardDaoImpl.Queries.SQL_WAREHOUSE_STRUCTURE_SUB,
-            warehousePremiumStructRowMapper, fakeWarehouseId, fakeAccountId)).thenReturn(new ArrayList<>());
-
-        dashboardDaoImpl.getPreLoadByAccounId(fakeWarehouseId, fakeAccountId);
-
+        Warehouse bottomA = new Warehouse(6L, "ShelfA", "info", 50, true, 5L, fakeAccountId, fakeWarehouseId, true);
+        bottomA.setUsedVolume(20);
+        Warehouse bottomB = new Warehouse(7L, "ShelfB", "info", 30, true, 5L, fakeAccountId, fakeWarehouseId, true);
+        bottomB.setUsedVolume(5);
+        List<Warehouse> subtree = List.of(
+            new Warehouse(fakeWarehouseId, "Stock", "info", 0, false, null, fakeAccountId, fakeWarehouseId, true),
+            new Warehouse(5L, "Section", "info", 0, false, fakeWarehouseId, fakeAccountId, fakeWarehouseId, true),
+            new Warehouse(8L, "Empty", "info", 0, false, fakeWarehouseId, fakeAccountId, fakeWarehouseId, true),
+            bottomA,
+            bottomB);
+        when(jdbcTemplate.query(DashboardDaoImpl.Queries.SQL_WAREHOUSE_SUBTREE,
+            warehouseRowMapper, fakeWarehouseId, fakeAccountId)).thenReturn(subtree);
+
+        WarehousePremiumStructDto root = dashboardDaoImpl.getPreLoadByAccounId(fakeWarehouseId, fakeAccountId);
+
+        assertEquals(25L, root.getCharge());
+        assertEquals(80L, root.getCapacity());
+        assertEquals(2, root.getChilds().size());
+        assertEquals(2, root.getChilds().get(0).getChilds().size());
+        assertEquals(0L, root.getChilds().get(1).getCapacity());
         verify(jdbcTemplate, times(1))
-            .queryForObject(
-                DashboardDaoImpl.Queries.SQL_WAREHOUSE_STRUCTURE_PRIMARY,
-                warehousePremiumStructRowMapper, fakeWarehouseId, fakeAccountId
-            );
+            .query(DashboardDaoImpl.Queries.SQL_WAREHOUSE_SUBTREE, warehouseRowMapper, fakeWarehouseId, fakeAccountId);
     }
 
     @Test
-    public void testPremiumLoad_DBNotRespondToFindPrimaryWarehouse(){
-        when(jdbcTemplate.queryForObject(
-            DashboardDaoImpl.Queries.SQL_WAREHOUSE_STRUCTURE_PRIMARY,
-            warehousePremiumStructRowMapper, fakeWarehouseId, fakeAccountId
-        )).thenThrow(DashboardDataNotFoundException.class);
+    public void testPremiumLoad_RootWarehouseNotFound(){
+        when(jdbcTemplate.query(DashboardDaoImpl.Queries.SQL_WAREHOUSE_SUBTREE,
+            warehouseRowMapper, fakeWarehouseId, fakeAccountId)).thenReturn(new ArrayList<>());
 
         assertThrows(DashboardDataNotFoundException.class, () ->
             dashboardDaoImpl.getPreLoadByAccounId(fakeWarehouseId, fakeAccountId));
@@ -213,15 +250,10 @@ public class DashboardDaoImplTest {
 
     @Test
     public void testPremiumLoad_DBNotRespondToFindWarehouseStructure(){
-        when(jdbcTemplate.queryForObject(
-            DashboardDaoImpl.Queries.SQL_WAREHOUSE_STRUCTURE_PRIMARY,
-            warehousePremiumStructRowMapper, fakeWarehouseId, fakeAccountId
-        )).thenReturn(new WarehousePremiumStructDto());
-
-        when(jdbcTemplate.query(DashboardDaoImpl.Queries.SQL_WAREHOUSE_STRUCTURE_SUB,
-            warehousePremiumStructRowMapper, fakeWarehouseId, fakeAccountId)).thenThrow(DashboardDataNotFoundException.class);
+        when(jdbcTemplate.query(DashboardDaoImpl.Queries.SQL_WAREHOUSE_SUBTREE,
+            warehouseRowMapper, fakeWarehouseId, fakeAccountId)).thenThrow(new QueryTimeoutException("timeout"));
 
-        assertThrows(DashboardDataNotFoundException.class, () ->
+        assertThrows(CRUDException.class, () ->
             dashboardDaoImpl.getPreLoadByAccounId(fakeWarehouseId, fakeAccountId));
     }
 }
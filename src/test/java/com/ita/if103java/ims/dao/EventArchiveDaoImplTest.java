@@ -0,0 +1,134 @@
+package com.ita.if103java.ims.dao;
+
+import com.ita.if103java.ims.dao.impl.EventArchiveDaoImpl;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventArchiveDaoImplTest {
+    private final Long accountId = 2L;
+    private final YearMonth month = YearMonth.of(2019, 3);
+
+    @TempDir
+    Path archiveDir;
+
+    private EventArchiveDaoImpl eventArchiveDao;
+
+    @BeforeEach
+    void setUp() {
+        eventArchiveDao = new EventArchiveDaoImpl();
+        ReflectionTestUtils.setField(eventArchiveDao, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(eventArchiveDao, "cacheSize", 2);
+        eventArchiveDao.init();
+    }
+
+    @Test
+    void archive_roundTripsEvents() {
+        Event event = event(1L, "Item came", 26L);
+        eventArchiveDao.archive(accountId, month, List.of(event));
+
+        List<Event> archived = eventArchiveDao.findByAccountIdAndMonth(accountId, month);
+
+        assertEquals(1, archived.size());
+        assertEquals(event, archived.get(0));
+        assertEquals(event.getDate(), archived.get(0).getDate());
+        assertEquals(26L, archived.get(0).getWarehouseId());
+        assertTrue(Files.exists(archiveDir.resolve("2").resolve("events-2019-03.jsonl.gz")));
+    }
+
+    @Test
+    void archive_mergesWithArchivedEventsById() {
+        eventArchiveDao.archive(accountId, month, List.of(event(1L, "first", null), event(2L, "second", null)));
+        eventArchiveDao.archive(accountId, month, List.of(event(2L, "second again", null), event(3L, "third", null)));
+
+        assertEquals(List.of("first", "second again", "third"),
+            eventArchiveDao.findByAccountIdAndMonth(accountId, month).stream()
+                .map(Event::getMessage)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void findMonthsByAccountId_sorted() {
+        eventArchiveDao.archive(accountId, month, List.of(event(1L, "March", null)));
+        eventArchiveDao.archive(accountId, YearMonth.of(2018, 12), List.of(event(2L, "December", null)));
+
+        assertEquals(List.of(YearMonth.of(2018, 12), month), eventArchiveDao.findMonthsByAccountId(accountId));
+        assertEquals(List.of(), eventArchiveDao.findMonthsByAccountId(3L));
+    }
+
+    @Test
+    void deleteByAccountId_removesArchive() {
+        eventArchiveDao.archive(accountId, month, List.of(event(1L, "March", null)));
+
+        eventArchiveDao.deleteByAccountId(accountId);
+
+        assertFalse(Files.exists(archiveDir.resolve("2")));
+        assertEquals(List.of(), eventArchiveDao.findByAccountIdAndMonth(accountId, month));
+    }
+
+    @Test
+    void findByAccountIdAndMonth_keepsParsedMonth() throws Exception {
+        eventArchiveDao.archive(accountId, month, List.of(event(1L, "March", null)));
+        List<Event> archived = eventArchiveDao.findByAccountIdAndMonth(accountId, month);
+        Files.delete(archiveDir.resolve("2").resolve("events-2019-03.jsonl.gz"));
+
+        assertSame(archived, eventArchiveDao.findByAccountIdAndMonth(accountId, month));
+    }
+
+    @Test
+    void findByAccountIdAndMonth_rereadsEvictedMonth() {
+        eventArchiveDao.archive(accountId, month, List.of(event(1L, "March", null)));
+        List<Event> archived = eventArchiveDao.findByAccountIdAndMonth(accountId, month);
+        eventArchiveDao.findByAccountIdAndMonth(accountId, month.plusMonths(1));
+        eventArchiveDao.findByAccountIdAndMonth(accountId, month.plusMonths(2));
+
+        List<Event> reread = eventArchiveDao.findByAccountIdAndMonth(accountId, month);
+
+        assertNotSame(archived, reread);
+        assertEquals(archived, reread);
+    }
+
+    @Test
+    void streamByAccountIdAndMonth_readsFileInDateOrder() {
+        Event later = event(1L, "later", null);
+        Event earlier = event(2L, "earlier", null);
+        earlier.setDate(later.getDate().minusDays(1));
+        eventArchiveDao.archive(accountId, month, List.of(later, earlier));
+        EventArchiveDaoImpl uncached = new EventArchiveDaoImpl();
+        ReflectionTestUtils.setField(uncached, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(uncached, "cacheSize", 2);
+        uncached.init();
+
+        List<String> messages = new ArrayList<>();
+        uncached.streamByAccountIdAndMonth(accountId, month, event -> messages.add(event.getMessage()));
+
+        assertEquals(List.of("earlier", "later"), messages);
+        uncached.streamByAccountIdAndMonth(accountId, month.plusMonths(1), event -> messages.add(event.getMessage()));
+        assertEquals(2, messages.size());
+    }
+
+    private Event event(Long id, String message, Long warehouseId) {
+        Event event = new Event(message, accountId, warehouseId, 4L, EventName.ITEM_CAME, null);
+        event.setId(id);
+        event.setDate(LocalDateTime.of(2019, 3, 10, 12, 30, 15).atZone(ZoneId.systemDefault()));
+        return event;
+    }
+}
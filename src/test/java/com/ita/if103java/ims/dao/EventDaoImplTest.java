@@ -21,6 +21,7 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -31,21 +32,29 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -70,12 +79,18 @@ public class EventDaoImplTest {
     @Mock
     private GeneratedKeyHolderFactory generatedKeyHolderFactory;
 
+    @Mock
+    private EventArchiveDao eventArchiveDao;
+
     @InjectMocks
     private EventDaoImpl eventDao;
 
     @Captor
     private ArgumentCaptor<String> stringArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<Object> argsCaptor;
+
     private User user;
     private Event event;
     private ZonedDateTime currentDateTime = ZonedDateTime.now();
@@ -111,9 +126,9 @@ public class EventDaoImplTest {
         when(this.dataSource.getConnection()).thenReturn(this.connection);
         when(this.generatedKeyHolderFactory.newKeyHolder()).thenReturn(keyHolder);
         when(this.connection.prepareStatement(anyString(), anyInt())).thenReturn(this.preparedStatement);
-        when(jdbcTemplate.query(stringArgumentCaptor.capture(),
-            ArgumentMatchers.<EventRowMapper>any())).thenReturn(new ArrayList<Event>());
-        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(5);
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<EventRowMapper>any(), ArgumentMatchers.<Object>any()))
+            .thenReturn(new ArrayList<Event>());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), ArgumentMatchers.<Object>any())).thenReturn(5);
     }
 
     @Test
@@ -135,115 +150,235 @@ public class EventDaoImplTest {
         verify(jdbcTemplate, times(1)).update(anyString(), eq(user.getAccountId()));
     }
 
+    @Test
+    public void testFindFeed_firstPage() {
+        params = new HashMap<>();
+        params.put("date", "2020-01-31");
+        eventDao.findFeed(params, user, null, null, 21);
+
+        verifyQuery("""
+                SELECT * FROM events WHERE account_id = ? and date >= ? and date < ?
+                ORDER BY date DESC, id DESC LIMIT ?
+                """,
+            List.of(2L, LocalDateTime.of(2020, 1, 31, 0, 0), LocalDateTime.of(2020, 2, 1, 0, 0), 21));
+    }
+
+    @Test
+    public void testFindFeed_afterCursor() {
+        LocalDateTime cursorDate = LocalDateTime.of(2020, 1, 31, 10, 15);
+        eventDao.findFeed(new HashMap<>(), user, cursorDate, 40L, 21);
+
+        verifyQuery("""
+                SELECT * FROM events WHERE account_id = ? and (date < ? or (date = ? and id < ?))
+                ORDER BY date DESC, id DESC LIMIT ?
+                """,
+            List.of(2L, cursorDate, cursorDate, 40L, 21));
+    }
+
+    @Test
+    public void testFindAll_readsThroughArchive() {
+        Event hot = archivedEvent(7L, EventName.ITEM_CAME, LocalDateTime.of(2020, 2, 1, 9, 0));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<EventRowMapper>any(), ArgumentMatchers.<Object>any()))
+            .thenReturn(new ArrayList<>(List.of(hot)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), ArgumentMatchers.<Object>any())).thenReturn(1);
+        when(eventArchiveDao.findMonthsByAccountId(2L)).thenReturn(List.of(YearMonth.of(2001, 12), YearMonth.of(2002, 3)));
+        when(eventArchiveDao.findByAccountIdAndMonth(2L, YearMonth.of(2002, 3))).thenReturn(List.of(
+            archivedEvent(3L, EventName.WAREHOUSE_CREATED, LocalDateTime.of(2002, 3, 5, 10, 0)),
+            archivedEvent(4L, EventName.ITEM_CAME, LocalDateTime.of(2002, 3, 1, 10, 0)),
+            archivedEvent(5L, EventName.ITEM_CAME, LocalDateTime.of(2002, 3, 9, 10, 0))));
+        params = new HashMap<>();
+        params.put("type", List.of("TRANSACTION"));
+        params.put("after", "2002-02-02");
+
+        Page<Event> page = eventDao.findAll(PageRequest.of(0, 2, Sort.Direction.DESC, "date"), params, user);
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(7L, 5L), page.getContent().stream().map(Event::getId).collect(Collectors.toList()));
+        verify(eventArchiveDao, never()).findByAccountIdAndMonth(2L, YearMonth.of(2001, 12));
+    }
+
+    @Test
+    public void testFindAll_countsArchivedMonthsStillInTableOnce() {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<EventRowMapper>any(), ArgumentMatchers.<Object>any()))
+            .thenReturn(new ArrayList<>(List.of(archivedEvent(4L, EventName.ITEM_CAME,
+                LocalDateTime.of(2002, 3, 1, 10, 0)))));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), ArgumentMatchers.<Object>any())).thenReturn(2);
+        when(jdbcTemplate.queryForObject(anyString(), eq(LocalDateTime.class), eq(2L)))
+            .thenReturn(LocalDateTime.of(2002, 3, 1, 10, 0));
+        when(eventArchiveDao.findMonthsByAccountId(2L)).thenReturn(List.of(YearMonth.of(2002, 2), YearMonth.of(2002, 3)));
+        when(eventArchiveDao.findByAccountIdAndMonth(2L, YearMonth.of(2002, 2))).thenReturn(List.of(
+            archivedEvent(2L, EventName.ITEM_CAME, LocalDateTime.of(2002, 2, 20, 10, 0))));
+        when(eventArchiveDao.findByAccountIdAndMonth(2L, YearMonth.of(2002, 3))).thenReturn(List.of(
+            archivedEvent(4L, EventName.ITEM_CAME, LocalDateTime.of(2002, 3, 1, 10, 0)),
+            archivedEvent(5L, EventName.ITEM_CAME, LocalDateTime.of(2002, 3, 9, 10, 0))));
+        params = new HashMap<>();
+        params.put("after", "2002-02-02");
+
+        Page<Event> page = eventDao.findAll(PageRequest.of(0, 10, Sort.Direction.ASC, "id"), params, user);
+
+        // March is archived but not yet deleted, its two rows are counted in the table
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    public void testFindAll_withoutDateFilterSkipsArchive() {
+        params.remove("after");
+        eventDao.findAll(pageable, params, user);
+        verify(eventArchiveDao, never()).findMonthsByAccountId(anyLong());
+    }
+
+    @Test
+    public void testFindAll_invalidDate() {
+        params.put("before", "yesterday");
+        assertThrows(IllegalArgumentException.class, () -> eventDao.findAll(pageable, params, user));
+    }
+
+    @Test
+    public void testFindAll_sortsByWhitelistedColumns() {
+        params.remove("after");
+        eventDao.findAll(PageRequest.of(0, 15, Sort.by(Sort.Order.desc("date"), Sort.Order.asc("authorId"))),
+            params, user);
+
+        verify(jdbcTemplate).query(stringArgumentCaptor.capture(), ArgumentMatchers.<EventRowMapper>any(),
+            argsCaptor.capture());
+        assertTrue(stringArgumentCaptor.getValue().contains("ORDER BY date DESC, author_id ASC, id ASC LIMIT"));
+    }
+
+    @Test
+    public void testFindAll_rejectsUnknownSortProperty() {
+        PageRequest injected = PageRequest.of(0, 15, Sort.by("id; DROP TABLE events"));
+        assertThrows(IllegalArgumentException.class, () -> eventDao.findAll(injected, params, user));
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<EventRowMapper>any(),
+            ArgumentMatchers.<Object>any());
+    }
+
     @ParameterizedTest
     @ArgumentsSource(FindAllArgumentsProvider.class)
-    public void testFindAll_successFlow(Role role, Map<String, Object> params, String expectedQuery) {
+    public void testFindAll_successFlow(Role role, Map<String, Object> params, String expectedQuery,
+                                        List<Object> expectedArgs) {
         user.setRole(role);
         eventDao.findAll(pageable, params, user);
-        assertEquals(expectedQuery,
+        List<Object> args = new ArrayList<>(expectedArgs);
+        args.addAll(List.of(15, 0L));
+        verifyQuery(expectedQuery + " ORDER BY id ASC LIMIT ? OFFSET ?", args);
+    }
+
+    private void verifyQuery(String expectedQuery, List<Object> expectedArgs) {
+        verify(jdbcTemplate).query(stringArgumentCaptor.capture(), ArgumentMatchers.<EventRowMapper>any(),
+            argsCaptor.capture());
+        assertEquals(expectedQuery.replace("\n", " ").replaceAll("\\s{2,}", " ").trim(),
             stringArgumentCaptor.getValue().replaceAll("\\s{2,}", " ").trim());
+        assertEquals(expectedArgs, argsCaptor.getAllValues());
+    }
+
+    private Event archivedEvent(Long id, EventName name, LocalDateTime date) {
+        Event archived = new Event("Archived " + id, 2L, null, 4L, name, null);
+        archived.setId(id);
+        archived.setDate(date.atZone(ZoneId.systemDefault()));
+        return archived;
     }
 
     static class FindAllArgumentsProvider implements ArgumentsProvider {
 
         @Override
         public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
+            LocalDateTime day = LocalDateTime.of(2002, 2, 2, 0, 0);
 
             HashMap<String, Object> params1 = new HashMap<>();
             params1.put("type", new ArrayList<>(Arrays.asList("USER", "WAREHOUSE")));
             params1.put("after", "02-02-2002");
-            String expectedQuery1 = """
-                SELECT * FROM events WHERE account_id = '2' and DATE(date) >= '02-02-2002' and (name in
-                ('ITEM_ENDED', 'LOW_SPACE_IN_WAREHOUSE', 'WAREHOUSE_CREATED', 'WAREHOUSE_EDITED',
-                'WAREHOUSE_REMOVED') or (name in ('LOGIN', 'LOGOUT', 'PASSWORD_CHANGED', 'PROFILE_CHANGED', 'SIGN_UP')
-                and author_id = '4')) ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery1 = "SELECT * FROM events WHERE account_id = ? and date >= ? and (name in (" +
+                placeholders(8) + ") or (name in (" + placeholders(8) + ") and author_id = ?))";
+            List<Object> expectedArgs1 = List.of(2L, day,
+                "ITEM_ENDED", "LOW_SPACE_IN_WAREHOUSE", "WAREHOUSE_CREATED", "WAREHOUSE_EDITED",
+                "WAREHOUSE_REMOVED", "WAREHOUSE_REMOVED", "WAREHOUSE_REMOVED", "WAREHOUSE_REMOVED",
+                "LOGIN", "LOGOUT", "PASSWORD_CHANGED", "PROFILE_CHANGED",
+                "SIGN_UP", "SIGN_UP", "SIGN_UP", "SIGN_UP", 4L);
 
             HashMap<String, Object> params2 = new HashMap<>();
             params2.put("type", new ArrayList<>(Arrays.asList("USER", "WAREHOUSE", "TRANSACTION")));
             params2.put("before", "02-02-2002");
-            String expectedQuery2 = """
-                SELECT * FROM events WHERE account_id = '2' and DATE(date) <= '02-02-2002' and
-                name in ('ITEM_CAME', 'ITEM_ENDED', 'ITEM_MOVED', 'ITEM_SHIPPED', 'LOGIN', 'LOGOUT',
-                'LOW_SPACE_IN_WAREHOUSE', 'PASSWORD_CHANGED', 'PROFILE_CHANGED', 'SIGN_UP', 'WAREHOUSE_CREATED',
-                'WAREHOUSE_EDITED', 'WAREHOUSE_REMOVED') ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery2 = "SELECT * FROM events WHERE account_id = ? and date < ? and name in (" +
+                placeholders(16) + ")";
+            List<Object> expectedArgs2 = List.of(2L, day.plusDays(1),
+                "ITEM_CAME", "ITEM_ENDED", "ITEM_MOVED", "ITEM_SHIPPED", "LOGIN", "LOGOUT",
+                "LOW_SPACE_IN_WAREHOUSE", "PASSWORD_CHANGED", "PROFILE_CHANGED", "SIGN_UP", "WAREHOUSE_CREATED",
+                "WAREHOUSE_EDITED", "WAREHOUSE_REMOVED", "WAREHOUSE_REMOVED", "WAREHOUSE_REMOVED",
+                "WAREHOUSE_REMOVED");
 
             HashMap<String, Object> params3 = new HashMap<>();
             params3.put("name", Arrays.asList("NEW_CLIENT", "WAREHOUSE_EDITED", "PASSWORD_CHANGED"));
             params3.put("author_id", Arrays.asList(2, 4, 5, 8, 13));
-            String expectedQuery3 = """
-                SELECT * FROM events WHERE account_id = '2' and author_id in ('2', '4', '5', '8', '13') and
-                (name in ('NEW_CLIENT', 'WAREHOUSE_EDITED') or (name in ('PASSWORD_CHANGED') and author_id = '4'))
-                ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery3 = "SELECT * FROM events WHERE account_id = ? and author_id in (" + placeholders(8) +
+                ") and (name in (?, ?) or (name in (?) and author_id = ?))";
+            List<Object> expectedArgs3 = List.of(2L, 2, 4, 5, 8, 13, 13, 13, 13,
+                "NEW_CLIENT", "WAREHOUSE_EDITED", "PASSWORD_CHANGED", 4L);
 
             HashMap<String, Object> params4 = new HashMap<>();
             params4.put("type", Arrays.asList("USER"));
             params4.put("after", "02-02-2002");
-            String expectedQuery4 = """
-                SELECT * FROM events WHERE account_id = '2' and DATE(date) >= '02-02-2002' and
-                (name in ('LOGIN', 'LOGOUT', 'PASSWORD_CHANGED', 'PROFILE_CHANGED', 'SIGN_UP') and
-                author_id = '4') ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery4 = "SELECT * FROM events WHERE account_id = ? and date >= ? and (name in (" +
+                placeholders(8) + ") and author_id = ?)";
+            List<Object> expectedArgs4 = List.of(2L, day,
+                "LOGIN", "LOGOUT", "PASSWORD_CHANGED", "PROFILE_CHANGED",
+                "SIGN_UP", "SIGN_UP", "SIGN_UP", "SIGN_UP", 4L);
 
             HashMap<String, Object> params5 = new HashMap<>();
             params5.put("type", Arrays.asList("USER"));
             params5.put("author_id", Arrays.asList(4));
-            String expectedQuery5 = """
-                SELECT * FROM events WHERE account_id = '2' and author_id in ('4') and
-                (name in ('LOGIN', 'LOGOUT', 'PASSWORD_CHANGED', 'PROFILE_CHANGED', 'SIGN_UP') and
-                author_id = '4') ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery5 = "SELECT * FROM events WHERE account_id = ? and author_id in (?) and (name in (" +
+                placeholders(8) + ") and author_id = ?)";
+            List<Object> expectedArgs5 = List.of(2L, 4,
+                "LOGIN", "LOGOUT", "PASSWORD_CHANGED", "PROFILE_CHANGED",
+                "SIGN_UP", "SIGN_UP", "SIGN_UP", "SIGN_UP", 4L);
 
             HashMap<String, Object> params6 = new HashMap<>();
             params6.put("type", Arrays.asList("USER", "TRANSACTION"));
             params6.put("author_id", Arrays.asList(2, 5, 6));
-            String expectedQuery6 = """
-                SELECT * FROM events WHERE account_id = '2' and author_id in ('2', '5', '6') and
-                name in ('ITEM_CAME', 'ITEM_MOVED', 'ITEM_SHIPPED') ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery6 = "SELECT * FROM events WHERE account_id = ? and author_id in (?, ?, ?, ?) and " +
+                "name in (?, ?, ?, ?)";
+            List<Object> expectedArgs6 = List.of(2L, 2, 5, 6, 6,
+                "ITEM_CAME", "ITEM_MOVED", "ITEM_SHIPPED", "ITEM_SHIPPED");
 
             HashMap<String, Object> params7 = new HashMap<>();
             params7.put("name", Arrays.asList("NEW_CLIENT", "LOGOUT"));
             params7.put("type", Arrays.asList("TRANSACTION"));
             params7.put("author_id", Arrays.asList(2, 4, 5, 8, 13));
-            String expectedQuery7 = """
-                SELECT * FROM events WHERE account_id = '2' and author_id in ('2', '4', '5', '8', '13') and
-                (name in ('ITEM_CAME', 'ITEM_MOVED', 'ITEM_SHIPPED', 'NEW_CLIENT') or
-                (name in ('LOGOUT') and author_id = '4')) ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
-
+            String expectedQuery7 = "SELECT * FROM events WHERE account_id = ? and author_id in (" + placeholders(8) +
+                ") and (name in (?, ?, ?, ?) or (name in (?) and author_id = ?))";
+            List<Object> expectedArgs7 = List.of(2L, 2, 4, 5, 8, 13, 13, 13, 13,
+                "ITEM_CAME", "ITEM_MOVED", "ITEM_SHIPPED", "NEW_CLIENT", "LOGOUT", 4L);
 
             HashMap<String, Object> params8 = new HashMap<>();
             params8.put("author_id", Arrays.asList(2, 5, 8, 13));
-            String expectedQuery8 = """
-                SELECT * FROM events WHERE account_id = '2' and author_id in ('2', '5', '8', '13') and
-                (name not in ('LOGIN', 'LOGOUT', 'PASSWORD_CHANGED', 'PROFILE_CHANGED', 'SIGN_UP'))
-                ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
+            String expectedQuery8 = "SELECT * FROM events WHERE account_id = ? and author_id in (?, ?, ?, ?) and " +
+                "name not in (" + placeholders(8) + ")";
+            List<Object> expectedArgs8 = List.of(2L, 2, 5, 8, 13,
+                "LOGIN", "LOGOUT", "PASSWORD_CHANGED", "PROFILE_CHANGED",
+                "SIGN_UP", "SIGN_UP", "SIGN_UP", "SIGN_UP");
 
             HashMap<String, Object> params9 = new HashMap<>();
             params9.put("type", Arrays.asList("USER"));
             params9.put("author_id", Arrays.asList(3));
-            String expectedQuery9 = """
-                SELECT * FROM events WHERE account_id = '2' and author_id in ('3') and
-                name in ('') ORDER BY id ASC LIMIT 15 OFFSET 0
-                """.replace("\n", " ").replaceAll("\\s{2,}", " ").trim();
-
+            String expectedQuery9 = "SELECT * FROM events WHERE account_id = ? and author_id in (?) and name in ('')";
+            List<Object> expectedArgs9 = List.of(2L, 3);
 
             return Stream.of(
-                Arguments.of(Role.ROLE_WORKER, params1, expectedQuery1),
-                Arguments.of(Role.ROLE_ADMIN, params2, expectedQuery2),
-                Arguments.of(Role.ROLE_WORKER, params3, expectedQuery3),
-                Arguments.of(Role.ROLE_WORKER, params4, expectedQuery4),
-                Arguments.of(Role.ROLE_WORKER, params5, expectedQuery5),
-                Arguments.of(Role.ROLE_WORKER, params6, expectedQuery6),
-                Arguments.of(Role.ROLE_WORKER, params7, expectedQuery7),
-                Arguments.of(Role.ROLE_WORKER, params8, expectedQuery8),
-                Arguments.of(Role.ROLE_WORKER, params9, expectedQuery9)
+                Arguments.of(Role.ROLE_WORKER, params1, expectedQuery1, expectedArgs1),
+                Arguments.of(Role.ROLE_ADMIN, params2, expectedQuery2, expectedArgs2),
+                Arguments.of(Role.ROLE_WORKER, params3, expectedQuery3, expectedArgs3),
+                Arguments.of(Role.ROLE_WORKER, params4, expectedQuery4, expectedArgs4),
+                Arguments.of(Role.ROLE_WORKER, params5, expectedQuery5, expectedArgs5),
+                Arguments.of(Role.ROLE_WORKER, params6, expectedQuery6, expectedArgs6),
+                Arguments.of(Role.ROLE_WORKER, params7, expectedQuery7, expectedArgs7),
+                Arguments.of(Role.ROLE_WORKER, params8, expectedQuery8, expectedArgs8),
+                Arguments.of(Role.ROLE_WORKER, params9, expectedQuery9, expectedArgs9)
             );
         }
+
+        private static String placeholders(int count) {
+            return String.join(", ", Collections.nCopies(count, "?"));
+        }
     }
 
 }
@@ -313,6 +313,28 @@ public class SavedItemDaoImplTest {
             exception.getMessage());
     }
 
+    @Test
+    void takeQuantity_successFlow() {
+        when(jdbcTemplate.update(anyString(), anyInt(), anyLong(), anyInt())).thenReturn(1);
+
+        assertEquals(true, savedItemDao.takeQuantity(2L, 5, 0));
+    }
+
+    @Test
+    void takeQuantity_omittedFlowNotEnoughQuantity() {
+        when(jdbcTemplate.update(anyString(), anyInt(), anyLong(), anyInt())).thenReturn(0);
+
+        assertEquals(false, savedItemDao.takeQuantity(2L, 5, 0));
+    }
+
+    @Test
+    void takeQuantity_omittedFlowCRUDException() {
+        when(jdbcTemplate.update(anyString(), anyInt(), anyLong(), anyInt())).thenThrow(new DataAccessException("") {
+        });
+
+        assertThrows(CRUDException.class, () -> savedItemDao.takeQuantity(2L, 5, 0));
+    }
+
     @Test
     void updateSavedItem_successFlow() {
         Long warehouseId = 40L;
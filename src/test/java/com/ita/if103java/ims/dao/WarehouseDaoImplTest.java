@@ -117,7 +117,7 @@ public class WarehouseDaoImplTest {
     @Test
     public void testDeleteByAccountId() {
         warehouseDao.hardDelete(1L);
-        verify(jdbcTemplate, times(1)).update(anyString(), eq(1L));
+        verify(jdbcTemplate, times(2)).update(anyString(), eq(1L));
     }
 
     @Test
@@ -159,7 +159,20 @@ public class WarehouseDaoImplTest {
             ()->warehouseDao.findByTopWarehouseIDs(ids, accountId));
         assertEquals(exception.getMessage(), "Error during finding all children of top-level-warehouse {Id = " + ids + "}");
     }
-}
 
+    @Test
+    void addUsedVolume_successFlow() {
+        when(jdbcTemplate.update(anyString(), eq(20L), eq(1L))).thenReturn(1);
+
+        warehouseDao.addUsedVolume(1L, 20L);
+
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(20L), eq(1L));
+    }
 
+    @Test
+    void addUsedVolume_omittedFlow() {
+        when(jdbcTemplate.update(anyString(), eq(20L), eq(1L))).thenReturn(0);
 
+        assertThrows(WarehouseNotFoundException.class, () -> warehouseDao.addUsedVolume(1L, 20L));
+    }
+}
@@ -1,5 +1,7 @@
 package com.ita.if103java.ims.service;
 
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.TextSearchIndex;
 import com.ita.if103java.ims.dao.AddressDao;
 import com.ita.if103java.ims.dao.AssociateDao;
 import com.ita.if103java.ims.dto.AddressDto;
@@ -58,6 +60,10 @@ class AssociateServiceImplTest {
 
     @Mock
     private LocationService locationService;
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+    @Mock
+    private TextSearchIndex textSearchIndex;
 
     @InjectMocks
     private AssociateServiceImpl associateService;
@@ -85,7 +91,7 @@ class AssociateServiceImplTest {
         associateService = new AssociateServiceImpl(associateDao, addressDao,
             associateDtoMapper, addressDtoMapper,
             eventService, locationService,
-            savedItemAssociateDtoMapper);
+            savedItemAssociateDtoMapper, autocompleteIndex, textSearchIndex);
 
         AccountType accountType = new AccountType();
         accountType.setMaxSuppliers(1);
@@ -0,0 +1,120 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.entity.CapacityLockMode;
+import com.ita.if103java.ims.exception.service.CapacityReservationException;
+import com.ita.if103java.ims.service.impl.CapacityReservationManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CapacityReservationManagerTest {
+    @Mock
+    private WarehouseDao warehouseDao;
+
+    private CapacityReservationManager capacityReservationManager;
+    private ExecutorService otherTransaction;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        capacityReservationManager = new CapacityReservationManager(warehouseDao);
+        ReflectionTestUtils.setField(capacityReservationManager, "mode", CapacityLockMode.LOCAL);
+        ReflectionTestUtils.setField(capacityReservationManager, "stripes", 4);
+        ReflectionTestUtils.setField(capacityReservationManager, "timeout", 50L);
+        capacityReservationManager.init();
+        otherTransaction = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherTransaction.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reserve_locksWarehouseUntilTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        capacityReservationManager.reserve(List.of(5L, 1L));
+
+        assertEquals("locked", reserveInOtherTransaction(1L));
+        assertEquals("locked", reserveInOtherTransaction(9L));
+        assertEquals("reserved", reserveInOtherTransaction(2L));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals("reserved", reserveInOtherTransaction(1L));
+    }
+
+    @Test
+    void reserve_usesDatabaseLocksInIdOrder() {
+        ReflectionTestUtils.setField(capacityReservationManager, "mode", CapacityLockMode.MYSQL);
+        when(warehouseDao.lockCapacity(anyLong(), anyInt())).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        capacityReservationManager.reserve(List.of(7L, 3L));
+        verify(warehouseDao, never()).unlockCapacity(anyLong());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        InOrder order = inOrder(warehouseDao);
+        order.verify(warehouseDao).lockCapacity(3L, 1);
+        order.verify(warehouseDao).lockCapacity(7L, 1);
+        verify(warehouseDao).unlockCapacity(3L);
+        verify(warehouseDao).unlockCapacity(7L);
+    }
+
+    @Test
+    void reserve_failsWhenDatabaseLockTimesOut() {
+        ReflectionTestUtils.setField(capacityReservationManager, "mode", CapacityLockMode.MYSQL);
+        when(warehouseDao.lockCapacity(3L, 1)).thenReturn(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(CapacityReservationException.class, () -> capacityReservationManager.reserve(3L));
+    }
+
+    @Test
+    void reserve_requiresTransaction() {
+        assertThrows(IllegalStateException.class, () -> capacityReservationManager.reserve(1L));
+    }
+
+    private String reserveInOtherTransaction(Long warehouseId) throws ExecutionException, InterruptedException {
+        return otherTransaction.submit(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                capacityReservationManager.reserve(warehouseId);
+                return "reserved";
+            } catch (CapacityReservationException e) {
+                return "locked";
+            } finally {
+                complete(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        }).get();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,99 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.service.impl.EventBatchWriter;
+import com.ita.if103java.ims.service.impl.NotificationDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventBatchWriterTest {
+    @Mock
+    private EventDao eventDao;
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+    @Mock
+    private TextSearchIndex textSearchIndex;
+
+    private EventBatchWriter eventBatchWriter;
+    private List<Integer> batchSizes;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        batchSizes = new ArrayList<>();
+        when(eventDao.createAll(anyList())).thenAnswer(invocation -> {
+            List<Event> events = invocation.getArgument(0);
+            batchSizes.add(events.size());
+            return events;
+        });
+        eventBatchWriter = new EventBatchWriter(eventDao, notificationDispatcher, textSearchIndex);
+        ReflectionTestUtils.setField(eventBatchWriter, "capacity", 100);
+        ReflectionTestUtils.setField(eventBatchWriter, "batchSize", 10);
+        ReflectionTestUtils.setField(eventBatchWriter, "flushInterval", 50L);
+        ReflectionTestUtils.setField(eventBatchWriter, "offerTimeout", 10L);
+    }
+
+    @Test
+    void submit_writesInBatchesAndDrainsOnStop() throws InterruptedException {
+        eventBatchWriter.start();
+        for (int i = 0; i < 25; i++) {
+            eventBatchWriter.submit(event(EventName.ITEM_CAME));
+        }
+        eventBatchWriter.stop();
+
+        assertEquals(25, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        verify(eventDao, never()).create(any());
+    }
+
+    @Test
+    void submit_writesItselfWhenStopped() throws InterruptedException {
+        eventBatchWriter.start();
+        eventBatchWriter.stop();
+
+        eventBatchWriter.submit(event(EventName.ITEM_CAME));
+
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    void write_dispatchesNotificationsAfterInsert() throws InterruptedException {
+        Event notification = event(EventName.NEW_CLIENT);
+
+        eventBatchWriter.start();
+        eventBatchWriter.submit(notification);
+        eventBatchWriter.submit(event(EventName.LOGIN));
+        eventBatchWriter.stop();
+
+        verify(notificationDispatcher, times(1)).dispatch(notification);
+        verify(notificationDispatcher, times(1)).dispatch(any(Event.class));
+        verify(eventDao, atLeastOnce()).createAll(anyList());
+    }
+
+    private Event event(EventName name) {
+        Event event = new Event();
+        event.setAccountId(2L);
+        event.setAuthorId(4L);
+        event.setName(name);
+        return event;
+    }
+}
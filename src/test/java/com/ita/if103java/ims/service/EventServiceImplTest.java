@@ -5,15 +5,17 @@ import com.ita.if103java.ims.dao.EventDao;
 import com.ita.if103java.ims.dao.UserDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
 import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.EventFeedDto;
 import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventCountMode;
 import com.ita.if103java.ims.entity.EventName;
 import com.ita.if103java.ims.entity.User;
 import com.ita.if103java.ims.mapper.dto.EventDtoMapper;
 import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.EventBatchWriter;
 import com.ita.if103java.ims.service.impl.EventServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -21,18 +23,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyListOf;
-import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.atMostOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -54,7 +62,7 @@ public class EventServiceImplTest {
     private EventDtoMapper eventDtoMapper;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private EventBatchWriter eventBatchWriter;
 
 
     @InjectMocks
@@ -118,8 +126,7 @@ public class EventServiceImplTest {
     @Test
     public void testCreateEvent() {
         eventService.create(event);
-        verify(eventDao, times(1)).create(event);
-        verify(simpMessagingTemplate, atMostOnce()).convertAndSend(anyString(), ArgumentMatchers.<EventDto>any());
+        verify(eventBatchWriter, times(1)).submit(event);
         assertNotNull(event.getDate());
 
     }
@@ -133,9 +140,60 @@ public class EventServiceImplTest {
         assertNotNull(result.getContent().get(0).getAuthor());
     }
 
+    @Test
+    public void testFindFeed_firstPageReturnsCursorAndCount() {
+        ReflectionTestUtils.setField(eventService, "maxFeedSize", 100);
+        List<Event> events = feedEvents(3);
+        when(eventDao.findFeed(params, user, null, null, 3)).thenReturn(events);
+        when(eventDtoMapperMock.toDtoList(events.subList(0, 2))).thenReturn(eventDtoMapper.toDtoList(events.subList(0, 2)));
+        when(eventDao.count(params, user)).thenReturn(7L);
+
+        EventFeedDto feed = eventService.findFeed(params, null, 2, EventCountMode.FIRST_PAGE, userDetails);
+
+        assertEquals(2, feed.getContent().size());
+        assertEquals(7L, feed.getTotalElements());
+        String[] cursor = new String(Base64.getUrlDecoder().decode(feed.getNextCursor())).split("_");
+        assertEquals(events.get(1).getDate().toLocalDateTime().toString(), cursor[0]);
+        assertEquals("11", cursor[1]);
+    }
+
+    @Test
+    public void testFindFeed_nextPageSkipsCount() {
+        ReflectionTestUtils.setField(eventService, "maxFeedSize", 100);
+        List<Event> events = feedEvents(1);
+        LocalDateTime cursorDate = LocalDateTime.of(2020, 1, 31, 10, 15);
+        String cursor = Base64.getUrlEncoder().encodeToString((cursorDate + "_11").getBytes());
+        when(eventDao.findFeed(params, user, cursorDate, 11L, 3)).thenReturn(events);
+        when(eventDtoMapperMock.toDtoList(events)).thenReturn(eventDtoMapper.toDtoList(events));
+
+        EventFeedDto feed = eventService.findFeed(params, cursor, 2, EventCountMode.FIRST_PAGE, userDetails);
+
+        assertEquals(1, feed.getContent().size());
+        assertNull(feed.getNextCursor());
+        assertNull(feed.getTotalElements());
+        verify(eventDao, never()).count(params, user);
+    }
+
+    @Test
+    public void testFindFeed_invalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+            () -> eventService.findFeed(params, "not a cursor", 2, EventCountMode.NONE, userDetails));
+    }
+
     @Test
     public void testDeleteByAccountId() {
         eventService.deleteByAccountId(userDetails.getUser().getAccountId());
         verify(eventDao, times(1)).deleteByAccountId(userDetails.getUser().getAccountId());
     }
+
+    private List<Event> feedEvents(int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Event feedEvent = new Event("Test message " + i, 2l, null, 4l, EventName.LOGIN, null);
+            feedEvent.setId(10l + i);
+            feedEvent.setDate(ZonedDateTime.now().minusMinutes(i));
+            events.add(feedEvent);
+        }
+        return events;
+    }
 }
@@ -0,0 +1,154 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.EventDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dao.TransactionDao;
+import com.ita.if103java.ims.dto.ItemDto;
+import com.ita.if103java.ims.dto.SavedItemExportDto;
+import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
+import com.ita.if103java.ims.dto.UserDto;
+import com.ita.if103java.ims.dto.WarehouseDto;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.ExportFormat;
+import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.ExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExportServiceImplTest {
+    @Mock
+    private TransactionDao transactionDao;
+    @Mock
+    private SavedItemDao savedItemDao;
+    @Mock
+    private EventDao eventDao;
+    @Mock
+    private WarehouseTreeCache warehouseTreeCache;
+
+    @InjectMocks
+    private ExportServiceImpl exportService;
+
+    private User user;
+    private UserDetailsImpl userDetails;
+    private ByteArrayOutputStream out;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        user = new User();
+        user.setAccountId(2L);
+        userDetails = new UserDetailsImpl(user);
+        out = new ByteArrayOutputStream();
+        when(warehouseTreeCache.findPath(10L, 2L)).thenReturn(List.of("Main", "Shelf, A"));
+    }
+
+    @Test
+    void testExportSavedItems_csv() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<SavedItemExportDto> consumer = invocation.getArgument(1);
+            consumer.accept(new SavedItemExportDto(1L, 5L, "Bolt \"M8\"", "pcs", 40, 10L));
+            consumer.accept(new SavedItemExportDto(2L, 6L, "Nut", "pcs", 15, 10L));
+            return null;
+        }).when(savedItemDao).streamByAccountId(eq(2L), any());
+
+        exportService.exportSavedItems(ExportFormat.CSV, out, userDetails);
+
+        assertEquals("id,item_id,item_name,unit,quantity,warehouse_id,warehouse\r\n" +
+                "1,5,\"Bolt \"\"M8\"\"\",pcs,40,10,\"Main / Shelf, A\"\r\n" +
+                "2,6,Nut,pcs,15,10,\"Main / Shelf, A\"\r\n",
+            out.toString(StandardCharsets.UTF_8));
+        verify(warehouseTreeCache, times(1)).findPath(10L, 2L);
+    }
+
+    @Test
+    void testExportTransactions_ndjson() throws IOException {
+        TransactionFilterDto filter = new TransactionFilterDto();
+        TransactionDto transaction = new TransactionDto();
+        transaction.setId(7L);
+        transaction.setTimestamp(Timestamp.valueOf(LocalDateTime.of(2020, 1, 31, 10, 15)));
+        transaction.setType(TransactionType.OUT);
+        transaction.setQuantity(3L);
+        ItemDto item = new ItemDto();
+        item.setId(5L);
+        item.setName("Bolt");
+        item.setUnit("pcs");
+        transaction.setItem(item);
+        UserDto worker = new UserDto();
+        worker.setId(4L);
+        worker.setFirstName("Ann");
+        worker.setLastName("Lee");
+        transaction.setWorker(worker);
+        WarehouseDto warehouse = new WarehouseDto();
+        warehouse.setId(11L);
+        transaction.setMovedFrom(warehouse);
+        when(warehouseTreeCache.findPath(11L, 2L)).thenThrow(WarehouseNotFoundException.class);
+        doAnswer(invocation -> {
+            Consumer<TransactionDto> consumer = invocation.getArgument(2);
+            consumer.accept(transaction);
+            return null;
+        }).when(transactionDao).streamHistory(eq(2L), eq(filter), any());
+
+        exportService.exportTransactions(filter, ExportFormat.NDJSON, out, userDetails);
+
+        assertEquals("{\"id\":7,\"timestamp\":\"2020-01-31T10:15\",\"type\":\"OUT\",\"quantity\":3," +
+                "\"item_id\":5,\"item_name\":\"Bolt\",\"unit\":\"pcs\",\"worker_id\":4,\"worker_name\":\"Ann Lee\"," +
+                "\"associate_id\":null,\"associate_name\":null,\"moved_from_id\":11,\"moved_from\":\"\"," +
+                "\"moved_to_id\":null,\"moved_to\":null}\n",
+            out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportEvents_failedWriteStopsStreaming() {
+        Map<String, Object> params = new HashMap<>();
+        Event event = new Event();
+        event.setId(1L);
+        event.setDate(ZonedDateTime.of(2020, 1, 31, 10, 15, 0, 0, ZoneId.systemDefault()));
+        event.setName(EventName.LOGIN);
+        event.setMessage("x".repeat(10000));
+        doAnswer(invocation -> {
+            Consumer<Event> consumer = invocation.getArgument(2);
+            consumer.accept(event);
+            return null;
+        }).when(eventDao).streamAll(eq(params), eq(user), any());
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exportService.exportEvents(params, ExportFormat.CSV, failing, userDetails));
+    }
+}
@@ -0,0 +1,189 @@
+package com.ita.if103java.ims.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.cache.IdempotencyCache;
+import com.ita.if103java.ims.dao.IdempotencyKeyDao;
+import com.ita.if103java.ims.dto.SavedItemDto;
+import com.ita.if103java.ims.entity.IdempotencyKey;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.service.IdempotencyKeyException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.IdempotencyServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyServiceImplTest {
+    private final Long accountId = 3L;
+    private final TypeReference<SavedItemDto> responseType = new TypeReference<>() {};
+
+    @Mock
+    private IdempotencyKeyDao idempotencyKeyDao;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyCache idempotencyCache;
+    private IdempotencyServiceImpl idempotencyService;
+    private UserDetailsImpl userDetails;
+    private TransactionStatus transactionStatus;
+    private AtomicInteger applied;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        idempotencyCache = new IdempotencyCache();
+        ReflectionTestUtils.setField(idempotencyCache, "cacheSize", 2);
+        idempotencyCache.init();
+        transactionStatus = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyDao, idempotencyCache,
+            new TransactionTemplate(transactionManager), new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "claimLeaseSeconds", 120L);
+
+        User user = new User();
+        user.setAccountId(accountId);
+        userDetails = new UserDetailsImpl(user);
+        applied = new AtomicInteger();
+    }
+
+    @Test
+    void execute_storesResponseAndReplaysItFromCache() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(true);
+
+        assertEquals(5, idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply)
+            .getQuantity());
+        assertEquals(5, idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply)
+            .getQuantity());
+
+        assertEquals(1, applied.get());
+        verify(idempotencyKeyDao, times(1)).create(any(IdempotencyKey.class));
+        verify(idempotencyKeyDao, never()).find(any(), any());
+        verify(transactionManager, times(1)).commit(transactionStatus);
+    }
+
+    @Test
+    void execute_replaysResponseOfKeyClaimedBefore() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(false);
+        when(idempotencyKeyDao.find(eq(accountId), any())).thenAnswer(invocation -> Optional.of(
+            new IdempotencyKey(accountId, invocation.getArgument(1), "savedItems.add", "{\"id\":7,\"quantity\":2}",
+                null)));
+
+        SavedItemDto response = idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails,
+            this::apply);
+
+        assertEquals(7L, response.getId());
+        assertEquals(2, response.getQuantity());
+        assertEquals(0, applied.get());
+        verify(transactionManager, never()).getTransaction(any());
+        idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply);
+        verify(idempotencyKeyDao, times(1)).find(any(), any());
+    }
+
+    @Test
+    void execute_failsWhileAnotherRequestHoldsTheKey() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(false);
+        when(idempotencyKeyDao.find(eq(accountId), any())).thenAnswer(invocation -> Optional.of(
+            new IdempotencyKey(accountId, invocation.getArgument(1), "savedItems.add", null, null)));
+
+        assertThrows(IdempotencyKeyException.class,
+            () -> idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply));
+        assertEquals(0, applied.get());
+    }
+
+    @Test
+    void execute_takesOverClaimPastItsLease() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(false);
+        when(idempotencyKeyDao.find(eq(accountId), any())).thenAnswer(invocation -> Optional.of(
+            new IdempotencyKey(accountId, invocation.getArgument(1), "savedItems.add", null,
+                ZonedDateTime.now().minusMinutes(10))));
+        when(idempotencyKeyDao.claimExpired(any(IdempotencyKey.class), any(ZonedDateTime.class))).thenReturn(true);
+
+        assertEquals(5, idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply)
+            .getQuantity());
+
+        ArgumentCaptor<IdempotencyKey> idempotencyKey = ArgumentCaptor.forClass(IdempotencyKey.class);
+        ArgumentCaptor<ZonedDateTime> claimedBefore = ArgumentCaptor.forClass(ZonedDateTime.class);
+        verify(idempotencyKeyDao).claimExpired(idempotencyKey.capture(), claimedBefore.capture());
+        assertEquals(idempotencyKey.getValue().getCreatedAt().minusSeconds(120), claimedBefore.getValue());
+        verify(idempotencyKeyDao).updateResponse(idempotencyKey.getValue());
+        assertEquals(1, applied.get());
+    }
+
+    @Test
+    void execute_releasesKeyWhenActionFails() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-1", "savedItems.add",
+            responseType, userDetails, () -> {
+                throw new IllegalStateException("failed");
+            }));
+
+        verify(idempotencyKeyDao).delete(eq(accountId), any());
+        verify(idempotencyKeyDao, never()).updateResponse(any(IdempotencyKey.class));
+        verify(transactionManager).rollback(transactionStatus);
+    }
+
+    @Test
+    void execute_failsForKeyOfAnotherOperation() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(true);
+        idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply);
+
+        assertThrows(IdempotencyKeyException.class,
+            () -> idempotencyService.execute("key-1", "savedItems.outcome", responseType, userDetails, this::apply));
+        assertThrows(IdempotencyKeyException.class,
+            () -> idempotencyService.execute(" ", "savedItems.add", responseType, userDetails, this::apply));
+        assertEquals(1, applied.get());
+    }
+
+    @Test
+    void execute_withoutKeyAppliesEveryTime() {
+        idempotencyService.execute(null, "savedItems.add", responseType, userDetails, this::apply);
+        idempotencyService.execute(null, "savedItems.add", responseType, userDetails, this::apply);
+
+        assertEquals(2, applied.get());
+        verify(idempotencyKeyDao, never()).create(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void execute_storesKeyHashAndResponseJson() {
+        when(idempotencyKeyDao.create(any(IdempotencyKey.class))).thenReturn(true);
+
+        idempotencyService.execute("key-1", "savedItems.add", responseType, userDetails, this::apply);
+
+        ArgumentCaptor<IdempotencyKey> idempotencyKey = ArgumentCaptor.forClass(IdempotencyKey.class);
+        verify(idempotencyKeyDao).create(any(IdempotencyKey.class));
+        verify(idempotencyKeyDao).updateResponse(idempotencyKey.capture());
+        assertEquals(accountId, idempotencyKey.getValue().getAccountId());
+        assertEquals(32, idempotencyKey.getValue().getKeyHash().length);
+        assertEquals(true, idempotencyKey.getValue().getResponse().contains("\"quantity\":5"));
+    }
+
+    private SavedItemDto apply() {
+        applied.incrementAndGet();
+        SavedItemDto savedItemDto = new SavedItemDto();
+        savedItemDto.setId(1L);
+        savedItemDto.setQuantity(5);
+        return savedItemDto;
+    }
+}
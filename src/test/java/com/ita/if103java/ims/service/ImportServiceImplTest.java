@@ -0,0 +1,208 @@
+package com.ita.if103java.ims.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.ImportErrorDto;
+import com.ita.if103java.ims.dto.ImportReportDto;
+import com.ita.if103java.ims.entity.ImportFormat;
+import com.ita.if103java.ims.entity.ImportStatus;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.service.ImportReportNotFoundException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.ImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ImportServiceImplTest {
+    @Mock
+    private ItemDao itemDao;
+    @Mock
+    private SavedItemDao savedItemDao;
+    @Mock
+    private WarehouseDao warehouseDao;
+    @Mock
+    private WarehouseTreeCache warehouseTreeCache;
+    @Mock
+    private FreeSpaceIndex freeSpaceIndex;
+    @Mock
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    @Mock
+    private LowStockIndex lowStockIndex;
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+    @Mock
+    private TextSearchIndex textSearchIndex;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImportServiceImpl importService;
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        importService = new ImportServiceImpl(itemDao, savedItemDao, warehouseDao, warehouseTreeCache,
+            freeSpaceIndex, warehouseLoadSnapshot, lowStockIndex, autocompleteIndex, textSearchIndex,
+            new TransactionTemplate(transactionManager),
+            new ObjectMapper(), Runnable::run);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "maxRows", 10);
+        ReflectionTestUtils.setField(importService, "maxErrors", 10);
+        ReflectionTestUtils.setField(importService, "maxReports", 10);
+
+        User user = new User();
+        user.setAccountId(2L);
+        userDetails = new UserDetailsImpl(user);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportItems_csvReportsInvalidAndDuplicateRows() throws IOException {
+        when(itemDao.findItemByAccountId(2L)).thenReturn(List.of(item(1L, "Bolt", 2)));
+
+        ImportReportDto report = importService.importItems(csv(
+            "Name,Unit,Description,Volume",
+            "Nut,pcs,\"Hex nut, M8\",1",
+            "Bolt,pcs,Bolt,2",
+            "Washer,pcs,Washer,zero",
+            "Nut,pcs,Again,1",
+            "Screw,pcs,Screw,3"), ImportFormat.CSV, userDetails);
+
+        assertEquals(ImportStatus.DONE, report.getStatus());
+        assertEquals(5, report.getTotalRows());
+        assertEquals(5, report.getProcessedRows());
+        assertEquals(2, report.getImportedRows());
+        assertEquals(List.of(3, 4, 5), report.getErrors().stream().map(ImportErrorDto::getRow).sorted()
+            .collect(Collectors.toList()));
+        ArgumentCaptor<List<Item>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemDao).addItems(captor.capture());
+        assertEquals("Hex nut, M8", captor.getValue().get(0).getDescription());
+        assertEquals("Screw", captor.getValue().get(1).getName());
+    }
+
+    @Test
+    void testImportItems_missingColumn() {
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importItems(csv("name,unit,volume", "Nut,pcs,1"), ImportFormat.CSV, userDetails));
+    }
+
+    @Test
+    void testImportItems_tooManyRows() {
+        String[] lines = new String[12];
+        lines[0] = "name,unit,description,volume";
+        for (int i = 1; i < lines.length; i++) {
+            lines[i] = "Item" + i + ",pcs,Item,1";
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importItems(csv(lines), ImportFormat.CSV, userDetails));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportStock_jsonMergesRowsAndChecksCapacity() throws IOException {
+        when(itemDao.findItemByAccountId(2L)).thenReturn(List.of(item(1L, "Bolt", 2), item(3L, "Nut", 1)));
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 20L, 11L, 5L));
+        when(warehouseTreeCache.findPath(10L, 2L)).thenReturn(List.of("Main", "Shelf"));
+        when(warehouseTreeCache.findPath(11L, 2L)).thenReturn(List.of("Main", "Box"));
+        ImportReportDto report = importService.importStock(json("[" +
+            "{\"item_name\":\"Bolt\",\"warehouse\":\"Main/Shelf\",\"quantity\":\"5\"}," +
+            "{\"item_name\":\"Nut\",\"warehouse\":\"Main / Shelf\",\"quantity\":\"3\"}," +
+            "{\"item_name\":\"Bolt\",\"warehouse\":\"Main / Box\",\"quantity\":\"3\"}," +
+            "{\"item_name\":\"Bolt\",\"warehouse\":\" Main / Shelf \",\"quantity\":\"2\"}," +
+            "{\"item_name\":\"Gear\",\"warehouse\":\"Main / Shelf\",\"quantity\":\"1\"}]"),
+            ImportFormat.JSON, userDetails);
+
+        assertEquals(ImportStatus.DONE, report.getStatus());
+        assertEquals(5, report.getProcessedRows());
+        assertEquals(3, report.getImportedRows());
+        assertEquals(2, report.getErrorCount());
+
+        ArgumentCaptor<List<SavedItem>> savedItems = ArgumentCaptor.forClass(List.class);
+        verify(savedItemDao).addQuantities(savedItems.capture());
+        assertEquals(2, savedItems.getValue().size());
+        assertEquals(1L, savedItems.getValue().get(0).getItemId());
+        assertEquals(7, savedItems.getValue().get(0).getQuantity());
+        assertEquals(3L, savedItems.getValue().get(1).getItemId());
+        assertEquals(3, savedItems.getValue().get(1).getQuantity());
+        verify(savedItemDao, never()).addSavedItems(anyList());
+        verify(warehouseDao).addUsedVolume(10L, 17L);
+        verify(freeSpaceIndex).adjust(10L, 2L, 17L);
+        verify(warehouseLoadSnapshot).adjust(10L, 2L, 17L);
+        verify(lowStockIndex).evict(2L);
+    }
+
+    @Test
+    void testImportStock_failedChunkIsReported() throws IOException {
+        when(itemDao.findItemByAccountId(2L)).thenReturn(List.of(item(1L, "Bolt", 1)));
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 100L));
+        when(warehouseTreeCache.findPath(10L, 2L)).thenReturn(List.of("Main"));
+        doThrow(new RuntimeException("boom")).when(savedItemDao).addQuantities(anyList());
+
+        ImportReportDto report = importService.importStock(csv("item_name,warehouse,quantity", "Bolt,Main,4"),
+            ImportFormat.CSV, userDetails);
+
+        assertEquals(ImportStatus.DONE, report.getStatus());
+        assertEquals(0, report.getImportedRows());
+        assertEquals(1, report.getErrorCount());
+        verify(warehouseDao, never()).addUsedVolume(10L, 4L);
+    }
+
+    @Test
+    void testFindReport_otherAccount() throws IOException {
+        ImportReportDto report = importService.importItems(csv("name,unit,description,volume"),
+            ImportFormat.CSV, userDetails);
+        assertEquals(report, importService.findReport(report.getId(), userDetails));
+
+        User other = new User();
+        other.setAccountId(3L);
+        assertThrows(ImportReportNotFoundException.class,
+            () -> importService.findReport(report.getId(), new UserDetailsImpl(other)));
+    }
+
+    private Item item(Long id, String name, int volume) {
+        Item item = new Item(name, "pcs", name, volume, 2L, true);
+        item.setId(id);
+        return item;
+    }
+
+    private InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\r\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,17 +1,26 @@
 package com.ita.if103java.ims.service;
 
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
 import com.ita.if103java.ims.dao.AssociateDao;
 import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.ReorderThresholdDao;
 import com.ita.if103java.ims.dao.SavedItemDao;
 import com.ita.if103java.ims.dao.TransactionDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
 import com.ita.if103java.ims.dto.ItemDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.ReorderThresholdDto;
 import com.ita.if103java.ims.dto.SavedItemDto;
 import com.ita.if103java.ims.entity.Associate;
 import com.ita.if103java.ims.entity.Event;
 import com.ita.if103java.ims.entity.EventName;
 import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.ReorderThreshold;
 import com.ita.if103java.ims.entity.SavedItem;
 import com.ita.if103java.ims.entity.Transaction;
 import com.ita.if103java.ims.entity.TransactionType;
@@ -23,14 +32,17 @@ import com.ita.if103java.ims.exception.service.ItemDuplicateException;
 import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseException;
 import com.ita.if103java.ims.exception.service.ItemNotEnoughQuantityException;
 import com.ita.if103java.ims.mapper.dto.ItemDtoMapper;
+import com.ita.if103java.ims.mapper.dto.ReorderThresholdDtoMapper;
 import com.ita.if103java.ims.mapper.dto.SavedItemDtoMapper;
 import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.CapacityReservationManager;
 import com.ita.if103java.ims.service.impl.ItemServiceImpl;
 import com.ita.if103java.ims.service.impl.SavedItemServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -49,6 +61,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
@@ -79,6 +92,24 @@ public class ItemServiceImplTest {
     private AssociateDao associateDao;
     @Mock
     SavedItemServiceImpl savedItemService;
+    @Mock
+    FreeSpaceIndex freeSpaceIndex;
+    @Mock
+    WarehouseLoadSnapshot warehouseLoadSnapshot;
+    @Mock
+    ReorderThresholdDao reorderThresholdDao;
+    @Mock
+    ReorderThresholdDtoMapper reorderThresholdDtoMapper;
+    @Mock
+    LowStockIndex lowStockIndex;
+    @Mock
+    AutocompleteIndex autocompleteIndex;
+    @Mock
+    TextSearchIndex textSearchIndex;
+    @Mock
+    CapacityReservationManager capacityReservationManager;
+    @Mock
+    ReservationLedger reservationLedger;
 
     @Spy
     @InjectMocks
@@ -102,7 +133,6 @@ public class ItemServiceImplTest {
         userId = userDetails.getUser().getId();
 
         ReflectionTestUtils.setField(itemService, "maxWarehouseLoad", "90");
-        ReflectionTestUtils.setField(itemService, "minQuantityItemsInWarehouse", "10");
     }
 
     @Test
@@ -209,6 +239,35 @@ public class ItemServiceImplTest {
 
         assertEquals(itemService.updateItem(getItemDto(), userDetails), itemDto);
 
+        verify(warehouseDao, times(1)).updateUsedVolumeByItem(itemDto.getId(), itemDto.getVolume(), accountId);
+        verify(lowStockIndex, times(1)).evict(accountId);
+
+    }
+
+    @Test
+    void saveReorderThreshold_successFlow() {
+        ReorderThresholdDto reorderThresholdDto = new ReorderThresholdDto(108L, 18L, 20);
+        ReorderThreshold reorderThreshold = new ReorderThreshold(108L, 18L, 20);
+
+        when(itemDao.isExistItemById(108L, accountId)).thenReturn(true);
+        when(reorderThresholdDtoMapper.toEntity(reorderThresholdDto)).thenReturn(reorderThreshold);
+
+        assertEquals(reorderThresholdDto, itemService.saveReorderThreshold(reorderThresholdDto, userDetails));
+
+        verify(warehouseDao, times(1)).findById(18L, accountId);
+        verify(reorderThresholdDao, times(1)).save(reorderThreshold);
+        verify(lowStockIndex, times(1)).evict(accountId);
+    }
+
+    @Test
+    void saveReorderThreshold_omittedFlowItemNotFound() {
+        ReorderThresholdDto reorderThresholdDto = new ReorderThresholdDto(108L, null, 20);
+
+        when(itemDao.isExistItemById(108L, accountId)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class,
+            () -> itemService.saveReorderThreshold(reorderThresholdDto, userDetails));
+        verify(reorderThresholdDao, never()).save(any());
     }
 
     @Test
@@ -275,22 +334,16 @@ public class ItemServiceImplTest {
         SavedItemDto savedItemDto = new SavedItemDto();
         Warehouse warehouse = new Warehouse();
         SavedItem savedItem = new SavedItem();
-        savedItem.setQuantity(10);
-
-        Optional<SavedItem> optional = Optional.of(savedItem);
+        savedItem.setQuantity(10 + itemTransaction.getQuantity().intValue());
 
         doReturn(itemDto).when(itemService).findById(itemTransaction.getItemId(), userDetails);
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.IN);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
         when(savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)).thenReturn(true);
-        when(savedItemDao.findSavedItemByItemIdAndWarehouseId(itemTransaction.getItemId(),
-            itemTransaction.getDestinationWarehouseId())).thenReturn(optional);
+        when(savedItemDao.addQuantity(itemTransaction.getItemId(), itemTransaction.getDestinationWarehouseId(),
+            itemTransaction.getQuantity().intValue())).thenReturn(savedItem);
 
-        int quantity = Long.valueOf(savedItem.getQuantity() + itemTransaction.getQuantity()).intValue();
-
-        when(savedItemDao.outComeSavedItem(savedItem, quantity)).thenReturn(true);
-
-        savedItemDto.setQuantity(quantity);
+        savedItemDto.setQuantity(savedItem.getQuantity());
 
         when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
 
@@ -311,7 +364,7 @@ public class ItemServiceImplTest {
         Warehouse warehouse = new Warehouse();
         warehouse.setName("Section1");
         SavedItem savedItem = new SavedItem();
-        savedItem.setQuantity(20);
+        savedItem.setQuantity(10);
 
         Transaction transaction = getTransaction();
 
@@ -319,9 +372,8 @@ public class ItemServiceImplTest {
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.IN);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
         when(savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)).thenReturn(true);
-        when(savedItemDao.findSavedItemByItemIdAndWarehouseId(itemTransaction.getItemId(),
-            itemTransaction.getDestinationWarehouseId())).thenReturn(Optional.empty());
-        when(savedItemDao.addSavedItem(ArgumentMatchers.<SavedItem>any())).thenReturn(savedItem);
+        when(savedItemDao.addQuantity(itemTransaction.getItemId(), itemTransaction.getDestinationWarehouseId(),
+            itemTransaction.getQuantity().intValue())).thenReturn(savedItem);
         when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
         when(transactionDao.create(itemTransaction, userDetails.getUser(), itemTransaction.getAssociateId(),
             TransactionType.IN)).thenReturn(transaction);
@@ -364,9 +416,8 @@ public class ItemServiceImplTest {
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.IN);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
         when(savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)).thenReturn(true);
-        when(savedItemDao.findSavedItemByItemIdAndWarehouseId(itemTransaction.getItemId(),
-            itemTransaction.getDestinationWarehouseId())).thenReturn(Optional.empty());
-        when(savedItemDao.addSavedItem(ArgumentMatchers.<SavedItem>any())).thenReturn(savedItem);
+        when(savedItemDao.addQuantity(itemTransaction.getItemId(), itemTransaction.getDestinationWarehouseId(),
+            itemTransaction.getQuantity().intValue())).thenReturn(savedItem);
         when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
         when(transactionDao.create(itemTransaction, userDetails.getUser(), itemTransaction.getAssociateId(),
             TransactionType.IN)).thenReturn(transaction);
@@ -440,14 +491,17 @@ public class ItemServiceImplTest {
         ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
         ItemDto itemDto = new ItemDto();
         itemDto.setName("Potato");
+        itemDto.setVolume(2);
         Warehouse warehouse = getWarehouse();
         Transaction transaction = getTransaction();
+        SavedItem savedItem = new SavedItem(itemTransaction.getItemId(), 5, itemTransaction.getSourceWarehouseId());
 
         when(itemService.findById(itemTransaction.getItemId(), userDetails)).thenReturn(itemDto);
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.MOVE);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
         when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(warehouse);
         when(savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)).thenReturn(true);
+        when(savedItemDao.findSavedItemByIdForUpdate(itemTransaction.getSavedItemId())).thenReturn(savedItem);
         when(savedItemDao.updateSavedItem(itemTransaction.getDestinationWarehouseId(),
             itemTransaction.getSavedItemId())).thenReturn(true);
         when(transactionDao.create(itemTransaction, userDetails.getUser(), itemTransaction.getAssociateId(),
@@ -466,24 +520,67 @@ public class ItemServiceImplTest {
 
         assertEquals(itemService.moveItem(itemTransaction, userDetails), true);
 
+        verify(warehouseDao, times(1)).addUsedVolume(itemTransaction.getSourceWarehouseId(), -10L);
+        verify(warehouseDao, times(1)).addUsedVolume(itemTransaction.getDestinationWarehouseId(), 10L);
         verify(eventService, times(1)).create(event);
         verify(transactionDao, times(1)).create(transaction);
         verify(savedItemService, times(1)).validateInputs(itemTransaction, itemDto, accountId, TransactionType.MOVE);
     }
 
+    @Test
+    void moveItem_successFlowMergesIntoSavedItemOfDestination() {
+        ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Potato");
+        itemDto.setVolume(2);
+        Warehouse warehouse = getWarehouse();
+        Transaction transaction = getTransaction();
+        SavedItem savedItem = new SavedItem(itemTransaction.getItemId(), 5, itemTransaction.getSourceWarehouseId());
+        savedItem.setId(itemTransaction.getSavedItemId());
+        SavedItem destination = new SavedItem(itemTransaction.getItemId(), 3,
+            itemTransaction.getDestinationWarehouseId());
+        SavedItem merged = new SavedItem(itemTransaction.getItemId(), 8, itemTransaction.getDestinationWarehouseId());
+
+        when(itemService.findById(itemTransaction.getItemId(), userDetails)).thenReturn(itemDto);
+        when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
+        when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(warehouse);
+        when(savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)).thenReturn(true);
+        when(savedItemDao.findSavedItemByIdForUpdate(itemTransaction.getSavedItemId())).thenReturn(savedItem);
+        when(savedItemDao.findSavedItemByItemIdAndWarehouseId(itemTransaction.getItemId(),
+            itemTransaction.getDestinationWarehouseId())).thenReturn(Optional.of(destination));
+        when(savedItemDao.takeQuantity(itemTransaction.getSavedItemId(), 5, 0)).thenReturn(true);
+        when(savedItemDao.deleteEmptySavedItem(itemTransaction.getSavedItemId())).thenReturn(true);
+        when(savedItemDao.addQuantity(itemTransaction.getItemId(), itemTransaction.getDestinationWarehouseId(), 5))
+            .thenReturn(merged);
+        when(transactionDao.create(itemTransaction, userDetails.getUser(), itemTransaction.getAssociateId(),
+            TransactionType.MOVE)).thenReturn(transaction);
+        when(transactionDao.create(transaction)).thenReturn(transaction);
+
+        assertEquals(itemService.moveItem(itemTransaction, userDetails), true);
+
+        verify(savedItemDao, never()).updateSavedItem(anyLong(), anyLong());
+        verify(lowStockIndex, times(1)).remove(accountId, itemTransaction.getSavedItemId());
+        verify(lowStockIndex, times(1)).update(accountId, merged, itemDto.getName());
+        verify(warehouseDao, times(1)).addUsedVolume(itemTransaction.getSourceWarehouseId(), -10L);
+        verify(warehouseDao, times(1)).addUsedVolume(itemTransaction.getDestinationWarehouseId(), 10L);
+    }
+
     @Test
     void moveItem_successFlowLowSpaceInWarehouse() {
         ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
         ItemDto itemDto = new ItemDto();
         itemDto.setName("Potato");
+        itemDto.setVolume(2);
         Warehouse warehouse = getWarehouse();
         Transaction transaction = getTransaction();
+        SavedItem savedItem = new SavedItem(itemTransaction.getItemId(), 5, itemTransaction.getSourceWarehouseId());
 
         when(itemService.findById(itemTransaction.getItemId(), userDetails)).thenReturn(itemDto);
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.MOVE);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
         when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(warehouse);
         when(savedItemService.isEnoughCapacityInWarehouse(itemTransaction, itemDto, accountId)).thenReturn(true);
+        when(savedItemDao.findSavedItemByIdForUpdate(itemTransaction.getSavedItemId())).thenReturn(savedItem);
         when(savedItemDao.updateSavedItem(itemTransaction.getDestinationWarehouseId(),
             itemTransaction.getSavedItemId())).thenReturn(true);
         when(transactionDao.create(itemTransaction, userDetails.getUser(), itemTransaction.getAssociateId(),
@@ -563,10 +660,12 @@ public class ItemServiceImplTest {
         SavedItemDto savedItemDto = new SavedItemDto();
         savedItemDto.setId(1L);
         savedItemDto.setItemId(itemTransaction.getItemId());
-        savedItemDto.setQuantity(25);
+        savedItemDto.setQuantity(25 - itemTransaction.getQuantity().intValue());
         savedItemDto.setWarehouseId(itemTransaction.getDestinationWarehouseId());
 
-        SavedItem savedItem = new SavedItem();
+        SavedItem savedItem = new SavedItem(savedItemDto.getItemId(), savedItemDto.getQuantity(),
+            savedItemDto.getWarehouseId());
+        savedItem.setId(savedItemDto.getId());
         SavedItemDto savedItemDto2 = new SavedItemDto();
         savedItemDto2.setId(1L);
         savedItemDto2.setItemId(itemTransaction.getItemId());
@@ -578,11 +677,11 @@ public class ItemServiceImplTest {
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.OUT);
         when(savedItemDao.findSavedItemById(itemTransaction.getSavedItemId())).thenReturn(savedItem);
         when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
-        when(savedItemDtoMapper.toEntity(savedItemDto)).thenReturn(savedItem);
 
-        long difference = savedItemDto.getQuantity() - itemTransaction.getQuantity();
+        long difference = savedItemDto.getQuantity();
+        when(savedItemDao.takeQuantity(itemTransaction.getSavedItemId(), itemTransaction.getQuantity().intValue(), 0))
+            .thenReturn(true);
 
-        when(savedItemDao.outComeSavedItem(savedItem, Long.valueOf(difference).intValue())).thenReturn(true);
         when(transactionDao.create(itemTransaction,
             userDetails.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT)).thenReturn(transaction);
         when(transactionDao.create(transaction)).thenReturn(transaction);
@@ -625,10 +724,12 @@ public class ItemServiceImplTest {
         SavedItemDto savedItemDto = new SavedItemDto();
         savedItemDto.setId(1L);
         savedItemDto.setItemId(itemTransaction.getItemId());
-        savedItemDto.setQuantity(10);
+        savedItemDto.setQuantity(10 - itemTransaction.getQuantity().intValue());
         savedItemDto.setWarehouseId(itemTransaction.getDestinationWarehouseId());
 
-        SavedItem savedItem = new SavedItem();
+        SavedItem savedItem = new SavedItem(savedItemDto.getItemId(), savedItemDto.getQuantity(),
+            savedItemDto.getWarehouseId());
+        savedItem.setId(savedItemDto.getId());
         SavedItemDto savedItemDto2 = new SavedItemDto();
         savedItemDto2.setId(1L);
         savedItemDto2.setItemId(itemTransaction.getItemId());
@@ -640,9 +741,11 @@ public class ItemServiceImplTest {
         when(savedItemDao.findSavedItemById(itemTransaction.getSavedItemId())).thenReturn(savedItem);
         when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
 
-        long difference = savedItemDto.getQuantity() - itemTransaction.getQuantity();
+        long difference = savedItemDto.getQuantity();
+        when(savedItemDao.takeQuantity(itemTransaction.getSavedItemId(), itemTransaction.getQuantity().intValue(), 0))
+            .thenReturn(true);
 
-        when(savedItemDao.deleteSavedItem(itemTransaction.getSavedItemId())).thenReturn(true);
+        when(savedItemDao.deleteEmptySavedItem(itemTransaction.getSavedItemId())).thenReturn(true);
         when(transactionDao.create(itemTransaction,
             userDetails.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT)).thenReturn(transaction);
         when(transactionDao.create(transaction)).thenReturn(transaction);
@@ -655,6 +758,8 @@ public class ItemServiceImplTest {
             transaction.getId().longValue());
 
         doNothing().when(eventService).create(event);
+        // taking the last items reaches the default threshold of zero, so the item also ends
+        when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(getWarehouse());
 
         savedItemDto2.setQuantity(Long.valueOf(difference).intValue());
         SavedItemDto result = itemService.outcomeItem(itemTransaction, userDetails);
@@ -664,7 +769,7 @@ public class ItemServiceImplTest {
         assertEquals(result.getWarehouseId(), savedItemDto2.getWarehouseId());
         assertEquals(result.getQuantity(), savedItemDto2.getQuantity());
 
-        verify(savedItemDao, times(1)).deleteSavedItem(itemTransaction.getSavedItemId());
+        verify(savedItemDao, times(1)).deleteEmptySavedItem(itemTransaction.getSavedItemId());
         verify(eventService, times(1)).create(event);
         verify(transactionDao, times(1)).create(transaction);
         verify(savedItemService, times(1)).validateInputs(itemTransaction, itemDto, accountId, TransactionType.OUT);
@@ -687,10 +792,12 @@ public class ItemServiceImplTest {
         SavedItemDto savedItemDto = new SavedItemDto();
         savedItemDto.setId(1L);
         savedItemDto.setItemId(itemTransaction.getItemId());
-        savedItemDto.setQuantity(15);
+        savedItemDto.setQuantity(15 - itemTransaction.getQuantity().intValue());
         savedItemDto.setWarehouseId(itemTransaction.getDestinationWarehouseId());
 
-        SavedItem savedItem = new SavedItem();
+        SavedItem savedItem = new SavedItem(savedItemDto.getItemId(), savedItemDto.getQuantity(),
+            savedItemDto.getWarehouseId());
+        savedItem.setId(savedItemDto.getId());
         SavedItemDto savedItemDto2 = new SavedItemDto();
         savedItemDto2.setId(1L);
         savedItemDto2.setItemId(itemTransaction.getItemId());
@@ -701,11 +808,11 @@ public class ItemServiceImplTest {
         doNothing().when(savedItemService).validateInputs(itemTransaction, itemDto, accountId, TransactionType.OUT);
         when(savedItemDao.findSavedItemById(itemTransaction.getSavedItemId())).thenReturn(savedItem);
         when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
-        when(savedItemDtoMapper.toEntity(savedItemDto)).thenReturn(savedItem);
 
-        long difference = savedItemDto.getQuantity() - itemTransaction.getQuantity();
+        long difference = savedItemDto.getQuantity();
+        when(savedItemDao.takeQuantity(itemTransaction.getSavedItemId(), itemTransaction.getQuantity().intValue(), 0))
+            .thenReturn(true);
 
-        when(savedItemDao.outComeSavedItem(savedItem, Long.valueOf(difference).intValue())).thenReturn(true);
         when(transactionDao.create(itemTransaction,
             userDetails.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT)).thenReturn(transaction);
         when(transactionDao.create(transaction)).thenReturn(transaction);
@@ -719,6 +826,8 @@ public class ItemServiceImplTest {
 
         doNothing().when(eventService).create(event);
         when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(warehouse);
+        when(lowStockIndex.findThreshold(accountId, itemTransaction.getItemId(), savedItemDto.getWarehouseId()))
+            .thenReturn(10);
 
         Event event2 = new Event("Left less than " + "10" + " items! Quantity" +
             itemTransaction.getQuantity() + " " +
@@ -745,6 +854,73 @@ public class ItemServiceImplTest {
 
     }
 
+    @Test
+    void outcomeItem_successFlowAlreadyBelowThreshold() {
+        ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
+        itemTransaction.setQuantity(3L);
+        itemTransaction.setSavedItemId(1L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Potato");
+        SavedItemDto savedItemDto = new SavedItemDto();
+        savedItemDto.setId(1L);
+        savedItemDto.setItemId(itemTransaction.getItemId());
+        savedItemDto.setQuantity(5);
+        savedItemDto.setWarehouseId(18L);
+        SavedItem savedItem = new SavedItem(savedItemDto.getItemId(), 5, 18L);
+        savedItem.setId(1L);
+        Transaction transaction = getTransaction();
+
+        when(itemService.findById(itemTransaction.getItemId(), userDetails)).thenReturn(itemDto);
+        when(savedItemDao.findSavedItemById(itemTransaction.getSavedItemId())).thenReturn(savedItem);
+        when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
+        when(savedItemDao.takeQuantity(1L, 3, 0)).thenReturn(true);
+        when(transactionDao.create(itemTransaction,
+            userDetails.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT)).thenReturn(transaction);
+        when(transactionDao.create(transaction)).thenReturn(transaction);
+        when(associateDao.findById(accountId, itemTransaction.getAssociateId())).thenReturn(getAssociate());
+        when(lowStockIndex.findThreshold(accountId, itemTransaction.getItemId(), 18L)).thenReturn(10);
+
+        SavedItemDto result = itemService.outcomeItem(itemTransaction, userDetails);
+
+        assertEquals(5, result.getQuantity());
+        verify(eventService, times(1)).create(any(Event.class));
+        verify(lowStockIndex, times(1)).update(any(Long.class), any(SavedItem.class), any(String.class));
+    }
+
+    @Test
+    void outcomeItem_successFlowLandsOnThreshold() {
+        ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
+        itemTransaction.setQuantity(3L);
+        itemTransaction.setSavedItemId(1L);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Potato");
+        SavedItemDto savedItemDto = new SavedItemDto();
+        savedItemDto.setId(1L);
+        savedItemDto.setItemId(itemTransaction.getItemId());
+        savedItemDto.setQuantity(10);
+        savedItemDto.setWarehouseId(18L);
+        SavedItem savedItem = new SavedItem(savedItemDto.getItemId(), 10, 18L);
+        savedItem.setId(1L);
+        Transaction transaction = getTransaction();
+
+        when(itemService.findById(itemTransaction.getItemId(), userDetails)).thenReturn(itemDto);
+        when(savedItemDao.findSavedItemById(itemTransaction.getSavedItemId())).thenReturn(savedItem);
+        when(savedItemDtoMapper.toDto(savedItem)).thenReturn(savedItemDto);
+        when(savedItemDao.takeQuantity(1L, 3, 0)).thenReturn(true);
+        when(transactionDao.create(itemTransaction,
+            userDetails.getUser(), itemTransaction.getAssociateId(), TransactionType.OUT)).thenReturn(transaction);
+        when(transactionDao.create(transaction)).thenReturn(transaction);
+        when(associateDao.findById(accountId, itemTransaction.getAssociateId())).thenReturn(getAssociate());
+        when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(getWarehouse());
+        when(lowStockIndex.findThreshold(accountId, itemTransaction.getItemId(), 18L)).thenReturn(10);
+
+        itemService.outcomeItem(itemTransaction, userDetails);
+
+        ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        verify(eventService, times(2)).create(events.capture());
+        assertEquals(EventName.ITEM_ENDED, events.getAllValues().get(1).getName());
+    }
+
     @Test
     void outcomeItem_omittedFlowNotEnoughQuantity() {
         ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
@@ -780,6 +956,23 @@ public class ItemServiceImplTest {
 
     }
 
+    @Test
+    void outcomeItem_omittedFlowReservedQuantity() {
+        ItemTransactionRequestDto itemTransaction = getItemTransactionRequestDto();
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Potato");
+
+        when(itemService.findById(itemTransaction.getItemId(), userDetails)).thenReturn(itemDto);
+        when(warehouseDao.findById(itemTransaction.getSourceWarehouseId(), accountId)).thenReturn(getWarehouse());
+        when(reservationLedger.findReserved(accountId, itemTransaction.getSavedItemId())).thenReturn(4);
+
+        assertThrows(ItemNotEnoughQuantityException.class, () -> itemService.outcomeItem(itemTransaction, userDetails));
+
+        verify(savedItemDao, times(1)).takeQuantity(itemTransaction.getSavedItemId(),
+            itemTransaction.getQuantity().intValue(), 4);
+        verify(transactionDao, never()).create(any(Transaction.class));
+    }
+
 
     private List<ItemDto> getListOfItemDtos() {
         List<ItemDto> items = new ArrayList<>();
@@ -0,0 +1,278 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.AssociateDao;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dao.TransactionDao;
+import com.ita.if103java.ims.dao.WarehouseDao;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
+import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.entity.Associate;
+import com.ita.if103java.ims.entity.AssociateType;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.Transaction;
+import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.entity.Warehouse;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.mapper.dto.SavedItemDtoMapper;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.CapacityReservationManager;
+import com.ita.if103java.ims.service.impl.ItemTransactionBatchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemTransactionBatchServiceImplTest {
+    @Mock
+    private ItemDao itemDao;
+    @Mock
+    private SavedItemDao savedItemDao;
+    @Mock
+    private AssociateDao associateDao;
+    @Mock
+    private TransactionDao transactionDao;
+    @Mock
+    private WarehouseDao warehouseDao;
+    @Mock
+    private EventService eventService;
+    @Mock
+    private WarehouseTreeCache warehouseTreeCache;
+    @Mock
+    private FreeSpaceIndex freeSpaceIndex;
+    @Mock
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    @Mock
+    private LowStockIndex lowStockIndex;
+    @Mock
+    private CapacityReservationManager capacityReservationManager;
+    @Mock
+    private ReservationLedger reservationLedger;
+
+    private ItemTransactionBatchServiceImpl batchService;
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        batchService = new ItemTransactionBatchServiceImpl(itemDao, savedItemDao, associateDao, transactionDao,
+            warehouseDao, eventService, warehouseTreeCache, freeSpaceIndex, warehouseLoadSnapshot, lowStockIndex,
+            new SavedItemDtoMapper(), capacityReservationManager, reservationLedger);
+        ReflectionTestUtils.setField(batchService, "maxWarehouseLoad", "90");
+        ReflectionTestUtils.setField(batchService, "maxLines", 10);
+
+        User user = new User();
+        user.setId(9L);
+        user.setAccountId(2L);
+        userDetails = new UserDetailsImpl(user);
+
+        Item item = new Item("Bolt", "pcs", "Bolt", 2, 2L, true);
+        item.setId(1L);
+        when(itemDao.findItemsById("1", 2L)).thenReturn(List.of(item));
+        SavedItem stored = new SavedItem(1L, 10, 10L);
+        stored.setId(5L);
+        when(savedItemDao.findSavedItemsByItemIds(List.of(1L))).thenReturn(new ArrayList<>(List.of(stored)));
+        when(associateDao.findByAccountId(2L)).thenReturn(List.of(
+            new Associate(40L, 2L, "Acme", null, null, null, AssociateType.SUPPLIER, true),
+            new Associate(41L, 2L, "Shop", null, null, null, AssociateType.CLIENT, true)));
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 20L, 11L, 4L));
+        when(warehouseTreeCache.findById(anyLong(), eq(2L))).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return new Warehouse(id, "Shelf " + id, null, 100, true, null, 2L, 1L, true);
+        });
+        when(transactionDao.create(any(ItemTransactionRequestDto.class), any(User.class), any(), any()))
+            .thenAnswer(invocation -> {
+                ItemTransactionRequestDto line = invocation.getArgument(0);
+                Transaction transaction = new Transaction();
+                transaction.setItemId(line.getItemId());
+                transaction.setQuantity(line.getQuantity());
+                transaction.setAssociateId(invocation.getArgument(2));
+                transaction.setType(invocation.getArgument(3));
+                transaction.setMovedTo(line.getDestinationWarehouseId());
+                transaction.setWorkerId(9L);
+                return transaction;
+            });
+        when(transactionDao.createAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            for (int i = 0; i < transactions.size(); i++) {
+                transactions.get(i).setId(100L + i);
+            }
+            return transactions;
+        });
+        when(savedItemDao.addSavedItems(anyList())).thenAnswer(invocation -> {
+            List<SavedItem> savedItems = invocation.getArgument(0);
+            savedItems.forEach(savedItem -> savedItem.setId(6L));
+            return savedItems;
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApply_appliesLinesInOrderAndReportsFailures() {
+        List<ItemTransactionBatchResultDto> results = batchService.apply(List.of(
+            line(TransactionType.IN, null, 11L, 3L, 40L),
+            line(TransactionType.IN, null, 10L, 5L, 40L),
+            line(TransactionType.OUT, 5L, null, 20L, 41L),
+            line(TransactionType.OUT, 5L, null, 15L, 41L),
+            line(TransactionType.IN, null, 11L, 2L, 40L),
+            line(TransactionType.IN, null, 10L, 1L, 41L)), userDetails);
+
+        assertEquals(List.of(false, true, false, true, true, false),
+            results.stream().map(ItemTransactionBatchResultDto::isSuccess).collect(Collectors.toList()));
+        assertEquals(100L, results.get(1).getTransactionId());
+        assertEquals(6L, results.get(4).getSavedItem().getId());
+
+        ArgumentCaptor<List<SavedItem>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(savedItemDao).addSavedItems(inserts.capture());
+        assertEquals(2, inserts.getValue().get(0).getQuantity());
+        verify(savedItemDao).deleteSavedItems(List.of(5L));
+        verify(savedItemDao, never()).updateSavedItems(anyList());
+        ArgumentCaptor<List<Transaction>> transactions = ArgumentCaptor.forClass(List.class);
+        verify(transactionDao).createAll(transactions.capture());
+        assertEquals(3, transactions.getValue().size());
+        assertEquals(10L, transactions.getValue().get(1).getMovedFrom());
+
+        verify(warehouseDao).addUsedVolume(11L, 4L);
+        verify(warehouseDao).addUsedVolume(10L, -20L);
+        verify(freeSpaceIndex).adjust(11L, 2L, 4L);
+        verify(lowStockIndex).remove(2L, 5L);
+        // two failure events, three applied lines, the emptied saved item ended and warehouse 11 filled up
+        verify(eventService, times(7)).create(any(Event.class));
+    }
+
+    @Test
+    void testApply_endsItemLandingOnThreshold() {
+        when(lowStockIndex.findThreshold(2L, 1L, 10L)).thenReturn(4);
+
+        batchService.apply(List.of(
+            line(TransactionType.OUT, 5L, null, 6L, 41L),
+            line(TransactionType.OUT, 5L, null, 1L, 41L)), userDetails);
+
+        ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+        verify(eventService, times(3)).create(events.capture());
+        assertEquals(1, events.getAllValues().stream()
+            .filter(event -> event.getName() == EventName.ITEM_ENDED)
+            .count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApply_moveTakesWholeSavedItem() {
+        List<ItemTransactionBatchResultDto> results =
+            batchService.apply(List.of(line(TransactionType.MOVE, 5L, 10L, 1L, null),
+                line(TransactionType.MOVE, 5L, 11L, 1L, null)), userDetails);
+
+        assertEquals(false, results.get(0).isSuccess());
+        assertEquals(false, results.get(1).isSuccess());
+
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 20L, 11L, 30L));
+        results = batchService.apply(List.of(line(TransactionType.MOVE, 5L, 11L, 1L, null)), userDetails);
+
+        assertEquals(true, results.get(0).isSuccess());
+        ArgumentCaptor<List<SavedItem>> updates = ArgumentCaptor.forClass(List.class);
+        verify(savedItemDao).updateSavedItems(updates.capture());
+        assertEquals(11L, updates.getValue().get(0).getWarehouseId());
+        verify(warehouseDao).addUsedVolume(10L, -20L);
+        verify(warehouseDao).addUsedVolume(11L, 20L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApply_moveMergesIntoSavedItemOfDestination() {
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 20L, 11L, 30L));
+
+        List<ItemTransactionBatchResultDto> results = batchService.apply(List.of(
+            line(TransactionType.IN, null, 11L, 1L, 40L),
+            line(TransactionType.MOVE, 5L, 11L, 1L, null)), userDetails);
+
+        assertEquals(true, results.get(1).isSuccess());
+        assertEquals(11, results.get(1).getSavedItem().getQuantity());
+        ArgumentCaptor<List<SavedItem>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(savedItemDao).addSavedItems(inserts.capture());
+        assertEquals(1, inserts.getValue().size());
+        assertEquals(11, inserts.getValue().get(0).getQuantity());
+        verify(savedItemDao).deleteSavedItems(List.of(5L));
+        verify(savedItemDao, never()).updateSavedItems(anyList());
+    }
+
+    @Test
+    void testApply_keepsReservedQuantity() {
+        when(reservationLedger.findReserved(2L, 5L)).thenReturn(6);
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 20L, 11L, 30L));
+
+        List<ItemTransactionBatchResultDto> results = batchService.apply(List.of(
+            line(TransactionType.OUT, 5L, null, 5L, 41L),
+            line(TransactionType.OUT, 5L, null, 4L, 41L),
+            line(TransactionType.IN, null, 11L, 1L, 40L),
+            line(TransactionType.MOVE, 5L, 11L, 1L, null)), userDetails);
+
+        assertEquals(List.of(false, true, true, false),
+            results.stream().map(ItemTransactionBatchResultDto::isSuccess).collect(Collectors.toList()));
+        verify(savedItemDao, never()).deleteSavedItems(anyList());
+    }
+
+    @Test
+    void testApply_moveIntoReservedMergeLeavesVolumeUntouched() {
+        when(reservationLedger.findReserved(2L, 5L)).thenReturn(1);
+        when(freeSpaceIndex.findFreeSpace(2L, Long.MIN_VALUE)).thenReturn(Map.of(10L, 20L, 11L, 30L));
+
+        List<ItemTransactionBatchResultDto> results = batchService.apply(List.of(
+            line(TransactionType.IN, null, 11L, 1L, 40L),
+            line(TransactionType.MOVE, 5L, 11L, 1L, null)), userDetails);
+
+        assertEquals(List.of(true, false),
+            results.stream().map(ItemTransactionBatchResultDto::isSuccess).collect(Collectors.toList()));
+        verify(warehouseDao).addUsedVolume(11L, 2L);
+        verify(warehouseDao, never()).addUsedVolume(eq(10L), anyLong());
+        verify(freeSpaceIndex).adjust(11L, 2L, 2L);
+        verify(freeSpaceIndex, never()).adjust(eq(10L), eq(2L), anyLong());
+    }
+
+    @Test
+    void testApply_emptyBatch() {
+        assertThrows(ItemValidateInputException.class, () -> batchService.apply(Collections.emptyList(), userDetails));
+        verify(savedItemDao, never()).findSavedItemsByItemIds(anyList());
+    }
+
+    private ItemTransactionBatchLineDto line(TransactionType type, Long savedItemId, Long warehouseId, Long quantity,
+                                             Long associateId) {
+        ItemTransactionBatchLineDto line = new ItemTransactionBatchLineDto();
+        line.setType(type);
+        line.setItemId(1L);
+        line.setSavedItemId(savedItemId);
+        line.setDestinationWarehouseId(warehouseId);
+        line.setQuantity(quantity);
+        line.setAssociateId(associateId);
+        return line;
+    }
+}
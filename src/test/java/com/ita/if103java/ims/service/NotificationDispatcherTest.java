@@ -0,0 +1,150 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.dto.EventDto;
+import com.ita.if103java.ims.dto.NotificationBatchDto;
+import com.ita.if103java.ims.entity.Event;
+import com.ita.if103java.ims.entity.EventName;
+import com.ita.if103java.ims.mapper.dto.EventDtoMapper;
+import com.ita.if103java.ims.service.impl.NotificationDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NotificationDispatcherTest {
+    @Mock
+    private SimpMessagingTemplate simpMessagingTemplate;
+    @Mock
+    private EventDtoMapper eventDtoMapper;
+
+    private NotificationDispatcher notificationDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(eventDtoMapper.toDto(any(Event.class))).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            EventDto eventDto = new EventDto();
+            eventDto.setMessage(event.getMessage());
+            return eventDto;
+        });
+        notificationDispatcher = new NotificationDispatcher(simpMessagingTemplate, eventDtoMapper);
+        ReflectionTestUtils.setField(notificationDispatcher, "maxBatch", 3);
+        ReflectionTestUtils.setField(notificationDispatcher, "maxPending", 5);
+        ReflectionTestUtils.setField(notificationDispatcher, "eventTopic", "/topic/events/");
+        notificationDispatcher.subscribe("session-2", 2L);
+        notificationDispatcher.subscribe("session-3", 3L);
+    }
+
+    @Test
+    void flush_sendsOneFramePerAccount() {
+        notificationDispatcher.dispatch(event(2L, "first"));
+        notificationDispatcher.dispatch(event(2L, "second"));
+        notificationDispatcher.dispatch(event(3L, "other"));
+        assertEquals(2, notificationDispatcher.getQueueDepth(2L));
+
+        notificationDispatcher.flush();
+
+        NotificationBatchDto batch = sentBatch("/topic/events/2");
+        assertEquals(List.of("first", "second"), messages(batch));
+        assertEquals(0, batch.getDropped());
+        assertEquals(List.of("other"), messages(sentBatch("/topic/events/3")));
+        assertEquals(0, notificationDispatcher.getQueueDepth(2L));
+    }
+
+    @Test
+    void flush_sendsEveryEventInFramesOfMaxBatch() {
+        for (int i = 0; i < 5; i++) {
+            notificationDispatcher.dispatch(event(2L, "event" + i));
+        }
+
+        notificationDispatcher.flush();
+
+        List<NotificationBatchDto> batches = sentBatches("/topic/events/2", 2);
+        assertEquals(List.of("event0", "event1", "event2"), messages(batches.get(0)));
+        assertEquals(List.of("event3", "event4"), messages(batches.get(1)));
+        assertEquals(0, batches.get(0).getDropped() + batches.get(1).getDropped());
+    }
+
+    @Test
+    void flush_dropsOldestBeyondPendingBound() {
+        for (int i = 0; i < 7; i++) {
+            notificationDispatcher.dispatch(event(2L, "event" + i));
+        }
+        assertEquals(5, notificationDispatcher.getQueueDepth(2L));
+
+        notificationDispatcher.flush();
+
+        List<NotificationBatchDto> batches = sentBatches("/topic/events/2", 2);
+        assertEquals(List.of("event2", "event3", "event4"), messages(batches.get(0)));
+        assertEquals(2, batches.get(0).getDropped());
+        assertEquals(List.of("event5", "event6"), messages(batches.get(1)));
+        assertEquals(0, batches.get(1).getDropped());
+    }
+
+    @Test
+    void disconnect_prunesQueueOfAccountWithoutSessions() {
+        notificationDispatcher.subscribe("session-2b", 2L);
+        notificationDispatcher.dispatch(event(2L, "first"));
+
+        notificationDispatcher.disconnect("session-2");
+        assertEquals(1, notificationDispatcher.getQueueDepth(2L));
+        notificationDispatcher.disconnect("session-2b");
+        assertEquals(0, notificationDispatcher.getQueueDepth(2L));
+
+        notificationDispatcher.dispatch(event(2L, "second"));
+        notificationDispatcher.dispatch(event(4L, "unsubscribed"));
+        notificationDispatcher.flush();
+        assertEquals(0, notificationDispatcher.getQueueDepth(4L));
+        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void flush_skipsAccountsWithoutEvents() {
+        notificationDispatcher.dispatch(event(2L, "first"));
+        notificationDispatcher.flush();
+        notificationDispatcher.flush();
+
+        verify(simpMessagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+        verify(simpMessagingTemplate, never()).convertAndSend(eq("/topic/events/3"), any(Object.class));
+    }
+
+    private NotificationBatchDto sentBatch(String topic) {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(simpMessagingTemplate, times(1)).convertAndSend(eq(topic), payload.capture());
+        return (NotificationBatchDto) payload.getValue();
+    }
+
+    private List<NotificationBatchDto> sentBatches(String topic, int frames) {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(simpMessagingTemplate, times(frames)).convertAndSend(eq(topic), payload.capture());
+        return payload.getAllValues().stream()
+            .map(NotificationBatchDto.class::cast)
+            .collect(Collectors.toList());
+    }
+
+    private List<String> messages(NotificationBatchDto batch) {
+        return batch.getEvents().stream()
+            .map(EventDto::getMessage)
+            .collect(Collectors.toList());
+    }
+
+    private Event event(Long accountId, String message) {
+        return new Event(message, accountId, null, 4L, EventName.ITEM_CAME, null);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.PlacementAssignmentDto;
+import com.ita.if103java.ims.dto.PlacementDto;
+import com.ita.if103java.ims.dto.PlacementLineDto;
+import com.ita.if103java.ims.dto.PlacementRequestDto;
+import com.ita.if103java.ims.entity.Item;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.service.ItemNotEnoughCapacityInWarehouseException;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.CapacityReservationManager;
+import com.ita.if103java.ims.service.impl.PlacementServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class PlacementServiceImplTest {
+    @Mock
+    private ItemDao itemDao;
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private FreeSpaceIndex freeSpaceIndex;
+    @Mock
+    private WarehouseTreeCache warehouseTreeCache;
+    @Mock
+    private CapacityReservationManager capacityReservationManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PlacementServiceImpl placementService;
+
+    private UserDetailsImpl userDetails;
+    private Long accountId = 2L;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        placementService = new PlacementServiceImpl(itemDao, itemService, freeSpaceIndex, warehouseTreeCache,
+            capacityReservationManager, new TransactionTemplate(transactionManager));
+        User user = new User();
+        user.setAccountId(accountId);
+        user.setId(1L);
+        userDetails = new UserDetailsImpl(user);
+        ReflectionTestUtils.setField(placementService, "maxLines", 3);
+
+        when(itemDao.findItemsById("108,109", accountId)).thenReturn(List.of(item(108L, 2), item(109L, 5)));
+        when(warehouseTreeCache.findPath(anyLong(), eq(accountId))).thenReturn(List.of("Warehouse", "Shelf"));
+    }
+
+    @Test
+    void place_bulkiestItemsFirstIntoTightestBins() {
+        Map<Long, Long> freeSpace = new LinkedHashMap<>();
+        freeSpace.put(37L, 12L);
+        freeSpace.put(38L, 30L);
+        when(freeSpaceIndex.findFreeSpace(accountId, 2)).thenReturn(freeSpace);
+
+        PlacementDto placement = placementService.place(request(line(108L, 10L), line(109L, 4L)), false, userDetails);
+
+        assertEquals(List.of("109:37:2", "109:38:2", "108:37:1", "108:38:9"), describe(placement.getAssignments()));
+        assertTrue(placement.getUnplaced().isEmpty());
+        assertFalse(placement.isCommitted());
+        verify(itemService, never()).addSavedItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class));
+    }
+
+    @Test
+    void place_reportsWhatDoesNotFit() {
+        when(freeSpaceIndex.findFreeSpace(accountId, 2)).thenReturn(Map.of(37L, 11L));
+
+        PlacementDto placement = placementService.place(request(line(108L, 3L), line(109L, 3L)), false, userDetails);
+
+        assertEquals(List.of("109:37:2"), describe(placement.getAssignments()));
+        assertEquals(2, placement.getUnplaced().size());
+        assertEquals(1L, placement.getUnplaced().get(0).getQuantity());
+        assertEquals(3L, placement.getUnplaced().get(1).getQuantity());
+    }
+
+    @Test
+    void place_commitStoresEveryAssignment() {
+        when(freeSpaceIndex.findFreeSpace(accountId, 2)).thenReturn(Map.of(37L, 100L));
+
+        PlacementDto placement = placementService.place(request(line(108L, 10L), line(109L, 4L)), true, userDetails);
+
+        assertTrue(placement.isCommitted());
+        InOrder inOrder = inOrder(transactionManager, capacityReservationManager, itemService);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(capacityReservationManager).reserve(List.of(37L, 37L));
+        inOrder.verify(itemService, times(2)).addSavedItem(any(ItemTransactionRequestDto.class), eq(userDetails));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void place_commitRefusedWhenSomethingIsUnplaced() {
+        when(freeSpaceIndex.findFreeSpace(accountId, 2)).thenReturn(Map.of(37L, 4L));
+
+        assertThrows(ItemNotEnoughCapacityInWarehouseException.class,
+            () -> placementService.place(request(line(108L, 10L), line(109L, 4L)), true, userDetails));
+        verify(capacityReservationManager, never()).reserve(anyList());
+        verify(itemService, never()).addSavedItem(any(ItemTransactionRequestDto.class), any(UserDetailsImpl.class));
+    }
+
+    @Test
+    void place_unknownItem() {
+        assertThrows(ItemValidateInputException.class,
+            () -> placementService.place(request(line(108L, 1L), line(110L, 1L)), false, userDetails));
+    }
+
+    @Test
+    void place_notPositiveQuantity() {
+        assertThrows(ItemValidateInputException.class,
+            () -> placementService.place(request(line(108L, 0L)), false, userDetails));
+    }
+
+    @Test
+    void place_rejectsEmptyOrOversizedShipment() {
+        List<PlacementLineDto> tooMany = LongStream.rangeClosed(1, 4)
+            .mapToObj(quantity -> line(108L, quantity))
+            .collect(Collectors.toList());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> placementService.place(new PlacementRequestDto(40L, null), false, userDetails));
+        assertThrows(IllegalArgumentException.class,
+            () -> placementService.place(request(), false, userDetails));
+        assertThrows(IllegalArgumentException.class,
+            () -> placementService.place(new PlacementRequestDto(40L, tooMany), false, userDetails));
+        verify(freeSpaceIndex, never()).findFreeSpace(any(), anyLong());
+    }
+
+    private List<String> describe(List<PlacementAssignmentDto> assignments) {
+        return assignments.stream()
+            .map(a -> a.getItemId() + ":" + a.getWarehouseId() + ":" + a.getQuantity())
+            .collect(Collectors.toList());
+    }
+
+    private PlacementRequestDto request(PlacementLineDto... lines) {
+        return new PlacementRequestDto(40L, List.of(lines));
+    }
+
+    private PlacementLineDto line(Long itemId, Long quantity) {
+        return new PlacementLineDto(itemId, quantity);
+    }
+
+    private Item item(Long id, int volume) {
+        Item item = new Item();
+        item.setId(id);
+        item.setVolume(volume);
+        item.setAccountId(accountId);
+        return item;
+    }
+}
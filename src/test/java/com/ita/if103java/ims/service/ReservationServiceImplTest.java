@@ -0,0 +1,171 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.cache.ReservationLedger;
+import com.ita.if103java.ims.dao.ItemDao;
+import com.ita.if103java.ims.dao.ReservationDao;
+import com.ita.if103java.ims.dao.SavedItemDao;
+import com.ita.if103java.ims.dto.AvailableStockDto;
+import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
+import com.ita.if103java.ims.dto.ReservationDto;
+import com.ita.if103java.ims.dto.ReservationRequestDto;
+import com.ita.if103java.ims.entity.Reservation;
+import com.ita.if103java.ims.entity.SavedItem;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.dao.ReservationNotFoundException;
+import com.ita.if103java.ims.exception.service.ItemNotEnoughQuantityException;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.mapper.dto.ReservationDtoMapper;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.ReservationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReservationServiceImplTest {
+    private final Long accountId = 2L;
+
+    @Mock
+    private ItemDao itemDao;
+    @Mock
+    private SavedItemDao savedItemDao;
+    @Mock
+    private ReservationDao reservationDao;
+    @Mock
+    private ReservationLedger reservationLedger;
+    @Mock
+    private ItemService itemService;
+
+    private ReservationServiceImpl reservationService;
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        reservationService = new ReservationServiceImpl(itemDao, savedItemDao, reservationDao, reservationLedger,
+            new ReservationDtoMapper(), itemService);
+        ReflectionTestUtils.setField(reservationService, "defaultTtl", 60L);
+        ReflectionTestUtils.setField(reservationService, "maxTtl", 120L);
+
+        User user = new User();
+        user.setId(9L);
+        user.setAccountId(accountId);
+        userDetails = new UserDetailsImpl(user);
+
+        when(itemDao.isExistItemById(1L, accountId)).thenReturn(true);
+        when(savedItemDao.findSavedItemsByItemIds(List.of(1L))).thenReturn(List.of(
+            savedItem(5L, 10L, 10),
+            savedItem(6L, 11L, 8)));
+        when(savedItemDao.findSavedItemByItemId(1L)).thenReturn(List.of(
+            savedItem(5L, 10L, 10),
+            savedItem(6L, 11L, 8)));
+        when(reservationLedger.findReserved(accountId, 5L)).thenReturn(7);
+        when(reservationDao.create(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(100L + reservation.getSavedItemId());
+            return reservation;
+        });
+        when(reservationLedger.reserve(any(Reservation.class), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void reserve_splitsAcrossSavedItemsMostAvailableFirst() {
+        List<ReservationDto> reservations = reservationService.reserve(request(null, 10, null), userDetails);
+
+        assertEquals(List.of(6L, 5L),
+            reservations.stream().map(ReservationDto::getSavedItemId).collect(Collectors.toList()));
+        assertEquals(List.of(8, 2),
+            reservations.stream().map(ReservationDto::getQuantity).collect(Collectors.toList()));
+        ZonedDateTime expiresAt = reservations.get(0).getExpiresAt();
+        assertEquals(reservations.get(0).getCreatedAt().plusMinutes(60), expiresAt);
+    }
+
+    @Test
+    void reserve_failsWithoutEnoughAvailableQuantity() {
+        when(savedItemDao.findSavedItemByIdForUpdate(5L)).thenReturn(savedItem(5L, 10L, 10));
+
+        assertThrows(ItemNotEnoughQuantityException.class,
+            () -> reservationService.reserve(request(5L, 4, null), userDetails));
+        assertThrows(ItemNotEnoughQuantityException.class,
+            () -> reservationService.reserve(request(null, 12, null), userDetails));
+        assertThrows(ItemValidateInputException.class,
+            () -> reservationService.reserve(request(null, 1, 121L), userDetails));
+    }
+
+    @Test
+    void reserve_failsWhenLedgerRejectsConcurrentReservation() {
+        when(savedItemDao.findSavedItemByIdForUpdate(6L)).thenReturn(savedItem(6L, 11L, 8));
+        when(reservationLedger.reserve(any(Reservation.class), anyInt())).thenReturn(false);
+
+        assertThrows(ItemNotEnoughQuantityException.class,
+            () -> reservationService.reserve(request(6L, 8, null), userDetails));
+    }
+
+    @Test
+    void findAvailable_subtractsReservedQuantity() {
+        List<AvailableStockDto> available = reservationService.findAvailable(1L, userDetails);
+
+        assertEquals(3, available.get(0).getAvailable());
+        assertEquals(7, available.get(0).getReserved());
+        assertEquals(8, available.get(1).getAvailable());
+    }
+
+    @Test
+    void convert_shipsReservedQuantity() {
+        Reservation reservation = new Reservation(accountId, 1L, 5L, 4, "order-1", 9L, ZonedDateTime.now(),
+            ZonedDateTime.now().plusMinutes(5));
+        reservation.setId(100L);
+        when(reservationLedger.findById(accountId, 100L)).thenReturn(Optional.of(reservation));
+        when(reservationDao.delete(100L, accountId)).thenReturn(true);
+        when(savedItemDao.findSavedItemById(5L)).thenReturn(savedItem(5L, 10L, 10));
+
+        reservationService.convert(100L, 41L, userDetails);
+
+        verify(reservationLedger).remove(accountId, 100L);
+        ArgumentCaptor<ItemTransactionRequestDto> itemTransaction =
+            ArgumentCaptor.forClass(ItemTransactionRequestDto.class);
+        verify(itemService).outcomeItem(itemTransaction.capture(), any(UserDetailsImpl.class));
+        assertEquals(5L, itemTransaction.getValue().getSavedItemId());
+        assertEquals(4L, itemTransaction.getValue().getQuantity());
+        assertEquals(41L, itemTransaction.getValue().getAssociateId());
+        assertEquals(10L, itemTransaction.getValue().getSourceWarehouseId());
+    }
+
+    @Test
+    void cancel_failsForUnknownReservation() {
+        when(reservationLedger.findById(accountId, 100L)).thenReturn(Optional.empty());
+
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.cancel(100L, userDetails));
+        verify(reservationDao, never()).delete(100L, accountId);
+    }
+
+    private ReservationRequestDto request(Long savedItemId, int quantity, Long ttlMinutes) {
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setItemId(1L);
+        request.setSavedItemId(savedItemId);
+        request.setQuantity(quantity);
+        request.setTtlMinutes(ttlMinutes);
+        return request;
+    }
+
+    private SavedItem savedItem(Long id, Long warehouseId, int quantity) {
+        SavedItem savedItem = new SavedItem(1L, quantity, warehouseId);
+        savedItem.setId(id);
+        return savedItem;
+    }
+}
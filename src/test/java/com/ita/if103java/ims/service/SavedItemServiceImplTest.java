@@ -2,14 +2,11 @@ package com.ita.if103java.ims.service;
 
 import com.ita.if103java.ims.dao.AssociateDao;
 import com.ita.if103java.ims.dao.ItemDao;
-import com.ita.if103java.ims.dao.SavedItemDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
 import com.ita.if103java.ims.dto.ItemDto;
 import com.ita.if103java.ims.dto.ItemTransactionRequestDto;
 import com.ita.if103java.ims.entity.Associate;
 import com.ita.if103java.ims.entity.AssociateType;
-import com.ita.if103java.ims.entity.Item;
-import com.ita.if103java.ims.entity.SavedItem;
 import com.ita.if103java.ims.entity.TransactionType;
 import com.ita.if103java.ims.entity.Warehouse;
 import com.ita.if103java.ims.exception.service.SavedItemValidateInputException;
@@ -24,14 +21,9 @@ import org.mockito.Spy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 
@@ -40,8 +32,6 @@ public class SavedItemServiceImplTest {
     @Mock
     private ItemDao itemDao;
     @Mock
-    private SavedItemDao savedItemDao;
-    @Mock
     private WarehouseDao warehouseDao;
     @Mock
     private AssociateDao associateDao;
@@ -256,8 +246,8 @@ public class SavedItemServiceImplTest {
         itemDto.setVolume(5);
         Warehouse warehouse = new Warehouse();
         warehouse.setCapacity(100);
+        warehouse.setUsedVolume(20);
 
-        doReturn(20F).when(savedItemService).toVolumeOfPassSavedItems(transactionRequestDto.getDestinationWarehouseId(), accountId);
         when(warehouseDao.findById(transactionRequestDto.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
 
         assertEquals(savedItemService.isEnoughCapacityInWarehouse(transactionRequestDto,itemDto, accountId), true);
@@ -272,9 +262,9 @@ public class SavedItemServiceImplTest {
         ItemDto itemDto = new ItemDto();
         itemDto.setVolume(5);
         Warehouse warehouse = new Warehouse();
-        warehouse.setCapacity(0);
+        warehouse.setCapacity(25);
+        warehouse.setUsedVolume(20);
 
-        doReturn(20F).when(savedItemService).toVolumeOfPassSavedItems(transactionRequestDto.getDestinationWarehouseId(), accountId);
         when(warehouseDao.findById(transactionRequestDto.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
 
         assertEquals(savedItemService.isEnoughCapacityInWarehouse(transactionRequestDto,itemDto, accountId), false);
@@ -283,47 +273,22 @@ public class SavedItemServiceImplTest {
 
     @Test
     void toVolumeOfPassSavedItems(){
-        List<SavedItem> savedItems = getListOfSavedItems();
-        List<Item> items = getListOfItems();
-
-        when(savedItemDao.existSavedItemByWarehouseId(warehouseId)).thenReturn(true);
-        when(savedItemDao.findSavedItemByWarehouseId(warehouseId)).thenReturn(savedItems);
-
-        String itemIds = savedItems.stream().map(x -> x.getItemId().toString()).collect(Collectors.joining(","));
-
-        when(itemDao.findItemsById(itemIds, accountId)).thenReturn(items);
-
-        assertTrue(savedItemService.toVolumeOfPassSavedItems(warehouseId, accountId)>0);
-    }
-
-    @Test
-    void toVolumeOfPassSavedItems_NotExistSavedItemByWarehouseId(){
-        when(savedItemDao.existSavedItemByWarehouseId(warehouseId)).thenReturn(false);
-
-        assertEquals(0, savedItemService.toVolumeOfPassSavedItems(warehouseId, accountId));
-
-    }
-
-    @Test
-    void toVolumeOfPassSavedItems_SavedItemsEmpty(){
-        List<SavedItem> savedItems = new ArrayList<>();
-
-        when(savedItemDao.existSavedItemByWarehouseId(warehouseId)).thenReturn(true);
-        when(savedItemDao.findSavedItemByWarehouseId(warehouseId)).thenReturn(savedItems);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setUsedVolume(45);
 
-        assertEquals(0, savedItemService.toVolumeOfPassSavedItems(warehouseId, accountId));
+        when(warehouseDao.findById(warehouseId, accountId)).thenReturn(warehouse);
 
+        assertEquals(45, savedItemService.toVolumeOfPassSavedItems(warehouseId, accountId));
     }
 
     @Test
     void isLowSpaceInWarehouse(){
         Warehouse warehouse = new Warehouse();
         warehouse.setCapacity(40);
+        warehouse.setUsedVolume(10);
         ItemTransactionRequestDto itemTransaction = new ItemTransactionRequestDto();
         itemTransaction.setDestinationWarehouseId(37L);
 
-        doReturn(10F).when(savedItemService).toVolumeOfPassSavedItems(itemTransaction.getDestinationWarehouseId(),
-            accountId);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
 
         assertEquals(savedItemService.isLowSpaceInWarehouse(itemTransaction, accountId), false);
@@ -331,11 +296,12 @@ public class SavedItemServiceImplTest {
 
     @Test
     void isLowSpaceInWarehouse_VolumeZero(){
+        Warehouse warehouse = new Warehouse();
+        warehouse.setCapacity(40);
         ItemTransactionRequestDto itemTransaction = new ItemTransactionRequestDto();
         itemTransaction.setDestinationWarehouseId(37L);
 
-        doReturn(0F).when(savedItemService).toVolumeOfPassSavedItems(itemTransaction.getDestinationWarehouseId(),
-            accountId);
+        when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
 
         assertEquals(savedItemService.isLowSpaceInWarehouse(itemTransaction, accountId), true);
     }
@@ -344,11 +310,10 @@ public class SavedItemServiceImplTest {
     void isLowSpaceInWarehouse_WarehouseLoadMoreThenMaxWarehouseLoad(){
         Warehouse warehouse = new Warehouse();
         warehouse.setCapacity(2);
+        warehouse.setUsedVolume(10);
         ItemTransactionRequestDto itemTransaction = new ItemTransactionRequestDto();
         itemTransaction.setDestinationWarehouseId(37L);
 
-        doReturn(10F).when(savedItemService).toVolumeOfPassSavedItems(itemTransaction.getDestinationWarehouseId(),
-            accountId);
         when(warehouseDao.findById(itemTransaction.getDestinationWarehouseId(), accountId)).thenReturn(warehouse);
 
         assertEquals(savedItemService.isLowSpaceInWarehouse(itemTransaction, accountId), true);
@@ -392,70 +357,4 @@ public class SavedItemServiceImplTest {
         assertEquals(savedItemService.existInAccount(itemTransaction, accountId), false);
     }
 
-    private List<Item> getListOfItems(){
-        List<Item> items = new ArrayList<>();
-
-        Item trout = new Item();
-        trout.setName("Fish-Trout");
-        trout.setDescription("fresh trout");
-        trout.setAccountId(accountId);
-        trout.setUnit("box");
-        trout.setActive(true);
-        trout.setVolume(4);
-        trout.setId(109L);
-
-        items.add(trout);
-
-        Item salmon = new Item();
-        salmon.setName("Fish-Salmon");
-        salmon.setDescription("fresh salmon");
-        salmon.setAccountId(accountId);
-        salmon.setUnit("box");
-        trout.setActive(true);
-        salmon.setVolume(5);
-        salmon.setId(110L);
-
-        items.add(salmon);
-
-        Item catfish = new Item();
-        catfish.setName("Catfish");
-        catfish.setDescription("fresh salmon");
-        catfish.setAccountId(accountId);
-        catfish.setUnit("box");
-        catfish.setVolume(5);
-        catfish.setActive(true);
-        catfish.setId(111L);
-        items.add(catfish);
-
-        return items;
-    }
-    private List<SavedItem> getListOfSavedItems(){
-        List<SavedItem> items = new ArrayList<>();
-
-        SavedItem trout = new SavedItem();
-        trout.setId(70L);
-        trout.setQuantity(5);
-        trout.setItemId(109L);
-        trout.setWarehouseId(37L);
-
-        items.add(trout);
-
-        SavedItem salmon = new SavedItem();
-        salmon.setId(71L);
-        salmon.setQuantity(5);
-        salmon.setItemId(110L);
-        salmon.setWarehouseId(38L);
-
-        items.add(salmon);
-
-        SavedItem catfish = new SavedItem();
-        catfish.setId(72L);
-        catfish.setQuantity(5);
-        catfish.setItemId(111L);
-        catfish.setWarehouseId(39L);
-
-        items.add(catfish);
-        return items;
-    }
-
 }
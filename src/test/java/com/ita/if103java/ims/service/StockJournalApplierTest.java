@@ -0,0 +1,171 @@
+package com.ita.if103java.ims.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.dao.JournalCheckpointDao;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.dto.ItemTransactionBatchResultDto;
+import com.ita.if103java.ims.entity.StockJournalEntry;
+import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.exception.dao.CRUDException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.StockJournal;
+import com.ita.if103java.ims.service.impl.StockJournalApplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StockJournalApplierTest {
+    @Mock
+    private StockJournal stockJournal;
+    @Mock
+    private ItemTransactionBatchService itemTransactionBatchService;
+    @Mock
+    private JournalCheckpointDao journalCheckpointDao;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockJournalApplier stockJournalApplier;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(stockJournal.getNode()).thenReturn("node-1");
+        stockJournalApplier = new StockJournalApplier(stockJournal, itemTransactionBatchService,
+            journalCheckpointDao, new TransactionTemplate(transactionManager), new ObjectMapper());
+        ReflectionTestUtils.setField(stockJournalApplier, "maxLines", 10);
+    }
+
+    @Test
+    void applyPending_appliesEntriesAsOneBatchWithCheckpoint() {
+        when(stockJournal.next(10)).thenReturn(List.of(entry(4L, 2), entry(5L, 1)), List.of());
+        when(itemTransactionBatchService.apply(anyList(), any(UserDetailsImpl.class)))
+            .thenReturn(List.of(new ItemTransactionBatchResultDto(0, TransactionType.IN)));
+
+        stockJournalApplier.applyPending();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ItemTransactionBatchLineDto>> lines = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<UserDetailsImpl> worker = ArgumentCaptor.forClass(UserDetailsImpl.class);
+        InOrder inOrder = inOrder(itemTransactionBatchService, journalCheckpointDao, stockJournal);
+        inOrder.verify(itemTransactionBatchService).apply(lines.capture(), worker.capture());
+        inOrder.verify(journalCheckpointDao).updateAppliedSequence("node-1", 5L);
+        inOrder.verify(stockJournal).markApplied(5L);
+        assertEquals(3, lines.getValue().size());
+        assertEquals(9L, worker.getValue().getUser().getId());
+        assertEquals(2L, worker.getValue().getUser().getAccountId());
+    }
+
+    @Test
+    void applyPending_keepsEntriesWhenDatabaseFails() {
+        when(stockJournal.next(10)).thenReturn(List.of(entry(4L, 1)));
+        when(itemTransactionBatchService.apply(anyList(), any(UserDetailsImpl.class)))
+            .thenThrow(new CRUDException("Connection refused", new CannotGetJdbcConnectionException("Refused")));
+
+        stockJournalApplier.applyPending();
+
+        verify(journalCheckpointDao, never()).updateAppliedSequence(any(), anyLong());
+        verify(stockJournal, never()).markApplied(anyLong());
+    }
+
+    @Test
+    void applyPending_movesEntryRejectedByDatabaseToDeadLetters() {
+        when(stockJournal.next(10)).thenReturn(List.of(entry(4L, 1)), List.of());
+        when(itemTransactionBatchService.apply(anyList(), any(UserDetailsImpl.class)))
+            .thenThrow(new CRUDException("Failed", new DataIntegrityViolationException("Duplicate entry")));
+
+        stockJournalApplier.applyPending();
+
+        InOrder inOrder = inOrder(journalCheckpointDao, stockJournal);
+        inOrder.verify(journalCheckpointDao).createDeadLetter(eq("node-1"), argThat(entry -> entry.getSequence() == 4L),
+            any(), contains("Failed"));
+        inOrder.verify(journalCheckpointDao).updateAppliedSequence("node-1", 4L);
+        inOrder.verify(stockJournal).markApplied(4L);
+    }
+
+    @Test
+    void applyPending_movesEntryThatCanNotBeAppliedToDeadLetters() {
+        when(stockJournal.next(10)).thenReturn(List.of(entry(4L, 1)), List.of());
+        when(itemTransactionBatchService.apply(anyList(), any(UserDetailsImpl.class)))
+            .thenThrow(new NullPointerException());
+
+        stockJournalApplier.applyPending();
+
+        InOrder inOrder = inOrder(journalCheckpointDao, stockJournal);
+        inOrder.verify(journalCheckpointDao).createDeadLetter(eq("node-1"), argThat(entry -> entry.getSequence() == 4L),
+            contains("\"sequence\":4"), contains("NullPointerException"));
+        inOrder.verify(journalCheckpointDao).updateAppliedSequence("node-1", 4L);
+        inOrder.verify(stockJournal).markApplied(4L);
+    }
+
+    @Test
+    void applyPending_retriesFailedGroupEntryByEntry() {
+        when(stockJournal.next(10)).thenReturn(List.of(entry(4L, 1), entry(5L, 2), entry(6L, 1)), List.of());
+        when(itemTransactionBatchService.apply(anyList(), any(UserDetailsImpl.class))).thenAnswer(invocation -> {
+            List<ItemTransactionBatchLineDto> lines = invocation.getArgument(0);
+            if (lines.size() != 1) {
+                throw new IllegalStateException("Broken line");
+            }
+            return List.of(new ItemTransactionBatchResultDto(0, TransactionType.IN));
+        });
+
+        stockJournalApplier.applyPending();
+
+        InOrder inOrder = inOrder(journalCheckpointDao, stockJournal);
+        inOrder.verify(journalCheckpointDao).updateAppliedSequence("node-1", 4L);
+        inOrder.verify(stockJournal).markApplied(4L);
+        inOrder.verify(journalCheckpointDao).createDeadLetter(eq("node-1"), argThat(entry -> entry.getSequence() == 5L),
+            any(), contains("Broken line"));
+        inOrder.verify(journalCheckpointDao).updateAppliedSequence("node-1", 5L);
+        inOrder.verify(stockJournal).markApplied(5L);
+        inOrder.verify(journalCheckpointDao).updateAppliedSequence("node-1", 6L);
+        inOrder.verify(stockJournal).markApplied(6L);
+    }
+
+    @Test
+    void applyPending_keepsEntryWhenDeadLetterCanNotBeWritten() {
+        when(stockJournal.next(10)).thenReturn(List.of(entry(4L, 1)));
+        when(itemTransactionBatchService.apply(anyList(), any(UserDetailsImpl.class)))
+            .thenThrow(new NullPointerException());
+        doThrow(new CRUDException("Connection refused")).when(journalCheckpointDao)
+            .createDeadLetter(any(), any(), any(), any());
+
+        stockJournalApplier.applyPending();
+
+        verify(journalCheckpointDao, never()).updateAppliedSequence(any(), anyLong());
+        verify(stockJournal, never()).markApplied(anyLong());
+    }
+
+    private StockJournalEntry entry(long sequence, int lines) {
+        ItemTransactionBatchLineDto line = new ItemTransactionBatchLineDto();
+        line.setType(TransactionType.IN);
+        line.setItemId(7L);
+        line.setQuantity(1L);
+        return new StockJournalEntry(sequence, 2L, 9L, Collections.nCopies(lines, line));
+    }
+}
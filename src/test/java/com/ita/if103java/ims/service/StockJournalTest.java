@@ -0,0 +1,175 @@
+package com.ita.if103java.ims.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.if103java.ims.dao.JournalCheckpointDao;
+import com.ita.if103java.ims.dto.ItemTransactionBatchLineDto;
+import com.ita.if103java.ims.entity.StockJournalEntry;
+import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.exception.service.ItemValidateInputException;
+import com.ita.if103java.ims.exception.service.StockJournalFullException;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.StockJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class StockJournalTest {
+    private final Long accountId = 2L;
+
+    @TempDir
+    Path directory;
+    @Mock
+    private JournalCheckpointDao journalCheckpointDao;
+
+    private StockJournal stockJournal;
+    private UserDetailsImpl worker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        worker = worker(9L);
+        stockJournal = start(4096);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stockJournal.stop();
+    }
+
+    @Test
+    void append_acknowledgesFlushedEntriesOfWorkerTogether() {
+        assertEquals(1, stockJournal.append(List.of(line(TransactionType.IN, 3L)), worker).getSequence());
+        assertEquals(2, stockJournal.append(List.of(line(TransactionType.OUT, 4L)), worker).getSequence());
+        stockJournal.append(List.of(line(TransactionType.OUT, 5L)), worker(10L));
+
+        List<StockJournalEntry> entries = stockJournal.next(10);
+        assertEquals(List.of(1L, 2L), sequences(entries));
+        assertEquals(9L, entries.get(0).getWorkerId());
+        assertEquals(4L, entries.get(1).getLines().get(0).getQuantity());
+
+        stockJournal.markApplied(2);
+        assertEquals(List.of(3L), sequences(stockJournal.next(10)));
+        assertEquals(2, stockJournal.getStatus().getAppliedSequence());
+        assertEquals(3, stockJournal.getStatus().getSequence());
+    }
+
+    @Test
+    void start_recoversEntriesAfterCheckpoint() throws Exception {
+        for (long quantity = 1; quantity <= 3; quantity++) {
+            stockJournal.append(List.of(line(TransactionType.IN, quantity)), worker);
+        }
+        stockJournal.stop();
+        when(journalCheckpointDao.findAppliedSequence("node-1")).thenReturn(1L);
+
+        stockJournal = start(4096);
+
+        List<StockJournalEntry> entries = stockJournal.next(10);
+        assertEquals(List.of(2L, 3L), sequences(entries));
+        assertEquals(3L, entries.get(1).getLines().get(0).getQuantity());
+        assertEquals(TransactionType.IN, entries.get(1).getLines().get(0).getType());
+        assertEquals(4, stockJournal.append(List.of(line(TransactionType.IN, 1L)), worker).getSequence());
+    }
+
+    @Test
+    void markApplied_startsFullFileOverOnceDrained() throws Exception {
+        stockJournal.stop();
+        stockJournal = start(1024);
+        long sequence = fill();
+        assertTrue(sequence > 1);
+
+        stockJournal.markApplied(sequence);
+        assertEquals(sequence + 1, stockJournal.append(List.of(line(TransactionType.IN, 1L)), worker).getSequence());
+
+        // the stale records behind the new one are not read back
+        stockJournal.stop();
+        when(journalCheckpointDao.findAppliedSequence("node-1")).thenReturn(sequence);
+        stockJournal = start(1024);
+        assertEquals(List.of(sequence + 1), sequences(stockJournal.next(10)));
+    }
+
+    @Test
+    void append_rotatesUnappliedEntriesIntoOtherSegmentWhenFull() throws Exception {
+        stockJournal.stop();
+        stockJournal = start(1024);
+        long sequence = fill();
+
+        stockJournal.markApplied(sequence - 1);
+        assertEquals(sequence + 1, stockJournal.append(List.of(line(TransactionType.IN, 1L)), worker).getSequence());
+        assertEquals(List.of(sequence, sequence + 1), sequences(stockJournal.next(10)));
+
+        stockJournal.stop();
+        when(journalCheckpointDao.findAppliedSequence("node-1")).thenReturn(sequence - 1);
+        stockJournal = start(1024);
+        assertEquals(List.of(sequence, sequence + 1), sequences(stockJournal.next(10)));
+        assertEquals(sequence + 2, stockJournal.append(List.of(line(TransactionType.IN, 1L)), worker).getSequence());
+    }
+
+    @Test
+    void append_rejectsIncompleteLines() {
+        ItemTransactionBatchLineDto line = line(TransactionType.OUT, 1L);
+        line.setSavedItemId(null);
+
+        assertThrows(ItemValidateInputException.class, () -> stockJournal.append(List.of(line), worker));
+        assertThrows(ItemValidateInputException.class, () -> stockJournal.append(List.of(), worker));
+        assertEquals(0, stockJournal.getStatus().getSequence());
+    }
+
+    private StockJournal start(int size) throws Exception {
+        StockJournal journal = new StockJournal(journalCheckpointDao, new ObjectMapper());
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "node", "node-1");
+        ReflectionTestUtils.setField(journal, "path", directory.resolve("stock.journal").toString());
+        ReflectionTestUtils.setField(journal, "size", size);
+        ReflectionTestUtils.setField(journal, "flushInterval", 1L);
+        ReflectionTestUtils.setField(journal, "maxLines", 10);
+        journal.start();
+        return journal;
+    }
+
+    private long fill() {
+        long sequence = 0;
+        while (true) {
+            try {
+                sequence = stockJournal.append(List.of(line(TransactionType.IN, 1L)), worker).getSequence();
+            } catch (StockJournalFullException e) {
+                return sequence;
+            }
+        }
+    }
+
+    private List<Long> sequences(List<StockJournalEntry> entries) {
+        return entries.stream().map(StockJournalEntry::getSequence).collect(Collectors.toList());
+    }
+
+    private UserDetailsImpl worker(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setAccountId(accountId);
+        return new UserDetailsImpl(user);
+    }
+
+    private ItemTransactionBatchLineDto line(TransactionType type, Long quantity) {
+        ItemTransactionBatchLineDto line = new ItemTransactionBatchLineDto();
+        line.setType(type);
+        line.setItemId(7L);
+        line.setSavedItemId(30L);
+        line.setQuantity(quantity);
+        line.setAssociateId(40L);
+        line.setDestinationWarehouseId(37L);
+        return line;
+    }
+}
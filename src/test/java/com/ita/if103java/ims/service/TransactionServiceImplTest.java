@@ -0,0 +1,149 @@
+package com.ita.if103java.ims.service;
+
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
+import com.ita.if103java.ims.dao.TransactionDao;
+import com.ita.if103java.ims.dto.AccountDto;
+import com.ita.if103java.ims.dto.TransactionDto;
+import com.ita.if103java.ims.dto.TransactionFilterDto;
+import com.ita.if103java.ims.dto.WarehouseDto;
+import com.ita.if103java.ims.entity.TransactionType;
+import com.ita.if103java.ims.entity.User;
+import com.ita.if103java.ims.entity.Warehouse;
+import com.ita.if103java.ims.exception.dao.WarehouseNotFoundException;
+import com.ita.if103java.ims.mapper.dto.WarehouseDtoMapper;
+import com.ita.if103java.ims.security.UserDetailsImpl;
+import com.ita.if103java.ims.service.impl.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class TransactionServiceImplTest {
+    @Mock
+    private TransactionDao transactionDao;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private UserService userService;
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private WarehouseService warehouseService;
+    @Mock
+    private AssociateService associateService;
+    @Mock
+    private WarehouseTreeCache warehouseTreeCache;
+    @Mock
+    private WarehouseDtoMapper warehouseDtoMapper;
+
+    @InjectMocks
+    private TransactionServiceImpl transactionService;
+
+    private UserDetailsImpl userDetails;
+    private TransactionFilterDto filter;
+    private Pageable pageable;
+    private AccountDto account;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        User user = new User();
+        user.setAccountId(2L);
+        userDetails = new UserDetailsImpl(user);
+        filter = new TransactionFilterDto();
+        pageable = PageRequest.of(0, 20);
+        account = new AccountDto();
+
+        when(accountService.view(2L)).thenReturn(account);
+        for (long id = 10; id <= 11; id++) {
+            Warehouse warehouse = new Warehouse(id, "Shelf " + id, null, 10, true, 1L, 2L, 1L, true);
+            WarehouseDto warehouseDto = new WarehouseDto();
+            warehouseDto.setId(id);
+            warehouseDto.setName(warehouse.getName());
+            when(warehouseTreeCache.findById(id, 2L)).thenReturn(warehouse);
+            when(warehouseTreeCache.findPath(id, 2L)).thenReturn(List.of("Main", warehouse.getName()));
+            when(warehouseDtoMapper.toDto(warehouse)).thenReturn(warehouseDto);
+        }
+    }
+
+    @Test
+    void testFindAll_assemblesPageWithoutPerRowLookups() {
+        TransactionDto income = transaction(1L, TransactionType.IN, null, 10L);
+        TransactionDto move = transaction(2L, TransactionType.MOVE, 10L, 11L);
+        TransactionDto outcome = transaction(3L, TransactionType.OUT, 11L, null);
+        when(transactionDao.findHistory(2L, filter, pageable))
+            .thenReturn(new PageImpl<>(List.of(income, move, outcome), pageable, 3));
+
+        Page<TransactionDto> page = transactionService.findAll(filter, pageable, userDetails);
+
+        assertEquals(3, page.getTotalElements());
+        assertSame(account, move.getAccount());
+        assertEquals("Shelf 10", move.getMovedFrom().getName());
+        assertEquals(List.of("Main", "Shelf 11"), move.getMovedTo().getPath());
+        assertSame(income.getMovedTo(), move.getMovedFrom());
+        assertNull(income.getMovedFrom());
+        verify(accountService, times(1)).view(2L);
+        verify(warehouseTreeCache, times(1)).findById(10L, 2L);
+        verify(warehouseTreeCache, times(1)).findById(11L, 2L);
+        verifyNoInteractions(userService, itemService, associateService, warehouseService);
+    }
+
+    @Test
+    void testFindAll_unknownWarehouseKeepsId() {
+        TransactionDto outcome = transaction(1L, TransactionType.OUT, 12L, null);
+        when(warehouseTreeCache.findById(12L, 2L)).thenThrow(WarehouseNotFoundException.class);
+        when(transactionDao.findHistory(2L, filter, pageable))
+            .thenReturn(new PageImpl<>(List.of(outcome), pageable, 1));
+
+        transactionService.findAll(filter, pageable, userDetails);
+
+        assertEquals(12L, outcome.getMovedFrom().getId());
+        assertNull(outcome.getMovedFrom().getName());
+    }
+
+    @Test
+    void testFindAll_emptyPage() {
+        when(transactionDao.findHistory(2L, filter, pageable)).thenReturn(Page.empty(pageable));
+
+        Page<TransactionDto> page = transactionService.findAll(filter, pageable, userDetails);
+
+        assertEquals(0, page.getTotalElements());
+        verify(accountService, never()).view(any());
+    }
+
+    private TransactionDto transaction(Long id, TransactionType type, Long movedFrom, Long movedTo) {
+        TransactionDto transaction = new TransactionDto();
+        transaction.setId(id);
+        transaction.setType(type);
+        transaction.setMovedFrom(warehouse(movedFrom));
+        transaction.setMovedTo(warehouse(movedTo));
+        return transaction;
+    }
+
+    private WarehouseDto warehouse(Long id) {
+        if (id == null) {
+            return null;
+        }
+        WarehouseDto warehouse = new WarehouseDto();
+        warehouse.setId(id);
+        return warehouse;
+    }
+}
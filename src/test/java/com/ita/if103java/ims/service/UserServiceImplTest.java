@@ -1,5 +1,6 @@
 package com.ita.if103java.ims.service;
 
+import com.ita.if103java.ims.cache.TextSearchIndex;
 import com.ita.if103java.ims.dao.AccountDao;
 import com.ita.if103java.ims.dao.AccountTypeDao;
 import com.ita.if103java.ims.dao.AddressDao;
@@ -80,6 +81,8 @@ public class UserServiceImplTest {
     private WarehouseDao warehouseDao;
     @Mock
     private MailService mailService;
+    @Mock
+    private TextSearchIndex textSearchIndex;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -116,7 +119,8 @@ public class UserServiceImplTest {
             associateDao,
             savedItemDao,
             itemDao,
-            warehouseDao
+            warehouseDao,
+            textSearchIndex
         );
 
         when(this.passwordEncoder.encode(anyString()))
@@ -285,6 +289,7 @@ public class UserServiceImplTest {
             verify(warehouseDao).hardDelete(accountId);
             verify(userDao).hardDelete(accountId);
             verify(accountDao).hardDelete(accountId);
+            verify(textSearchIndex).evict(accountId);
         }
     }
 
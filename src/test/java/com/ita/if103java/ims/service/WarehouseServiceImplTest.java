@@ -1,5 +1,11 @@
 package com.ita.if103java.ims.service;
 
+import com.ita.if103java.ims.cache.AutocompleteIndex;
+import com.ita.if103java.ims.cache.FreeSpaceIndex;
+import com.ita.if103java.ims.cache.LowStockIndex;
+import com.ita.if103java.ims.cache.TextSearchIndex;
+import com.ita.if103java.ims.cache.WarehouseLoadSnapshot;
+import com.ita.if103java.ims.cache.WarehouseTreeCache;
 import com.ita.if103java.ims.dao.AddressDao;
 import com.ita.if103java.ims.dao.SavedItemDao;
 import com.ita.if103java.ims.dao.WarehouseDao;
@@ -37,7 +43,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -80,7 +85,17 @@ public class WarehouseServiceImplTest {
     @Mock
     private WarehouseDtoMapper warehouseDtoMapper;
     @Mock
-    private SavedItemService savedItemService;
+    private WarehouseTreeCache warehouseTreeCache;
+    @Mock
+    private FreeSpaceIndex freeSpaceIndex;
+    @Mock
+    private WarehouseLoadSnapshot warehouseLoadSnapshot;
+    @Mock
+    private LowStockIndex lowStockIndex;
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+    @Mock
+    private TextSearchIndex textSearchIndex;
 
     @InjectMocks
     private WarehouseServiceImpl warehouseService;
@@ -141,7 +156,7 @@ public class WarehouseServiceImplTest {
         int maxDepth = userDetails.getAccountType().getMaxWarehouseDepth();
         assertNotNull(warehouseDto.getParentID());
         when(warehouseDao.findById(anyLong(), eq(accountId))).thenReturn(level3);
-        when(warehouseDao.findLevelByParentID(level4DTO.getParentID())).thenReturn(3);
+        when(warehouseTreeCache.findLevel(level4DTO.getParentID(), accountId)).thenReturn(3);
         assertFalse(level < maxDepth);
         MaxWarehouseDepthLimitReachedException exception = assertThrows(MaxWarehouseDepthLimitReachedException.class, () -> {
             warehouseService.add(level4DTO, userDetails);
@@ -321,24 +336,10 @@ public class WarehouseServiceImplTest {
         user.setId(1L);
         UserDetailsImpl userDetails = new UserDetailsImpl(user);
         Long accountId = user.getAccountId();
-        List<Warehouse> usefulWarehouse = new ArrayList<>();
-        Warehouse sectionA = new Warehouse(3L, "SectionA", "some info", 100, true, 1L, 2L, 1L, true);
-        usefulWarehouse.add(sectionA);
-        Warehouse sectionB = new Warehouse(4L, "SectionB", "some info", 100, true, 2L, 2L, 2L, true);
-        usefulWarehouse.add(sectionB);
-        List<Warehouse> usefulTopWarehouse = new ArrayList<>();
-        Warehouse warehouseA = new Warehouse(1L, "WarehouseA", "some info", 0, false, null, 2L, 1L, true);
-        Warehouse warehouseB = new Warehouse(2L, "WarehouseB", "some info", 0, false, null, 2L, 2L, true);
-        usefulTopWarehouse.add(warehouseA);
-        usefulTopWarehouse.add(warehouseB);
-        usefulTopWarehouse.add(sectionA);
-        usefulTopWarehouse.add(sectionB);
-        when(warehouseDao.findUsefulTopWarehouse(capacity, accountId)).thenReturn(usefulWarehouse);
-        String ids = usefulWarehouse.stream().
-            map(x -> x.getTopWarehouseID().toString()).collect(Collectors.joining(","));
-        when(warehouseDao.findByTopWarehouseIDs(ids, accountId)).thenReturn(usefulTopWarehouse);
+        when(freeSpaceIndex.findFitting(accountId, capacity)).thenReturn(List.of(3L, 4L));
+        when(warehouseTreeCache.findPath(3L, accountId)).thenReturn(List.of("WarehouseA", "SectionA"));
+        when(warehouseTreeCache.findPath(4L, accountId)).thenReturn(List.of("WarehouseB", "SectionB"));
         List<UsefulWarehouseDto> usefulWarehouseDtos = warehouseService.findUsefulWarehouses(capacity, userDetails);
-        when(savedItemService.toVolumeOfPassSavedItems(anyLong(), anyLong())).thenReturn(5F);
         assertLinesMatch(usefulWarehouseDtos.get(0).getPath(), List.of("WarehouseA", "SectionA"));
         assertLinesMatch(usefulWarehouseDtos.get(1).getPath(), List.of("WarehouseB", "SectionB"));
     }